@@ -1,7 +1,7 @@
 import logging
 from prometheus_client import start_http_server, Counter, Histogram, Gauge
 from consumer import Consumer
-from producer import Producer
+from producer import Producer, pipeline_headers
 from detector import Detector
 
 # Configure logging
@@ -39,7 +39,7 @@ def main():
                 anomaly_event = detector.process(data)
 
                 if anomaly_event:
-                    producer.send(anomaly_event)
+                    producer.send(anomaly_event, headers=pipeline_headers(message))
                     ANOMALIES_DETECTED.inc()
                     logger.warning(f"ANOMALY DETECTED for machine {data.get('machine_id')}, cycle {data.get('cycle')}")
 
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mantis.dashboard.model.AlertEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
@@ -15,6 +16,7 @@ public class KafkaConsumerService {
 
     private final MachineStateService machineStateService;
     private final ObjectMapper objectMapper;
+    private final PipelineLatency pipelineLatency;
 
     @KafkaListener(topics = "${app.topic.anomaly-events}", groupId = "${spring.kafka.consumer.group-id}")
     public void consumeAnomaly(String message) {
@@ -48,16 +50,18 @@ public class KafkaConsumerService {
     }
 
     @KafkaListener(topics = "${app.topic.alerts}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeAlert(String message) {
+    public void consumeAlert(ConsumerRecord<String, String> record) {
         try {
-            AlertEntity alert = objectMapper.readValue(message, AlertEntity.class);
+            AlertEntity alert = objectMapper.readValue(record.value(), AlertEntity.class);
             machineStateService.saveAlert(alert);
+            pipelineLatency.record(record.headers(), PipelineLatency.DASHBOARD_APPLY);
         } catch (Exception e) {
             log.error("Error processing alert", e);
         }
     }
 
-    @KafkaListener(topics = "${app.topic.sensor-raw}", groupId = "${spring.kafka.consumer.group-id}")
+    @KafkaListener(topics = {"${app.topic.sensor-raw}", "${app.topic.sensor-raw-critical}"},
+            groupId = "${spring.kafka.consumer.group-id}")
     public void consumeSensors(String message) {
         try {
             JsonNode node = objectMapper.readTree(message);
@@ -0,0 +1,59 @@
+package com.mantis.dashboard.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint {@code /actuator/pipelinelatency}: p50/p99 latency from
+ * the source timestamp to dashboard-apply.
+ */
+@Component
+@Endpoint(id = "pipelinelatency")
+@RequiredArgsConstructor
+public class PipelineLatencyEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public Map<String, StageLatency> stages() {
+        Map<String, StageLatency> stages = new TreeMap<>();
+        for (Timer timer : meterRegistry.find(PipelineLatency.METRIC).timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            StageLatency.StageLatencyBuilder stage = StageLatency.builder()
+                    .count(snapshot.count())
+                    .meanMs(snapshot.mean(TimeUnit.MILLISECONDS))
+                    .maxMs(snapshot.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                if (percentile.percentile() == 0.5) {
+                    stage.p50Ms(percentile.value(TimeUnit.MILLISECONDS));
+                } else if (percentile.percentile() == 0.99) {
+                    stage.p99Ms(percentile.value(TimeUnit.MILLISECONDS));
+                }
+            }
+            stages.put(timer.getId().getTag("stage"), stage.build());
+        }
+        return stages;
+    }
+
+    @Data
+    @Builder
+    public static class StageLatency {
+        private long count;
+        private double p50Ms;
+        private double p99Ms;
+        private double meanMs;
+        private double maxMs;
+    }
+}
@@ -2,7 +2,7 @@ import logging
 
 from prometheus_client import start_http_server, Counter, Histogram, Gauge
 from consumer import Consumer
-from producer import Producer
+from producer import Producer, pipeline_headers
 from extractor import Extractor
 
 # Configure logging
@@ -39,7 +39,7 @@ def main():
                 extracted_data = extractor.process(data)
 
                 if extracted_data:
-                    producer.send(extracted_data)
+                    producer.send(extracted_data, headers=pipeline_headers(message))
                     logger.info(f"Extracted features for machine {data.get('machine_id')}, cycle {data.get('cycle')}")
 
                 MESSAGES_PROCESSED.inc()
@@ -10,6 +10,11 @@ class Producer:
             value_serializer=lambda v: json.dumps(v).encode("utf-8"),
         )
 
-    def send(self, data):
-        self.producer.send(Config.OUTPUT_TOPIC, data)
+    def send(self, data, headers=None):
+        self.producer.send(Config.OUTPUT_TOPIC, data, headers=headers)
         self.producer.flush()
+
+
+def pipeline_headers(message):
+    """Pipeline latency stamps (mantis-ts-*) to forward from an input record."""
+    return [(key, value) for key, value in (message.headers or []) if key.startswith("mantis-ts-")]
@@ -0,0 +1,37 @@
+package com.mantis.ingestion.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sérialiseur des clés Kafka (assetId) avec cache des octets encodés.
+ *
+ * Le nombre d'assets est borné et chacun publie en continu : l'encodage
+ * UTF-8 de la clé est fait une fois par asset au lieu d'une fois par
+ * enregistrement. Le producer ne modifie pas le tableau retourné, qui peut
+ * donc être partagé entre envois.
+ */
+public class AssetKeySerializer implements Serializer<String> {
+
+    static final int MAX_CACHED_KEYS = 100_000;
+
+    private final Cache<String, byte[]> encodedKeys = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_KEYS)
+            .build();
+
+    @Override
+    public byte[] serialize(String topic, String key) {
+        if (key == null) {
+            return null;
+        }
+        byte[] encoded = encodedKeys.getIfPresent(key);
+        if (encoded == null) {
+            encoded = key.getBytes(StandardCharsets.UTF_8);
+            encodedKeys.put(key, encoded);
+        }
+        return encoded;
+    }
+}
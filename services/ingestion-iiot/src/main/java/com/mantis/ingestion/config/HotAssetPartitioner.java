@@ -0,0 +1,93 @@
+package com.mantis.ingestion.config;
+
+import com.mantis.ingestion.model.SensorData;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Partitionneur des données de capteurs.
+ *
+ * Par défaut, même calcul que le partitionneur Kafka pour une clé non nulle
+ * (murmur2 des octets de la clé) : toutes les mesures d'un asset vont sur la
+ * même partition, dans l'ordre.
+ *
+ * Un asset déclaré chaud ({@link #HOT_ASSETS_CONFIG}) est réparti sur
+ * {@link #HOT_ASSET_SPREAD_CONFIG} partitions consécutives à partir de sa
+ * partition de base, selon son sensorId : l'ordre reste garanti par capteur,
+ * plus par asset. Les enveloppes du mode micro-batch restent sur la partition
+ * de base.
+ */
+public class HotAssetPartitioner implements Partitioner {
+
+    /**
+     * AssetIds chauds, séparés par des virgules.
+     */
+    public static final String HOT_ASSETS_CONFIG = "mantis.partitioner.hot-assets";
+
+    /**
+     * Nombre de partitions sur lesquelles un asset chaud est réparti.
+     */
+    public static final String HOT_ASSET_SPREAD_CONFIG = "mantis.partitioner.hot-asset-spread";
+
+    private Set<String> hotAssets = Set.of();
+    private int spread = 1;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object assets = configs.get(HOT_ASSETS_CONFIG);
+        if (assets != null) {
+            hotAssets = Arrays.stream(assets.toString().split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .map(String::toLowerCase)
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+        Object hotSpread = configs.get(HOT_ASSET_SPREAD_CONFIG);
+        if (hotSpread != null) {
+            spread = Integer.parseInt(hotSpread.toString().trim());
+            if (spread < 1) {
+                throw new IllegalArgumentException(HOT_ASSET_SPREAD_CONFIG + " must be >= 1, got " + spread);
+            }
+        }
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+                         Cluster cluster) {
+        int partitions = cluster.partitionCountForTopic(topic);
+        if (keyBytes == null) {
+            return randomAvailablePartition(topic, partitions, cluster);
+        }
+
+        int base = Utils.toPositive(Utils.murmur2(keyBytes)) % partitions;
+        if (spread == 1 || !(value instanceof SensorData sensorData) || sensorData.getSensorId() == null
+                || !hotAssets.contains(key)) {
+            return base;
+        }
+
+        int hash = sensorData.getSensorId().hashCode() * 0x9E3779B9;
+        int offset = Math.floorMod(hash ^ (hash >>> 16), Math.min(spread, partitions));
+        return (base + offset) % partitions;
+    }
+
+    private static int randomAvailablePartition(String topic, int partitions, Cluster cluster) {
+        List<PartitionInfo> available = cluster.availablePartitionsForTopic(topic);
+        if (available.isEmpty()) {
+            return ThreadLocalRandom.current().nextInt(partitions);
+        }
+        return available.get(ThreadLocalRandom.current().nextInt(available.size())).partition();
+    }
+
+    @Override
+    public void close() {
+    }
+}
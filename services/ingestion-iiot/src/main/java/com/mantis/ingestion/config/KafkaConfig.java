@@ -1,17 +1,20 @@
 package com.mantis.ingestion.config;
 
 import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import com.mantis.ingestion.service.KafkaProducerPool;
 import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -41,21 +44,126 @@ public class KafkaConfig {
     @Value("${spring.kafka.producer.linger-ms}")
     private int lingerMs;
 
+    @Value("${spring.application.name}")
+    private String applicationName;
+
+    @Value("${mantis.ingestion.kafka.producer-shards}")
+    private int producerShards;
+
+    @Value("${mantis.ingestion.kafka.max-block-ms}")
+    private int maxBlockMs;
+
+    @Value("${mantis.ingestion.kafka.request-timeout-ms}")
+    private int requestTimeoutMs;
+
+    @Value("${mantis.ingestion.kafka.delivery-timeout-ms}")
+    private int deliveryTimeoutMs;
+
+    @Value("${mantis.ingestion.kafka.micro-batch.enabled}")
+    private boolean microBatchEnabled;
+
+    @Value("${mantis.ingestion.kafka.partitioner.hot-assets}")
+    private String hotAssets;
+
+    @Value("${mantis.ingestion.kafka.partitioner.hot-asset-spread}")
+    private int hotAssetSpread;
+
+    @Value("${mantis.ingestion.kafka.lanes.critical.enabled}")
+    private boolean criticalLaneEnabled;
+
+    @Value("${mantis.ingestion.kafka.lanes.critical.linger-ms}")
+    private int criticalLingerMs;
+
+    @Value("${mantis.ingestion.kafka.lanes.critical.batch-size}")
+    private int criticalBatchSize;
+
+    @Value("${mantis.ingestion.kafka.lanes.critical.compression-type}")
+    private String criticalCompressionType;
+
+    @Value("${mantis.ingestion.kafka.lanes.bulk.linger-ms}")
+    private int bulkLingerMs;
+
+    @Value("${mantis.ingestion.kafka.lanes.bulk.batch-size}")
+    private int bulkBatchSize;
+
+    @Value("${mantis.ingestion.kafka.lanes.bulk.compression-type}")
+    private String bulkCompressionType;
+
     /**
-     * Configure le ProducerFactory pour les messages SensorData.
+     * Configure le ProducerFactory pour les messages SensorData (shard 0).
      */
+    @Bean
+    public ProducerFactory<String, SensorData> sensorDataProducerFactory(
+            io.micrometer.core.instrument.MeterRegistry meterRegistry) {
+        return producerFactory(0, SensorDataJsonSerializer.class, "-shard-", meterRegistry);
+    }
+
     /**
-     * Configure le ProducerFactory pour les messages SensorData.
+     * KafkaTemplate pour l'envoi de données de capteurs (shard 0).
      */
     @Bean
-    public ProducerFactory<String, SensorData> sensorDataProducerFactory(
+    public KafkaTemplate<String, SensorData> sensorDataKafkaTemplate(
+            io.micrometer.core.instrument.MeterRegistry meterRegistry) {
+        return new KafkaTemplate<>(sensorDataProducerFactory(meterRegistry));
+    }
+
+    /**
+     * Pool de producers : le template du shard 0 plus un producer par shard
+     * supplémentaire. Chaque producer a son client.id, ses métriques natives
+     * sont donc distinguées par shard. En mode micro-batch, chaque shard a en
+     * plus un producer d'enveloppes.
+     *
+     * Avec la voie critique, un producer dédié (linger court, petits batches)
+     * s'ajoute au pool, et les shards, qui ne portent plus que la télémétrie
+     * de masse, prennent le réglage {@code lanes.bulk}.
+     */
+    @Bean
+    public KafkaProducerPool sensorDataProducerPool(
+            io.micrometer.core.instrument.MeterRegistry meterRegistry) {
+        List<KafkaTemplate<String, SensorData>> templates = new ArrayList<>();
+        templates.add(sensorDataKafkaTemplate(meterRegistry));
+        for (int shard = 1; shard < producerShards; shard++) {
+            templates.add(new KafkaTemplate<>(
+                    producerFactory(shard, SensorDataJsonSerializer.class, "-shard-", meterRegistry)));
+        }
+
+        List<KafkaTemplate<String, SensorDataEnvelope>> envelopeTemplates = new ArrayList<>();
+        if (microBatchEnabled) {
+            for (int shard = 0; shard < producerShards; shard++) {
+                envelopeTemplates.add(new KafkaTemplate<>(
+                        producerFactory(shard, SensorDataEnvelopeSerializer.class, "-envelope-shard-", meterRegistry)));
+            }
+        }
+        if (!criticalLaneEnabled) {
+            return new KafkaProducerPool(templates, envelopeTemplates);
+        }
+
+        DefaultKafkaProducerFactory<String, SensorData> criticalFactory =
+                producerFactory(0, SensorDataJsonSerializer.class, "-critical-", meterRegistry);
+        criticalFactory.updateConfigs(Map.of(
+                ProducerConfig.CLIENT_ID_CONFIG, applicationName + "-critical",
+                ProducerConfig.LINGER_MS_CONFIG, criticalLingerMs,
+                ProducerConfig.BATCH_SIZE_CONFIG, criticalBatchSize,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, criticalCompressionType));
+        return new KafkaProducerPool(templates, envelopeTemplates, new KafkaTemplate<>(criticalFactory));
+    }
+
+    private <V> DefaultKafkaProducerFactory<String, V> producerFactory(
+            int shard, Class<? extends Serializer<V>> valueSerializer, String clientIdInfix,
             io.micrometer.core.instrument.MeterRegistry meterRegistry) {
         Map<String, Object> configProps = new HashMap<>();
 
         // Configuration de base
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, AssetKeySerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer);
+
+        // Partitionnement par asset, assets chauds répartis par capteur
+        configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, HotAssetPartitioner.class);
+        configProps.put(HotAssetPartitioner.HOT_ASSETS_CONFIG, hotAssets);
+        configProps.put(HotAssetPartitioner.HOT_ASSET_SPREAD_CONFIG, hotAssetSpread);
+        // client.id connu même avec un seul shard : ProducerAutoTuner filtre les métriques dessus
+        configProps.put(ProducerConfig.CLIENT_ID_CONFIG, applicationName + clientIdInfix + shard);
 
         // Fiabilité
         configProps.put(ProducerConfig.ACKS_CONFIG, acks);
@@ -63,29 +171,20 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
 
-        // Performance
-        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
-        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
-        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
-        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432); // 32MB
+        // Délais bornés : broker injoignable, l'envoi échoue avant que les appelants
+        // ne s'accumulent, et le circuit breaker kafka enregistre l'échec
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
 
-        // Configuration du sérialiseur JSON
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        // Performance (voie de masse si la voie critique a son propre producer)
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, criticalLaneEnabled ? bulkCompressionType : compressionType);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, criticalLaneEnabled ? bulkBatchSize : batchSize);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, criticalLaneEnabled ? bulkLingerMs : lingerMs);
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432); // 32MB
 
-        DefaultKafkaProducerFactory<String, SensorData> factory = new DefaultKafkaProducerFactory<>(configProps);
+        DefaultKafkaProducerFactory<String, V> factory = new DefaultKafkaProducerFactory<>(configProps);
         factory.addListener(new org.springframework.kafka.core.MicrometerProducerListener<>(meterRegistry));
         return factory;
     }
-
-    /**
-     * KafkaTemplate pour l'envoi de données de capteurs.
-     */
-    /**
-     * KafkaTemplate pour l'envoi de données de capteurs.
-     */
-    @Bean
-    public KafkaTemplate<String, SensorData> sensorDataKafkaTemplate(
-            io.micrometer.core.instrument.MeterRegistry meterRegistry) {
-        return new KafkaTemplate<>(sensorDataProducerFactory(meterRegistry));
-    }
 }
@@ -0,0 +1,307 @@
+package com.mantis.ingestion.config;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.mantis.ingestion.exception.PayloadTooLargeException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Décompression des corps de requête de l'API d'ingestion.
+ *
+ * Les passerelles connectées en cellulaire paient les octets montants :
+ * elles peuvent envoyer leurs batchs avec {@code Content-Encoding: gzip},
+ * {@code zstd} ou {@code lz4} (format frame). Le corps est décompressé au fil
+ * de la lecture par le parser JSON, sans tampon intermédiaire ; en aval, la
+ * requête est vue comme non compressée (Content-Encoding et Content-Length
+ * sont retirés).
+ *
+ * Quelques Ko compressés peuvent se décompresser en plusieurs Go : le corps
+ * décompressé est plafonné à {@code max-decompressed-bytes}, au-delà la
+ * lecture échoue avec {@link PayloadTooLargeException} (HTTP 413).
+ */
+@Slf4j
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    static final String INGEST_PATH_PREFIX = "/api/v1/ingest";
+
+    public static final String GZIP = "gzip";
+    public static final String ZSTD = "zstd";
+    public static final String LZ4 = "lz4";
+    public static final String IDENTITY = "identity";
+
+    public static final List<String> SUPPORTED_ENCODINGS = List.of(GZIP, ZSTD, LZ4);
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    @Value("${mantis.ingestion.http.decompression.enabled}")
+    private boolean enabled;
+
+    @Value("${mantis.ingestion.http.decompression.max-decompressed-bytes}")
+    private long maxDecompressedBytes;
+
+    private final Map<String, Counter> requestCounters;
+
+    public RequestDecompressionFilter(MeterRegistry meterRegistry) {
+        this.requestCounters = Map.of(
+                GZIP, decompressedRequestsCounter(meterRegistry, GZIP),
+                ZSTD, decompressedRequestsCounter(meterRegistry, ZSTD),
+                LZ4, decompressedRequestsCounter(meterRegistry, LZ4));
+    }
+
+    private static Counter decompressedRequestsCounter(MeterRegistry meterRegistry, String encoding) {
+        return Counter.builder("mantis.ingestion.http.decompressed.requests")
+                .description("Total compressed ingestion requests")
+                .tag("encoding", encoding)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(INGEST_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding == null || contentEncoding.isBlank()
+                || IDENTITY.equalsIgnoreCase(contentEncoding.trim())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (!SUPPORTED_ENCODINGS.contains(encoding)) {
+            log.warn("Unsupported request Content-Encoding: {}", contentEncoding);
+            response.setHeader(HttpHeaders.ACCEPT_ENCODING, String.join(", ", SUPPORTED_ENCODINGS));
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE,
+                    "Unsupported Content-Encoding '" + contentEncoding + "', expected one of: "
+                            + String.join(", ", SUPPORTED_ENCODINGS));
+            return;
+        }
+
+        requestCounters.get(encoding).increment();
+        filterChain.doFilter(new DecompressingRequest(request, encoding, maxDecompressedBytes), response);
+    }
+
+    /**
+     * Ouvre un flux de décompression pour un Content-Encoding supporté.
+     *
+     * @param encoding codec (gzip, zstd, lz4)
+     * @param in       flux compressé
+     * @return flux décompressé, lu à la demande
+     * @throws IOException si l'en-tête du flux compressé est invalide
+     */
+    public static InputStream decode(String encoding, InputStream in) throws IOException {
+        return switch (encoding) {
+            case GZIP -> new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+            case ZSTD -> new ZstdInputStream(in);
+            case LZ4 -> new LZ4FrameInputStream(in);
+            default -> throw new IllegalArgumentException("Unsupported Content-Encoding: " + encoding);
+        };
+    }
+
+    /**
+     * Requête dont le corps est décompressé à la lecture.
+     */
+    private static class DecompressingRequest extends HttpServletRequestWrapper {
+
+        private final String encoding;
+        private final long maxBytes;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        DecompressingRequest(HttpServletRequest request, String encoding, long maxBytes) {
+            super(request);
+            this.encoding = encoding;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (reader != null) {
+                throw new IllegalStateException("getReader() has already been called for this request");
+            }
+            if (inputStream == null) {
+                inputStream = new DecompressingInputStream(encoding, getRequest().getInputStream(), maxBytes);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String characterEncoding = getCharacterEncoding();
+                Charset charset = characterEncoding != null
+                        ? Charset.forName(characterEncoding) : StandardCharsets.UTF_8;
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1L;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isRemovedHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isRemovedHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(DecompressingRequest::isRemovedHeader);
+            return Collections.enumeration(names);
+        }
+
+        private static boolean isRemovedHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * Adapte un flux de décompression à l'API {@link ServletInputStream}.
+     *
+     * Le décodeur est ouvert à la première lecture : un corps corrompu est
+     * signalé par le lecteur du corps (parser JSON) et non lors de la
+     * résolution des arguments du contrôleur. Les octets décompressés sont
+     * comptés : la lecture qui dépasse {@code maxBytes} échoue.
+     */
+    private static class DecompressingInputStream extends ServletInputStream {
+
+        private final String encoding;
+        private final ServletInputStream source;
+        private final long maxBytes;
+        private InputStream decoded;
+        private long bytesRead;
+        private boolean finished;
+
+        DecompressingInputStream(String encoding, ServletInputStream source, long maxBytes) {
+            this.encoding = encoding;
+            this.source = source;
+            this.maxBytes = maxBytes;
+        }
+
+        private InputStream decoded() throws IOException {
+            if (decoded == null) {
+                decoded = decode(encoding, source);
+            }
+            return decoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = decoded().read();
+            finished = b < 0;
+            if (!finished) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = decoded().read(b, off, len);
+            finished = n < 0;
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws PayloadTooLargeException {
+            bytesRead += n;
+            if (bytesRead > maxBytes) {
+                throw new PayloadTooLargeException(maxBytes);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decoded != null) {
+                decoded.close();
+            } else {
+                source.close();
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return source.isReady();
+        }
+
+        /**
+         * Lecture non bloquante : les notifications du flux compressé sont
+         * relayées. À la fin du flux compressé, le décodeur peut encore
+         * contenir des octets : le listener est appelé une dernière fois
+         * pour les lire avant {@code onAllDataRead}.
+         */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            source.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    readListener.onDataAvailable();
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    if (!finished) {
+                        readListener.onDataAvailable();
+                    }
+                    readListener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    readListener.onError(t);
+                }
+            });
+        }
+    }
+}
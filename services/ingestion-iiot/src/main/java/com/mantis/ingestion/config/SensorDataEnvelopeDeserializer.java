@@ -0,0 +1,73 @@
+package com.mantis.ingestion.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Désérialiseur Kafka du topic raw-sensor-data pour les consommateurs Java.
+ *
+ * Retourne toujours une liste de mesures : le contenu d'une enveloppe
+ * (en-tête {@link SensorDataEnvelope#FORMAT_HEADER}), ou une liste d'un
+ * élément pour un enregistrement {@link SensorData} seul. Les consommateurs
+ * n'ont donc pas à savoir si le mode micro-batch est activé côté ingestion.
+ */
+public class SensorDataEnvelopeDeserializer implements Deserializer<List<SensorData>> {
+
+    private static final byte[] FORMAT_V1 = SensorDataEnvelope.FORMAT_V1.getBytes(StandardCharsets.US_ASCII);
+
+    private final ObjectReader envelopeReader;
+    private final ObjectReader readingReader;
+
+    public SensorDataEnvelopeDeserializer() {
+        this(JacksonUtils.enhancedObjectMapper());
+    }
+
+    public SensorDataEnvelopeDeserializer(ObjectMapper objectMapper) {
+        this.envelopeReader = objectMapper.readerFor(SensorDataEnvelope.class);
+        this.readingReader = objectMapper.readerFor(SensorData.class);
+    }
+
+    /**
+     * Sans en-têtes, la valeur est lue comme une mesure seule.
+     */
+    @Override
+    public List<SensorData> deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public List<SensorData> deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            if (isEnvelope(headers)) {
+                SensorDataEnvelope envelope = envelopeReader.readValue(data);
+                return envelope.getReadings() != null ? envelope.getReadings() : List.of();
+            }
+            return List.of(readingReader.<SensorData>readValue(data));
+        } catch (IOException e) {
+            throw new SerializationException("Can't deserialize sensor data from topic [" + topic + "]", e);
+        }
+    }
+
+    private static boolean isEnvelope(Headers headers) {
+        if (headers == null) {
+            return false;
+        }
+        Header format = headers.lastHeader(SensorDataEnvelope.FORMAT_HEADER);
+        return format != null && Arrays.equals(format.value(), FORMAT_V1);
+    }
+}
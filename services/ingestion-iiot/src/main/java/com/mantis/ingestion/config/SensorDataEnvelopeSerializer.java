@@ -0,0 +1,25 @@
+package com.mantis.ingestion.config;
+
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Sérialiseur Kafka des {@link SensorDataEnvelope} du mode micro-batch.
+ *
+ * Les mesures sont écrites par {@link SensorDataJsonSerializer} : une mesure
+ * dans une enveloppe a les mêmes octets qu'envoyée seule.
+ */
+public class SensorDataEnvelopeSerializer implements Serializer<SensorDataEnvelope> {
+
+    private final SensorDataJsonSerializer readingSerializer = new SensorDataJsonSerializer();
+
+    @Override
+    public byte[] serialize(String topic, SensorDataEnvelope data) {
+        return readingSerializer.serializeEnvelope(topic, data);
+    }
+
+    @Override
+    public void close() {
+        readingSerializer.close();
+    }
+}
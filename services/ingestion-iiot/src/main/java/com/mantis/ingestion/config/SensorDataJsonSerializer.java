@@ -0,0 +1,491 @@
+package com.mantis.ingestion.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mantis.ingestion.model.SensorAggregate;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sérialiseur Kafka de {@link SensorData} écrit à la main.
+ *
+ * Produit exactement les mêmes octets que le {@link JsonSerializer} de Spring
+ * (ObjectMapper de {@link JacksonUtils#enhancedObjectMapper()}), sans
+ * réflexion ni String intermédiaire :
+ * <ul>
+ *   <li>champs dans l'ordre de déclaration, nulls omis
+ *       ({@code @JsonInclude(NON_NULL)}), puis les propriétés calculées
+ *       {@code valid} et {@code latencyMs} ;</li>
+ *   <li>instants au format du {@code @JsonFormat}, le préfixe à la seconde
+ *       étant mis en cache ;</li>
+ *   <li>UUID encodés directement depuis leurs deux longs ;</li>
+ *   <li>écriture dans un tampon réutilisé par thread : seul le tableau
+ *       retourné est alloué.</li>
+ * </ul>
+ * Les valeurs de {@code metadata} d'un type non géré ici sont déléguées à Jackson.
+ *
+ * Les enveloppes ({@link SensorDataEnvelope}) sont écrites par le même code,
+ * voir {@link SensorDataEnvelopeSerializer}.
+ */
+public class SensorDataJsonSerializer implements Serializer<SensorData> {
+
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final DateTimeFormatter SECOND_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.").withZone(ZoneOffset.UTC);
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ESCAPE_HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Échappement des caractères ASCII : 0 = aucun, -1 = \\u00XX, sinon
+     * caractère suivant le backslash.
+     */
+    private static final int[] ASCII_ESCAPES = new int[128];
+
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            ASCII_ESCAPES[i] = -1;
+        }
+        ASCII_ESCAPES['"'] = '"';
+        ASCII_ESCAPES['\\'] = '\\';
+        ASCII_ESCAPES['\b'] = 'b';
+        ASCII_ESCAPES['\t'] = 't';
+        ASCII_ESCAPES['\f'] = 'f';
+        ASCII_ESCAPES['\n'] = 'n';
+        ASCII_ESCAPES['\r'] = 'r';
+    }
+
+    private static final byte[] TIMESTAMP = fieldName("timestamp");
+    private static final byte[] ASSET_ID = fieldName("assetId");
+    private static final byte[] SENSOR_ID = fieldName("sensorId");
+    private static final byte[] SENSOR_CODE = fieldName("sensorCode");
+    private static final byte[] SENSOR_TYPE = fieldName("sensorType");
+    private static final byte[] VALUE = fieldName("value");
+    private static final byte[] UNIT = fieldName("unit");
+    private static final byte[] QUALITY = fieldName("quality");
+    private static final byte[] SOURCE = fieldName("source");
+    private static final byte[] METADATA = fieldName("metadata");
+    private static final byte[] CREATED_AT = fieldName("createdAt");
+    private static final byte[] AGGREGATE = fieldName("aggregate");
+    private static final byte[] COUNT = fieldName("count");
+    private static final byte[] MIN = fieldName("min");
+    private static final byte[] MAX = fieldName("max");
+    private static final byte[] BUCKET_MS = fieldName("bucketMs");
+    private static final byte[] VALID = fieldName("valid");
+    private static final byte[] LATENCY_MS = fieldName("latencyMs");
+    private static final byte[] READINGS = fieldName("readings");
+
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private static final ThreadLocal<JsonBuffer> BUFFERS = ThreadLocal.withInitial(JsonBuffer::new);
+
+    private final ObjectMapper fallbackMapper = JacksonUtils.enhancedObjectMapper();
+
+    @Override
+    public byte[] serialize(String topic, SensorData data) {
+        if (data == null) {
+            return null;
+        }
+        JsonBuffer out = BUFFERS.get();
+        out.reset();
+        try {
+            writeSensorData(out, data);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Can't serialize data [" + data + "] for topic [" + topic + "]", e);
+        }
+    }
+
+    /**
+     * Sérialise une enveloppe : {@code {"assetId":...,"readings":[...]}}, chaque
+     * mesure étant écrite exactement comme par {@link #serialize(String, SensorData)}.
+     */
+    byte[] serializeEnvelope(String topic, SensorDataEnvelope envelope) {
+        if (envelope == null) {
+            return null;
+        }
+        JsonBuffer out = BUFFERS.get();
+        out.reset();
+        try {
+            boolean first = true;
+            if (envelope.getAssetId() != null) {
+                first = field(out, ASSET_ID, first);
+                out.writeUuid(envelope.getAssetId());
+            }
+            List<SensorData> readings = envelope.getReadings();
+            if (readings != null) {
+                first = field(out, READINGS, first);
+                out.write('[');
+                for (int i = 0; i < readings.size(); i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    writeSensorData(out, readings.get(i));
+                }
+                out.write(']');
+            }
+            if (first) {
+                out.write('{');
+            }
+            out.write('}');
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Can't serialize envelope for asset [" + envelope.getAssetId()
+                    + "] for topic [" + topic + "]", e);
+        }
+    }
+
+    private void writeSensorData(JsonBuffer out, SensorData data) throws IOException {
+        // Chaque nom de champ est précédé d'une virgule, remplacée par '{' pour le premier champ écrit
+        boolean first = true;
+        if (data.getTimestamp() != null) {
+            first = field(out, TIMESTAMP, first);
+            out.writeInstant(data.getTimestamp(), out.timestampCache);
+        }
+        if (data.getAssetId() != null) {
+            first = field(out, ASSET_ID, first);
+            out.writeUuid(data.getAssetId());
+        }
+        if (data.getSensorId() != null) {
+            first = field(out, SENSOR_ID, first);
+            out.writeUuid(data.getSensorId());
+        }
+        if (data.getSensorCode() != null) {
+            first = field(out, SENSOR_CODE, first);
+            out.writeString(data.getSensorCode());
+        }
+        if (data.getSensorType() != null) {
+            first = field(out, SENSOR_TYPE, first);
+            out.writeString(data.getSensorType());
+        }
+        if (data.getValue() != null) {
+            first = field(out, VALUE, first);
+            out.writeDouble(data.getValue());
+        }
+        if (data.getUnit() != null) {
+            first = field(out, UNIT, first);
+            out.writeString(data.getUnit());
+        }
+        if (data.getQuality() != null) {
+            first = field(out, QUALITY, first);
+            out.writeLong(data.getQuality());
+        }
+        if (data.getSource() != null) {
+            first = field(out, SOURCE, first);
+            out.writeString(data.getSource());
+        }
+        if (data.getMetadata() != null) {
+            first = field(out, METADATA, first);
+            writeValue(out, data.getMetadata());
+        }
+        if (data.getCreatedAt() != null) {
+            first = field(out, CREATED_AT, first);
+            out.writeInstant(data.getCreatedAt(), out.createdAtCache);
+        }
+        if (data.getAggregate() != null) {
+            first = field(out, AGGREGATE, first);
+            writeAggregate(out, data.getAggregate());
+        }
+        field(out, VALID, first);
+        out.write(data.isValid() ? TRUE : FALSE);
+        out.write(LATENCY_MS);
+        out.writeLong(data.getLatencyMs());
+        out.write('}');
+    }
+
+    private static void writeAggregate(JsonBuffer out, SensorAggregate aggregate) {
+        field(out, COUNT, true);
+        out.writeLong(aggregate.getCount());
+        out.write(MIN);
+        out.writeDouble(aggregate.getMin());
+        out.write(MAX);
+        out.writeDouble(aggregate.getMax());
+        out.write(BUCKET_MS);
+        out.writeLong(aggregate.getBucketMs());
+        out.write('}');
+    }
+
+    private static boolean field(JsonBuffer out, byte[] name, boolean first) {
+        if (first) {
+            out.write('{');
+            out.write(name, 1, name.length - 1);
+        } else {
+            out.write(name);
+        }
+        return false;
+    }
+
+    private void writeValue(JsonBuffer out, Object value) throws IOException {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof String s) {
+            out.writeString(s);
+        } else if (value instanceof Boolean b) {
+            out.write(b ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Double d) {
+            out.writeDouble(d);
+        } else if (value instanceof Float f) {
+            out.writeFloat(f);
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            out.writeAscii(value.toString());
+        } else if (value instanceof Map<?, ?> map && hasStringKeys(map)) {
+            writeMap(out, map);
+        } else if (value instanceof Collection<?> collection) {
+            writeCollection(out, collection);
+        } else {
+            out.write(fallbackMapper.writeValueAsBytes(value));
+        }
+    }
+
+    private void writeMap(JsonBuffer out, Map<?, ?> map) throws IOException {
+        out.write('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            out.writeString((String) entry.getKey());
+            out.write(':');
+            writeValue(out, entry.getValue());
+        }
+        out.write('}');
+    }
+
+    private void writeCollection(JsonBuffer out, Collection<?> collection) throws IOException {
+        out.write('[');
+        boolean first = true;
+        for (Object element : collection) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            writeValue(out, element);
+        }
+        out.write(']');
+    }
+
+    private static boolean hasStringKeys(Map<?, ?> map) {
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Nom de champ encodé avec son préfixe : {@code ,"name":}.
+     */
+    private static byte[] fieldName(String name) {
+        return (",\"" + name + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Préfixe {@code yyyy-MM-dd'T'HH:mm:ss.} de la dernière seconde encodée.
+     */
+    private static final class InstantCache {
+        long epochSecond = Long.MIN_VALUE;
+        byte[] prefix;
+    }
+
+    /**
+     * Tampon d'écriture réutilisé par un thread.
+     */
+    private static final class JsonBuffer {
+        private byte[] buf = new byte[INITIAL_CAPACITY];
+        private int pos;
+
+        final InstantCache timestampCache = new InstantCache();
+        final InstantCache createdAtCache = new InstantCache();
+
+        void reset() {
+            if (buf.length > MAX_RETAINED_CAPACITY) {
+                buf = new byte[INITIAL_CAPACITY];
+            }
+            pos = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            write(bytes, 0, bytes.length);
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buf, pos, length);
+            pos += length;
+        }
+
+        void writeAscii(String s) {
+            int length = s.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                buf[pos++] = (byte) s.charAt(i);
+            }
+        }
+
+        void writeLong(long value) {
+            if (value == Long.MIN_VALUE) {
+                writeAscii(Long.toString(value));
+                return;
+            }
+            ensureCapacity(20);
+            if (value < 0) {
+                buf[pos++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long v = value; v >= 10; v /= 10) {
+                digits++;
+            }
+            for (int i = pos + digits - 1; i >= pos; i--) {
+                buf[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            pos += digits;
+        }
+
+        void writeDouble(double value) {
+            // Jackson écrit NaN et les infinis entre guillemets (QUOTE_NON_NUMERIC_NUMBERS)
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                write('"');
+                writeAscii(Double.toString(value));
+                write('"');
+            } else {
+                writeAscii(Double.toString(value));
+            }
+        }
+
+        void writeFloat(float value) {
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                write('"');
+                writeAscii(Float.toString(value));
+                write('"');
+            } else {
+                writeAscii(Float.toString(value));
+            }
+        }
+
+        void writeUuid(UUID uuid) {
+            ensureCapacity(38);
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            buf[pos++] = '"';
+            writeHex(msb >>> 32, 8);
+            buf[pos++] = '-';
+            writeHex(msb >>> 16, 4);
+            buf[pos++] = '-';
+            writeHex(msb, 4);
+            buf[pos++] = '-';
+            writeHex(lsb >>> 48, 4);
+            buf[pos++] = '-';
+            writeHex(lsb, 12);
+            buf[pos++] = '"';
+        }
+
+        private void writeHex(long bits, int digits) {
+            for (int i = pos + digits - 1; i >= pos; i--) {
+                buf[i] = HEX[(int) (bits & 0xF)];
+                bits >>>= 4;
+            }
+            pos += digits;
+        }
+
+        void writeInstant(Instant instant, InstantCache cache) {
+            long epochSecond = instant.getEpochSecond();
+            if (cache.epochSecond != epochSecond || cache.prefix == null) {
+                cache.prefix = SECOND_FORMAT.format(instant).getBytes(StandardCharsets.US_ASCII);
+                cache.epochSecond = epochSecond;
+            }
+            int millis = instant.getNano() / 1_000_000;
+            ensureCapacity(cache.prefix.length + 6);
+            buf[pos++] = '"';
+            System.arraycopy(cache.prefix, 0, buf, pos, cache.prefix.length);
+            pos += cache.prefix.length;
+            buf[pos++] = (byte) ('0' + millis / 100);
+            buf[pos++] = (byte) ('0' + millis / 10 % 10);
+            buf[pos++] = (byte) ('0' + millis % 10);
+            buf[pos++] = 'Z';
+            buf[pos++] = '"';
+        }
+
+        void writeString(String s) {
+            int length = s.length();
+            // Pire cas : \\u00XX (6 octets) par caractère
+            ensureCapacity(length * 6 + 2);
+            buf[pos++] = '"';
+            for (int i = 0; i < length; i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    int escape = ASCII_ESCAPES[c];
+                    if (escape == 0) {
+                        buf[pos++] = (byte) c;
+                    } else if (escape > 0) {
+                        buf[pos++] = '\\';
+                        buf[pos++] = (byte) escape;
+                    } else {
+                        writeUnicodeEscape(c);
+                    }
+                } else if (c < 0x800) {
+                    buf[pos++] = (byte) (0xC0 | (c >> 6));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (!Character.isSurrogate(c)) {
+                    buf[pos++] = (byte) (0xE0 | (c >> 12));
+                    buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else {
+                    // Comme Jackson : chaque demi-caractère d'une paire est échappé
+                    writeUnicodeEscape(c);
+                }
+            }
+            buf[pos++] = '"';
+        }
+
+        private void writeUnicodeEscape(char c) {
+            buf[pos++] = '\\';
+            buf[pos++] = 'u';
+            buf[pos++] = ESCAPE_HEX[c >> 12];
+            buf[pos++] = ESCAPE_HEX[(c >> 8) & 0xF];
+            buf[pos++] = ESCAPE_HEX[(c >> 4) & 0xF];
+            buf[pos++] = ESCAPE_HEX[c & 0xF];
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.mantis.ingestion.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.accept.ContentNegotiationStrategy;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuration Web MVC pour l'API d'ingestion.
+ *
+ * Ajoute les formats binaires CBOR ({@code application/cbor}) et Smile
+ * ({@code application/x-jackson-smile}), configurés comme le mapper JSON
+ * (propriétés {@code spring.jackson.*}). Sans en-tête Accept explicite,
+ * la réponse est produite dans le format binaire de la requête.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * Convertisseur HTTP CBOR.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Convertisseur HTTP Smile.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Override
+    public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
+        configurer.strategies(List.of(
+                new HeaderContentNegotiationStrategy(),
+                new BinaryContentTypeNegotiationStrategy()));
+    }
+
+    /**
+     * Retourne le type binaire de la requête lorsque le client n'a pas
+     * exprimé de préférence via l'en-tête Accept.
+     */
+    static class BinaryContentTypeNegotiationStrategy implements ContentNegotiationStrategy {
+
+        private static final List<MediaType> BINARY_TYPES = List.of(MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+        @Override
+        public List<MediaType> resolveMediaTypes(NativeWebRequest request) {
+            String contentType = request.getHeader(HttpHeaders.CONTENT_TYPE);
+            if (contentType == null) {
+                return MEDIA_TYPE_ALL_LIST;
+            }
+
+            try {
+                MediaType mediaType = MediaType.parseMediaType(contentType);
+                for (MediaType binaryType : BINARY_TYPES) {
+                    if (binaryType.isCompatibleWith(mediaType)) {
+                        return List.of(binaryType);
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                // Laisser le traitement standard signaler le Content-Type invalide
+            }
+            return MEDIA_TYPE_ALL_LIST;
+        }
+    }
+}
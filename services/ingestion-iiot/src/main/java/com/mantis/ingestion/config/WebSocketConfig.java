@@ -0,0 +1,43 @@
+package com.mantis.ingestion.config;
+
+import com.mantis.ingestion.controller.IngestionWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/**
+ * Configuration du canal WebSocket d'ingestion.
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    public static final String INGEST_WEBSOCKET_PATH = "/api/v1/ingest/ws";
+
+    private final IngestionWebSocketHandler ingestionWebSocketHandler;
+
+    @Value("${mantis.ingestion.http.websocket.max-message-bytes}")
+    private int maxMessageBytes;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(ingestionWebSocketHandler, INGEST_WEBSOCKET_PATH);
+    }
+
+    /**
+     * Taille maximale d'un message (8 Ko par défaut côté conteneur, trop peu
+     * pour un tableau de mesures).
+     */
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxMessageBytes);
+        return container;
+    }
+}
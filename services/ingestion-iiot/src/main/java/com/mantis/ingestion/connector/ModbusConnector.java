@@ -7,7 +7,9 @@ import com.digitalpetri.modbus.requests.ReadInputRegistersRequest;
 import com.digitalpetri.modbus.responses.ReadHoldingRegistersResponse;
 import com.digitalpetri.modbus.responses.ReadInputRegistersResponse;
 import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.FlowControlService;
 import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorCompressionFilter;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.netty.buffer.ByteBuf;
@@ -23,13 +25,16 @@ import jakarta.annotation.PreDestroy;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Connecteur Modbus TCP.
  *
  * Interroge périodiquement des registres Modbus et publie
- * les données vers Kafka.
+ * les données vers Kafka. Sous pression du producer, l'intervalle de
+ * polling est multiplié par le facteur de {@link FlowControlService}
+ * (cycles sautés), et le polling est suspendu pendant une pause.
  */
 @Slf4j
 @Component
@@ -52,20 +57,29 @@ public class ModbusConnector {
     private long pollIntervalMs;
 
     private final KafkaProducerService kafkaProducerService;
+    private final SensorCompressionFilter compressionFilter;
+    private final FlowControlService flowControl;
     private final AtomicBoolean connected = new AtomicBoolean(false);
 
     private ModbusTcpMaster master;
 
+    // Prochain cycle de polling autorisé par le contrôle de flux
+    private long nextPollNanos = System.nanoTime();
+
     // Métriques
     private final Counter registersReadCounter;
     private final Counter readErrorsCounter;
     private final Counter connectionAttemptsCounter;
+    private final Counter skippedPollsCounter;
 
     // Configuration des registres à lire
     private final List<RegisterConfig> registerConfigs = new ArrayList<>();
 
-    public ModbusConnector(KafkaProducerService kafkaProducerService, MeterRegistry meterRegistry) {
+    public ModbusConnector(KafkaProducerService kafkaProducerService, SensorCompressionFilter compressionFilter,
+                           FlowControlService flowControl, MeterRegistry meterRegistry) {
         this.kafkaProducerService = kafkaProducerService;
+        this.compressionFilter = compressionFilter;
+        this.flowControl = flowControl;
 
         this.registersReadCounter = Counter.builder("mantis.modbus.registers.read")
                 .description("Total Modbus registers read")
@@ -78,6 +92,10 @@ public class ModbusConnector {
         this.connectionAttemptsCounter = Counter.builder("mantis.modbus.connection.attempts")
                 .description("Total Modbus connection attempts")
                 .register(meterRegistry);
+
+        this.skippedPollsCounter = Counter.builder("mantis.modbus.polls.skipped")
+                .description("Modbus poll cycles skipped by flow control")
+                .register(meterRegistry);
     }
 
     @PostConstruct
@@ -160,6 +178,14 @@ public class ModbusConnector {
             return;
         }
 
+        long now = System.nanoTime();
+        if (flowControl.isPaused() || now - nextPollNanos < 0) {
+            skippedPollsCounter.increment();
+            return;
+        }
+        // Facteur n : n - 1 cycles sautés après celui-ci
+        nextPollNanos = now + TimeUnit.MILLISECONDS.toNanos(pollIntervalMs) * (flowControl.getSlowdown() - 1);
+
         log.debug("Polling {} Modbus registers", registerConfigs.size());
 
         for (RegisterConfig config : registerConfigs) {
@@ -214,7 +240,7 @@ public class ModbusConnector {
                                     "scaleFactor", config.scaleFactor))
                             .build();
 
-                    kafkaProducerService.sendSensorData(sensorData);
+                    compressionFilter.offer(sensorData, kafkaProducerService::sendSensorData);
                     registersReadCounter.increment();
 
                     log.debug("Modbus data published: address={}, sensorCode={}, value={}",
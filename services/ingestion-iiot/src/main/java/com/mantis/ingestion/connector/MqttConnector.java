@@ -2,7 +2,9 @@ package com.mantis.ingestion.connector;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.FlowControlService;
 import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorCompressionFilter;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +26,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *
  * Se connecte à un broker MQTT et souscrit aux topics configurés,
  * puis publie les données reçues vers Kafka.
+ *
+ * Pendant une pause de {@link FlowControlService}, le callback attend la
+ * reprise (au plus {@code max-pause-ms}, sous le keep-alive) avant de traiter
+ * le message : le client Paho cesse alors de lire la socket et le broker
+ * retient les messages suivants.
  */
 @Slf4j
 @Component
@@ -63,7 +70,12 @@ public class MqttConnector implements MqttCallback {
     @Value("${mantis.ingestion.mqtt.reconnect-delay-ms}")
     private long reconnectDelayMs;
 
+    @Value("${mantis.ingestion.flow-control.max-pause-ms}")
+    private long maxPauseMs;
+
     private final KafkaProducerService kafkaProducerService;
+    private final SensorCompressionFilter compressionFilter;
+    private final FlowControlService flowControl;
     private final ObjectMapper objectMapper;
     private final AtomicBoolean connected = new AtomicBoolean(false);
 
@@ -74,12 +86,17 @@ public class MqttConnector implements MqttCallback {
     private final Counter connectionAttemptsCounter;
     private final Counter connectionFailuresCounter;
     private final Counter messageErrorsCounter;
+    private final Counter pausedMessagesCounter;
 
     public MqttConnector(
             KafkaProducerService kafkaProducerService,
+            SensorCompressionFilter compressionFilter,
+            FlowControlService flowControl,
             ObjectMapper objectMapper,
             MeterRegistry meterRegistry) {
         this.kafkaProducerService = kafkaProducerService;
+        this.compressionFilter = compressionFilter;
+        this.flowControl = flowControl;
         this.objectMapper = objectMapper;
 
         this.messagesReceivedCounter = Counter.builder("mantis.mqtt.messages.received")
@@ -97,6 +114,10 @@ public class MqttConnector implements MqttCallback {
         this.messageErrorsCounter = Counter.builder("mantis.mqtt.message.errors")
                 .description("Total MQTT message processing errors")
                 .register(meterRegistry);
+
+        this.pausedMessagesCounter = Counter.builder("mantis.mqtt.messages.paused")
+                .description("MQTT messages held back by flow control")
+                .register(meterRegistry);
     }
 
     @PostConstruct
@@ -178,6 +199,7 @@ public class MqttConnector implements MqttCallback {
      */
     @Override
     public void messageArrived(String topic, MqttMessage message) {
+        awaitFlowControl();
         try {
             messagesReceivedCounter.increment();
 
@@ -202,7 +224,7 @@ public class MqttConnector implements MqttCallback {
             sensorData.getMetadata().put("mqttRetained", message.isRetained());
 
             // Envoyer vers Kafka
-            kafkaProducerService.sendSensorData(sensorData);
+            compressionFilter.offer(sensorData, kafkaProducerService::sendSensorData);
 
             log.debug("MQTT data published: topic={}, sensorCode={}",
                     topic, sensorData.getSensorCode());
@@ -214,6 +236,23 @@ public class MqttConnector implements MqttCallback {
         }
     }
 
+    /**
+     * Suspend le thread de callback Paho pendant une pause du contrôle de flux.
+     */
+    private void awaitFlowControl() {
+        if (!flowControl.isPaused()) {
+            return;
+        }
+        pausedMessagesCounter.increment();
+        try {
+            if (!flowControl.awaitResume(maxPauseMs)) {
+                log.debug("MQTT flow control pause exceeded {}ms, processing message", maxPauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Parse un message MQTT en objet SensorData.
      *
@@ -1,7 +1,9 @@
 package com.mantis.ingestion.connector;
 
 import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.FlowControlService;
 import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorCompressionFilter;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.micrometer.core.instrument.Counter;
@@ -41,7 +43,9 @@ import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.
  * Connecteur OPC UA utilisant Eclipse Milo.
  *
  * Se connecte à un serveur OPC UA et souscrit aux changements de valeurs
- * des nœuds configurés, puis publie les données vers Kafka.
+ * des nœuds configurés, puis publie les données vers Kafka. Sous pression
+ * du producer, l'intervalle de publication de la souscription est multiplié
+ * par le facteur de {@link FlowControlService} (facteur maximal en pause).
  */
 @Slf4j
 @Component
@@ -67,11 +71,16 @@ public class OpcUaConnector {
     private long reconnectDelayMs;
 
     private final KafkaProducerService kafkaProducerService;
+    private final SensorCompressionFilter compressionFilter;
+    private final FlowControlService flowControl;
     private final AtomicBoolean connected = new AtomicBoolean(false);
 
     private OpcUaClient client;
     private UaSubscription subscription;
 
+    // Intervalle de publication actuellement demandé au serveur
+    private volatile double publishingIntervalMs;
+
     // Métriques
     private final Counter dataPointsCounter;
     private final Counter connectionAttemptsCounter;
@@ -80,8 +89,11 @@ public class OpcUaConnector {
     // Map pour stocker les métadonnées des nœuds (NodeId -> asset/sensor info)
     private final Map<NodeId, NodeMetadata> nodeMetadataMap = new HashMap<>();
 
-    public OpcUaConnector(KafkaProducerService kafkaProducerService, MeterRegistry meterRegistry) {
+    public OpcUaConnector(KafkaProducerService kafkaProducerService, SensorCompressionFilter compressionFilter,
+                          FlowControlService flowControl, MeterRegistry meterRegistry) {
         this.kafkaProducerService = kafkaProducerService;
+        this.compressionFilter = compressionFilter;
+        this.flowControl = flowControl;
 
         this.dataPointsCounter = Counter.builder("mantis.opcua.data.points")
                 .description("Total OPC UA data points received")
@@ -94,6 +106,8 @@ public class OpcUaConnector {
         this.subscriptionErrorsCounter = Counter.builder("mantis.opcua.subscription.errors")
                 .description("Total OPC UA subscription errors")
                 .register(meterRegistry);
+
+        flowControl.addListener(this::applyFlowControl);
     }
 
     @PostConstruct
@@ -149,9 +163,39 @@ public class OpcUaConnector {
                 .createSubscription(subscriptionIntervalMs)
                 .get();
 
+        publishingIntervalMs = subscriptionIntervalMs;
         log.info("OPC UA subscription created: interval={}ms", subscriptionIntervalMs);
     }
 
+    /**
+     * Ajuste l'intervalle de publication de la souscription au facteur de
+     * ralentissement du contrôle de flux.
+     */
+    void applyFlowControl() {
+        UaSubscription current = subscription;
+        if (!connected.get() || current == null) {
+            return;
+        }
+
+        double target = (double) subscriptionIntervalMs * flowControl.getSlowdown();
+        if (target == publishingIntervalMs) {
+            return;
+        }
+        publishingIntervalMs = target;
+
+        client.getSubscriptionManager()
+                .modifySubscription(current.getSubscriptionId(), target)
+                .whenComplete((modified, ex) -> {
+                    if (ex != null) {
+                        log.warn("Failed to modify OPC UA publishing interval: {}", ex.getMessage());
+                        subscriptionErrorsCounter.increment();
+                    } else {
+                        log.info("OPC UA publishing interval set to {}ms (revised {}ms)",
+                                target, modified.getRevisedPublishingInterval());
+                    }
+                });
+    }
+
     /**
      * Souscrit à un nœud OPC UA.
      *
@@ -266,7 +310,7 @@ public class OpcUaConnector {
                     .build();
 
             // Envoyer vers Kafka
-            kafkaProducerService.sendSensorData(sensorData);
+            compressionFilter.offer(sensorData, kafkaProducerService::sendSensorData);
             dataPointsCounter.increment();
 
             log.debug("OPC UA data published: sensorCode={}, value={}", metadata.sensorCode, numericValue);
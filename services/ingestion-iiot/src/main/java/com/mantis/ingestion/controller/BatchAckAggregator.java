@@ -0,0 +1,96 @@
+package com.mantis.ingestion.controller;
+
+import com.mantis.ingestion.dto.BatchIngestionSummary;
+import com.mantis.ingestion.dto.IngestionErrorCode;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Agrège les acquittements Kafka d'un batch sans objet par enregistrement.
+ *
+ * Seuls les échecs et un triplet (min, max, count) par partition (topic et
+ * numéro) sont conservés ; {@link #completion()} se termine quand tous les
+ * enregistrements attendus ont été acquittés ou ont échoué.
+ */
+class BatchAckAggregator {
+
+    private final int expected;
+    private final long startTime;
+    private final CompletableFuture<BatchIngestionSummary> completion = new CompletableFuture<>();
+
+    static final Comparator<TopicPartition> TOPIC_PARTITION_ORDER =
+            Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition);
+
+    private final Map<TopicPartition, long[]> offsetsByPartition = new TreeMap<>(TOPIC_PARTITION_ORDER);
+    private final List<BatchIngestionSummary.RecordFailure> failures = new ArrayList<>();
+    private int succeeded;
+    private int done;
+
+    BatchAckAggregator(int expected) {
+        this.expected = expected;
+        this.startTime = System.currentTimeMillis();
+        if (expected == 0) {
+            completion.complete(summary());
+        }
+    }
+
+    /**
+     * Enregistre un acquittement broker.
+     */
+    synchronized void success(RecordMetadata metadata) {
+        long offset = metadata.offset();
+        TopicPartition topicPartition = new TopicPartition(metadata.topic(), metadata.partition());
+        long[] bounds = offsetsByPartition.get(topicPartition);
+        if (bounds == null) {
+            offsetsByPartition.put(topicPartition, new long[]{offset, offset, 1});
+        } else {
+            bounds[0] = Math.min(bounds[0], offset);
+            bounds[1] = Math.max(bounds[1], offset);
+            bounds[2]++;
+        }
+        succeeded++;
+        onDone();
+    }
+
+    /**
+     * Enregistre l'échec de l'enregistrement {@code index}.
+     */
+    synchronized void failure(int index, IngestionErrorCode code) {
+        failures.add(new BatchIngestionSummary.RecordFailure(index, code));
+        onDone();
+    }
+
+    CompletableFuture<BatchIngestionSummary> completion() {
+        return completion;
+    }
+
+    private void onDone() {
+        if (++done == expected) {
+            completion.complete(summary());
+        }
+    }
+
+    private BatchIngestionSummary summary() {
+        failures.sort(Comparator.comparingInt(BatchIngestionSummary.RecordFailure::getIndex));
+
+        List<BatchIngestionSummary.PartitionOffsets> partitions = new ArrayList<>(offsetsByPartition.size());
+        offsetsByPartition.forEach((topicPartition, bounds) -> partitions.add(new BatchIngestionSummary.PartitionOffsets(
+                topicPartition.topic(), topicPartition.partition(), bounds[0], bounds[1], (int) bounds[2])));
+
+        return BatchIngestionSummary.builder()
+                .total(expected)
+                .succeeded(succeeded)
+                .failed(failures.size())
+                .latencyMs(System.currentTimeMillis() - startTime)
+                .failures(failures)
+                .partitions(partitions)
+                .build();
+    }
+}
@@ -3,7 +3,11 @@ package com.mantis.ingestion.controller;
 import com.mantis.ingestion.connector.ModbusConnector;
 import com.mantis.ingestion.connector.MqttConnector;
 import com.mantis.ingestion.connector.OpcUaConnector;
+import com.mantis.ingestion.service.AdmissionControlService;
+import com.mantis.ingestion.service.EdgeBufferReplayService;
 import com.mantis.ingestion.service.EdgeBufferService;
+import com.mantis.ingestion.service.KafkaProducerService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +37,9 @@ public class ConnectorStatusController {
     private ModbusConnector modbusConnector;
 
     private final EdgeBufferService edgeBufferService;
+    private final AdmissionControlService admissionControlService;
+    private final KafkaProducerService kafkaProducerService;
+    private final EdgeBufferReplayService edgeBufferReplayService;
 
     /**
      * Obtient le statut de tous les connecteurs.
@@ -67,11 +74,24 @@ public class ConnectorStatusController {
                         .currentSize(edgeBufferService.size())
                         .stats(edgeBufferService.getStats())
                         .build())
+                .admission(admissionControlService.getStats())
+                .kafkaCircuit(kafkaCircuitInfo())
+                .replay(edgeBufferReplayService.getStats())
                 .build();
 
         return ResponseEntity.ok(status);
     }
 
+    private CircuitBreakerInfo kafkaCircuitInfo() {
+        CircuitBreaker.Metrics metrics = kafkaProducerService.getCircuitBreakerMetrics();
+        return CircuitBreakerInfo.builder()
+                .state(kafkaProducerService.getCircuitBreakerState().name())
+                .failureRate(metrics.getFailureRate())
+                .bufferedCalls(metrics.getNumberOfBufferedCalls())
+                .notPermittedCalls(metrics.getNumberOfNotPermittedCalls())
+                .build();
+    }
+
     /**
      * Obtient le statut du connecteur OPC UA.
      */
@@ -140,6 +160,9 @@ public class ConnectorStatusController {
         private ConnectorInfo mqtt;
         private ConnectorInfo modbus;
         private EdgeBufferInfo edgeBuffer;
+        private AdmissionControlService.AdmissionStats admission;
+        private CircuitBreakerInfo kafkaCircuit;
+        private EdgeBufferReplayService.ReplayStats replay;
     }
 
     @Data
@@ -157,4 +180,13 @@ public class ConnectorStatusController {
         private int currentSize;
         private EdgeBufferService.BufferStats stats;
     }
+
+    @Data
+    @Builder
+    public static class CircuitBreakerInfo {
+        private String state;
+        private float failureRate;
+        private int bufferedCalls;
+        private long notPermittedCalls;
+    }
 }
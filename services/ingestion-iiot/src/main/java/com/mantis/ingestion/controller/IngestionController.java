@@ -1,21 +1,37 @@
 package com.mantis.ingestion.controller;
 
+import com.mantis.ingestion.dto.AckLevel;
+import com.mantis.ingestion.dto.BatchIngestionSummary;
+import com.mantis.ingestion.dto.IngestionErrorCode;
 import com.mantis.ingestion.dto.IngestionResponse;
 import com.mantis.ingestion.dto.SensorDataRequest;
+import com.mantis.ingestion.dto.SensorFrameRequest;
+import com.mantis.ingestion.dto.StreamIngestionSummary;
+import com.mantis.ingestion.exception.ReadingDroppedException;
+import com.mantis.ingestion.exception.RecordValidationException;
 import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.AdmissionControlService;
 import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorDataRequestValidator;
+import com.mantis.ingestion.service.StreamIngestionService;
 import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.Instant;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Contrôleur REST pour l'ingestion de données de capteurs.
@@ -30,43 +46,86 @@ import java.util.concurrent.CompletableFuture;
 public class IngestionController {
 
     private final KafkaProducerService kafkaProducerService;
+    private final StreamIngestionService streamIngestionService;
+    private final SensorDataRequestValidator requestValidator;
+    private final AdmissionControlService admissionControlService;
+
+    /**
+     * En-tête HTTP permettant de choisir le niveau d'acquittement.
+     */
+    public static final String ACK_LEVEL_HEADER = "X-Ack-Level";
+
+    /**
+     * En-tête HTTP permettant de choisir le format de réponse du batch.
+     */
+    public static final String RESPONSE_MODE_HEADER = "X-Response-Mode";
+
+    static final String SOURCE = "http";
+
+    static final String RESPONSE_MODE_FULL = "full";
+    static final String RESPONSE_MODE_COMPACT = "compact";
 
     /**
      * Ingère une donnée de capteur via HTTP POST.
      *
-     * @param request données du capteur
+     * La requête n'immobilise pas de thread Tomcat pendant l'envoi Kafka :
+     * la réponse est complétée de manière asynchrone selon le niveau
+     * d'acquittement demandé ({@link AckLevel}).
+     *
+     * @param request  données du capteur
+     * @param ackLevel niveau d'acquittement (none, buffered, durable)
      * @return réponse avec statut et métadonnées
      */
     @PostMapping
     @Timed(value = "mantis.ingestion.http.requests", description = "HTTP ingestion requests")
-    public ResponseEntity<IngestionResponse> ingestSensorData(
-            @Valid @RequestBody SensorDataRequest request
+    public CompletableFuture<ResponseEntity<IngestionResponse>> ingestSensorData(
+            @Valid @RequestBody SensorDataRequest request,
+            @RequestHeader(value = ACK_LEVEL_HEADER, defaultValue = "durable") String ackLevel
     ) {
-        log.debug("Received ingestion request: sensorCode={}", request.getSensorCode());
+        log.debug("Received ingestion request: sensorCode={}, ackLevel={}", request.getSensorCode(), ackLevel);
 
+        AckLevel level = AckLevel.fromHeader(ackLevel);
+        admissionControlService.acquire(request.getAssetId(), SOURCE, 1);
+
+        // Convertir le DTO en modèle
+        SensorData sensorData = convertToSensorData(request);
+
+        // Valider
+        if (!sensorData.isValid()) {
+            log.warn("Invalid sensor data: {}", request.getSensorCode());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(IngestionResponse.error("Invalid sensor data")));
+        }
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<SendResult<String, SensorData>> future;
         try {
-            // Convertir le DTO en modèle
-            SensorData sensorData = convertToSensorData(request);
-
-            // Valider
-            if (!sensorData.isValid()) {
-                log.warn("Invalid sensor data: {}", request.getSensorCode());
-                return ResponseEntity.badRequest()
-                        .body(IngestionResponse.error("Invalid sensor data"));
+            future = kafkaProducerService.sendSensorData(sensorData);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(ingestionFailed(sensorData.getSensorCode(), e));
+        }
+
+        // Fire-and-forget, ou donnée non rejetée à l'appel : le future ne dit rien
+        // de plus avant l'acquittement broker (voir AckLevel.BUFFERED)
+        if (level == AckLevel.NONE || (level == AckLevel.BUFFERED && !future.isCompletedExceptionally())) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(IngestionResponse.accepted(sensorData.getSensorCode(), level)));
+        }
+
+        // Acquittement broker : partition/offset retournés sans bloquer de thread
+        return future.handle((result, ex) -> {
+            if (ex != null) {
+                return ingestionFailed(sensorData.getSensorCode(), ex);
             }
 
-            // Envoyer vers Kafka (synchrone pour pouvoir retourner partition/offset)
-            long startTime = System.currentTimeMillis();
-            SendResult<String, SensorData> result = kafkaProducerService.sendSensorDataSync(sensorData);
             long latency = System.currentTimeMillis() - startTime;
-
-            // Construire la réponse
             IngestionResponse response = IngestionResponse.success(
                     sensorData.getSensorCode(),
                     (long) result.getRecordMetadata().partition(),
                     result.getRecordMetadata().offset(),
                     latency
             );
+            response.setAckLevel(level.name().toLowerCase(Locale.ROOT));
 
             log.info("Data ingested successfully: sensorCode={}, partition={}, offset={}, latency={}ms",
                     sensorData.getSensorCode(),
@@ -75,25 +134,37 @@ public class IngestionController {
                     latency);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
-
-        } catch (Exception e) {
-            log.error("Failed to ingest sensor data: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(IngestionResponse.error("Ingestion failed: " + e.getMessage()));
-        }
+        });
     }
 
     /**
      * Ingère plusieurs données de capteurs en batch.
      *
-     * @param requests liste de données de capteurs
-     * @return liste des réponses
+     * Par défaut une réponse est retournée par enregistrement ; avec
+     * {@code X-Response-Mode: compact}, seul un bilan agrégé est retourné
+     * ({@link BatchIngestionSummary}).
+     *
+     * @param requests     liste de données de capteurs
+     * @param responseMode format de réponse (full, compact)
+     * @return liste des réponses, ou bilan agrégé
      */
     @PostMapping("/batch")
     @Timed(value = "mantis.ingestion.http.batch.requests", description = "HTTP batch ingestion requests")
-    public ResponseEntity<List<IngestionResponse>> ingestSensorDataBatch(
-            @Valid @RequestBody List<SensorDataRequest> requests
+    public ResponseEntity<?> ingestSensorDataBatch(
+            @RequestBody List<SensorDataRequest> requests,
+            @RequestHeader(value = RESPONSE_MODE_HEADER, defaultValue = RESPONSE_MODE_FULL) String responseMode
     ) {
+        validateBatch(requests);
+        admissionControlService.acquireAll(countByAsset(requests), SOURCE);
+
+        if (RESPONSE_MODE_COMPACT.equalsIgnoreCase(responseMode)) {
+            return ingestSensorDataBatchCompact(requests);
+        }
+        if (!RESPONSE_MODE_FULL.equalsIgnoreCase(responseMode)) {
+            throw new IllegalArgumentException(
+                    "Unknown response mode '" + responseMode + "', expected one of: full, compact");
+        }
+
         log.info("Received batch ingestion request: count={}", requests.size());
 
         try {
@@ -103,7 +174,7 @@ public class IngestionController {
                         SensorData sensorData = convertToSensorData(request);
                         long startTime = System.currentTimeMillis();
 
-                        return kafkaProducerService.sendSensorData(sensorData)
+                        return kafkaProducerService.sendValidatedSensorData(sensorData)
                                 .thenApply(result -> {
                                     long latency = System.currentTimeMillis() - startTime;
                                     return IngestionResponse.success(
@@ -113,9 +184,9 @@ public class IngestionController {
                                             latency
                                     );
                                 })
-                                .exceptionally(ex -> IngestionResponse.error(
-                                        "Failed: " + ex.getMessage()
-                                ));
+                                .exceptionally(ex -> KafkaProducerService.isBufferedAtEdge(ex)
+                                        ? IngestionResponse.deferred(sensorData.getSensorCode(), causeOf(ex).getMessage())
+                                        : IngestionResponse.error("Failed: " + ex.getMessage()));
                     })
                     .toList();
 
@@ -137,6 +208,81 @@ public class IngestionController {
         }
     }
 
+    /**
+     * Ingère une trame de mesures d'un capteur à haute fréquence.
+     *
+     * L'en-tête de la trame est validé une seule fois ; chaque échantillon est
+     * ensuite converti en SensorData au moment de l'envoi vers Kafka.
+     *
+     * @param frame trame (identité du capteur + tableaux de valeurs)
+     * @return bilan agrégé (indices en échec = positions dans la trame)
+     */
+    @PostMapping("/frame")
+    @Timed(value = "mantis.ingestion.http.frame.requests", description = "HTTP frame ingestion requests")
+    public ResponseEntity<BatchIngestionSummary> ingestSensorFrame(@Valid @RequestBody SensorFrameRequest frame) {
+        int sampleCount = frame.getSampleCount();
+        log.debug("Received frame ingestion request: sensorCode={}, samples={}", frame.getSensorCode(), sampleCount);
+        admissionControlService.acquire(frame.getAssetId(), SOURCE, sampleCount);
+
+        BatchAckAggregator aggregator = new BatchAckAggregator(sampleCount);
+
+        for (int i = 0; i < sampleCount; i++) {
+            if (!frame.isSampleValid(i)) {
+                aggregator.failure(i, IngestionErrorCode.INVALID_DATA);
+                continue;
+            }
+            sendAndAggregate(frame.toSensorData(i, SOURCE), i, aggregator, false);
+        }
+
+        BatchIngestionSummary summary = aggregator.completion().join();
+        log.info("Frame ingestion completed: sensorCode={}, samples={}, success={}, failed={}",
+                frame.getSensorCode(), summary.getTotal(), summary.getSucceeded(), summary.getFailed());
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(summary);
+    }
+
+    /**
+     * Ingère un flux NDJSON (un objet JSON par ligne) sans le charger en mémoire.
+     *
+     * Les enregistrements sont lus et publiés au fil de l'eau ; le bilan est
+     * retourné une fois le flux terminé.
+     *
+     * @param body corps de la requête
+     * @return bilan de l'ingestion
+     */
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Timed(value = "mantis.ingestion.http.stream.requests", description = "HTTP NDJSON stream ingestion requests")
+    public ResponseEntity<StreamIngestionSummary> ingestSensorDataStream(InputStream body) {
+        log.info("Received NDJSON stream ingestion request");
+        admissionControlService.checkGlobalBudget();
+
+        StreamIngestionSummary summary = streamIngestionService.ingest(body);
+
+        HttpStatus status = summary.isCompleted() ? HttpStatus.CREATED
+                : summary.isPayloadTooLarge() ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(summary);
+    }
+
+    /**
+     * Ingestion batch avec réponse agrégée : aucun IngestionResponse n'est
+     * alloué par enregistrement.
+     */
+    private ResponseEntity<BatchIngestionSummary> ingestSensorDataBatchCompact(List<SensorDataRequest> requests) {
+        log.info("Received compact batch ingestion request: count={}", requests.size());
+
+        BatchAckAggregator aggregator = new BatchAckAggregator(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            sendAndAggregate(convertToSensorData(requests.get(i)), i, aggregator, true);
+        }
+
+        BatchIngestionSummary summary = aggregator.completion().join();
+        log.info("Compact batch ingestion completed: total={}, success={}, failed={}",
+                summary.getTotal(), summary.getSucceeded(), summary.getFailed());
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(summary);
+    }
+
     /**
      * Obtient les statistiques du producer Kafka.
      *
@@ -157,21 +303,95 @@ public class IngestionController {
         return ResponseEntity.ok("Ingestion service is running");
     }
 
+    /**
+     * Valide tous les enregistrements d'un batch avant tout envoi.
+     *
+     * @throws RecordValidationException si au moins un enregistrement est invalide
+     */
+    private void validateBatch(List<SensorDataRequest> requests) {
+        Map<String, String> errors = null;
+
+        for (int i = 0; i < requests.size(); i++) {
+            SensorDataRequest request = requests.get(i);
+            if (request == null) {
+                errors = errors != null ? errors : new LinkedHashMap<>();
+                errors.put("[" + i + "]", "Record is required");
+                continue;
+            }
+            for (SensorDataRequestValidator.Violation violation : requestValidator.validate(request)) {
+                errors = errors != null ? errors : new LinkedHashMap<>();
+                errors.put("[" + i + "]." + violation.getField(), violation.getMessage());
+            }
+        }
+
+        if (errors != null) {
+            throw new RecordValidationException(errors);
+        }
+    }
+
+    /**
+     * Compte les enregistrements d'un batch par asset, pour le contrôle d'admission.
+     */
+    private Map<UUID, Integer> countByAsset(List<SensorDataRequest> requests) {
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        for (SensorDataRequest request : requests) {
+            counts.merge(request.getAssetId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Envoie une donnée vers Kafka et reporte son acquittement dans l'agrégateur.
+     *
+     * @param validated true si la donnée a déjà été validée par {@link SensorDataRequestValidator}
+     */
+    private void sendAndAggregate(SensorData sensorData, int index, BatchAckAggregator aggregator, boolean validated) {
+        try {
+            CompletableFuture<SendResult<String, SensorData>> future = validated
+                    ? kafkaProducerService.sendValidatedSensorData(sensorData)
+                    : kafkaProducerService.sendSensorData(sensorData);
+
+            future.whenComplete((result, ex) -> {
+                if (ex == null) {
+                    aggregator.success(result.getRecordMetadata());
+                } else {
+                    aggregator.failure(index, IngestionErrorCode.fromException(ex));
+                }
+            });
+        } catch (Exception e) {
+            aggregator.failure(index, IngestionErrorCode.fromException(e));
+        }
+    }
+
+    /**
+     * Construit la réponse d'erreur d'une ingestion unitaire.
+     */
+    private ResponseEntity<IngestionResponse> ingestionFailed(String sensorCode, Throwable ex) {
+        Throwable cause = causeOf(ex);
+        if (KafkaProducerService.isBufferedAtEdge(cause)) {
+            // Circuit Kafka ouvert : la mesure sera publiée par la reprise
+            log.debug("Reading sent to the edge buffer: {}", cause.getMessage());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(IngestionResponse.deferred(sensorCode, cause.getMessage()));
+        }
+        if (cause instanceof ReadingDroppedException) {
+            // Circuit Kafka ouvert et edge buffer indisponible : la mesure est perdue
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(IngestionResponse.error("Kafka service unavailable: " + cause.getMessage()));
+        }
+        log.error("Failed to ingest sensor data: {}", cause.getMessage(), cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(IngestionResponse.error("Ingestion failed: " + cause.getMessage()));
+    }
+
+    private static Throwable causeOf(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
     /**
      * Convertit un SensorDataRequest en SensorData.
      */
     private SensorData convertToSensorData(SensorDataRequest request) {
-        return SensorData.builder()
-                .timestamp(request.getTimestamp() != null ? request.getTimestamp() : Instant.now())
-                .assetId(request.getAssetId())
-                .sensorId(request.getSensorId())
-                .sensorCode(request.getSensorCode())
-                .sensorType(request.getSensorType())
-                .value(request.getValue())
-                .unit(request.getUnit())
-                .quality(request.getQuality())
-                .source("http")
-                .metadata(request.getMetadata())
-                .build();
+        return request.toSensorData(SOURCE);
     }
 }
@@ -0,0 +1,327 @@
+package com.mantis.ingestion.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mantis.ingestion.dto.IngestionErrorCode;
+import com.mantis.ingestion.dto.SensorDataRequest;
+import com.mantis.ingestion.dto.WebSocketIngestionMessage;
+import com.mantis.ingestion.service.AdmissionControlService;
+import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorDataRequestValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canal WebSocket d'ingestion continue pour les passerelles.
+ *
+ * Chaque message texte contient une mesure (objet JSON) ou plusieurs (tableau
+ * JSON). Le débit est piloté par crédits : le client reçoit à la connexion
+ * une fenêtre de {@code session-window} mesures, et chaque mesure traitée par
+ * Kafka lui rend un crédit. Les crédits ne sont rendus que si le nombre
+ * global d'envois en vol de {@link KafkaProducerService} est sous
+ * {@code max-in-flight} : un broker lent ralentit donc les passerelles au lieu
+ * de remplir le buffer du producer.
+ *
+ * Toutes les {@code ack-interval-ms}, un acquittement cumulatif est envoyé à
+ * chaque session ({@link WebSocketIngestionMessage}).
+ */
+@Slf4j
+@Component
+public class IngestionWebSocketHandler extends TextWebSocketHandler {
+
+    static final String SOURCE = "websocket";
+
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_SIZE_LIMIT = 512 * 1024;
+
+    @Value("${mantis.ingestion.http.websocket.session-window}")
+    private int sessionWindow;
+
+    @Value("${mantis.ingestion.http.websocket.max-in-flight}")
+    private long maxInFlight;
+
+    private final KafkaProducerService kafkaProducerService;
+    private final SensorDataRequestValidator requestValidator;
+    private final AdmissionControlService admissionControlService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    // Métriques
+    private final Counter recordsReceivedCounter;
+    private final Counter recordsRejectedCounter;
+
+    public IngestionWebSocketHandler(
+            KafkaProducerService kafkaProducerService,
+            SensorDataRequestValidator requestValidator,
+            AdmissionControlService admissionControlService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.kafkaProducerService = kafkaProducerService;
+        this.requestValidator = requestValidator;
+        this.admissionControlService = admissionControlService;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(SensorDataRequest.class);
+
+        this.recordsReceivedCounter = Counter.builder("mantis.ingestion.ws.records.received")
+                .description("Total records received on WebSocket sessions")
+                .register(meterRegistry);
+
+        this.recordsRejectedCounter = Counter.builder("mantis.ingestion.ws.records.rejected")
+                .description("Total WebSocket records rejected before Kafka (validation, credit, admission)")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.ingestion.ws.sessions", sessions, Map::size)
+                .description("Open WebSocket ingestion sessions")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        SessionState state = new SessionState(
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_SIZE_LIMIT));
+        state.credits.set(sessionWindow);
+        sessions.put(session.getId(), state);
+
+        log.info("WebSocket ingestion session opened: id={}, remote={}", session.getId(), session.getRemoteAddress());
+
+        send(state, WebSocketIngestionMessage.builder()
+                .type(WebSocketIngestionMessage.TYPE_CREDIT)
+                .credits(sessionWindow)
+                .build());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        SessionState state = sessions.get(session.getId());
+        if (state == null) {
+            return;
+        }
+
+        try (JsonParser parser = objectMapper.createParser(message.getPayload())) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    readAndIngest(state, parser);
+                }
+            } else if (token != null) {
+                readAndIngest(state, parser);
+            }
+        } catch (JsonProcessingException e) {
+            // Erreur de syntaxe : le reste du message est ignoré, la session reste ouverte
+            send(state, WebSocketIngestionMessage.builder()
+                    .type(WebSocketIngestionMessage.TYPE_ERROR)
+                    .message("Malformed message: " + e.getOriginalMessage())
+                    .build());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        SessionState state = sessions.remove(session.getId());
+        if (state != null) {
+            log.info("WebSocket ingestion session closed: id={}, status={}, received={}",
+                    session.getId(), status, state.nextSeq.get());
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("WebSocket transport error: id={}, error={}", session.getId(), exception.getMessage());
+    }
+
+    /**
+     * Envoie l'acquittement cumulatif de chaque session.
+     */
+    @Scheduled(fixedDelayString = "${mantis.ingestion.http.websocket.ack-interval-ms}")
+    public void flushAcks() {
+        long grantable = grantableCredits();
+        for (SessionState state : sessions.values()) {
+            WebSocketIngestionMessage ack = state.nextAck(grantable);
+            if (ack != null) {
+                grantable -= ack.getCredits();
+                send(state, ack);
+            }
+        }
+    }
+
+    /**
+     * Crédits pouvant être rendus sans dépasser la capacité en vol du producer.
+     */
+    private long grantableCredits() {
+        return Math.max(0, maxInFlight - kafkaProducerService.getInFlightCount());
+    }
+
+    private void readAndIngest(SessionState state, JsonParser parser) throws IOException {
+        JsonStreamContext container = parser.currentToken().isStructStart()
+                ? parser.getParsingContext().getParent()
+                : parser.getParsingContext();
+
+        SensorDataRequest request;
+        try {
+            request = requestReader.readValue(parser);
+        } catch (DatabindException e) {
+            // Erreur de mapping : la mesure est rejetée, la suite du message reste lisible
+            while (parser.getParsingContext() != container && parser.nextToken() != null) {
+                // avancer jusqu'à la fin de la mesure
+            }
+            request = null;
+        }
+        ingest(state, request);
+    }
+
+    private void ingest(SessionState state, SensorDataRequest request) {
+        recordsReceivedCounter.increment();
+        long seq = state.nextSeq.get();
+
+        if (state.credits.getAndDecrement() <= 0) {
+            state.credits.incrementAndGet();
+            reject(state, seq, IngestionErrorCode.NO_CREDIT, false);
+            return;
+        }
+        if (request == null || !requestValidator.validate(request).isEmpty()) {
+            reject(state, seq, IngestionErrorCode.INVALID_DATA, true);
+            return;
+        }
+        if (!admissionControlService.tryAcquire(request.getAssetId(), SOURCE, 1)) {
+            reject(state, seq, IngestionErrorCode.RATE_LIMITED, true);
+            return;
+        }
+
+        state.outstanding.add(seq);
+        state.nextSeq.set(seq + 1);
+        try {
+            kafkaProducerService.sendValidatedSensorData(request.toSensorData(SOURCE)).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    RecordMetadata metadata = result.getRecordMetadata();
+                    state.partitions.merge(new TopicPartition(metadata.topic(), metadata.partition()),
+                            metadata.offset(), Math::max);
+                } else {
+                    state.failures.add(new WebSocketIngestionMessage.RecordFailure(
+                            seq, IngestionErrorCode.fromException(ex)));
+                }
+                state.complete(seq);
+            });
+        } catch (RuntimeException e) {
+            state.failures.add(new WebSocketIngestionMessage.RecordFailure(seq, IngestionErrorCode.fromException(e)));
+            state.complete(seq);
+        }
+    }
+
+    private void reject(SessionState state, long seq, IngestionErrorCode code, boolean returnCredit) {
+        recordsRejectedCounter.increment();
+        state.failures.add(new WebSocketIngestionMessage.RecordFailure(seq, code));
+        if (returnCredit) {
+            state.returnedCredits.incrementAndGet();
+        }
+        state.nextSeq.set(seq + 1);
+    }
+
+    private void send(SessionState state, WebSocketIngestionMessage message) {
+        try {
+            state.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to send WebSocket message: id={}, error={}", state.session.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * État d'une session : séquence, crédits et résultats Kafka en attente
+     * d'acquittement. La séquence n'est écrite que par le thread de réception
+     * de la session ; les callbacks Kafka et le thread d'acquittement ne
+     * lisent et ne modifient que des structures concurrentes.
+     */
+    static final class SessionState {
+        final WebSocketSession session;
+        final AtomicLong nextSeq = new AtomicLong();
+        final AtomicInteger credits = new AtomicInteger();
+        final AtomicInteger returnedCredits = new AtomicInteger();
+        final ConcurrentSkipListSet<Long> outstanding = new ConcurrentSkipListSet<>();
+        final Map<TopicPartition, Long> partitions = new ConcurrentHashMap<>();
+        final ConcurrentLinkedQueue<WebSocketIngestionMessage.RecordFailure> failures = new ConcurrentLinkedQueue<>();
+        private long lastAckedSeq = -1;
+
+        SessionState(WebSocketSession session) {
+            this.session = session;
+        }
+
+        void complete(long seq) {
+            outstanding.remove(seq);
+            returnedCredits.incrementAndGet();
+        }
+
+        /**
+         * Construit l'acquittement suivant, ou null si rien n'a changé.
+         *
+         * @param grantable crédits pouvant être accordés à cette session
+         */
+        synchronized WebSocketIngestionMessage nextAck(long grantable) {
+            // Lire la séquence avant les envois en vol : toute séquence inférieure y a déjà été ajoutée
+            long next = nextSeq.get();
+            Iterator<Long> pending = outstanding.iterator();
+            long lowestPending = pending.hasNext() ? Math.min(pending.next(), next) : next;
+            long ackedSeq = lowestPending - 1;
+
+            List<WebSocketIngestionMessage.RecordFailure> failed = new ArrayList<>();
+            WebSocketIngestionMessage.RecordFailure failure;
+            while ((failure = failures.poll()) != null) {
+                failed.add(failure);
+            }
+
+            int granted = (int) Math.min(returnedCredits.get(), grantable);
+            if (granted > 0) {
+                returnedCredits.addAndGet(-granted);
+                credits.addAndGet(granted);
+            }
+
+            if (ackedSeq == lastAckedSeq && failed.isEmpty() && granted == 0) {
+                return null;
+            }
+            lastAckedSeq = ackedSeq;
+
+            List<WebSocketIngestionMessage.PartitionOffset> offsets = partitions.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(BatchAckAggregator.TOPIC_PARTITION_ORDER))
+                    .map(e -> new WebSocketIngestionMessage.PartitionOffset(
+                            e.getKey().topic(), e.getKey().partition(), e.getValue()))
+                    .toList();
+
+            return WebSocketIngestionMessage.builder()
+                    .type(WebSocketIngestionMessage.TYPE_ACK)
+                    .seq(ackedSeq)
+                    .credits(granted)
+                    .partitions(offsets)
+                    .failures(failed.isEmpty() ? null : failed)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.mantis.ingestion.dto;
+
+import java.util.Locale;
+
+/**
+ * Niveau d'acquittement demandé par le client pour une ingestion HTTP.
+ *
+ * Sélectionné via l'en-tête {@code X-Ack-Level}.
+ */
+public enum AckLevel {
+
+    /**
+     * Fire-and-forget : réponse 202 immédiate, les erreurs producer ne sont
+     * pas remontées au client (elles alimentent le buffer edge).
+     */
+    NONE,
+
+    /**
+     * Réponse 202 si l'envoi n'a pas été rejeté de manière synchrone.
+     *
+     * Seul un échec immédiat est détecté (future déjà en échec au retour de
+     * l'envoi). Rien ne garantit que la donnée soit déjà dans le buffer du
+     * producer : elle peut attendre dans une fenêtre de micro-batch ou
+     * derrière un envoi identique dédupliqué, et un échec ultérieur n'est pas
+     * remonté au client.
+     */
+    BUFFERED,
+
+    /**
+     * Réponse 201 après acquittement du broker, avec partition et offset.
+     */
+    DURABLE;
+
+    /**
+     * Convertit la valeur de l'en-tête HTTP en niveau d'acquittement.
+     *
+     * @param value valeur de l'en-tête (insensible à la casse)
+     * @return niveau d'acquittement
+     * @throws IllegalArgumentException si la valeur est inconnue
+     */
+    public static AckLevel fromHeader(String value) {
+        try {
+            return AckLevel.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Unknown ack level '" + value + "', expected one of: none, buffered, durable");
+        }
+    }
+}
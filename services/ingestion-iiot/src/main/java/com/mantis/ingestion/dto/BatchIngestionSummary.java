@@ -0,0 +1,58 @@
+package com.mantis.ingestion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour la réponse compacte d'une ingestion batch.
+ *
+ * Remplace la liste d'{@link IngestionResponse} (une par enregistrement) par
+ * des totaux, les indices en échec et les bornes d'offsets par partition
+ * (topic et numéro : avec la voie critique, un batch écrit sur deux topics).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchIngestionSummary {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private long latencyMs;
+
+    /**
+     * Enregistrements en échec, triés par indice dans le batch.
+     */
+    private List<RecordFailure> failures;
+
+    /**
+     * Offsets min/max écrits sur chaque partition, triés par topic puis partition.
+     */
+    private List<PartitionOffsets> partitions;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordFailure {
+        private int index;
+        private IngestionErrorCode code;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartitionOffsets {
+        private String topic;
+        private int partition;
+        private long minOffset;
+        private long maxOffset;
+        private int count;
+    }
+}
@@ -0,0 +1,68 @@
+package com.mantis.ingestion.dto;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.apache.kafka.common.errors.TimeoutException;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Codes d'erreur compacts retournés pour les enregistrements en échec.
+ */
+public enum IngestionErrorCode {
+
+    /**
+     * Donnée rejetée par la validation.
+     */
+    INVALID_DATA,
+
+    /**
+     * Délai d'envoi Kafka dépassé (buffer plein, broker injoignable).
+     */
+    TIMEOUT,
+
+    /**
+     * Donnée refusée par le contrôle d'admission.
+     */
+    RATE_LIMITED,
+
+    /**
+     * Donnée envoyée sans crédit disponible (canal WebSocket).
+     */
+    NO_CREDIT,
+
+    /**
+     * Donnée placée dans l'edge buffer, circuit Kafka ouvert, publiée plus
+     * tard par la reprise.
+     */
+    DEFERRED,
+
+    /**
+     * Toute autre erreur du producer Kafka.
+     */
+    KAFKA_ERROR;
+
+    /**
+     * Déduit le code d'erreur à partir d'une exception d'envoi.
+     *
+     * @param ex exception levée ou retournée par le producer
+     * @return code d'erreur correspondant
+     */
+    public static IngestionErrorCode fromException(Throwable ex) {
+        Throwable cause = ex;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof CallNotPermittedException) {
+                return DEFERRED;
+            }
+            if (t instanceof IllegalArgumentException) {
+                return INVALID_DATA;
+            }
+            if (t instanceof TimeoutException || t instanceof java.util.concurrent.TimeoutException) {
+                return TIMEOUT;
+            }
+        }
+        return KAFKA_ERROR;
+    }
+}
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.Locale;
 
 /**
  * DTO pour les réponses d'ingestion.
@@ -29,6 +30,11 @@ public class IngestionResponse {
 
     private Long latencyMs;
 
+    /**
+     * Niveau d'acquittement appliqué (none, buffered, durable).
+     */
+    private String ackLevel;
+
     public static IngestionResponse success(String sensorCode, Long partition, Long offset, Long latencyMs) {
         return IngestionResponse.builder()
                 .success(true)
@@ -40,6 +46,27 @@ public class IngestionResponse {
                 .build();
     }
 
+    public static IngestionResponse accepted(String sensorCode, AckLevel ackLevel) {
+        return IngestionResponse.builder()
+                .success(true)
+                .message("Data accepted for ingestion")
+                .sensorCode(sensorCode)
+                .ackLevel(ackLevel.name().toLowerCase(Locale.ROOT))
+                .build();
+    }
+
+    /**
+     * Donnée placée dans l'edge buffer, publiée vers Kafka par la reprise.
+     */
+    public static IngestionResponse deferred(String sensorCode, String message) {
+        return IngestionResponse.builder()
+                .success(true)
+                .message(message)
+                .sensorCode(sensorCode)
+                .ackLevel(AckLevel.BUFFERED.name().toLowerCase(Locale.ROOT))
+                .build();
+    }
+
     public static IngestionResponse error(String message) {
         return IngestionResponse.builder()
                 .success(false)
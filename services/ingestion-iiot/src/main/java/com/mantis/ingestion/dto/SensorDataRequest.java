@@ -1,6 +1,7 @@
 package com.mantis.ingestion.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.mantis.ingestion.model.SensorData;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -50,4 +51,25 @@ public class SensorDataRequest {
     private Instant timestamp;
 
     private Map<String, Object> metadata;
+
+    /**
+     * Convertit la requête en modèle SensorData.
+     *
+     * @param source source de la donnée (ex: "http")
+     * @return donnée de capteur prête à être publiée
+     */
+    public SensorData toSensorData(String source) {
+        return SensorData.builder()
+                .timestamp(timestamp != null ? timestamp : Instant.now())
+                .assetId(assetId)
+                .sensorId(sensorId)
+                .sensorCode(sensorCode)
+                .sensorType(sensorType)
+                .value(value)
+                .unit(unit)
+                .quality(quality)
+                .source(source)
+                .metadata(metadata)
+                .build();
+    }
 }
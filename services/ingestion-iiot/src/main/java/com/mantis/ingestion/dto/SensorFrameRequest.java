@@ -0,0 +1,130 @@
+package com.mantis.ingestion.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mantis.ingestion.model.SensorData;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO pour une trame de mesures d'un capteur à haute fréquence.
+ *
+ * L'identité du capteur n'est transmise qu'une fois, suivie des valeurs en
+ * colonnes : {@code values[]} avec soit {@code offsetsUs[]} (décalages en
+ * microsecondes depuis {@code startTimestamp}), soit une période
+ * d'échantillonnage fixe {@code samplePeriodUs}. Les tableaux sont décodés
+ * en tableaux primitifs ; un {@link SensorData} n'est construit qu'au moment
+ * de l'envoi vers Kafka.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorFrameRequest {
+
+    public static final int MAX_SAMPLES = 100_000;
+
+    private static final double MIN_VALUE = -999999.99;
+    private static final double MAX_VALUE = 999999.99;
+
+    @NotNull(message = "Asset ID is required")
+    private UUID assetId;
+
+    @NotNull(message = "Sensor ID is required")
+    private UUID sensorId;
+
+    @NotBlank(message = "Sensor code is required")
+    @Pattern(regexp = "^[A-Z0-9_-]+$", message = "Sensor code must contain only uppercase letters, numbers, hyphens and underscores")
+    private String sensorCode;
+
+    @NotBlank(message = "Sensor type is required")
+    private String sensorType;
+
+    @NotBlank(message = "Unit is required")
+    private String unit;
+
+    @Min(value = 0, message = "Quality must be between 0 and 100")
+    @Max(value = 100, message = "Quality must be between 0 and 100")
+    @Builder.Default
+    private Integer quality = 100;
+
+    @NotNull(message = "Start timestamp is required")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    private Instant startTimestamp;
+
+    /**
+     * Période d'échantillonnage fixe (µs), si {@code offsetsUs} est absent.
+     */
+    @Positive(message = "Sample period must be positive")
+    private Long samplePeriodUs;
+
+    /**
+     * Décalage de chaque échantillon depuis {@code startTimestamp} (µs).
+     */
+    private long[] offsetsUs;
+
+    @NotNull(message = "Values are required")
+    @Size(min = 1, max = MAX_SAMPLES, message = "Values must contain between 1 and " + MAX_SAMPLES + " samples")
+    private double[] values;
+
+    private Map<String, Object> metadata;
+
+    /**
+     * Vérifie que l'horodatage des échantillons est défini sans ambiguïté.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Either offsetsUs (same length as values) or samplePeriodUs is required")
+    public boolean isTimingValid() {
+        if (offsetsUs != null) {
+            return samplePeriodUs == null && values != null && offsetsUs.length == values.length;
+        }
+        return samplePeriodUs != null;
+    }
+
+    /**
+     * Nombre d'échantillons de la trame.
+     */
+    @JsonIgnore
+    public int getSampleCount() {
+        return values != null ? values.length : 0;
+    }
+
+    /**
+     * Vérifie qu'un échantillon respecte les bornes de {@link SensorDataRequest}.
+     */
+    public boolean isSampleValid(int index) {
+        double value = values[index];
+        return value >= MIN_VALUE && value <= MAX_VALUE;
+    }
+
+    /**
+     * Construit le SensorData de l'échantillon {@code index}.
+     *
+     * @param index  position de l'échantillon dans la trame
+     * @param source source de la donnée (ex: "http")
+     * @return donnée de capteur prête à être publiée
+     */
+    public SensorData toSensorData(int index, String source) {
+        long offsetUs = offsetsUs != null ? offsetsUs[index] : index * samplePeriodUs;
+
+        return SensorData.builder()
+                .timestamp(startTimestamp.plusNanos(offsetUs * 1_000L))
+                .assetId(assetId)
+                .sensorId(sensorId)
+                .sensorCode(sensorCode)
+                .sensorType(sensorType)
+                .value(values[index])
+                .unit(unit)
+                .quality(quality)
+                .source(source)
+                .metadata(metadata)
+                .build();
+    }
+}
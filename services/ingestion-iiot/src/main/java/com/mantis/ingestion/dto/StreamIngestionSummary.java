@@ -0,0 +1,74 @@
+package com.mantis.ingestion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour le bilan d'une ingestion en flux (NDJSON).
+ *
+ * Retourné une fois le flux entièrement consommé : seuls des compteurs
+ * et un nombre borné d'erreurs sont conservés, quelle que soit la taille
+ * de l'upload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamIngestionSummary {
+
+    /**
+     * true si le flux a été lu jusqu'au bout.
+     */
+    private boolean completed;
+
+    /**
+     * true si la lecture a été interrompue par un corps décompressé trop
+     * volumineux (HTTP 413).
+     */
+    private boolean payloadTooLarge;
+
+    private String message;
+
+    /**
+     * Nombre d'enregistrements lus dans le flux.
+     */
+    private long received;
+
+    /**
+     * Nombre d'enregistrements acquittés par Kafka.
+     */
+    private long ingested;
+
+    /**
+     * Nombre d'enregistrements rejetés (JSON invalide ou validation).
+     */
+    private long rejected;
+
+    /**
+     * Nombre d'enregistrements dont l'envoi Kafka a échoué.
+     */
+    private long failed;
+
+    private long durationMs;
+
+    /**
+     * Premières erreurs rencontrées (liste tronquée).
+     */
+    private List<RecordError> errors;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordError {
+        /**
+         * Position de l'enregistrement dans le flux (à partir de 0).
+         */
+        private long index;
+        private String message;
+    }
+}
@@ -0,0 +1,80 @@
+package com.mantis.ingestion.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Message envoyé par le serveur sur le canal WebSocket d'ingestion.
+ *
+ * <ul>
+ *   <li>{@code credit} : crédits initiaux, à la connexion ;</li>
+ *   <li>{@code ack} : acquittement cumulatif périodique, avec les crédits
+ *       rendus, les offsets durables par partition et les échecs ;</li>
+ *   <li>{@code error} : message illisible (aucune mesure consommée).</li>
+ * </ul>
+ * Les mesures sont numérotées par le serveur dans l'ordre de réception
+ * (séquence à partir de 0, propre à chaque session).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WebSocketIngestionMessage {
+
+    public static final String TYPE_CREDIT = "credit";
+    public static final String TYPE_ACK = "ack";
+    public static final String TYPE_ERROR = "error";
+
+    private String type;
+
+    /**
+     * Toutes les mesures de séquence inférieure ou égale sont traitées :
+     * écrites dans Kafka, ou listées dans {@link #failures} (de cet
+     * acquittement ou d'un précédent). -1 tant qu'aucune ne l'est.
+     */
+    private Long seq;
+
+    /**
+     * Nouveaux crédits accordés : nombre de mesures supplémentaires que le
+     * client peut envoyer.
+     */
+    private Integer credits;
+
+    /**
+     * Offset durable le plus élevé par partition (topic et numéro) depuis
+     * l'ouverture de la session.
+     */
+    private List<PartitionOffset> partitions;
+
+    /**
+     * Mesures en échec depuis l'acquittement précédent.
+     */
+    private List<RecordFailure> failures;
+
+    private String message;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartitionOffset {
+        private String topic;
+        private int partition;
+        private long offset;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordFailure {
+        private long seq;
+        private IngestionErrorCode code;
+    }
+}
@@ -0,0 +1,26 @@
+package com.mantis.ingestion.exception;
+
+import lombok.Getter;
+
+/**
+ * Levée lorsque le contrôle d'admission refuse des données (HTTP 429).
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    /**
+     * Budget épuisé : "asset" ou "global".
+     */
+    private final String reason;
+
+    /**
+     * Délai conseillé avant un nouvel essai, en secondes.
+     */
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String reason, long retryAfterSeconds, String message) {
+        super(message);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
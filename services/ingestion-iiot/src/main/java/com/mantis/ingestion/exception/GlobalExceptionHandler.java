@@ -2,8 +2,10 @@ package com.mantis.ingestion.exception;
 
 import com.mantis.ingestion.dto.IngestionResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.kafka.KafkaException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -42,6 +44,72 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
 
+    /**
+     * Gère les corps de requête illisibles (JSON invalide, flux compressé corrompu).
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<IngestionResponse> handleHttpMessageNotReadableException(
+            HttpMessageNotReadableException ex
+    ) {
+        if (ex.getMostSpecificCause() instanceof PayloadTooLargeException tooLarge) {
+            return handlePayloadTooLargeException(tooLarge);
+        }
+
+        log.warn("Unreadable request body: {}", ex.getMostSpecificCause().getMessage());
+
+        IngestionResponse response = IngestionResponse.error(
+                "Malformed request body: " + ex.getMostSpecificCause().getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    /**
+     * Gère les corps décompressés trop volumineux.
+     */
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<IngestionResponse> handlePayloadTooLargeException(
+            PayloadTooLargeException ex
+    ) {
+        log.warn("Request body too large: {}", ex.getMessage());
+
+        IngestionResponse response = IngestionResponse.error(
+                "Payload too large: " + ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+    }
+
+    /**
+     * Gère les erreurs de validation des enregistrements d'un batch.
+     */
+    @ExceptionHandler(RecordValidationException.class)
+    public ResponseEntity<Map<String, String>> handleRecordValidationException(
+            RecordValidationException ex
+    ) {
+        log.warn("Validation error: {}", ex.getErrors());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getErrors());
+    }
+
+    /**
+     * Gère les refus du contrôle d'admission.
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<IngestionResponse> handleAdmissionRejectedException(
+            AdmissionRejectedException ex
+    ) {
+        log.debug("Admission rejected ({}): {}", ex.getReason(), ex.getMessage());
+
+        IngestionResponse response = IngestionResponse.error(
+                "Too many requests: " + ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     /**
      * Gère les erreurs Kafka.
      */
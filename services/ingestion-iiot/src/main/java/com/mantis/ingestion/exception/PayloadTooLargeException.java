@@ -0,0 +1,26 @@
+package com.mantis.ingestion.exception;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * Levée lorsqu'un corps de requête décompressé dépasse la taille autorisée
+ * (HTTP 413).
+ *
+ * Dérive de {@link IOException} : elle est levée par le flux du corps, au
+ * milieu de la lecture par le parser.
+ */
+@Getter
+public class PayloadTooLargeException extends IOException {
+
+    /**
+     * Taille maximale du corps décompressé, en octets.
+     */
+    private final long maxBytes;
+
+    public PayloadTooLargeException(long maxBytes) {
+        super("Decompressed request body exceeds " + maxBytes + " bytes");
+        this.maxBytes = maxBytes;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mantis.ingestion.exception;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Levée lorsqu'une mesure n'a pu être ni publiée, circuit Kafka ouvert, ni
+ * placée dans l'edge buffer (désactivé ou plein) : elle est perdue.
+ */
+@Getter
+public class ReadingDroppedException extends RuntimeException {
+
+    private final UUID assetId;
+
+    public ReadingDroppedException(UUID assetId) {
+        super("Kafka circuit open and edge buffer unavailable, reading of asset " + assetId + " dropped");
+        this.assetId = assetId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.mantis.ingestion.exception;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Levée lorsqu'un ou plusieurs enregistrements d'un batch sont invalides.
+ *
+ * Les erreurs sont indexées par chemin de champ (ex: "[3].sensorCode"),
+ * comme pour les erreurs de validation d'une requête unitaire.
+ */
+@Getter
+public class RecordValidationException extends RuntimeException {
+
+    private final Map<String, String> errors;
+
+    public RecordValidationException(Map<String, String> errors) {
+        super("Invalid records: " + errors.size() + " field error(s)");
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mantis.ingestion.model;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Agrégat d'un capteur sur un intervalle de temps.
+ *
+ * Porté par une {@link SensorData} qui remplace plusieurs mesures brutes du
+ * même capteur : sa valeur est alors la moyenne, son horodatage le début de
+ * l'intervalle. Une mesure brute n'a pas d'agrégat.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"count", "min", "max", "bucketMs"})
+public class SensorAggregate {
+
+    /**
+     * Nombre de mesures brutes agrégées.
+     */
+    private long count;
+
+    /**
+     * Plus petite valeur de l'intervalle.
+     */
+    private double min;
+
+    /**
+     * Plus grande valeur de l'intervalle.
+     */
+    private double max;
+
+    /**
+     * Durée de l'intervalle, en millisecondes.
+     */
+    private long bucketMs;
+}
@@ -1,7 +1,9 @@
 package com.mantis.ingestion.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,12 +18,18 @@ import java.util.UUID;
  *
  * Représente une mesure unique provenant d'un capteur industriel,
  * avec métadonnées pour traçabilité et qualité.
+ *
+ * L'ordre des propriétés JSON est figé : sans lui, celui des propriétés
+ * calculées (valid, latencyMs) dépend de l'ordre de réflexion de la JVM.
+ * {@code SensorDataJsonSerializer} écrit le même ordre.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"timestamp", "assetId", "sensorId", "sensorCode", "sensorType", "value", "unit",
+        "quality", "source", "metadata", "createdAt", "aggregate", "valid", "latencyMs"})
 public class SensorData {
 
     /**
@@ -84,6 +92,12 @@ public class SensorData {
     @Builder.Default
     private Instant createdAt = Instant.now();
 
+    /**
+     * Agrégat des mesures brutes remplacées par cette mesure (sous-échantillonnage
+     * de l'edge buffer), null pour une mesure brute.
+     */
+    private SensorAggregate aggregate;
+
     /**
      * Vérifie si la donnée est valide.
      *
@@ -99,6 +113,14 @@ public class SensorData {
                 && quality != null && quality >= 0 && quality <= 100;
     }
 
+    /**
+     * Indique si la mesure est un agrégat de plusieurs mesures brutes.
+     */
+    @JsonIgnore
+    public boolean isAggregated() {
+        return aggregate != null;
+    }
+
     /**
      * Calcule la latence entre la mesure et la création du message.
      *
@@ -0,0 +1,48 @@
+package com.mantis.ingestion.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Enveloppe regroupant plusieurs mesures d'un même asset dans un seul
+ * enregistrement Kafka (mode micro-batch du topic raw-sensor-data).
+ *
+ * Un enregistrement enveloppe porte l'en-tête {@link #FORMAT_HEADER} valant
+ * {@link #FORMAT_V1} ; sans cet en-tête, la valeur est une {@link SensorData}
+ * seule. {@code SensorDataEnvelopeDeserializer} lit les deux formats.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"assetId", "readings"})
+public class SensorDataEnvelope {
+
+    /**
+     * En-tête Kafka identifiant le format de la valeur.
+     */
+    public static final String FORMAT_HEADER = "mantis-format";
+
+    /**
+     * Valeur de {@link #FORMAT_HEADER} pour une enveloppe.
+     */
+    public static final String FORMAT_V1 = "envelope-v1";
+
+    /**
+     * Asset commun à toutes les mesures (clé de l'enregistrement).
+     */
+    private UUID assetId;
+
+    /**
+     * Mesures, dans l'ordre de réception.
+     */
+    private List<SensorData> readings;
+}
@@ -0,0 +1,343 @@
+package com.mantis.ingestion.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mantis.ingestion.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contrôle d'admission à l'entrée du service d'ingestion.
+ *
+ * Deux niveaux de limitation :
+ * <ul>
+ *   <li>un token bucket par couple (source, assetId), pour qu'une passerelle
+ *       défaillante ne puisse pas monopoliser le producer ;</li>
+ *   <li>un budget global basé sur l'occupation du buffer mémoire du producer
+ *       Kafka : au-delà du seuil haut, {@code send} finirait par bloquer tous
+ *       les appelants, on refuse donc les nouvelles données.</li>
+ * </ul>
+ * Un refus lève {@link AdmissionRejectedException} (HTTP 429 + Retry-After).
+ */
+@Slf4j
+@Service
+public class AdmissionControlService {
+
+    static final String REASON_ASSET = "asset";
+    static final String REASON_GLOBAL = "global";
+
+    private static final int TOP_KEYS = 10;
+
+    @Value("${mantis.ingestion.admission.enabled}")
+    private boolean enabled;
+
+    @Value("${mantis.ingestion.admission.per-key-rate}")
+    private double perKeyRate;
+
+    @Value("${mantis.ingestion.admission.per-key-burst}")
+    private double perKeyBurst;
+
+    @Value("${mantis.ingestion.admission.buffer-high-watermark}")
+    private double bufferHighWatermark;
+
+    @Value("${mantis.ingestion.admission.buffer-check-interval-ms}")
+    private long bufferCheckIntervalMs;
+
+    @Value("${mantis.ingestion.admission.max-tracked-keys}")
+    private long maxTrackedKeys;
+
+    @Value("${mantis.ingestion.admission.idle-key-expiry-s}")
+    private long idleKeyExpirySeconds;
+
+    private final KafkaProducerService kafkaProducerService;
+
+    private Cache<String, TokenBucket> buckets;
+
+    // Occupation du buffer producer, rafraîchie au plus toutes les bufferCheckIntervalMs
+    private volatile double bufferUtilization;
+    private final AtomicLong lastBufferCheckNanos = new AtomicLong(System.nanoTime() - TimeUnit.DAYS.toNanos(1));
+
+    // Métriques
+    private final Counter admittedCounter;
+    private final Counter rejectedAssetCounter;
+    private final Counter rejectedGlobalCounter;
+
+    public AdmissionControlService(KafkaProducerService kafkaProducerService, MeterRegistry meterRegistry) {
+        this.kafkaProducerService = kafkaProducerService;
+
+        this.admittedCounter = Counter.builder("mantis.ingestion.admission.admitted")
+                .description("Total records admitted by admission control")
+                .register(meterRegistry);
+
+        this.rejectedAssetCounter = Counter.builder("mantis.ingestion.admission.rejected")
+                .description("Total records rejected by admission control")
+                .tag("reason", REASON_ASSET)
+                .register(meterRegistry);
+
+        this.rejectedGlobalCounter = Counter.builder("mantis.ingestion.admission.rejected")
+                .description("Total records rejected by admission control")
+                .tag("reason", REASON_GLOBAL)
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.ingestion.admission.buffer.utilization", this, AdmissionControlService::getBufferUtilization)
+                .description("Kafka producer buffer memory utilization (0-1)")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.ingestion.admission.tracked.keys", this,
+                        s -> s.buckets != null ? s.buckets.estimatedSize() : 0)
+                .description("Number of (source, asset) token buckets currently tracked")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(Duration.ofSeconds(idleKeyExpirySeconds))
+                .build();
+
+        if (enabled) {
+            log.info("Admission control enabled: perKeyRate={}/s, perKeyBurst={}, bufferHighWatermark={}",
+                    perKeyRate, perKeyBurst, bufferHighWatermark);
+        } else {
+            log.info("Admission control disabled");
+        }
+    }
+
+    /**
+     * Admet des enregistrements d'un asset, ou lève une exception.
+     *
+     * @param assetId identifiant de l'asset
+     * @param source  source des données (http, mqtt...)
+     * @param permits nombre d'enregistrements
+     * @throws AdmissionRejectedException si le budget global ou celui de l'asset est épuisé
+     */
+    public void acquire(UUID assetId, String source, int permits) {
+        if (!enabled) {
+            return;
+        }
+        checkGlobalBudget(permits);
+
+        long waitNanos = bucket(source, assetId).tryAcquire(permits, System.nanoTime());
+        if (waitNanos > 0) {
+            throw rejectAsset(source, assetId, permits, waitNanos);
+        }
+        admittedCounter.increment(permits);
+    }
+
+    /**
+     * Admet un batch multi-assets en tout ou rien : si un asset est refusé, les
+     * jetons déjà pris pour les autres sont rendus.
+     *
+     * @param permitsByAsset nombre d'enregistrements par asset
+     * @param source         source des données
+     * @throws AdmissionRejectedException si un budget est épuisé
+     */
+    public void acquireAll(Map<UUID, Integer> permitsByAsset, String source) {
+        if (!enabled) {
+            return;
+        }
+        int total = permitsByAsset.values().stream().mapToInt(Integer::intValue).sum();
+        checkGlobalBudget(total);
+
+        long now = System.nanoTime();
+        List<Map.Entry<TokenBucket, Integer>> acquired = new ArrayList<>(permitsByAsset.size());
+        for (Map.Entry<UUID, Integer> entry : permitsByAsset.entrySet()) {
+            TokenBucket bucket = bucket(source, entry.getKey());
+            long waitNanos = bucket.tryAcquire(entry.getValue(), now);
+            if (waitNanos > 0) {
+                acquired.forEach(a -> a.getKey().refund(a.getValue()));
+                throw rejectAsset(source, entry.getKey(), total, waitNanos);
+            }
+            acquired.add(Map.entry(bucket, entry.getValue()));
+        }
+        admittedCounter.increment(total);
+    }
+
+    /**
+     * Variante sans exception, pour les flux où un refus rejette un seul
+     * enregistrement.
+     *
+     * @return true si l'enregistrement est admis
+     */
+    public boolean tryAcquire(UUID assetId, String source, int permits) {
+        try {
+            acquire(assetId, source, permits);
+            return true;
+        } catch (AdmissionRejectedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Vérifie le budget global (occupation du buffer producer).
+     *
+     * @throws AdmissionRejectedException si le seuil haut est atteint
+     */
+    public void checkGlobalBudget() {
+        if (enabled) {
+            checkGlobalBudget(1);
+        }
+    }
+
+    private void checkGlobalBudget(int permits) {
+        double utilization = getBufferUtilization();
+        if (utilization >= bufferHighWatermark) {
+            rejectedGlobalCounter.increment(permits);
+            long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(bufferCheckIntervalMs));
+            throw new AdmissionRejectedException(REASON_GLOBAL, retryAfterSeconds, String.format(
+                    "Producer buffer %.0f%% full", utilization * 100));
+        }
+    }
+
+    private AdmissionRejectedException rejectAsset(String source, UUID assetId, int permits, long waitNanos) {
+        rejectedAssetCounter.increment(permits);
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        log.debug("Admission rejected: source={}, assetId={}, permits={}, retryAfter={}s",
+                source, assetId, permits, retryAfterSeconds);
+        return new AdmissionRejectedException(REASON_ASSET, retryAfterSeconds,
+                "Rate limit exceeded for asset " + assetId + " (source " + source + ")");
+    }
+
+    private TokenBucket bucket(String source, UUID assetId) {
+        return buckets.get(source + ":" + assetId, k -> new TokenBucket(perKeyBurst, perKeyRate, System.nanoTime()));
+    }
+
+    /**
+     * Occupation du buffer mémoire du producer, entre 0 et 1.
+     */
+    public double getBufferUtilization() {
+        long now = System.nanoTime();
+        long last = lastBufferCheckNanos.get();
+        if (now - last >= TimeUnit.MILLISECONDS.toNanos(bufferCheckIntervalMs)
+                && lastBufferCheckNanos.compareAndSet(last, now)) {
+            bufferUtilization = kafkaProducerService.getBufferUtilization();
+        }
+        return bufferUtilization;
+    }
+
+    /**
+     * Retourne l'état du contrôle d'admission, avec les clés les plus actives.
+     */
+    public AdmissionStats getStats() {
+        long now = System.nanoTime();
+        List<KeyStats> topKeys = buckets.asMap().entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey(), now))
+                .sorted(Comparator.comparingLong(KeyStats::getAdmitted).reversed())
+                .limit(TOP_KEYS)
+                .toList();
+
+        return AdmissionStats.builder()
+                .enabled(enabled)
+                .perKeyRate(perKeyRate)
+                .perKeyBurst(perKeyBurst)
+                .bufferUtilization(getBufferUtilization())
+                .bufferHighWatermark(bufferHighWatermark)
+                .trackedKeys(buckets.estimatedSize())
+                .admitted((long) admittedCounter.count())
+                .rejectedByAsset((long) rejectedAssetCounter.count())
+                .rejectedByGlobal((long) rejectedGlobalCounter.count())
+                .topKeys(topKeys)
+                .build();
+    }
+
+    /**
+     * Token bucket d'un couple (source, asset).
+     *
+     * Un lot plus gros que la capacité est admis lorsque le bucket est plein :
+     * le solde devient négatif et l'asset attend le temps de le rembourser.
+     */
+    static final class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefillNanos;
+        private long admitted;
+        private long rejected;
+
+        TokenBucket(double capacity, double tokensPerSecond, long nowNanos) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        /**
+         * @return 0 si admis, sinon le délai d'attente en nanosecondes
+         */
+        synchronized long tryAcquire(int permits, long nowNanos) {
+            refill(nowNanos);
+            double required = Math.min(permits, capacity);
+            if (tokens >= required) {
+                tokens -= permits;
+                admitted += permits;
+                return 0;
+            }
+            rejected += permits;
+            return Math.max(1, (long) Math.ceil((required - tokens) / tokensPerNano));
+        }
+
+        synchronized void refund(int permits) {
+            tokens = Math.min(capacity, tokens + permits);
+            admitted -= permits;
+        }
+
+        synchronized KeyStats snapshot(String key, long nowNanos) {
+            refill(nowNanos);
+            return KeyStats.builder()
+                    .key(key)
+                    .tokens(tokens)
+                    .admitted(admitted)
+                    .rejected(rejected)
+                    .build();
+        }
+
+        private void refill(long nowNanos) {
+            long elapsed = nowNanos - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                lastRefillNanos = nowNanos;
+            }
+        }
+    }
+
+    @Data
+    @Builder
+    public static class AdmissionStats {
+        private boolean enabled;
+        private double perKeyRate;
+        private double perKeyBurst;
+        private double bufferUtilization;
+        private double bufferHighWatermark;
+        private long trackedKeys;
+        private long admitted;
+        private long rejectedByAsset;
+        private long rejectedByGlobal;
+        private List<KeyStats> topKeys;
+    }
+
+    @Data
+    @Builder
+    public static class KeyStats {
+        private String key;
+        private double tokens;
+        private long admitted;
+        private long rejected;
+    }
+}
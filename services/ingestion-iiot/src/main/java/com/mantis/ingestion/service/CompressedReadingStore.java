@@ -0,0 +1,191 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.model.SensorData;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffer mémoire de mesures compressées par blocs.
+ *
+ * Les mesures arrivent dans un bloc ouvert ; à {@code blockSize} mesures, le
+ * bloc est scellé : encodé en colonnes et compressé en LZ4 par
+ * {@link ReadingBlockCodec}, hors du verrou, par le thread qui l'a rempli.
+ * Une mesure scellée occupe une quinzaine d'octets au lieu de quelques
+ * centaines pour l'objet {@link SensorData} et ses champs.
+ *
+ * Les blocs ne sont décompressés qu'à la reprise : {@link #drainTo} décode le
+ * bloc le plus ancien et garde à part, en tête, les mesures qu'il n'a pas
+ * prises. L'ordre d'arrivée est conservé. La capacité reste un nombre de
+ * mesures.
+ */
+public final class CompressedReadingStore implements EdgeBufferQueue<SensorData> {
+
+    private final int capacity;
+    private final int blockSize;
+
+    // Mesures décodées, les plus anciennes du buffer
+    private final ArrayDeque<SensorData> head = new ArrayDeque<>();
+    // Blocs scellés, du plus ancien au plus récent
+    private final ArrayDeque<Block> sealed = new ArrayDeque<>();
+    private List<SensorData> open;
+
+    private volatile int size;
+    private volatile long compressedBytes;
+
+    public CompressedReadingStore(int capacity, int blockSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Compressed store capacity must be positive: " + capacity);
+        }
+        if (blockSize < 2) {
+            throw new IllegalArgumentException("Compressed store block size must be at least 2: " + blockSize);
+        }
+        this.capacity = capacity;
+        this.blockSize = blockSize;
+        this.open = new ArrayList<>(blockSize);
+    }
+
+    @Override
+    public boolean offer(SensorData sensorData, int limit) {
+        Block full;
+        List<SensorData> readings;
+        synchronized (this) {
+            if (size >= Math.min(limit, capacity)) {
+                return false;
+            }
+            open.add(sensorData);
+            size++;
+            if (open.size() < blockSize) {
+                return true;
+            }
+            // Scellé en place dans la file : l'ordre est fixé avant la compression
+            readings = open;
+            full = new Block(readings);
+            sealed.addLast(full);
+            open = new ArrayList<>(blockSize);
+        }
+        byte[] data = ReadingBlockCodec.encode(readings);
+        synchronized (this) {
+            // Bloc déjà repris ou vidé pendant la compression : rien à remplacer
+            if (full.readings != null) {
+                full.data = data;
+                full.readings = null;
+                compressedBytes += data.length;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized SensorData poll() {
+        if (!fillHead()) {
+            return null;
+        }
+        size--;
+        return head.pollFirst();
+    }
+
+    @Override
+    public synchronized SensorData peek() {
+        return fillHead() ? head.peekFirst() : null;
+    }
+
+    @Override
+    public synchronized int drainTo(List<? super SensorData> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements && fillHead()) {
+            target.add(head.pollFirst());
+            drained++;
+        }
+        size -= drained;
+        return drained;
+    }
+
+    /**
+     * Ramène en tête les mesures les plus anciennes : bloc scellé décodé, ou
+     * bloc ouvert.
+     *
+     * @return false si le buffer est vide
+     */
+    private boolean fillHead() {
+        if (!head.isEmpty()) {
+            return true;
+        }
+        Block block = sealed.pollFirst();
+        if (block != null) {
+            head.addAll(block.expand());
+            if (block.data != null) {
+                compressedBytes -= block.data.length;
+            }
+            block.readings = null;
+            return true;
+        }
+        if (open.isEmpty()) {
+            return false;
+        }
+        head.addAll(open);
+        open.clear();
+        return true;
+    }
+
+    @Override
+    public synchronized List<SensorData> snapshot() {
+        List<SensorData> copy = new ArrayList<>(size);
+        copy.addAll(head);
+        for (Block block : sealed) {
+            copy.addAll(block.expand());
+        }
+        copy.addAll(open);
+        return copy;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Octets occupés par les blocs scellés et compressés.
+     */
+    public long compressedBytes() {
+        return compressedBytes;
+    }
+
+    @Override
+    public synchronized int clear() {
+        int cleared = size;
+        for (Block block : sealed) {
+            block.readings = null;
+        }
+        head.clear();
+        sealed.clear();
+        open.clear();
+        size = 0;
+        compressedBytes = 0;
+        return cleared;
+    }
+
+    /**
+     * Bloc scellé : mesures encore brutes tant que la compression est en
+     * cours, octets compressés ensuite.
+     */
+    private static final class Block {
+
+        private List<SensorData> readings;
+        private byte[] data;
+
+        Block(List<SensorData> readings) {
+            this.readings = readings;
+        }
+
+        List<SensorData> expand() {
+            return readings != null ? readings : ReadingBlockCodec.decode(data);
+        }
+    }
+}
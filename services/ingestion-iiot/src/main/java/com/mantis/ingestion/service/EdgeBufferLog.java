@@ -0,0 +1,563 @@
+package com.mantis.ingestion.service;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mantis.ingestion.config.SensorDataJsonSerializer;
+import com.mantis.ingestion.model.SensorData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal disque de l'edge buffer : log segmenté, en ajout seul, sur des
+ * fichiers mappés en mémoire.
+ *
+ * Chaque segment ({@code <première séquence>.log}) a une taille fixe,
+ * pré-allouée puis mappée. Un enregistrement est
+ * {@code [longueur int][crc32c int][séquence long][assetId 2 x long][mesure JSON]} ;
+ * le CRC couvre séquence, asset et contenu, et la longueur est écrite en dernier : un
+ * enregistrement interrompu par un crash a une longueur nulle ou un CRC
+ * faux, et marque la fin du segment à la relecture.
+ *
+ * La mesure est écrite au format JSON publié sur Kafka
+ * ({@link SensorDataJsonSerializer}) : ses horodatages sont relus à la
+ * milliseconde. Les consommateurs ne voient de toute façon pas plus fin, une
+ * mesure rejouée depuis le journal est donc identique à une mesure envoyée
+ * directement.
+ *
+ * Les mesures relues sont acquittées par séquence ({@link #acknowledge(long)}) ;
+ * la dernière séquence acquittée est écrite dans {@code checkpoint}, et les
+ * segments entièrement acquittés sont supprimés. Au démarrage, les mesures
+ * non acquittées sont de nouveau lues : livraison au moins une fois.
+ *
+ * Une écriture dans un fichier mappé survit à l'arrêt brutal du processus ;
+ * la politique {@link FsyncPolicy} règle la protection contre une coupure
+ * de courant. Le tas ne contient que les métadonnées des segments.
+ */
+@Slf4j
+public class EdgeBufferLog implements Closeable {
+
+    /**
+     * Quand forcer l'écriture sur disque des segments et du checkpoint.
+     */
+    public enum FsyncPolicy {
+        /** À chaque ajout et à chaque acquittement. */
+        ALWAYS,
+        /** Périodiquement, via {@link #force()}. */
+        INTERVAL,
+        /** Jamais : le cache de pages du système suffit (crash du processus seulement). */
+        NONE;
+
+        public static FsyncPolicy parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Mesure relue du journal, avec sa séquence à acquitter.
+     */
+    public record Entry(long sequence, SensorData sensorData) {
+    }
+
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + 2 * Long.BYTES;
+
+    private static final UUID NO_ASSET = new UUID(0, 0);
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final FsyncPolicy fsyncPolicy;
+
+    private final SensorDataJsonSerializer serializer = new SensorDataJsonSerializer();
+    private final ObjectReader reader = JacksonUtils.enhancedObjectMapper().readerFor(SensorData.class);
+    private final CRC32C crc = new CRC32C();
+
+    // Segments du plus ancien au plus récent ; le dernier reçoit les ajouts
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private long nextSequence;
+    private long acknowledged;
+    private boolean checkpointDirty;
+
+    // Curseur de lecture : prochain enregistrement à relire
+    private Segment readSegment;
+    private int readPosition;
+
+    private EdgeBufferLog(Path directory, int segmentBytes, long maxBytes, FsyncPolicy fsyncPolicy) {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size must be greater than " + HEADER_BYTES + " bytes");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.max(2, Math.min(Integer.MAX_VALUE, maxBytes / segmentBytes));
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * Ouvre (ou crée) le journal et récupère les mesures non acquittées.
+     *
+     * @param directory    répertoire des segments
+     * @param segmentBytes taille d'un segment
+     * @param maxBytes     espace disque maximal (au moins deux segments)
+     * @param fsyncPolicy  politique de synchronisation
+     */
+    public static EdgeBufferLog open(Path directory, int segmentBytes, long maxBytes, FsyncPolicy fsyncPolicy)
+            throws IOException {
+        EdgeBufferLog bufferLog = new EdgeBufferLog(directory, segmentBytes, maxBytes, fsyncPolicy);
+        bufferLog.recover();
+        return bufferLog;
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        acknowledged = readCheckpoint();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted((a, b) -> Long.compare(baseSequenceOf(a), baseSequenceOf(b)))
+                    .toList();
+        }
+
+        long expected = -1;
+        for (Path file : files) {
+            long base = baseSequenceOf(file);
+            if (expected != -1 && base != expected) {
+                // Trou dans les séquences : les segments suivants ne peuvent pas être relus dans l'ordre
+                log.warn("Edge buffer log: sequence gap before {}, discarding it", file.getFileName());
+                Files.delete(file);
+                continue;
+            }
+            Segment segment = Segment.map(file, base, segmentBytes);
+            scan(segment);
+            if (segment.lastSequence <= acknowledged || segment.writePosition == 0) {
+                segment.delete();
+                expected = segment.writePosition == 0 ? base : segment.lastSequence + 1;
+                continue;
+            }
+            segments.addLast(segment);
+            expected = segment.lastSequence + 1;
+        }
+
+        nextSequence = segments.isEmpty()
+                ? Math.max(acknowledged, expected - 1) + 1
+                : segments.getLast().lastSequence + 1;
+        seek(acknowledged + 1);
+
+        if (pending() > 0) {
+            log.info("Edge buffer log recovered {} unacknowledged readings from {} segments in {}",
+                    pending(), segments.size(), directory);
+        }
+    }
+
+    /**
+     * Relit un segment jusqu'au premier enregistrement invalide et efface
+     * la fin éventuellement écrite à moitié.
+     */
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        long sequence = segment.baseSequence;
+        while (position + HEADER_BYTES <= segment.size) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segment.size
+                    || buffer.getLong(position + 8) != sequence
+                    || buffer.getInt(position + 4) != checksum(buffer, position, length)) {
+                break;
+            }
+            segment.lastSequence = sequence;
+            sequence++;
+            position += HEADER_BYTES + length;
+        }
+        segment.writePosition = position;
+
+        if (!isZero(buffer, position, Math.min(HEADER_BYTES, segment.size - position))) {
+            log.warn("Edge buffer log: truncating torn record in {} at offset {}", segment.path.getFileName(), position);
+            byte[] zeros = new byte[64 * 1024];
+            for (int i = position; i < segment.size; i += zeros.length) {
+                buffer.put(i, zeros, 0, Math.min(zeros.length, segment.size - i));
+            }
+            buffer.force();
+        }
+    }
+
+    private static boolean isZero(MappedByteBuffer buffer, int position, int length) {
+        for (int i = position; i < position + length; i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ajoute une mesure à la fin du journal.
+     *
+     * @return false si le journal a atteint sa taille maximale
+     */
+    public synchronized boolean append(SensorData sensorData) throws IOException {
+        byte[] payload = serializer.serialize(null, sensorData);
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Reading of " + payload.length + " bytes exceeds the segment size");
+        }
+
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.writePosition + recordBytes > tail.size) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            tail = Segment.create(directory.resolve(segmentName(nextSequence)), nextSequence, segmentBytes);
+            segments.addLast(tail);
+            if (readSegment == null) {
+                readSegment = tail;
+                readPosition = 0;
+            }
+        }
+
+        MappedByteBuffer buffer = tail.buffer;
+        int position = tail.writePosition;
+        UUID assetId = sensorData.getAssetId() != null ? sensorData.getAssetId() : NO_ASSET;
+        buffer.putLong(position + 8, nextSequence);
+        buffer.putLong(position + 16, assetId.getMostSignificantBits());
+        buffer.putLong(position + 24, assetId.getLeastSignificantBits());
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + 4, checksum(buffer, position, payload.length));
+        // La longueur en dernier : elle publie l'enregistrement
+        buffer.putInt(position, payload.length);
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            buffer.force(position, recordBytes);
+        } else if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            tail.dirty = true;
+        }
+        tail.writePosition += recordBytes;
+        tail.lastSequence = nextSequence++;
+        return true;
+    }
+
+    /**
+     * Lit les mesures suivantes, sans les acquitter. Les mesures lues mais
+     * non acquittées sont relues après un redémarrage.
+     */
+    public synchronized List<Entry> read(int maxEntries) {
+        List<Entry> entries = new ArrayList<>(Math.min(maxEntries, 1024));
+        while (entries.size() < maxEntries && readSegment != null) {
+            if (readPosition >= readSegment.writePosition) {
+                Segment next = nextSegment(readSegment);
+                if (next == null) {
+                    break;
+                }
+                readSegment = next;
+                readPosition = 0;
+                continue;
+            }
+
+            Entry entry = decode(readSegment, readPosition);
+            readPosition += HEADER_BYTES + readSegment.buffer.getInt(readPosition);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Prochaine mesure à relire, sans avancer le curseur de lecture.
+     *
+     * @return null si tout a été lu
+     */
+    public synchronized Entry peek() {
+        Segment segment = readSegment;
+        int position = readPosition;
+        while (segment != null && position >= segment.writePosition) {
+            segment = nextSegment(segment);
+            position = 0;
+        }
+        return segment != null ? decode(segment, position) : null;
+    }
+
+    /**
+     * Replace le curseur de lecture après la dernière mesure acquittée : les
+     * mesures lues mais non acquittées seront relues, dans le même ordre.
+     */
+    public synchronized void rewind() {
+        seek(acknowledged + 1);
+    }
+
+    /**
+     * Mesures non acquittées par asset, lues dans les en-têtes des
+     * enregistrements sans décoder les mesures.
+     */
+    public synchronized Map<UUID, Long> pendingByAsset() {
+        Map<UUID, Long> counts = new HashMap<>();
+        for (Segment segment : segments) {
+            MappedByteBuffer buffer = segment.buffer;
+            int position = 0;
+            for (long sequence = segment.baseSequence; sequence <= segment.lastSequence; sequence++) {
+                UUID assetId = new UUID(buffer.getLong(position + 16), buffer.getLong(position + 24));
+                if (sequence > acknowledged && !NO_ASSET.equals(assetId)) {
+                    counts.merge(assetId, 1L, Long::sum);
+                }
+                position += HEADER_BYTES + buffer.getInt(position);
+            }
+        }
+        return counts;
+    }
+
+    private Entry decode(Segment segment, int position) {
+        MappedByteBuffer buffer = segment.buffer;
+        int length = buffer.getInt(position);
+        long sequence = buffer.getLong(position + 8);
+        byte[] payload = new byte[length];
+        buffer.get(position + HEADER_BYTES, payload);
+        try {
+            return new Entry(sequence, reader.readValue(payload));
+        } catch (IOException e) {
+            log.error("Edge buffer log: skipping unreadable reading {}: {}", sequence, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Acquitte toutes les mesures jusqu'à {@code sequence} incluse et
+     * supprime les segments qui ne contiennent plus rien à relire.
+     */
+    public synchronized void acknowledge(long sequence) throws IOException {
+        if (sequence <= acknowledged) {
+            return;
+        }
+        acknowledged = Math.min(sequence, nextSequence - 1);
+
+        Iterator<Segment> it = segments.iterator();
+        while (it.hasNext()) {
+            Segment segment = it.next();
+            if (segment == segments.peekLast() || segment.lastSequence > acknowledged || segment == readSegment) {
+                break;
+            }
+            it.remove();
+            segment.delete();
+        }
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            checkpointDirty = true;
+        } else {
+            writeCheckpoint(fsyncPolicy == FsyncPolicy.ALWAYS);
+        }
+    }
+
+    /**
+     * Acquitte tout le journal (vidage explicite du buffer).
+     */
+    public synchronized void acknowledgeAll() throws IOException {
+        readSegment = segments.peekLast();
+        readPosition = readSegment != null ? readSegment.writePosition : 0;
+        acknowledge(nextSequence - 1);
+    }
+
+    /**
+     * Force sur disque les segments modifiés et le checkpoint
+     * (politique {@link FsyncPolicy#INTERVAL}).
+     */
+    public synchronized void force() throws IOException {
+        for (Segment segment : segments) {
+            if (segment.dirty) {
+                segment.buffer.force();
+                segment.dirty = false;
+            }
+        }
+        if (checkpointDirty) {
+            writeCheckpoint(true);
+            checkpointDirty = false;
+        }
+    }
+
+    /**
+     * Mesures écrites et pas encore acquittées.
+     */
+    public synchronized long pending() {
+        return nextSequence - 1 - acknowledged;
+    }
+
+    /**
+     * Espace disque occupé par les segments.
+     */
+    public synchronized long diskBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.size;
+        }
+        return bytes;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        segments.clear();
+        readSegment = null;
+    }
+
+    private void seek(long sequence) {
+        readSegment = null;
+        readPosition = 0;
+        for (Segment segment : segments) {
+            if (segment.lastSequence < sequence) {
+                continue;
+            }
+            readSegment = segment;
+            int position = 0;
+            long current = segment.baseSequence;
+            while (current < sequence) {
+                position += HEADER_BYTES + segment.buffer.getInt(position);
+                current++;
+            }
+            readPosition = position;
+            return;
+        }
+        readSegment = segments.peekLast();
+        readPosition = readSegment != null ? readSegment.writePosition : 0;
+    }
+
+    private Segment nextSegment(Segment segment) {
+        Iterator<Segment> it = segments.iterator();
+        while (it.hasNext()) {
+            if (it.next() == segment) {
+                return it.hasNext() ? it.next() : null;
+            }
+        }
+        return segments.peekFirst();
+    }
+
+    private int checksum(MappedByteBuffer buffer, int position, int length) {
+        crc.reset();
+        crc.update(buffer.slice(position + 8, HEADER_BYTES - 8 + length));
+        return (int) crc.getValue();
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(checkpoint);
+        if (bytes.length != Long.BYTES + Integer.BYTES) {
+            log.warn("Edge buffer log: invalid checkpoint, replaying every segment");
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long sequence = buffer.getLong();
+        CRC32C checkpointCrc = new CRC32C();
+        checkpointCrc.update(bytes, 0, Long.BYTES);
+        if (buffer.getInt() != (int) checkpointCrc.getValue()) {
+            log.warn("Edge buffer log: corrupted checkpoint, replaying every segment");
+            return 0;
+        }
+        return sequence;
+    }
+
+    private void writeCheckpoint(boolean sync) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(acknowledged);
+        CRC32C checkpointCrc = new CRC32C();
+        checkpointCrc.update(buffer.array(), 0, Long.BYTES);
+        buffer.putInt((int) checkpointCrc.getValue()).flip();
+
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            if (sync) {
+                channel.force(true);
+            }
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String segmentName(long baseSequence) {
+        return String.format("%020d%s", baseSequence, SEGMENT_SUFFIX);
+    }
+
+    private static long baseSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Fichier de segment mappé.
+     */
+    private static final class Segment {
+        private final Path path;
+        private final long baseSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int size;
+        private int writePosition;
+        private long lastSequence;
+        private boolean dirty;
+
+        private Segment(Path path, long baseSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseSequence = baseSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.size = buffer.capacity();
+            this.lastSequence = baseSequence - 1;
+        }
+
+        static Segment create(Path path, long baseSequence, int size) throws IOException {
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.setLength(size);
+            }
+            return map(path, baseSequence, size);
+        }
+
+        /**
+         * Mappe un segment ; un segment existant plus grand que la taille
+         * configurée (configuration modifiée) est mappé en entier.
+         */
+        static Segment map(Path path, long baseSequence, int minSize) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int size = (int) Math.min(Integer.MAX_VALUE, Math.max(channel.size(), minSize));
+            return new Segment(path, baseSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mantis.ingestion.service;
+
+import java.util.List;
+
+/**
+ * File bornée derrière le buffer mémoire de {@link EdgeBufferService} :
+ * objets tels quels ({@link EdgeRingBuffer}) ou blocs compressés
+ * ({@link CompressedReadingStore}).
+ *
+ * @param <E> type des éléments
+ */
+public interface EdgeBufferQueue<E> {
+
+    /**
+     * Ajoute un élément si la file en contient moins de {@code limit}
+     * (au plus la capacité).
+     *
+     * @return false si la limite est atteinte
+     */
+    boolean offer(E element, int limit);
+
+    /**
+     * Retire l'élément le plus ancien.
+     *
+     * @return null si la file est vide
+     */
+    E poll();
+
+    /**
+     * Élément le plus ancien, sans le retirer.
+     *
+     * @return null si la file est vide
+     */
+    E peek();
+
+    /**
+     * Retire au plus {@code maxElements} éléments, du plus ancien au plus récent.
+     *
+     * @return nombre d'éléments retirés
+     */
+    int drainTo(List<? super E> target, int maxElements);
+
+    /**
+     * Copie du contenu, du plus ancien au plus récent.
+     */
+    List<E> snapshot();
+
+    int size();
+
+    int capacity();
+
+    /**
+     * Vide la file.
+     *
+     * @return nombre d'éléments retirés
+     */
+    int clear();
+}
@@ -0,0 +1,293 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.model.SensorData;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reprise automatique de l'edge buffer vers Kafka.
+ *
+ * À chaque tick, si le circuit breaker Kafka est fermé (broker rétabli), un
+ * lot de mesures est repris du buffer ({@link EdgeBufferService#drain(int)})
+ * et republié ; le lot suivant attend l'acquittement de tout le lot. Un lot
+ * en échec est rendu au buffer ({@link EdgeBufferService#requeue}) et repris
+ * au tick suivant, dans le même ordre.
+ *
+ * Le débit est limité par un seau à jetons de {@code rate-per-second}, plafonné
+ * à {@code batch-size} : le broker qui redémarre n'est pas submergé. Le trafic
+ * en direct reste prioritaire : le débit baisse avec la pression du
+ * {@link FlowControlService} et la reprise s'arrête à {@code max-pressure}.
+ *
+ * L'arriéré reste ordonné par asset : un lot part dans l'ordre du buffer, sur
+ * le producer de chaque asset. Les nouvelles mesures ne l'attendent pas et
+ * le précèdent sur le topic ; les mesures reprises portent l'en-tête
+ * {@link KafkaProducerService#REPLAYED_HEADER}.
+ */
+@Slf4j
+@Service
+public class EdgeBufferReplayService {
+
+    /**
+     * État de la reprise.
+     */
+    public enum ReplayState {
+        /** Reprise désactivée. */
+        DISABLED,
+        /** Buffer vide. */
+        IDLE,
+        /** Arriéré en attente d'un circuit Kafka fermé. */
+        WAITING_FOR_KAFKA,
+        /** Arriéré en attente : le trafic en direct occupe le producer. */
+        YIELDING,
+        /** Lots en cours de republication. */
+        REPLAYING
+    }
+
+    @Value("${mantis.ingestion.edge-buffer.replay.enabled}")
+    private boolean enabled;
+
+    @Value("${mantis.ingestion.edge-buffer.replay.batch-size}")
+    private int batchSize;
+
+    @Value("${mantis.ingestion.edge-buffer.replay.rate-per-second}")
+    private double ratePerSecond;
+
+    @Value("${mantis.ingestion.edge-buffer.replay.max-pressure}")
+    private double maxPressure;
+
+    private final EdgeBufferService edgeBufferService;
+    private final KafkaProducerService kafkaProducerService;
+    private final FlowControlService flowControlService;
+
+    private volatile ReplayState state = ReplayState.IDLE;
+    private final AtomicBoolean batchInFlight = new AtomicBoolean();
+
+    // Seau à jetons, manipulé par le thread du scheduler uniquement
+    private double tokens;
+    private long lastRefillNanos;
+
+    // Plus ancienne mesure du lot en cours, null hors lot
+    private volatile Instant batchOldest;
+
+    // Débit observé depuis le début de la reprise courante
+    private volatile long runStartNanos;
+    private final AtomicLong runReplayed = new AtomicLong();
+
+    private final AtomicLong replayedCount = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    // Métriques
+    private final Counter replayedCounter;
+    private final Counter failedBatchesCounter;
+
+    public EdgeBufferReplayService(EdgeBufferService edgeBufferService,
+                                   KafkaProducerService kafkaProducerService,
+                                   FlowControlService flowControlService,
+                                   MeterRegistry meterRegistry) {
+        this.edgeBufferService = edgeBufferService;
+        this.kafkaProducerService = kafkaProducerService;
+        this.flowControlService = flowControlService;
+
+        this.replayedCounter = Counter.builder("mantis.edge.buffer.replayed")
+                .description("Readings replayed from the edge buffer to Kafka")
+                .register(meterRegistry);
+
+        this.failedBatchesCounter = Counter.builder("mantis.edge.buffer.replay.failures")
+                .description("Replay batches returned to the edge buffer after a send failure")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.edge.buffer.backlog.age.seconds", this, s -> s.backlogAge().toMillis() / 1000.0)
+                .description("Age of the oldest reading waiting in the edge buffer")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.edge.buffer.replay.rate", this, EdgeBufferReplayService::getReplayRate)
+                .description("Readings replayed per second since the current replay started")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            state = ReplayState.DISABLED;
+            log.info("Edge buffer replay disabled");
+            return;
+        }
+        lastRefillNanos = System.nanoTime();
+        log.info("Edge buffer replay enabled: batchSize={}, rate={}/s, maxPressure={}",
+                batchSize, ratePerSecond, maxPressure);
+    }
+
+    /**
+     * Reprend un lot si Kafka est disponible et que le trafic en direct le permet.
+     */
+    @Scheduled(fixedDelayString = "${mantis.ingestion.edge-buffer.replay.interval-ms}")
+    public void replay() {
+        if (!enabled || !edgeBufferService.isEnabled() || batchInFlight.get()) {
+            return;
+        }
+
+        double pressure = flowControlService.getPressure();
+        refill(pressure);
+
+        if (edgeBufferService.size() == 0) {
+            if (state == ReplayState.REPLAYING) {
+                log.info("Edge buffer replay complete: {} readings replayed", runReplayed.get());
+            }
+            state = ReplayState.IDLE;
+            return;
+        }
+        if (kafkaProducerService.getCircuitBreakerState() != CircuitBreaker.State.CLOSED) {
+            state = ReplayState.WAITING_FOR_KAFKA;
+            return;
+        }
+        if (pressure >= maxPressure) {
+            state = ReplayState.YIELDING;
+            return;
+        }
+
+        int budget = (int) Math.min(tokens, batchSize);
+        if (budget == 0) {
+            return;
+        }
+        EdgeBufferService.Drained drained = edgeBufferService.drain(budget);
+        if (drained.getReadings().isEmpty()) {
+            return;
+        }
+        tokens -= drained.getReadings().size();
+
+        if (state != ReplayState.REPLAYING) {
+            runStartNanos = System.nanoTime();
+            runReplayed.set(0);
+            log.info("Edge buffer replay started: backlog={}", edgeBufferService.size() + drained.getReadings().size());
+        }
+        state = ReplayState.REPLAYING;
+        send(drained);
+    }
+
+    /**
+     * Ajoute les jetons écoulés depuis le dernier tick, au prorata de la
+     * marge laissée par le trafic en direct.
+     */
+    private void refill(double pressure) {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1e9;
+        lastRefillNanos = now;
+        double share = Math.max(0.0, 1.0 - pressure / maxPressure);
+        tokens = Math.min(batchSize, tokens + elapsedSeconds * ratePerSecond * share);
+    }
+
+    private void send(EdgeBufferService.Drained drained) {
+        batchInFlight.set(true);
+        batchOldest = drained.getReadings().get(0).getTimestamp();
+
+        List<CompletableFuture<?>> futures = new ArrayList<>(drained.getReadings().size());
+        for (SensorData sensorData : drained.getReadings()) {
+            try {
+                futures.add(kafkaProducerService.replaySensorData(sensorData));
+            } catch (RuntimeException e) {
+                // Inutile d'envoyer la suite : elle sera reprise après l'échec
+                futures.add(CompletableFuture.failedFuture(e));
+                break;
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((v, ex) -> {
+            // Seules les mesures précédant le premier échec sont acquittées :
+            // les suivantes sont reprises, sans renvoyer celles déjà publiées
+            int succeeded = 0;
+            while (succeeded < futures.size() && !futures.get(succeeded).isCompletedExceptionally()) {
+                succeeded++;
+            }
+            edgeBufferService.acknowledge(drained, succeeded);
+            replayedCount.addAndGet(succeeded);
+            runReplayed.addAndGet(succeeded);
+            replayedCounter.increment(succeeded);
+            if (ex != null) {
+                failedBatches.incrementAndGet();
+                failedBatchesCounter.increment();
+                log.warn("Edge buffer replay batch failed after {} of {} readings, will retry: {}",
+                        succeeded, drained.getReadings().size(), ex.getMessage());
+            }
+            batchOldest = null;
+            batchInFlight.set(false);
+        });
+    }
+
+    /**
+     * Âge de la plus ancienne mesure à reprendre (zéro si le buffer est vide).
+     */
+    public Duration backlogAge() {
+        Instant oldest = batchOldest;
+        if (oldest == null) {
+            oldest = edgeBufferService.oldestTimestamp();
+        }
+        return oldest != null ? Duration.between(oldest, Instant.now()) : Duration.ZERO;
+    }
+
+    /**
+     * Débit de la reprise courante, en mesures par seconde.
+     */
+    public double getReplayRate() {
+        if (state != ReplayState.REPLAYING) {
+            return 0.0;
+        }
+        double elapsedSeconds = (System.nanoTime() - runStartNanos) / 1e9;
+        return elapsedSeconds > 0 ? runReplayed.get() / elapsedSeconds : 0.0;
+    }
+
+    public ReplayState getState() {
+        return state;
+    }
+
+    /**
+     * Progression de la reprise : arriéré, âge, débit et temps restant estimé.
+     */
+    public ReplayStats getStats() {
+        int backlog = edgeBufferService.size();
+        double rate = getReplayRate();
+        // Avant la première mesure acquittée, l'estimation part du débit configuré
+        double etaRate = rate > 0 ? rate : ratePerSecond;
+        return ReplayStats.builder()
+                .enabled(enabled)
+                .state(state.name())
+                .backlog(backlog)
+                .backlogAgeSeconds(backlogAge().getSeconds())
+                .replayed(replayedCount.get())
+                .replayedCurrentRun(runReplayed.get())
+                .failedBatches(failedBatches.get())
+                .ratePerSecond(rate)
+                .maxRatePerSecond(ratePerSecond)
+                .etaSeconds(backlog > 0 && etaRate > 0 ? (long) Math.ceil(backlog / etaRate) : 0)
+                .build();
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class ReplayStats {
+        private boolean enabled;
+        private String state;
+        private int backlog;
+        private long backlogAgeSeconds;
+        private long replayed;
+        private long replayedCurrentRun;
+        private long failedBatches;
+        private double ratePerSecond;
+        private double maxRatePerSecond;
+        private long etaSeconds;
+    }
+}
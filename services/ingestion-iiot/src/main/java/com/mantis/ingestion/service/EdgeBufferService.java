@@ -2,7 +2,7 @@ package com.mantis.ingestion.service;
 
 import com.mantis.ingestion.model.SensorData;
 import io.micrometer.core.instrument.Counter;
-
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,9 +11,22 @@ import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * Service de buffer edge pour stocker temporairement les données
@@ -21,11 +34,70 @@ import java.util.concurrent.atomic.AtomicLong;
  *
  * Permet de ne pas perdre de données lors de coupures réseau ou
  * d'indisponibilité temporaire de Kafka.
+ *
+ * En mémoire, les mesures sont dans un {@link EdgeRingBuffer} préalloué de
+ * {@code max-size} cases, sans verrou entre les threads des connecteurs.
+ * Buffer plein, {@code drop-policy} écarte la nouvelle mesure
+ * ({@code drop-newest}) ou la plus ancienne ({@code drop-oldest}) ; les
+ * {@code critical-reserve} dernières places sont réservées aux capteurs dont
+ * le type figure dans {@code critical-sensor-types}. Une mesure non critique
+ * n'écarte jamais une mesure critique : si la plus ancienne l'est, c'est la
+ * nouvelle qui est écartée.
+ *
+ * Avec {@code drop-policy: downsample}, rien n'est écarté tant que c'est
+ * évitable : à {@code downsample-high-water-mark} (fraction de
+ * {@code max-size}), les agrégats déjà produits et la plus ancienne moitié du
+ * buffer sont fusionnés en agrégats par capteur et par intervalle de
+ * {@code downsample-bucket-ms} ({@link ReadingDownsampler}), avec un
+ * intervalle plus large si cela libère plus de places, pour redescendre à
+ * {@code downsample-low-water-mark}. Si la fusion n'y parvient pas, plus
+ * aucune n'est tentée avant que la reprise ne repasse sous cette marque. Les
+ * agrégats portent un {@link com.mantis.ingestion.model.SensorAggregate}
+ * (min, max, nombre ; la valeur est la moyenne) et passent avant le reste du
+ * buffer. Ils comptent dans {@code max-size} : une fois le buffer plein
+ * d'agrégats, la nouvelle mesure est écartée.
+ *
+ * Avec {@code compression-enabled}, le ring buffer laisse la place à un
+ * {@link CompressedReadingStore} : les mesures sont rangées par blocs de
+ * {@code compression-block-size}, encodés en colonnes et compressés en LZ4,
+ * et ne sont décompressées qu'à la reprise. Le même tas tient alors un
+ * {@code max-size} de l'ordre de dix fois plus grand.
+ *
+ * Avec {@code persistence-enabled}, les mesures sont écrites dans un
+ * {@link EdgeBufferLog} sous {@code persistence-path} au lieu de la file
+ * mémoire : la limite devient {@code persistence-max-bytes} sur disque, et
+ * les mesures non acquittées sont relues après un redémarrage. Les mesures
+ * sont reprises par {@link #drain(int)} puis {@link #acknowledge(Drained)}.
+ *
+ * Le service compte les mesures en attente par asset, jusqu'à leur
+ * acquittement ({@link BufferStats#getBacklogAssets()}).
  */
 @Slf4j
 @Service
 public class EdgeBufferService {
 
+    /**
+     * Mesure écartée quand le buffer mémoire est plein.
+     */
+    public enum DropPolicy {
+        /** La nouvelle mesure. */
+        DROP_NEWEST,
+        /** La plus ancienne mesure du buffer. */
+        DROP_OLDEST,
+        /** Aucune tant que les plus anciennes mesures peuvent être agrégées, la nouvelle ensuite. */
+        DOWNSAMPLE;
+
+        public static DropPolicy parse(String value) {
+            if (value == null || value.isBlank()) {
+                return DROP_NEWEST;
+            }
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // Élargissements successifs (×2) de l'intervalle de fusion, au plus
+    private static final int MAX_BUCKET_DOUBLINGS = 3;
+
     @Value("${mantis.ingestion.edge-buffer.enabled}")
     private boolean enabled;
 
@@ -35,16 +107,79 @@ public class EdgeBufferService {
     @Value("${mantis.ingestion.edge-buffer.flush-interval-ms}")
     private long flushIntervalMs;
 
-    private final BlockingQueue<SensorData> buffer;
+    @Value("${mantis.ingestion.edge-buffer.persistence-enabled}")
+    private boolean persistenceEnabled;
+
+    @Value("${mantis.ingestion.edge-buffer.persistence-path}")
+    private String persistencePath;
+
+    @Value("${mantis.ingestion.edge-buffer.persistence-segment-bytes}")
+    private int persistenceSegmentBytes;
+
+    @Value("${mantis.ingestion.edge-buffer.persistence-max-bytes}")
+    private long persistenceMaxBytes;
+
+    @Value("${mantis.ingestion.edge-buffer.persistence-fsync}")
+    private String persistenceFsync;
+
+    @Value("${mantis.ingestion.edge-buffer.drop-policy}")
+    private String dropPolicyName;
+
+    @Value("${mantis.ingestion.edge-buffer.critical-reserve}")
+    private int criticalReserve;
+
+    @Value("${mantis.ingestion.edge-buffer.critical-sensor-types}")
+    private String criticalSensorTypes;
+
+    @Value("${mantis.ingestion.edge-buffer.downsample-high-water-mark}")
+    private double downsampleHighWaterMark;
+
+    @Value("${mantis.ingestion.edge-buffer.downsample-low-water-mark}")
+    private double downsampleLowWaterMark;
+
+    @Value("${mantis.ingestion.edge-buffer.downsample-bucket-ms}")
+    private long downsampleBucketMs;
+
+    @Value("${mantis.ingestion.edge-buffer.compression-enabled}")
+    private boolean compressionEnabled;
+
+    @Value("${mantis.ingestion.edge-buffer.compression-block-size}")
+    private int compressionBlockSize;
+
+    // Buffer mémoire, créé par init() ; null en mode disque
+    private EdgeBufferQueue<SensorData> buffer;
+
+    // Lots de reprise en échec, relus avant le buffer
+    private final ConcurrentLinkedDeque<SensorData> requeued = new ConcurrentLinkedDeque<>();
+
+    // Sortie du sous-échantillonnage, relue après les lots en échec et avant le buffer
+    private final ConcurrentLinkedDeque<SensorData> downsampled = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger downsampledSize = new AtomicInteger();
+    private final AtomicBoolean downsampling = new AtomicBoolean();
+    // Retraits de la tête du buffer : reprise, sous-échantillonnage et drop-oldest
+    private final Object headLock = new Object();
+    private int highWaterMark;
+    private int lowWaterMark;
+    // Faux après une fusion restée au-dessus de la marque basse, jusqu'à y redescendre
+    private volatile boolean downsampleArmed = true;
+
+    private DropPolicy dropPolicy = DropPolicy.DROP_NEWEST;
+    private Set<String> criticalTypes = Set.of();
+
+    // Mesures en attente par asset, jusqu'à leur acquittement
+    private final Map<UUID, Long> backlogByAsset = new ConcurrentHashMap<>();
+
+    // Journal disque, null en mode mémoire
+    private EdgeBufferLog diskLog;
     private final AtomicLong bufferedCount = new AtomicLong(0);
     private final AtomicLong droppedCount = new AtomicLong(0);
+    private final AtomicLong mergedCount = new AtomicLong(0);
 
     private final Counter bufferAddedCounter;
     private final Counter bufferDroppedCounter;
+    private final Counter bufferMergedCounter;
 
     public EdgeBufferService(MeterRegistry meterRegistry) {
-        this.buffer = new LinkedBlockingQueue<>();
-
         // Métriques
         this.bufferAddedCounter = Counter.builder("mantis.edge.buffer.added")
                 .description("Total items added to edge buffer")
@@ -54,13 +189,60 @@ public class EdgeBufferService {
                 .description("Total items dropped (buffer full)")
                 .register(meterRegistry);
 
+        this.bufferMergedCounter = Counter.builder("mantis.edge.buffer.downsampled")
+                .description("Raw readings merged into aggregates above the high-water mark")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.edge.buffer.size", this, EdgeBufferService::size)
+                .description("Readings currently held in the edge buffer")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.edge.buffer.compressed.bytes", this, EdgeBufferService::compressedBytes)
+                .description("Heap used by the compressed blocks of the edge buffer")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.edge.buffer.disk.bytes", this, s -> s.diskLog != null ? s.diskLog.diskBytes() : 0)
+                .description("Disk space used by the edge buffer log segments")
+                .register(meterRegistry);
     }
 
     @PostConstruct
     public void init() {
-        if (enabled) {
-            log.info("Edge buffer service enabled: maxSize={}, flushInterval={}ms",
-                    maxSize, flushIntervalMs);
+        if (enabled && persistenceEnabled) {
+            try {
+                diskLog = EdgeBufferLog.open(Path.of(persistencePath), persistenceSegmentBytes, persistenceMaxBytes,
+                        EdgeBufferLog.FsyncPolicy.parse(persistenceFsync));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open edge buffer log in " + persistencePath, e);
+            }
+            backlogByAsset.putAll(diskLog.pendingByAsset());
+            log.info("Edge buffer service enabled (disk log): path={}, maxBytes={}, fsync={}, pending={}",
+                    persistencePath, persistenceMaxBytes, diskLog.getFsyncPolicy(), diskLog.pending());
+        } else if (enabled) {
+            buffer = compressionEnabled
+                    ? new CompressedReadingStore(maxSize, compressionBlockSize)
+                    : new EdgeRingBuffer<>(maxSize);
+            dropPolicy = DropPolicy.parse(dropPolicyName);
+            if (criticalReserve < 0 || criticalReserve >= maxSize) {
+                throw new IllegalStateException("Edge buffer critical reserve must be between 0 and max-size - 1");
+            }
+            if (dropPolicy == DropPolicy.DOWNSAMPLE) {
+                if (downsampleHighWaterMark <= 0 || downsampleHighWaterMark > 1 || downsampleBucketMs <= 0
+                        || downsampleLowWaterMark <= 0 || downsampleLowWaterMark >= downsampleHighWaterMark) {
+                    throw new IllegalStateException("Edge buffer downsampling needs a high-water mark in (0, 1], "
+                            + "a low-water mark in (0, high-water mark) and a positive bucket");
+                }
+                highWaterMark = (int) Math.ceil(maxSize * downsampleHighWaterMark);
+                lowWaterMark = (int) Math.floor(maxSize * downsampleLowWaterMark);
+            }
+            if (criticalSensorTypes != null && !criticalSensorTypes.isBlank()) {
+                criticalTypes = Arrays.stream(criticalSensorTypes.split(","))
+                        .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                        .filter(type -> !type.isEmpty())
+                        .collect(Collectors.toUnmodifiableSet());
+            }
+            log.info("Edge buffer service enabled: maxSize={}, dropPolicy={}, criticalReserve={}, compressed={}, "
+                    + "flushInterval={}ms", maxSize, dropPolicy, criticalReserve, compressionEnabled, flushIntervalMs);
         } else {
             log.info("Edge buffer service disabled");
         }
@@ -77,40 +259,331 @@ public class EdgeBufferService {
             return false;
         }
 
-        if (buffer.size() >= maxSize) {
-            log.warn("Edge buffer full ({}), dropping data: sensorCode={}",
-                    maxSize, sensorData.getSensorCode());
-            droppedCount.incrementAndGet();
-            bufferDroppedCounter.increment();
-            return false;
+        if (diskLog != null) {
+            boolean added = appendToLog(sensorData);
+            if (added) {
+                countBacklog(sensorData);
+            }
+            return added;
+        }
+
+        if (dropPolicy == DropPolicy.DOWNSAMPLE) {
+            int size = size();
+            if (size <= lowWaterMark) {
+                downsampleArmed = true;
+            } else if (size >= highWaterMark && downsampleArmed) {
+                downsample();
+            }
+        }
+
+        int limit = limit(sensorData);
+        while (!buffer.offer(sensorData, limit)) {
+            SensorData evicted = dropPolicy == DropPolicy.DROP_OLDEST ? evictOldest(sensorData) : null;
+            if (evicted == null) {
+                log.warn("Edge buffer full ({}), dropping data: sensorCode={}",
+                        limit, sensorData.getSensorCode());
+                countDropped();
+                return false;
+            }
+            log.warn("Edge buffer full ({}), dropping oldest data: sensorCode={}",
+                    limit, evicted.getSensorCode());
+            uncountBacklog(evicted);
+            countDropped();
+        }
+
+        countBacklog(sensorData);
+        bufferedCount.incrementAndGet();
+        bufferAddedCounter.increment();
+        log.debug("Added to edge buffer: sensorCode={}", sensorData.getSensorCode());
+        return true;
+    }
+
+    /**
+     * Retire la plus ancienne mesure pour faire place à {@code sensorData},
+     * sauf si elle est critique et {@code sensorData} ne l'est pas.
+     *
+     * @return null si rien n'a été retiré
+     */
+    private SensorData evictOldest(SensorData sensorData) {
+        // Sous headLock : la mesure examinée est bien celle retirée
+        synchronized (headLock) {
+            SensorData oldest = buffer.peek();
+            if (oldest == null || (isCritical(oldest) && !isCritical(sensorData))) {
+                return null;
+            }
+            return buffer.poll();
+        }
+    }
+
+    /**
+     * Places du buffer accessibles à la mesure.
+     */
+    private int limit(SensorData sensorData) {
+        // Places réservées : hors d'atteinte des capteurs non critiques
+        int limit = isCritical(sensorData) ? maxSize : maxSize - criticalReserve;
+        // Les agrégats occupent leur part de max-size
+        return limit - downsampledSize.get();
+    }
+
+    /**
+     * Fusionne les agrégats déjà produits et la plus ancienne moitié du buffer
+     * en agrégats par capteur et par intervalle, jusqu'à la marque basse si
+     * possible. Un seul thread à la fois : les autres ajoutent leur mesure
+     * sans attendre.
+     */
+    private void downsample() {
+        if (!downsampling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            synchronized (headLock) {
+                int excess = size() - lowWaterMark;
+                if (excess <= 0) {
+                    return;
+                }
+                int count = buffer.size() / 2;
+                List<SensorData> input = new ArrayList<>(downsampled);
+                int previous = input.size();
+                // Places réservées avant de vider la tête : la taille ne baisse jamais en chemin
+                downsampledSize.addAndGet(count);
+                buffer.drainTo(input, count);
+
+                long bucketMs = downsampleBucketMs;
+                List<SensorData> merged = ReadingDownsampler.merge(input, bucketMs);
+                for (int doubling = 0; doubling < MAX_BUCKET_DOUBLINGS
+                        && input.size() - merged.size() < excess; doubling++) {
+                    List<SensorData> coarser = ReadingDownsampler.merge(input, bucketMs * 2);
+                    if (coarser.size() >= merged.size()) {
+                        break;
+                    }
+                    bucketMs *= 2;
+                    merged = coarser;
+                }
+
+                // Sans place libérée, les mesures restent telles quelles en tête
+                int freed = input.size() - merged.size();
+                List<SensorData> kept = freed > 0 ? merged : input;
+                // Arriéré compté avant d'être décompté : l'asset ne le perd jamais en chemin
+                kept.forEach(this::countBacklog);
+                input.forEach(this::uncountBacklog);
+                downsampled.clear();
+                downsampled.addAll(kept);
+                downsampledSize.addAndGet(kept.size() - previous - count);
+
+                long aggregated = aggregatedReadings(kept) - aggregatedReadings(input);
+                mergedCount.addAndGet(aggregated);
+                bufferMergedCounter.increment(aggregated);
+                if (freed > 0) {
+                    log.warn("Edge buffer above high-water mark ({}), {} oldest records merged into {} "
+                            + "(bucket={}ms)", highWaterMark, input.size(), merged.size(), bucketMs);
+                }
+                if (size() > lowWaterMark) {
+                    downsampleArmed = false;
+                    log.warn("Edge buffer downsampling cannot reach low-water mark ({}), suspended until replay "
+                            + "drains below it", lowWaterMark);
+                }
+            }
+        } finally {
+            downsampling.set(false);
+        }
+    }
+
+    private static long aggregatedReadings(List<SensorData> readings) {
+        long aggregated = 0;
+        for (SensorData sensorData : readings) {
+            if (sensorData.isAggregated()) {
+                aggregated += sensorData.getAggregate().getCount();
+            }
         }
+        return aggregated;
+    }
+
+    private boolean isCritical(SensorData sensorData) {
+        return criticalReserve > 0 && sensorData.getSensorType() != null
+                && criticalTypes.contains(sensorData.getSensorType().toLowerCase(Locale.ROOT));
+    }
 
-        boolean added = buffer.offer(sensorData);
+    private void countDropped() {
+        droppedCount.incrementAndGet();
+        bufferDroppedCounter.increment();
+    }
+
+    private boolean appendToLog(SensorData sensorData) {
+        boolean added;
+        try {
+            added = diskLog.append(sensorData);
+        } catch (IOException | RuntimeException e) {
+            log.error("Edge buffer log write failed, dropping data: sensorCode={}, error={}",
+                    sensorData.getSensorCode(), e.getMessage());
+            added = false;
+        }
         if (added) {
             bufferedCount.incrementAndGet();
             bufferAddedCounter.increment();
-            log.debug("Added to edge buffer: sensorCode={}, bufferSize={}",
-                    sensorData.getSensorCode(), buffer.size());
+        } else {
+            log.warn("Edge buffer log full ({} bytes), dropping data: sensorCode={}",
+                    persistenceMaxBytes, sensorData.getSensorCode());
+            countDropped();
         }
-
         return added;
     }
 
     /**
-     * Récupère toutes les données du buffer.
+     * Reprend au plus {@code maxItems} mesures, dans l'ordre d'arrivée.
+     *
+     * En mode disque, les mesures restent dans le journal jusqu'à
+     * {@link #acknowledge(Drained)} : sans acquittement, elles sont relues
+     * au prochain démarrage.
+     */
+    public Drained drain(int maxItems) {
+        if (diskLog != null) {
+            List<EdgeBufferLog.Entry> entries = diskLog.read(maxItems);
+            List<SensorData> readings = new ArrayList<>(entries.size());
+            // Séquences gardées une à une : les entrées illisibles sont sautées
+            long[] sequences = new long[entries.size()];
+            for (EdgeBufferLog.Entry entry : entries) {
+                sequences[readings.size()] = entry.sequence();
+                readings.add(entry.sensorData());
+            }
+            return new Drained(readings, sequences);
+        }
+        List<SensorData> readings = new ArrayList<>(Math.min(maxItems, size()));
+        synchronized (headLock) {
+            while (readings.size() < maxItems) {
+                SensorData sensorData = requeued.pollFirst();
+                if (sensorData == null) {
+                    break;
+                }
+                readings.add(sensorData);
+            }
+            while (readings.size() < maxItems) {
+                SensorData sensorData = downsampled.pollFirst();
+                if (sensorData == null) {
+                    break;
+                }
+                downsampledSize.decrementAndGet();
+                readings.add(sensorData);
+            }
+            buffer.drainTo(readings, maxItems - readings.size());
+        }
+        return new Drained(readings, null);
+    }
+
+    /**
+     * Acquitte des mesures reprises : elles ne seront plus relues.
+     */
+    public void acknowledge(Drained drained) {
+        acknowledge(drained, drained.getReadings().size());
+    }
+
+    /**
+     * Rend au buffer des mesures reprises dont le renvoi a échoué : elles
+     * seront reprises de nouveau, en tête et dans le même ordre. En mémoire,
+     * elles sont gardées à part du buffer et ne comptent pas dans sa capacité.
+     */
+    public void requeue(Drained drained) {
+        acknowledge(drained, 0);
+    }
+
+    /**
+     * Acquitte les {@code count} premières mesures reprises et rend les
+     * suivantes au buffer, comme {@link #requeue(Drained)}. En mode disque,
+     * le point de reprise avance jusqu'à la dernière mesure acquittée.
+     */
+    public void acknowledge(Drained drained, int count) {
+        List<SensorData> readings = drained.getReadings();
+        for (int i = 0; i < count; i++) {
+            uncountBacklog(readings.get(i));
+        }
+        if (diskLog != null) {
+            if (count > 0) {
+                try {
+                    diskLog.acknowledge(drained.getSequences()[count - 1]);
+                } catch (IOException e) {
+                    log.error("Edge buffer log checkpoint failed: {}", e.getMessage());
+                }
+            }
+            if (count < readings.size()) {
+                diskLog.rewind();
+            }
+            return;
+        }
+        for (int i = readings.size() - 1; i >= count; i--) {
+            requeued.offerFirst(readings.get(i));
+        }
+    }
+
+    /**
+     * Horodatage de la plus ancienne mesure restant à reprendre.
+     *
+     * @return null si le buffer est vide
+     */
+    public Instant oldestTimestamp() {
+        SensorData oldest;
+        if (diskLog != null) {
+            EdgeBufferLog.Entry entry = diskLog.peek();
+            oldest = entry != null ? entry.sensorData() : null;
+        } else {
+            oldest = requeued.peekFirst();
+            if (oldest == null) {
+                oldest = downsampled.peekFirst();
+            }
+            if (oldest == null && buffer != null) {
+                oldest = buffer.peek();
+            }
+        }
+        return oldest != null ? oldest.getTimestamp() : null;
+    }
+
+    private void countBacklog(SensorData sensorData) {
+        if (sensorData.getAssetId() != null) {
+            backlogByAsset.merge(sensorData.getAssetId(), 1L, Long::sum);
+        }
+    }
+
+    private void uncountBacklog(SensorData sensorData) {
+        if (sensorData.getAssetId() != null) {
+            backlogByAsset.computeIfPresent(sensorData.getAssetId(), (assetId, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Copie des données du buffer, de la plus ancienne à la plus récente
+     * (mode mémoire uniquement).
      *
      * @return liste des données
      */
-    public BlockingQueue<SensorData> getBufferedData() {
-        return buffer;
+    public List<SensorData> getBufferedData() {
+        if (buffer == null) {
+            return List.of();
+        }
+        List<SensorData> readings = new ArrayList<>(requeued);
+        readings.addAll(downsampled);
+        readings.addAll(buffer.snapshot());
+        return readings;
     }
 
     /**
      * Vide le buffer.
      */
     public void clear() {
-        int size = buffer.size();
-        buffer.clear();
+        int size = size();
+        if (diskLog != null) {
+            try {
+                diskLog.acknowledgeAll();
+            } catch (IOException e) {
+                log.error("Edge buffer log checkpoint failed: {}", e.getMessage());
+            }
+        }
+        if (buffer != null) {
+            buffer.clear();
+        }
+        requeued.clear();
+        synchronized (headLock) {
+            downsampled.clear();
+            downsampledSize.set(0);
+        }
+        backlogByAsset.clear();
         log.info("Edge buffer cleared: {} items removed", size);
     }
 
@@ -118,7 +591,17 @@ public class EdgeBufferService {
      * Retourne la taille actuelle du buffer.
      */
     public int size() {
-        return buffer.size();
+        if (diskLog != null) {
+            return (int) Math.min(Integer.MAX_VALUE, diskLog.pending());
+        }
+        return buffer != null ? buffer.size() + requeued.size() + downsampledSize.get() : 0;
+    }
+
+    /**
+     * Octets occupés par les blocs compressés (mode compressé uniquement).
+     */
+    public long compressedBytes() {
+        return buffer instanceof CompressedReadingStore store ? store.compressedBytes() : 0;
     }
 
     /**
@@ -134,10 +617,17 @@ public class EdgeBufferService {
     public BufferStats getStats() {
         return BufferStats.builder()
                 .enabled(enabled)
-                .currentSize(buffer.size())
+                .currentSize(size())
                 .maxSize(maxSize)
+                .dropPolicy(dropPolicy.name())
+                .compressed(buffer instanceof CompressedReadingStore)
+                .compressedBytes(compressedBytes())
                 .totalBuffered(bufferedCount.get())
                 .totalDropped(droppedCount.get())
+                .totalDownsampled(mergedCount.get())
+                .persistent(diskLog != null)
+                .diskBytes(diskLog != null ? diskLog.diskBytes() : 0)
+                .backlogAssets(backlogByAsset.size())
                 .build();
     }
 
@@ -146,17 +636,44 @@ public class EdgeBufferService {
      */
     @Scheduled(fixedDelayString = "${mantis.ingestion.edge-buffer.flush-interval-ms}")
     public void logStats() {
-        if (enabled && buffer.size() > 0) {
+        if (enabled && size() > 0) {
             log.info("Edge buffer stats: size={}, buffered={}, dropped={}",
-                    buffer.size(), bufferedCount.get(), droppedCount.get());
+                    size(), bufferedCount.get(), droppedCount.get());
+        }
+    }
+
+    /**
+     * Force le journal disque sur le support (politique {@code interval}).
+     */
+    @Scheduled(fixedDelayString = "${mantis.ingestion.edge-buffer.persistence-fsync-interval-ms}")
+    public void syncLog() {
+        if (diskLog == null || diskLog.getFsyncPolicy() != EdgeBufferLog.FsyncPolicy.INTERVAL) {
+            return;
+        }
+        try {
+            diskLog.force();
+        } catch (IOException e) {
+            log.error("Edge buffer log fsync failed: {}", e.getMessage());
         }
     }
 
     @PreDestroy
     public void shutdown() {
-        if (enabled && buffer.size() > 0) {
+        if (diskLog != null) {
+            long pending = diskLog.pending();
+            try {
+                diskLog.close();
+            } catch (IOException e) {
+                log.error("Edge buffer log close failed: {}", e.getMessage());
+            }
+            if (pending > 0) {
+                log.info("Shutting down with {} items kept in the edge buffer log", pending);
+            }
+            return;
+        }
+        if (enabled && size() > 0) {
             log.warn("Shutting down with {} items in edge buffer - data will be lost",
-                    buffer.size());
+                    size());
         }
     }
 
@@ -166,7 +683,24 @@ public class EdgeBufferService {
         private boolean enabled;
         private int currentSize;
         private int maxSize;
+        private String dropPolicy;
+        private boolean compressed;
+        private long compressedBytes;
         private long totalBuffered;
         private long totalDropped;
+        private long totalDownsampled;
+        private boolean persistent;
+        private long diskBytes;
+        private int backlogAssets;
+    }
+
+    /**
+     * Mesures reprises par {@link #drain(int)}.
+     */
+    @lombok.Value
+    public static class Drained {
+        List<SensorData> readings;
+        // Séquences du journal disque, une par mesure ; null en mode mémoire
+        long[] sequences;
     }
 }
@@ -0,0 +1,202 @@
+package com.mantis.ingestion.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * File bornée sans verrou, multi-producteurs et multi-consommateurs, sur un
+ * tableau préalloué (algorithme de D. Vyukov).
+ *
+ * Chaque case porte un numéro de séquence qui indique si elle attend un
+ * ajout ou un retrait pour le tour courant : un producteur réserve une case
+ * par CAS sur {@code tail}, un consommateur par CAS sur {@code head}. Aucun
+ * nœud n'est alloué par élément.
+ *
+ * Le tableau a une taille en puissance de deux, mais la capacité est exacte :
+ * {@link #offer(Object, int)} refuse l'élément si la file contient déjà
+ * {@code limit} éléments, vérification faite avant la réservation de la case.
+ *
+ * @param <E> type des éléments
+ */
+public final class EdgeRingBuffer<E> implements EdgeBufferQueue<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public EdgeRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Ring buffer capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = capacity;
+        this.mask = size - 1;
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Ajoute un élément si la file en contient moins que la capacité.
+     */
+    public boolean offer(E element) {
+        return offer(element, capacity);
+    }
+
+    /**
+     * Ajoute un élément si la file en contient moins de {@code limit}
+     * (au plus la capacité) : une partie de la capacité peut ainsi être
+     * réservée à certains éléments.
+     *
+     * @return false si la limite est atteinte
+     */
+    @Override
+    public boolean offer(E element, int limit) {
+        int bound = Math.min(limit, capacity);
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                // head ne fait que croître : une lecture périmée ne peut que surestimer le remplissage
+                if (position - head.get() >= bound) {
+                    return false;
+                }
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // Case du tour précédent pas encore libérée : pleine, ou retrait en cours
+                if (position - head.get() >= bound) {
+                    return false;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Retire l'élément le plus ancien.
+     *
+     * @return null si la file est vide
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public E poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = (E) elements[index];
+                    elements[index] = null;
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+            } else if (difference < 0) {
+                // Case pas encore publiée : vide, ou ajout en cours
+                if (position >= tail.get()) {
+                    return null;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Élément le plus ancien, sans le retirer. Indicatif si un retrait
+     * concurrent est en cours.
+     *
+     * @return null si la file est vide
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public E peek() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        return sequences.get(index) == position + 1 ? (E) elements[index] : null;
+    }
+
+    /**
+     * Retire au plus {@code maxElements} éléments, du plus ancien au plus récent.
+     *
+     * @return nombre d'éléments retirés
+     */
+    @Override
+    public int drainTo(List<? super E> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Copie du contenu, du plus ancien au plus récent. Indicative sous
+     * ajouts ou retraits concurrents.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<E> snapshot() {
+        long from = head.get();
+        long to = tail.get();
+        List<E> copy = new ArrayList<>((int) Math.max(0, Math.min(capacity, to - from)));
+        for (long position = from; position < to; position++) {
+            int index = (int) (position & mask);
+            Object element = elements[index];
+            if (sequences.get(index) == position + 1 && element != null) {
+                copy.add((E) element);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Nombre d'éléments, entre 0 et la capacité.
+     */
+    @Override
+    public int size() {
+        // head d'abord : tail lu ensuite n'est jamais en retard sur lui
+        long first = head.get();
+        long last = tail.get();
+        return (int) Math.max(0, Math.min(capacity, last - first));
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Vide la file.
+     *
+     * @return nombre d'éléments retirés
+     */
+    @Override
+    public int clear() {
+        int cleared = 0;
+        while (poll() != null) {
+            cleared++;
+        }
+        return cleared;
+    }
+}
@@ -0,0 +1,200 @@
+package com.mantis.ingestion.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signal de contrôle de flux partagé entre le producer Kafka et les
+ * connecteurs protocolaires (Modbus, MQTT, OPC UA).
+ *
+ * La pression est calculée périodiquement à partir de l'occupation du
+ * buffer mémoire du producer et du nombre d'envois en vol, ramenés entre
+ * 0 (sous le seuil bas) et 1 (au seuil haut). Elle donne :
+ * <ul>
+ *   <li>un facteur de ralentissement entier, de 1 à {@code max-slowdown},
+ *       appliqué par les connecteurs à leur cadence (intervalle de polling
+ *       Modbus, intervalle de publication OPC UA) ;</li>
+ *   <li>un état de pause au seuil haut, pendant lequel la consommation MQTT
+ *       est suspendue.</li>
+ * </ul>
+ * Les connecteurs ralentissent ainsi à la source au lieu de remplir l'edge
+ * buffer puis de perdre des mesures.
+ */
+@Slf4j
+@Service
+public class FlowControlService {
+
+    @Value("${mantis.ingestion.flow-control.enabled}")
+    private boolean enabled;
+
+    @Value("${mantis.ingestion.flow-control.low-watermark}")
+    private double lowWatermark;
+
+    @Value("${mantis.ingestion.flow-control.high-watermark}")
+    private double highWatermark;
+
+    @Value("${mantis.ingestion.flow-control.max-in-flight}")
+    private long maxInFlight;
+
+    @Value("${mantis.ingestion.flow-control.max-slowdown}")
+    private int maxSlowdown;
+
+    private final KafkaProducerService kafkaProducerService;
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final Object pauseMonitor = new Object();
+
+    private volatile double pressure;
+    private volatile int slowdown = 1;
+    private volatile boolean paused;
+
+    // Métriques
+    private final Counter pausesCounter;
+
+    public FlowControlService(KafkaProducerService kafkaProducerService, MeterRegistry meterRegistry) {
+        this.kafkaProducerService = kafkaProducerService;
+
+        this.pausesCounter = Counter.builder("mantis.ingestion.flow-control.pauses")
+                .description("Times the connectors were paused by flow control")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.ingestion.flow-control.pressure", this, FlowControlService::getPressure)
+                .description("Producer pressure seen by the connectors (0-1)")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.ingestion.flow-control.slowdown", this, FlowControlService::getSlowdown)
+                .description("Factor applied by the connectors to their poll/publishing interval")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.ingestion.flow-control.paused", this, s -> s.isPaused() ? 1 : 0)
+                .description("1 while the connectors are paused")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            log.info("Flow control enabled: watermarks=[{}, {}], maxInFlight={}, maxSlowdown={}",
+                    lowWatermark, highWatermark, maxInFlight, maxSlowdown);
+        } else {
+            log.info("Flow control disabled");
+        }
+    }
+
+    /**
+     * Échantillonne le producer et notifie les connecteurs si le signal change.
+     */
+    @Scheduled(fixedDelayString = "${mantis.ingestion.flow-control.interval-ms}")
+    public void sample() {
+        if (!enabled) {
+            return;
+        }
+
+        double inFlightRatio = maxInFlight > 0
+                ? (double) kafkaProducerService.getInFlightCount() / maxInFlight
+                : 0.0;
+        double current = Math.max(
+                normalize(kafkaProducerService.getBufferUtilization()),
+                normalize(inFlightRatio));
+        pressure = current;
+
+        boolean nowPaused = current >= 1.0;
+        int nowSlowdown = 1 + (int) Math.round(current * (maxSlowdown - 1));
+        if (nowPaused == paused && nowSlowdown == slowdown) {
+            return;
+        }
+
+        if (nowPaused && !paused) {
+            pausesCounter.increment();
+            log.warn("Flow control: pausing connectors (pressure={})", String.format("%.2f", current));
+        } else if (!nowPaused && paused) {
+            log.info("Flow control: resuming connectors (slowdown=x{})", nowSlowdown);
+        } else {
+            log.debug("Flow control: slowdown x{} -> x{}", slowdown, nowSlowdown);
+        }
+
+        slowdown = nowSlowdown;
+        synchronized (pauseMonitor) {
+            paused = nowPaused;
+            if (!nowPaused) {
+                pauseMonitor.notifyAll();
+            }
+        }
+
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.error("Flow control listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private double normalize(double ratio) {
+        if (ratio <= lowWatermark) {
+            return 0.0;
+        }
+        if (ratio >= highWatermark) {
+            return 1.0;
+        }
+        return (ratio - lowWatermark) / (highWatermark - lowWatermark);
+    }
+
+    /**
+     * Enregistre un callback appelé (thread du scheduler) à chaque changement
+     * du facteur de ralentissement ou de l'état de pause.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Attend la fin de la pause, au plus {@code maxWaitMs}.
+     *
+     * @return true si le flux n'est plus en pause
+     */
+    public boolean awaitResume(long maxWaitMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        synchronized (pauseMonitor) {
+            while (paused) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                pauseMonitor.wait(remainingMs);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pression du producer, entre 0 et 1.
+     */
+    public double getPressure() {
+        return pressure;
+    }
+
+    /**
+     * Facteur à appliquer aux intervalles des connecteurs (1 = cadence nominale).
+     */
+    public int getSlowdown() {
+        return slowdown;
+    }
+
+    /**
+     * Vrai si les connecteurs doivent suspendre la consommation.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+}
@@ -0,0 +1,275 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool de producers Kafka pour les données de capteurs.
+ *
+ * Un KafkaProducer unique fait passer tous les envois par le verrou de son
+ * accumulateur et par un seul thread sender. Avec plusieurs shards, chaque
+ * asset est routé vers un producer fixe (hash de l'assetId) : l'ordre par
+ * asset est conservé, et l'idempotence reste assurée par chaque producer.
+ *
+ * Chaque shard peut aussi avoir un template pour les {@link SensorDataEnvelope}
+ * du mode micro-batch, routé de la même façon.
+ *
+ * Le producer de la voie critique ({@link ProducerLane#CRITICAL}) est hors
+ * shards et garde sa configuration : {@link #reconfigure(Map)} ne le touche pas.
+ *
+ * {@link #reconfigure(Map)} ne ferme jamais un producer en cours d'usage : de
+ * nouveaux templates remplacent les anciens d'un bloc, et les anciens
+ * producers sont fermés en arrière-plan une fois les envois en cours passés.
+ */
+@Slf4j
+public class KafkaProducerPool implements DisposableBean {
+
+    /**
+     * Délai avant la fermeture d'un producer remplacé : un thread ayant lu
+     * l'ancien template juste avant la bascule a le temps d'y envoyer.
+     */
+    static final long RETIRE_DELAY_MS = 5_000;
+
+    private volatile List<KafkaTemplate<String, SensorData>> templates;
+    private volatile List<KafkaTemplate<String, SensorDataEnvelope>> envelopeTemplates;
+    private final KafkaTemplate<String, SensorData> criticalTemplate;
+    // Factories remplacées, pas encore fermées
+    private final Set<DisposableBean> retiring = ConcurrentHashMap.newKeySet();
+    private final Executor retireExecutor;
+
+    public KafkaProducerPool(List<KafkaTemplate<String, SensorData>> templates) {
+        this(templates, List.of());
+    }
+
+    /**
+     * @param templates         un template par shard pour les mesures seules
+     * @param envelopeTemplates un template par shard pour les enveloppes, ou liste vide
+     */
+    public KafkaProducerPool(List<KafkaTemplate<String, SensorData>> templates,
+                             List<KafkaTemplate<String, SensorDataEnvelope>> envelopeTemplates) {
+        this(templates, envelopeTemplates, null);
+    }
+
+    /**
+     * @param templates         un template par shard pour les mesures seules
+     * @param envelopeTemplates un template par shard pour les enveloppes, ou liste vide
+     * @param criticalTemplate  template de la voie critique, ou null
+     */
+    public KafkaProducerPool(List<KafkaTemplate<String, SensorData>> templates,
+                             List<KafkaTemplate<String, SensorDataEnvelope>> envelopeTemplates,
+                             KafkaTemplate<String, SensorData> criticalTemplate) {
+        this(templates, envelopeTemplates, criticalTemplate,
+                CompletableFuture.delayedExecutor(RETIRE_DELAY_MS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * @param retireExecutor exécute la fermeture des producers remplacés
+     */
+    KafkaProducerPool(List<KafkaTemplate<String, SensorData>> templates,
+                      List<KafkaTemplate<String, SensorDataEnvelope>> envelopeTemplates,
+                      KafkaTemplate<String, SensorData> criticalTemplate,
+                      Executor retireExecutor) {
+        if (!envelopeTemplates.isEmpty() && envelopeTemplates.size() != templates.size()) {
+            throw new IllegalArgumentException("Expected " + templates.size() + " envelope templates, got "
+                    + envelopeTemplates.size());
+        }
+        this.templates = List.copyOf(templates);
+        this.envelopeTemplates = List.copyOf(envelopeTemplates);
+        this.criticalTemplate = criticalTemplate;
+        this.retireExecutor = retireExecutor;
+    }
+
+    /**
+     * Nombre de producers du pool.
+     */
+    public int size() {
+        return templates.size();
+    }
+
+    /**
+     * Shard d'un asset : toujours le même pour un assetId donné.
+     */
+    public int shardFor(UUID assetId) {
+        int shards = templates.size();
+        if (shards == 1) {
+            return 0;
+        }
+        // Mélange des bits pour que les shards restent équilibrés quel que soit le générateur d'UUID
+        int hash = assetId.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shards);
+    }
+
+    public KafkaTemplate<String, SensorData> template(int shard) {
+        return templates.get(shard);
+    }
+
+    public List<KafkaTemplate<String, SensorData>> templates() {
+        return templates;
+    }
+
+    /**
+     * Template des enveloppes d'un shard.
+     *
+     * @throws IllegalStateException si le pool n'a pas de templates d'enveloppes
+     */
+    public KafkaTemplate<String, SensorDataEnvelope> envelopeTemplate(int shard) {
+        if (envelopeTemplates.isEmpty()) {
+            throw new IllegalStateException("Kafka producer pool has no envelope templates");
+        }
+        return envelopeTemplates.get(shard);
+    }
+
+    public boolean hasEnvelopeTemplates() {
+        return !envelopeTemplates.isEmpty();
+    }
+
+    /**
+     * Template de la voie critique.
+     *
+     * @throws IllegalStateException si le pool n'a pas de template critique
+     */
+    public KafkaTemplate<String, SensorData> criticalTemplate() {
+        if (criticalTemplate == null) {
+            throw new IllegalStateException("Kafka producer pool has no critical lane template");
+        }
+        return criticalTemplate;
+    }
+
+    public boolean hasCriticalTemplate() {
+        return criticalTemplate != null;
+    }
+
+    /**
+     * Configuration effective des shards (celle du shard 0, tous les shards
+     * partageant leurs réglages), ou map vide si elle n'est pas connue.
+     */
+    public Map<String, Object> shardConfigs() {
+        if (templates.get(0).getProducerFactory() instanceof DefaultKafkaProducerFactory<String, ?> factory) {
+            return factory.getConfigurationProperties();
+        }
+        return Map.of();
+    }
+
+    /**
+     * client.id des producers touchés par {@link #reconfigure(Map)} : shards et
+     * enveloppes, sans le producer de la voie critique.
+     */
+    public Set<String> clientIds() {
+        Set<String> clientIds = new LinkedHashSet<>();
+        for (KafkaTemplate<String, ?> template : allTemplates()) {
+            if (template.getProducerFactory() instanceof DefaultKafkaProducerFactory<String, ?> factory) {
+                Object clientId = factory.getConfigurationProperties().get(ProducerConfig.CLIENT_ID_CONFIG);
+                if (clientId != null) {
+                    clientIds.add(clientId.toString());
+                }
+            }
+        }
+        return clientIds;
+    }
+
+    /**
+     * Applique une nouvelle configuration à tous les shards.
+     *
+     * Une factory et un template sont créés par shard avec la nouvelle
+     * configuration, puis remplacent les anciens en une seule écriture : les
+     * envois concurrents utilisent l'ancien ou le nouveau producer, jamais un
+     * producer fermé. Chaque ancien producer est fermé après
+     * {@link #RETIRE_DELAY_MS} ; la fermeture envoie d'abord ses
+     * enregistrements en attente.
+     *
+     * @param configs propriétés producer à remplacer
+     */
+    public synchronized void reconfigure(Map<String, Object> configs) {
+        List<KafkaTemplate<String, SensorData>> previous = templates;
+        List<KafkaTemplate<String, SensorDataEnvelope>> previousEnvelopes = envelopeTemplates;
+        List<KafkaTemplate<String, SensorData>> next = reconfigured(previous, configs);
+        List<KafkaTemplate<String, SensorDataEnvelope>> nextEnvelopes = reconfigured(previousEnvelopes, configs);
+
+        envelopeTemplates = nextEnvelopes;
+        templates = next;
+
+        retire(previous, next);
+        retire(previousEnvelopes, nextEnvelopes);
+        log.info("Kafka producer pool reconfigured: shards={}, configs={}", next.size(), configs);
+    }
+
+    /**
+     * Ferme les producers des shards, y compris ceux remplacés et pas encore
+     * fermés (sans effet sur une factory déjà détruite).
+     */
+    @Override
+    public void destroy() throws Exception {
+        List<KafkaTemplate<String, ?>> all = allTemplates();
+        if (criticalTemplate != null) {
+            all.add(criticalTemplate);
+        }
+        for (KafkaTemplate<String, ?> template : all) {
+            if (template.getProducerFactory() instanceof DisposableBean factory) {
+                factory.destroy();
+            }
+        }
+        for (DisposableBean factory : List.copyOf(retiring)) {
+            close(factory);
+        }
+        log.info("Kafka producer pool closed: shards={}", templates.size());
+    }
+
+    private static <V> List<KafkaTemplate<String, V>> reconfigured(
+            List<KafkaTemplate<String, V>> current, Map<String, Object> configs) {
+        List<KafkaTemplate<String, V>> next = new ArrayList<>(current.size());
+        for (KafkaTemplate<String, V> template : current) {
+            if (template.getProducerFactory() instanceof DefaultKafkaProducerFactory<String, V> factory) {
+                ProducerFactory<String, V> copy = factory.copyWithConfigurationOverride(configs);
+                next.add(new KafkaTemplate<>(copy));
+            } else {
+                next.add(template);
+            }
+        }
+        return List.copyOf(next);
+    }
+
+    private <V> void retire(List<KafkaTemplate<String, V>> previous, List<KafkaTemplate<String, V>> next) {
+        for (int shard = 0; shard < previous.size(); shard++) {
+            KafkaTemplate<String, V> template = previous.get(shard);
+            if (template != next.get(shard) && template.getProducerFactory() instanceof DisposableBean factory) {
+                retiring.add(factory);
+                retireExecutor.execute(() -> close(factory));
+            }
+        }
+    }
+
+    private void close(DisposableBean factory) {
+        // Une seule fermeture, qu'elle vienne du délai ou de destroy()
+        if (!retiring.remove(factory)) {
+            return;
+        }
+        try {
+            factory.destroy();
+        } catch (Exception e) {
+            log.warn("Failed to close replaced Kafka producer: {}", e.getMessage());
+        }
+    }
+
+    private List<KafkaTemplate<String, ?>> allTemplates() {
+        List<KafkaTemplate<String, ?>> all = new ArrayList<>(templates);
+        all.addAll(envelopeTemplates);
+        return all;
+    }
+}
@@ -1,27 +1,144 @@
 package com.mantis.ingestion.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mantis.ingestion.exception.ReadingDroppedException;
 import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * Service de production de messages Kafka pour les données de capteurs.
  *
  * Gère l'envoi asynchrone des données vers Kafka avec métriques et gestion d'erreurs.
+ *
+ * Les doublons (retransmission d'une passerelle après timeout, redélivrance
+ * MQTT QoS 1) sont écartés avant sérialisation : une mesure de même
+ * (sensorId, timestamp, valeur) vue depuis moins de {@code dedup.ttl-ms}
+ * n'est pas renvoyée, l'appelant reçoit le résultat de l'envoi d'origine.
+ * Une mesure placée dans l'edge buffer reste connue du cache : sa
+ * retransmission n'est pas bufferisée une seconde fois. Les reprises du
+ * buffer ne passent pas par ce contrôle.
+ *
+ * Les envois passent par un {@link KafkaProducerPool} : chaque asset est
+ * toujours servi par le même producer.
+ *
+ * En mode micro-batch ({@code kafka.micro-batch.enabled}), les mesures d'un
+ * asset sont regroupées pendant {@code window-ms} et publiées dans un seul
+ * enregistrement {@link SensorDataEnvelope}. Chaque appelant reçoit quand même
+ * un {@link SendResult} pour sa mesure, avec les métadonnées de l'enveloppe.
+ *
+ * Chaque enregistrement porte les en-têtes de latence {@link PipelineLatency}
+ * (source, connector-receive, ingestion-publish).
+ *
+ * Les envois passent par le circuit breaker resilience4j {@code kafka}. Circuit
+ * ouvert, une mesure va directement dans l'edge buffer et le future échoue
+ * avec {@link CallNotPermittedException}, sans attendre les timeouts du
+ * producer ; si le buffer la refuse, il échoue avec
+ * {@link ReadingDroppedException}. En demi-ouverture, quelques envois
+ * servent de sondes.
+ *
+ * Avec la voie critique ({@code kafka.lanes.critical.enabled}), les mesures
+ * dont le sensorType ou le sensorCode est déclaré critique partent sur un
+ * producer et un topic dédiés ({@link ProducerLane#CRITICAL}), hors shards et
+ * hors micro-batch ; les autres restent sur le pool ({@link ProducerLane#BULK}).
+ *
+ * Les mesures de l'edge buffer sont republiées par {@link EdgeBufferReplayService}
+ * via {@link #replaySensorData(SensorData)}, avec l'en-tête
+ * {@link #REPLAYED_HEADER}. Les nouvelles mesures partent directement, même
+ * si leur asset a un arriéré : le trafic en direct passe avant la reprise, et
+ * l'en-tête permet aux consommateurs de reconnaître les mesures reprises,
+ * plus anciennes que celles déjà publiées pour l'asset.
  */
 @Slf4j
 @Service
 public class KafkaProducerService {
 
-    private final KafkaTemplate<String, SensorData> kafkaTemplate;
+    @Value("${mantis.ingestion.dedup.enabled}")
+    private boolean dedupEnabled;
+
+    @Value("${mantis.ingestion.dedup.ttl-ms}")
+    private long dedupTtlMs;
+
+    @Value("${mantis.ingestion.dedup.max-size}")
+    private long dedupMaxSize;
+
+    @Value("${mantis.ingestion.kafka.micro-batch.enabled}")
+    private boolean microBatchEnabled;
+
+    @Value("${mantis.ingestion.kafka.micro-batch.max-readings}")
+    private int microBatchMaxReadings;
+
+    @Value("${mantis.ingestion.kafka.lanes.critical.enabled}")
+    private boolean criticalLaneEnabled;
+
+    @Value("${mantis.ingestion.kafka.lanes.critical.topic}")
+    private String criticalTopic;
+
+    @Value("${mantis.ingestion.kafka.lanes.critical.sensor-types}")
+    private String criticalSensorTypes;
+
+    @Value("${mantis.ingestion.kafka.lanes.critical.sensor-codes}")
+    private String criticalSensorCodes;
+
+    static final String CIRCUIT_BREAKER = "kafka";
+
+    /**
+     * En-tête des enregistrements republiés depuis l'edge buffer.
+     */
+    public static final String REPLAYED_HEADER = "mantis-replayed";
+
+    private static final int MAX_CACHED_ASSET_KEYS = 100_000;
+
+    // Pseudo-shard des envois de la voie critique (hors pool)
+    private static final int CRITICAL_SHARD = -1;
+
+    private static final Header ENVELOPE_HEADER = new RecordHeader(
+            SensorDataEnvelope.FORMAT_HEADER, SensorDataEnvelope.FORMAT_V1.getBytes(StandardCharsets.US_ASCII));
+
+    private static final Header REPLAYED = new RecordHeader(REPLAYED_HEADER, new byte[] {1});
+
+    private final KafkaProducerPool producerPool;
     private final String sensorRawTopic;
     private final EdgeBufferService edgeBufferService;
 
@@ -29,16 +146,59 @@ public class KafkaProducerService {
     private final Counter messagesProducedCounter;
     private final Counter messagesFailedCounter;
     private final Timer sendLatencyTimer;
+    private final Counter duplicatesDroppedCounter;
+    private final Counter dedupMissCounter;
+
+    // Envois par mesure récente, null si la déduplication est désactivée
+    private Cache<DedupKey, CompletableFuture<SendResult<String, SensorData>>> recentSends;
+
+    // Envois en attente d'acquittement Kafka
+    private final AtomicLong inFlight = new AtomicLong();
+
+    // Métriques par shard du pool
+    private final Counter[] shardProducedCounters;
+    private final Counter[] shardFailedCounters;
+    private final AtomicLong[] shardInFlight;
+
+    // Mode micro-batch : mesures en attente par asset
+    private final Map<UUID, AssetBatch> microBatches = new ConcurrentHashMap<>();
+    private final Counter envelopesProducedCounter;
+    private final DistributionSummary readingsPerEnvelope;
+
+    private final PipelineLatency pipelineLatency;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Counter shortCircuitedCounter;
+
+    // Clés Kafka par asset : une seule String par asset, dont le sérialiseur met les octets en cache
+    private final Cache<UUID, String> assetKeys = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_ASSET_KEYS)
+            .build();
+
+    // Enregistrements acquittés par partition du topic, pour le déséquilibre
+    private final Map<Integer, LongAdder> partitionCounts = new ConcurrentHashMap<>();
+
+    // Voie critique : types (en minuscules) et codes capteurs routés hors du pool
+    private Set<String> criticalTypes = Set.of();
+    private Set<String> criticalCodes = Set.of();
+
+    // Métriques par voie
+    private final Map<ProducerLane, Counter> laneProducedCounters = new EnumMap<>(ProducerLane.class);
+    private final Map<ProducerLane, Counter> laneFailedCounters = new EnumMap<>(ProducerLane.class);
+    private final Map<ProducerLane, Timer> laneLatencyTimers = new EnumMap<>(ProducerLane.class);
 
     public KafkaProducerService(
-            KafkaTemplate<String, SensorData> kafkaTemplate,
+            KafkaProducerPool producerPool,
             @Value("${spring.kafka.topics.sensor-raw}") String sensorRawTopic,
             EdgeBufferService edgeBufferService,
+            CircuitBreakerRegistry circuitBreakerRegistry,
             MeterRegistry meterRegistry
     ) {
-        this.kafkaTemplate = kafkaTemplate;
+        this.producerPool = producerPool;
         this.sensorRawTopic = sensorRawTopic;
         this.edgeBufferService = edgeBufferService;
+        this.pipelineLatency = new PipelineLatency(meterRegistry);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER);
 
         // Initialiser les métriques
         this.messagesProducedCounter = Counter.builder("mantis.kafka.messages.produced")
@@ -55,6 +215,137 @@ public class KafkaProducerService {
                 .description("Latency of Kafka send operations")
                 .tag("topic", sensorRawTopic)
                 .register(meterRegistry);
+
+        Gauge.builder("mantis.kafka.send.in.flight", inFlight, AtomicLong::get)
+                .description("Sends awaiting a Kafka acknowledgement")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+
+        this.duplicatesDroppedCounter = Counter.builder("mantis.kafka.dedup.hits")
+                .description("Duplicate readings dropped before Kafka")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+
+        this.dedupMissCounter = Counter.builder("mantis.kafka.dedup.misses")
+                .description("Readings checked against the dedup cache and sent")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.kafka.dedup.hit.ratio", this, KafkaProducerService::getDedupHitRatio)
+                .description("Share of readings dropped as duplicates (0-1)")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+
+        int shards = producerPool.size();
+        this.shardProducedCounters = new Counter[shards];
+        this.shardFailedCounters = new Counter[shards];
+        this.shardInFlight = new AtomicLong[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            String shardTag = String.valueOf(shard);
+            int index = shard;
+            shardInFlight[shard] = new AtomicLong();
+
+            shardProducedCounters[shard] = Counter.builder("mantis.kafka.shard.messages.produced")
+                    .description("Messages produced to Kafka by a producer shard")
+                    .tags("topic", sensorRawTopic, "shard", shardTag)
+                    .register(meterRegistry);
+
+            shardFailedCounters[shard] = Counter.builder("mantis.kafka.shard.messages.failed")
+                    .description("Messages failed to produce by a producer shard")
+                    .tags("topic", sensorRawTopic, "shard", shardTag)
+                    .register(meterRegistry);
+
+            Gauge.builder("mantis.kafka.shard.in.flight", shardInFlight[shard], AtomicLong::get)
+                    .description("Sends awaiting a Kafka acknowledgement on a producer shard")
+                    .tags("topic", sensorRawTopic, "shard", shardTag)
+                    .register(meterRegistry);
+
+            Gauge.builder("mantis.kafka.shard.buffer.utilization", this, s -> s.getBufferUtilization(index))
+                    .description("Producer buffer memory utilization of a producer shard (0-1)")
+                    .tags("topic", sensorRawTopic, "shard", shardTag)
+                    .register(meterRegistry);
+        }
+
+        Gauge.builder("mantis.kafka.dedup.size", this,
+                        s -> s.recentSends != null ? s.recentSends.estimatedSize() : 0)
+                .description("Readings currently held in the dedup cache")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+
+        this.envelopesProducedCounter = Counter.builder("mantis.kafka.microbatch.envelopes")
+                .description("Envelope records produced to Kafka in micro-batch mode")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+
+        this.readingsPerEnvelope = DistributionSummary.builder("mantis.kafka.microbatch.readings")
+                .description("Readings per envelope record in micro-batch mode")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.kafka.microbatch.assets", microBatches, Map::size)
+                .description("Assets with an open micro-batch")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.kafka.partition.skew", this, KafkaProducerService::getPartitionSkew)
+                .description("Records on the busiest partition divided by the mean per partition")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+
+        for (ProducerLane lane : ProducerLane.values()) {
+            laneProducedCounters.put(lane, Counter.builder("mantis.kafka.lane.messages.produced")
+                    .description("Messages produced to Kafka by a priority lane")
+                    .tag("lane", lane.tag())
+                    .register(meterRegistry));
+
+            laneFailedCounters.put(lane, Counter.builder("mantis.kafka.lane.messages.failed")
+                    .description("Messages failed to produce by a priority lane")
+                    .tag("lane", lane.tag())
+                    .register(meterRegistry));
+
+            laneLatencyTimers.put(lane, Timer.builder("mantis.kafka.lane.send.latency")
+                    .description("Latency of Kafka send operations by priority lane")
+                    .tag("lane", lane.tag())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+
+        this.shortCircuitedCounter = Counter.builder("mantis.kafka.circuit.short.circuited")
+                .description("Readings sent straight to the edge buffer while the Kafka circuit breaker was open")
+                .tag("topic", sensorRawTopic)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (microBatchEnabled) {
+            if (!producerPool.hasEnvelopeTemplates()) {
+                throw new IllegalStateException("Micro-batch mode requires envelope producers in the Kafka producer pool");
+            }
+            log.info("Micro-batch mode enabled: maxReadings={}", microBatchMaxReadings);
+        }
+
+        if (criticalLaneEnabled) {
+            if (!producerPool.hasCriticalTemplate()) {
+                throw new IllegalStateException("Critical lane requires a critical producer in the Kafka producer pool");
+            }
+            criticalTypes = parseList(criticalSensorTypes).stream()
+                    .map(type -> type.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            criticalCodes = Set.copyOf(parseList(criticalSensorCodes));
+            log.info("Critical lane enabled: topic={}, sensorTypes={}, sensorCodes={}",
+                    criticalTopic, criticalTypes, criticalCodes);
+        }
+
+        if (!dedupEnabled) {
+            log.info("Duplicate reading suppression disabled");
+            return;
+        }
+        this.recentSends = Caffeine.newBuilder()
+                .maximumSize(dedupMaxSize)
+                .expireAfterWrite(Duration.ofMillis(dedupTtlMs))
+                .build();
+        log.info("Duplicate reading suppression enabled: ttl={}ms, maxSize={}", dedupTtlMs, dedupMaxSize);
     }
 
     /**
@@ -73,48 +364,420 @@ public class KafkaProducerService {
             );
         }
 
+        return send(sensorData, false);
+    }
+
+    /**
+     * Envoie une donnée déjà validée (ex: par {@link SensorDataRequestValidator})
+     * sans repasser par {@link SensorData#isValid()}.
+     *
+     * @param sensorData données valides à envoyer
+     * @return CompletableFuture avec le résultat de l'envoi
+     */
+    public CompletableFuture<SendResult<String, SensorData>> sendValidatedSensorData(SensorData sensorData) {
+        return send(sensorData, false);
+    }
+
+    /**
+     * Republie une mesure reprise de l'edge buffer, hors micro-batch, avec
+     * l'en-tête {@link #REPLAYED_HEADER}. En cas d'échec, la mesure n'est pas
+     * de nouveau bufferisée : la reprise la rend au buffer pour garder l'ordre.
+     *
+     * @param sensorData mesure reprise du buffer
+     * @return CompletableFuture avec le résultat de l'envoi
+     */
+    public CompletableFuture<SendResult<String, SensorData>> replaySensorData(SensorData sensorData) {
+        return send(sensorData, true);
+    }
+
+    private CompletableFuture<SendResult<String, SensorData>> send(SensorData sensorData, boolean replay) {
+        // Une mesure reprise du buffer a déjà été contrôlée à sa réception
+        if (recentSends == null || replay) {
+            return replay ? doReplay(sensorData) : doSend(sensorData);
+        }
+
+        DedupKey dedupKey = DedupKey.of(sensorData);
+        CompletableFuture<SendResult<String, SensorData>> pending = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, SensorData>> original = recentSends.asMap().putIfAbsent(dedupKey, pending);
+        if (original != null) {
+            duplicatesDroppedCounter.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Duplicate sensor data dropped: sensorId={}, timestamp={}",
+                        sensorData.getSensorId(), sensorData.getTimestamp());
+            }
+            return original;
+        }
+        dedupMissCounter.increment();
+
+        try {
+            doSend(sensorData).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    pending.complete(result);
+                } else if (isBufferedAtEdge(ex)) {
+                    // Mesure acceptée dans l'edge buffer : sa retransmission reçoit ce même résultat
+                    pending.completeExceptionally(ex);
+                } else {
+                    // Un envoi en échec ne doit pas bloquer une retransmission
+                    recentSends.asMap().remove(dedupKey, pending);
+                    pending.completeExceptionally(ex);
+                }
+            });
+        } catch (RuntimeException e) {
+            recentSends.asMap().remove(dedupKey, pending);
+            throw e;
+        }
+        return pending;
+    }
+
+    /**
+     * Indique si un envoi en échec a laissé la mesure dans l'edge buffer,
+     * circuit ouvert : elle sera publiée par la reprise et peut être
+     * considérée comme acceptée.
+     *
+     * @param ex exception du future retourné par un envoi
+     * @return true si la mesure attend dans l'edge buffer
+     */
+    public static boolean isBufferedAtEdge(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof CallNotPermittedException;
+    }
+
+    private CompletableFuture<SendResult<String, SensorData>> doSend(SensorData sensorData) {
+        ProducerLane lane = laneOf(sensorData);
+        if (microBatchEnabled && lane == ProducerLane.BULK) {
+            return enqueue(sensorData);
+        }
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return shortCircuit(sensorData);
+        }
+        return publish(sensorData, lane, true);
+    }
+
+    private CompletableFuture<SendResult<String, SensorData>> doReplay(SensorData sensorData) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        }
+        return publish(sensorData, laneOf(sensorData), false);
+    }
+
+    /**
+     * Publie une mesure seule. Avec {@code bufferOnFailure}, une mesure en
+     * échec part dans l'edge buffer ; sans, c'est une mesure reprise, marquée
+     * par {@link #REPLAYED_HEADER}.
+     */
+    private CompletableFuture<SendResult<String, SensorData>> publish(SensorData sensorData, ProducerLane lane,
+                                                                      boolean bufferOnFailure) {
         // Utiliser assetId comme clé pour partitionnement
-        String key = sensorData.getAssetId().toString();
+        String key = assetKey(sensorData.getAssetId());
+        int shard = lane == ProducerLane.CRITICAL ? CRITICAL_SHARD : producerPool.shardFor(sensorData.getAssetId());
 
         // Timer pour mesurer la latence
         Timer.Sample sample = Timer.start();
+        long startNanos = System.nanoTime();
 
-        CompletableFuture<SendResult<String, SensorData>> future = kafkaTemplate.send(
-                sensorRawTopic,
-                key,
-                sensorData
-        );
+        inFlight.incrementAndGet();
+        if (shard != CRITICAL_SHARD) {
+            shardInFlight[shard].incrementAndGet();
+        }
+        long now = System.currentTimeMillis();
+        recordLatency(sensorData, now);
+        RecordHeaders headers = latencyHeaders(sensorData, now);
+        if (!bufferOnFailure) {
+            // Seule la reprise publie sans repli sur l'edge buffer
+            headers.add(REPLAYED);
+        }
+        ProducerRecord<String, SensorData> record = new ProducerRecord<>(
+                topicFor(lane), null, key, sensorData, headers);
+        CompletableFuture<SendResult<String, SensorData>> future;
+        try {
+            future = templateFor(shard).send(record);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            if (shard != CRITICAL_SHARD) {
+                shardInFlight[shard].decrementAndGet();
+            }
+            circuitBreaker.onError(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS, e);
+            throw e;
+        }
 
         future.whenComplete((result, ex) -> {
-            sample.stop(sendLatencyTimer);
+            laneLatencyTimers.get(lane).record(sample.stop(sendLatencyTimer), TimeUnit.NANOSECONDS);
+            recordOutcome(startNanos, ex);
+            onSendComplete(shard, key, sensorData, result, ex, bufferOnFailure);
+        });
 
-            if (ex == null) {
-                // Succès
-                messagesProducedCounter.increment();
-
-                if (log.isDebugEnabled()) {
-                    log.debug("Sent sensor data: topic={}, partition={}, offset={}, key={}, sensorCode={}",
-                            result.getRecordMetadata().topic(),
-                            result.getRecordMetadata().partition(),
-                            result.getRecordMetadata().offset(),
-                            key,
-                            sensorData.getSensorCode()
-                    );
+        return future;
+    }
+
+    /**
+     * Ajoute une mesure au micro-batch de son asset. Le batch est publié quand
+     * il atteint {@code max-readings}, sinon par {@link #flushMicroBatches()}.
+     */
+    private CompletableFuture<SendResult<String, SensorData>> enqueue(SensorData sensorData) {
+        CompletableFuture<SendResult<String, SensorData>> future = new CompletableFuture<>();
+        inFlight.incrementAndGet();
+        shardInFlight[producerPool.shardFor(sensorData.getAssetId())].incrementAndGet();
+
+        while (true) {
+            AssetBatch batch = microBatches.computeIfAbsent(sensorData.getAssetId(), AssetBatch::new);
+            synchronized (batch) {
+                // Un batch retiré par flushMicroBatches() n'est plus dans la map : on en crée un autre
+                if (!batch.retired) {
+                    batch.readings.add(sensorData);
+                    batch.futures.add(future);
+                    if (batch.readings.size() >= microBatchMaxReadings) {
+                        sendEnvelope(batch);
+                    }
+                    return future;
+                }
+            }
+        }
+    }
+
+    /**
+     * Publie les micro-batches en attente. Le batch d'un asset resté sans
+     * mesure pendant toute une fenêtre est retiré.
+     */
+    @Scheduled(fixedDelayString = "${mantis.ingestion.kafka.micro-batch.window-ms}")
+    public void flushMicroBatches() {
+        if (!microBatchEnabled) {
+            return;
+        }
+        for (AssetBatch batch : microBatches.values()) {
+            synchronized (batch) {
+                if (batch.readings.isEmpty()) {
+                    batch.retired = true;
+                    microBatches.remove(batch.assetId, batch);
+                } else {
+                    sendEnvelope(batch);
                 }
-            } else {
-                // Échec - ajouter au buffer edge si activé
-                log.error("Failed to send sensor data: sensorCode={}, error={}",
-                        sensorData.getSensorCode(), ex.getMessage());
-                messagesFailedCounter.increment();
-
-                // Tenter de sauvegarder dans le buffer edge
-                if (edgeBufferService.isEnabled()) {
-                    edgeBufferService.buffer(sensorData);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (microBatchEnabled && !microBatches.isEmpty()) {
+            log.info("Flushing {} pending micro-batches before shutdown", microBatches.size());
+            flushMicroBatches();
+        }
+    }
+
+    /**
+     * Publie le contenu d'un batch dans une enveloppe. Appelé sous le verrou
+     * du batch : les enveloppes d'un asset partent dans l'ordre.
+     */
+    private void sendEnvelope(AssetBatch batch) {
+        List<SensorData> readings = batch.readings;
+        List<CompletableFuture<SendResult<String, SensorData>>> futures = batch.futures;
+        batch.readings = new ArrayList<>();
+        batch.futures = new ArrayList<>();
+
+        String key = assetKey(batch.assetId);
+        int shard = producerPool.shardFor(batch.assetId);
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            CallNotPermittedException rejected = CallNotPermittedException.createCallNotPermittedException(circuitBreaker);
+            for (int i = 0; i < readings.size(); i++) {
+                inFlight.decrementAndGet();
+                shardInFlight[shard].decrementAndGet();
+                shortCircuitedCounter.increment();
+                futures.get(i).completeExceptionally(bufferAtEdge(readings.get(i))
+                        ? rejected : new ReadingDroppedException(batch.assetId));
+            }
+            return;
+        }
+
+        // En-têtes de latence de l'enveloppe : ceux de sa plus ancienne mesure
+        long now = System.currentTimeMillis();
+        SensorData oldest = readings.get(0);
+        for (SensorData sensorData : readings) {
+            recordLatency(sensorData, now);
+            if (sensorData.getTimestamp().isBefore(oldest.getTimestamp())) {
+                oldest = sensorData;
+            }
+        }
+        RecordHeaders headers = latencyHeaders(oldest, now);
+        headers.add(ENVELOPE_HEADER);
+        ProducerRecord<String, SensorDataEnvelope> record = new ProducerRecord<>(
+                sensorRawTopic, null, key, new SensorDataEnvelope(batch.assetId, readings), headers);
+
+        Timer.Sample sample = Timer.start();
+        long startNanos = System.nanoTime();
+        CompletableFuture<SendResult<String, SensorDataEnvelope>> envelopeFuture;
+        try {
+            envelopeFuture = producerPool.envelopeTemplate(shard).send(record);
+        } catch (RuntimeException e) {
+            // Les appelants ont déjà leur future : l'erreur leur est transmise
+            envelopeFuture = CompletableFuture.failedFuture(e);
+        }
+
+        envelopeFuture.whenComplete((result, ex) -> {
+            laneLatencyTimers.get(ProducerLane.BULK).record(sample.stop(sendLatencyTimer), TimeUnit.NANOSECONDS);
+            recordOutcome(startNanos, ex);
+            if (ex == null) {
+                envelopesProducedCounter.increment();
+                readingsPerEnvelope.record(readings.size());
+            }
+            for (int i = 0; i < readings.size(); i++) {
+                SensorData sensorData = readings.get(i);
+                SendResult<String, SensorData> readingResult = ex == null
+                        ? new SendResult<>(new ProducerRecord<>(sensorRawTopic, key, sensorData), result.getRecordMetadata())
+                        : null;
+                onSendComplete(shard, key, sensorData, readingResult, ex, true);
+                if (ex == null) {
+                    futures.get(i).complete(readingResult);
+                } else {
+                    futures.get(i).completeExceptionally(ex);
                 }
             }
         });
+    }
 
-        return future;
+    /**
+     * Enregistre les étapes connector-receive ({@code createdAt}) et
+     * ingestion-publish d'une mesure.
+     */
+    private void recordLatency(SensorData sensorData, long now) {
+        long source = sensorData.getTimestamp().toEpochMilli();
+        if (sensorData.getCreatedAt() != null) {
+            pipelineLatency.record(PipelineLatency.CONNECTOR_RECEIVE, source, sensorData.getCreatedAt().toEpochMilli());
+        }
+        pipelineLatency.record(PipelineLatency.INGESTION_PUBLISH, source, now);
+    }
+
+    private static RecordHeaders latencyHeaders(SensorData sensorData, long now) {
+        RecordHeaders headers = new RecordHeaders();
+        PipelineLatency.stamp(headers, PipelineLatency.SOURCE, sensorData.getTimestamp().toEpochMilli());
+        if (sensorData.getCreatedAt() != null) {
+            PipelineLatency.stamp(headers, PipelineLatency.CONNECTOR_RECEIVE, sensorData.getCreatedAt().toEpochMilli());
+        }
+        PipelineLatency.stamp(headers, PipelineLatency.INGESTION_PUBLISH, now);
+        return headers;
+    }
+
+    /**
+     * Circuit ouvert : la mesure part directement dans l'edge buffer. Refusée
+     * par le buffer, elle est perdue et le future échoue avec
+     * {@link ReadingDroppedException}.
+     */
+    private CompletableFuture<SendResult<String, SensorData>> shortCircuit(SensorData sensorData) {
+        shortCircuitedCounter.increment();
+        if (!bufferAtEdge(sensorData)) {
+            return CompletableFuture.failedFuture(new ReadingDroppedException(sensorData.getAssetId()));
+        }
+        return CompletableFuture.failedFuture(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+    }
+
+    private void recordOutcome(long startNanos, Throwable ex) {
+        long duration = System.nanoTime() - startNanos;
+        if (ex == null) {
+            circuitBreaker.onSuccess(duration, TimeUnit.NANOSECONDS);
+        } else {
+            circuitBreaker.onError(duration, TimeUnit.NANOSECONDS, ex);
+        }
+    }
+
+    /**
+     * Voie d'une mesure : critique si son sensorCode ou son sensorType
+     * (sans tenir compte de la casse) est déclaré critique.
+     */
+    ProducerLane laneOf(SensorData sensorData) {
+        if (!criticalLaneEnabled) {
+            return ProducerLane.BULK;
+        }
+        if (sensorData.getSensorCode() != null && criticalCodes.contains(sensorData.getSensorCode())) {
+            return ProducerLane.CRITICAL;
+        }
+        if (sensorData.getSensorType() != null
+                && criticalTypes.contains(sensorData.getSensorType().toLowerCase(Locale.ROOT))) {
+            return ProducerLane.CRITICAL;
+        }
+        return ProducerLane.BULK;
+    }
+
+    private String topicFor(ProducerLane lane) {
+        return lane == ProducerLane.CRITICAL ? criticalTopic : sensorRawTopic;
+    }
+
+    private KafkaTemplate<String, SensorData> templateFor(int shard) {
+        return shard == CRITICAL_SHARD ? producerPool.criticalTemplate() : producerPool.template(shard);
+    }
+
+    private static List<String> parseList(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+    private String assetKey(UUID assetId) {
+        String key = assetKeys.getIfPresent(assetId);
+        if (key == null) {
+            key = assetId.toString();
+            assetKeys.put(assetId, key);
+        }
+        return key;
+    }
+
+    private void countPartition(int partition) {
+        if (partition >= 0) {
+            partitionCounts.computeIfAbsent(partition, p -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * @return true si la mesure a été acceptée par l'edge buffer
+     */
+    private boolean bufferAtEdge(SensorData sensorData) {
+        return edgeBufferService.isEnabled() && edgeBufferService.buffer(sensorData);
+    }
+
+    private void onSendComplete(int shard, String key, SensorData sensorData,
+                                SendResult<String, SensorData> result, Throwable ex, boolean bufferOnFailure) {
+        inFlight.decrementAndGet();
+        ProducerLane lane = shard == CRITICAL_SHARD ? ProducerLane.CRITICAL : ProducerLane.BULK;
+        if (shard != CRITICAL_SHARD) {
+            shardInFlight[shard].decrementAndGet();
+        }
+
+        if (ex == null) {
+            // Succès
+            messagesProducedCounter.increment();
+            laneProducedCounters.get(lane).increment();
+            if (shard != CRITICAL_SHARD) {
+                shardProducedCounters[shard].increment();
+                countPartition(result.getRecordMetadata().partition());
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Sent sensor data: topic={}, partition={}, offset={}, key={}, sensorCode={}",
+                        result.getRecordMetadata().topic(),
+                        result.getRecordMetadata().partition(),
+                        result.getRecordMetadata().offset(),
+                        key,
+                        sensorData.getSensorCode()
+                );
+            }
+        } else {
+            // Échec - ajouter au buffer edge si activé
+            log.error("Failed to send sensor data: sensorCode={}, error={}",
+                    sensorData.getSensorCode(), ex.getMessage());
+            messagesFailedCounter.increment();
+            laneFailedCounters.get(lane).increment();
+            if (shard != CRITICAL_SHARD) {
+                shardFailedCounters[shard].increment();
+            }
+
+            // Tenter de sauvegarder dans le buffer edge
+            if (bufferOnFailure) {
+                bufferAtEdge(sensorData);
+            }
+        }
     }
 
     /**
@@ -125,8 +788,91 @@ public class KafkaProducerService {
      * @throws Exception en cas d'erreur
      */
     public SendResult<String, SensorData> sendSensorDataSync(SensorData sensorData) throws Exception {
-        String key = sensorData.getAssetId().toString();
-        return kafkaTemplate.send(sensorRawTopic, key, sensorData).get();
+        String key = assetKey(sensorData.getAssetId());
+        ProducerLane lane = laneOf(sensorData);
+        int shard = lane == ProducerLane.CRITICAL ? CRITICAL_SHARD : producerPool.shardFor(sensorData.getAssetId());
+        return templateFor(shard).send(topicFor(lane), key, sensorData).get();
+    }
+
+    /**
+     * Nombre d'envois asynchrones en attente d'acquittement Kafka.
+     */
+    public long getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Part des mesures écartées comme doublons depuis le démarrage.
+     *
+     * @return ratio entre 0 et 1, 0 si aucune mesure n'a été vérifiée
+     */
+    public double getDedupHitRatio() {
+        double hits = duplicatesDroppedCounter.count();
+        double total = hits + dedupMissCounter.count();
+        return total > 0 ? hits / total : 0.0;
+    }
+
+    /**
+     * Occupation du buffer mémoire ({@code buffer.memory}) du producer le
+     * plus chargé du pool : un shard plein bloque les envois de ses assets.
+     *
+     * @return ratio entre 0 et 1, 0 si les métriques ne sont pas disponibles
+     */
+    public double getBufferUtilization() {
+        double max = 0;
+        for (int shard = 0; shard < producerPool.size(); shard++) {
+            max = Math.max(max, getBufferUtilization(shard));
+        }
+        return max;
+    }
+
+    private double getBufferUtilization(int shard) {
+        double total = 0;
+        double available = 0;
+        for (Map.Entry<MetricName, ? extends Metric> entry : producerPool.template(shard).metrics().entrySet()) {
+            MetricName name = entry.getKey();
+            if (!"producer-metrics".equals(name.group())) {
+                continue;
+            }
+            if ("buffer-total-bytes".equals(name.name())) {
+                total = ((Number) entry.getValue().metricValue()).doubleValue();
+            } else if ("buffer-available-bytes".equals(name.name())) {
+                available = ((Number) entry.getValue().metricValue()).doubleValue();
+            }
+        }
+        return total > 0 ? 1.0 - available / total : 0.0;
+    }
+
+    /**
+     * Déséquilibre entre partitions depuis le démarrage : enregistrements de
+     * la partition la plus chargée divisés par la moyenne des partitions
+     * ayant reçu des enregistrements (1 = réparti uniformément).
+     *
+     * @return ratio >= 1, 0 si rien n'a encore été acquitté
+     */
+    public double getPartitionSkew() {
+        long max = 0;
+        long total = 0;
+        for (LongAdder count : partitionCounts.values()) {
+            long value = count.sum();
+            max = Math.max(max, value);
+            total += value;
+        }
+        return total > 0 ? (double) max * partitionCounts.size() / total : 0.0;
+    }
+
+    /**
+     * État du circuit breaker Kafka (CLOSED, OPEN, HALF_OPEN...).
+     */
+    public CircuitBreaker.State getCircuitBreakerState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Métriques du circuit breaker Kafka (fenêtre glissante courante).
+     */
+    public CircuitBreaker.Metrics getCircuitBreakerMetrics() {
+        return circuitBreaker.getMetrics();
     }
 
     /**
@@ -140,9 +886,45 @@ public class KafkaProducerService {
                 .messagesFailed((long) messagesFailedCounter.count())
                 .averageSendLatencyMs(sendLatencyTimer.mean(java.util.concurrent.TimeUnit.MILLISECONDS))
                 .maxSendLatencyMs(sendLatencyTimer.max(java.util.concurrent.TimeUnit.MILLISECONDS))
+                .duplicatesDropped((long) duplicatesDroppedCounter.count())
+                .dedupHitRatio(getDedupHitRatio())
+                .shards(getShardStats())
+                .envelopesProduced((long) envelopesProducedCounter.count())
+                .circuitBreakerState(circuitBreaker.getState().name())
+                .shortCircuited((long) shortCircuitedCounter.count())
+                .partitionSkew(getPartitionSkew())
+                .lanes(getLaneStats())
                 .build();
     }
 
+    private Map<ProducerLane, LaneStats> getLaneStats() {
+        Map<ProducerLane, LaneStats> stats = new EnumMap<>(ProducerLane.class);
+        for (ProducerLane lane : ProducerLane.values()) {
+            Timer latency = laneLatencyTimers.get(lane);
+            stats.put(lane, LaneStats.builder()
+                    .messagesProduced((long) laneProducedCounters.get(lane).count())
+                    .messagesFailed((long) laneFailedCounters.get(lane).count())
+                    .averageSendLatencyMs(latency.mean(TimeUnit.MILLISECONDS))
+                    .maxSendLatencyMs(latency.max(TimeUnit.MILLISECONDS))
+                    .build());
+        }
+        return stats;
+    }
+
+    private List<ShardStats> getShardStats() {
+        List<ShardStats> stats = new ArrayList<>(producerPool.size());
+        for (int shard = 0; shard < producerPool.size(); shard++) {
+            stats.add(ShardStats.builder()
+                    .shard(shard)
+                    .messagesProduced((long) shardProducedCounters[shard].count())
+                    .messagesFailed((long) shardFailedCounters[shard].count())
+                    .inFlight(shardInFlight[shard].get())
+                    .bufferUtilization(getBufferUtilization(shard))
+                    .build());
+        }
+        return stats;
+    }
+
     @lombok.Data
     @lombok.Builder
     public static class ProducerStats {
@@ -150,5 +932,62 @@ public class KafkaProducerService {
         private Long messagesFailed;
         private Double averageSendLatencyMs;
         private Double maxSendLatencyMs;
+        private Long duplicatesDropped;
+        private Double dedupHitRatio;
+        private List<ShardStats> shards;
+        private Long envelopesProduced;
+        private String circuitBreakerState;
+        private Long shortCircuited;
+        private Double partitionSkew;
+        private Map<ProducerLane, LaneStats> lanes;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class LaneStats {
+        private Long messagesProduced;
+        private Long messagesFailed;
+        private Double averageSendLatencyMs;
+        private Double maxSendLatencyMs;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class ShardStats {
+        private Integer shard;
+        private Long messagesProduced;
+        private Long messagesFailed;
+        private Long inFlight;
+        private Double bufferUtilization;
+    }
+
+    /**
+     * Identité d'une mesure pour la déduplication : même capteur, même
+     * instant, même valeur ({@link Double#equals} compare bit à bit).
+     */
+    @lombok.Value
+    static class DedupKey {
+        UUID sensorId;
+        Instant timestamp;
+        Double value;
+
+        static DedupKey of(SensorData sensorData) {
+            return new DedupKey(sensorData.getSensorId(), sensorData.getTimestamp(), sensorData.getValue());
+        }
+    }
+
+    /**
+     * Mesures d'un asset en attente de publication (mode micro-batch).
+     * Tous les champs sont protégés par le verrou de l'instance.
+     */
+    private static final class AssetBatch {
+        final UUID assetId;
+        List<SensorData> readings = new ArrayList<>();
+        List<CompletableFuture<SendResult<String, SensorData>>> futures = new ArrayList<>();
+        boolean retired;
+
+        AssetBatch(UUID assetId) {
+            this.assetId = assetId;
+        }
     }
 }
@@ -0,0 +1,122 @@
+package com.mantis.ingestion.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence de bout en bout du pipeline, transportée en en-têtes Kafka.
+ *
+ * Chaque étape ajoute un en-tête {@code mantis-ts-<étape>} (epoch millis,
+ * 8 octets big-endian) ; {@code mantis-ts-source} porte l'horodatage de la
+ * mesure. Les services en aval recopient les en-têtes reçus sur ce qu'ils
+ * publient, puis ajoutent le leur : connector-receive et ingestion-publish
+ * ici, preprocessing-consume/emit, orchestrator-alert, dashboard-apply.
+ *
+ * Chaque service enregistre le timer {@code mantis.pipeline.latency} (tag
+ * {@code stage}) entre l'horodatage source et son étape, lu par
+ * {@link PipelineLatencyEndpoint}.
+ */
+public class PipelineLatency {
+
+    public static final String HEADER_PREFIX = "mantis-ts-";
+
+    public static final String SOURCE = "source";
+    public static final String CONNECTOR_RECEIVE = "connector-receive";
+    public static final String INGESTION_PUBLISH = "ingestion-publish";
+
+    static final String METRIC = "mantis.pipeline.latency";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public PipelineLatency(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Enregistre la latence entre l'horodatage source et une étape. Une
+     * latence négative (horloge de passerelle en avance) est comptée à 0.
+     */
+    public void record(String stage, long sourceMillis, long stageMillis) {
+        timer(stage).record(Math.max(0, stageMillis - sourceMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Enregistre la latence d'une étape atteinte maintenant par un
+     * enregistrement portant ces en-têtes. Sans horodatage source, rien.
+     */
+    public void record(Headers headers, String stage) {
+        long source = read(headers, SOURCE);
+        if (source >= 0) {
+            record(stage, source, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Horodate maintenant une étape sur des en-têtes sortants et enregistre
+     * sa latence.
+     */
+    public void stamp(Headers headers, String stage) {
+        long now = System.currentTimeMillis();
+        stamp(headers, stage, now);
+        long source = read(headers, SOURCE);
+        if (source >= 0) {
+            record(stage, source, now);
+        }
+    }
+
+    /**
+     * Ajoute (ou remplace) l'horodatage d'une étape.
+     */
+    public static void stamp(Headers headers, String stage, long epochMillis) {
+        String key = HEADER_PREFIX + stage;
+        headers.remove(key);
+        headers.add(new RecordHeader(key, ByteBuffer.allocate(Long.BYTES).putLong(epochMillis).array()));
+    }
+
+    /**
+     * Recopie les horodatages d'un enregistrement reçu sur un enregistrement
+     * sortant.
+     */
+    public static void copy(Headers from, Headers to) {
+        for (Header header : from) {
+            if (header.key().startsWith(HEADER_PREFIX)) {
+                to.remove(header.key());
+                to.add(header);
+            }
+        }
+    }
+
+    /**
+     * Lit l'horodatage d'une étape.
+     *
+     * @return epoch millis, ou -1 si l'en-tête est absent ou mal formé
+     */
+    public static long read(Headers headers, String stage) {
+        if (headers == null) {
+            return -1;
+        }
+        Header header = headers.lastHeader(HEADER_PREFIX + stage);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    private Timer timer(String stage) {
+        Timer timer = timers.get(stage);
+        return timer != null ? timer : timers.computeIfAbsent(stage, s -> Timer.builder(METRIC)
+                .description("Latency from the source timestamp to a pipeline stage")
+                .tag("stage", s)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,292 @@
+package com.mantis.ingestion.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajustement automatique de {@code batch.size} et {@code linger.ms} du producer
+ * de données de capteurs.
+ *
+ * Les valeurs fixes ne conviennent ni aux équipes de nuit (peu de trafic : le
+ * linger n'ajoute que de la latence) ni aux démarrages de ligne (rafales : trop
+ * de petites requêtes). Le tuner lit les métriques natives du producer,
+ * publiées dans le {@link MeterRegistry} par le {@code MicrometerProducerListener}
+ * de {@code KafkaConfig} : débit d'enregistrements, taille moyenne des batchs
+ * (remplissage rapporté à {@code batch.size}) et latence des requêtes.
+ *
+ * Le tuner part de la configuration effective des shards ({@code lanes.bulk}
+ * avec la voie critique) et ne lit que les métriques des producers qu'il
+ * reconfigure, reconnus par leur {@code client.id} : celles du producer
+ * critique sont ignorées.
+ *
+ * Une seule règle s'applique par évaluation, dans cet ordre :
+ * <ol>
+ *   <li>{@code latency_slo} : latence requête + linger au-delà du SLO, le linger est divisé par 2 ;</li>
+ *   <li>{@code low_traffic} : débit sous {@code low-record-rate}, linger et {@code batch.size} reviennent au minimum ;</li>
+ *   <li>{@code batches_full} : batchs remplis au-delà de {@code fill-high}, {@code batch.size} est doublé ;</li>
+ *   <li>{@code small_batches} : batchs remplis sous {@code fill-low}, le linger est doublé si le SLO le permet.</li>
+ * </ol>
+ * Un changement bascule tous les shards du {@link KafkaProducerPool} sur la
+ * nouvelle configuration, puis aucun autre n'est fait pendant {@code cooldown-ms}.
+ */
+@Slf4j
+@Service
+public class ProducerAutoTuner {
+
+    static final String REASON_LATENCY_SLO = "latency_slo";
+    static final String REASON_LOW_TRAFFIC = "low_traffic";
+    static final String REASON_BATCHES_FULL = "batches_full";
+    static final String REASON_SMALL_BATCHES = "small_batches";
+
+    static final String RECORD_SEND_RATE = "kafka.producer.record.send.rate";
+    static final String BATCH_SIZE_AVG = "kafka.producer.batch.size.avg";
+    static final String REQUEST_LATENCY_AVG = "kafka.producer.request.latency.avg";
+
+    static final String CLIENT_ID_TAG = "client.id";
+
+    @Value("${mantis.ingestion.kafka.auto-tune.enabled}")
+    private boolean enabled;
+
+    @Value("${mantis.ingestion.kafka.auto-tune.cooldown-ms}")
+    private long cooldownMs;
+
+    @Value("${mantis.ingestion.kafka.auto-tune.latency-slo-ms}")
+    private double latencySloMs;
+
+    @Value("${mantis.ingestion.kafka.auto-tune.min-linger-ms}")
+    private int minLingerMs;
+
+    @Value("${mantis.ingestion.kafka.auto-tune.max-linger-ms}")
+    private int maxLingerMs;
+
+    @Value("${mantis.ingestion.kafka.auto-tune.min-batch-size}")
+    private int minBatchSize;
+
+    @Value("${mantis.ingestion.kafka.auto-tune.max-batch-size}")
+    private int maxBatchSize;
+
+    @Value("${mantis.ingestion.kafka.auto-tune.low-record-rate}")
+    private double lowRecordRate;
+
+    @Value("${mantis.ingestion.kafka.auto-tune.fill-high}")
+    private double fillHigh;
+
+    @Value("${mantis.ingestion.kafka.auto-tune.fill-low}")
+    private double fillLow;
+
+    private final KafkaProducerPool producerPool;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> clientIds;
+
+    // Configuration courante du producer
+    private volatile int batchSize;
+    private volatile int lingerMs;
+
+    // Dernier remplissage moyen observé (NaN tant qu'aucun batch n'a été envoyé)
+    private volatile double batchFillRatio = Double.NaN;
+
+    private long lastChangeNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+    public ProducerAutoTuner(KafkaProducerPool producerPool, MeterRegistry meterRegistry) {
+        this.producerPool = producerPool;
+        this.meterRegistry = meterRegistry;
+        this.clientIds = producerPool.clientIds();
+
+        Map<String, Object> shardConfigs = producerPool.shardConfigs();
+        this.batchSize = intConfig(shardConfigs, ProducerConfig.BATCH_SIZE_CONFIG);
+        this.lingerMs = intConfig(shardConfigs, ProducerConfig.LINGER_MS_CONFIG);
+
+        Gauge.builder("mantis.kafka.tuner.batch.size", this, s -> s.batchSize)
+                .description("Current producer batch.size (bytes)")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.kafka.tuner.linger.ms", this, s -> s.lingerMs)
+                .description("Current producer linger.ms")
+                .register(meterRegistry);
+
+        Gauge.builder("mantis.kafka.tuner.batch.fill.ratio", this, s -> s.batchFillRatio)
+                .description("Average batch size over batch.size at the last evaluation (0-1)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            log.info("Producer auto-tuning enabled: latencySlo={}ms, linger=[{}, {}]ms, batchSize=[{}, {}]",
+                    latencySloMs, minLingerMs, maxLingerMs, minBatchSize, maxBatchSize);
+        } else {
+            log.info("Producer auto-tuning disabled");
+        }
+    }
+
+    /**
+     * Évalue les métriques du producer et applique au plus un changement.
+     */
+    @Scheduled(fixedDelayString = "${mantis.ingestion.kafka.auto-tune.interval-ms}")
+    public void tune() {
+        if (!enabled || System.nanoTime() - lastChangeNanos < TimeUnit.MILLISECONDS.toNanos(cooldownMs)) {
+            return;
+        }
+
+        double recordRate = sum(RECORD_SEND_RATE);
+        double batchSizeAvg = mean(BATCH_SIZE_AVG);
+        double requestLatencyMs = max(REQUEST_LATENCY_AVG);
+        batchFillRatio = batchSizeAvg / batchSize;
+
+        Adjustment adjustment = decide(recordRate, batchFillRatio, requestLatencyMs);
+        if (adjustment == null) {
+            return;
+        }
+
+        log.info("Producer tuning: batch.size {} -> {}, linger.ms {} -> {} ({}: recordRate={}/s, fill={}, requestLatency={}ms)",
+                batchSize, adjustment.batchSize, lingerMs, adjustment.lingerMs, adjustment.reason,
+                String.format("%.0f", recordRate), String.format("%.2f", batchFillRatio),
+                String.format("%.1f", requestLatencyMs));
+
+        producerPool.reconfigure(Map.of(
+                ProducerConfig.BATCH_SIZE_CONFIG, adjustment.batchSize,
+                ProducerConfig.LINGER_MS_CONFIG, adjustment.lingerMs));
+
+        if (adjustment.batchSize != batchSize) {
+            adjustmentCounter("batch.size", adjustment.reason).increment();
+        }
+        if (adjustment.lingerMs != lingerMs) {
+            adjustmentCounter("linger.ms", adjustment.reason).increment();
+        }
+        batchSize = adjustment.batchSize;
+        lingerMs = adjustment.lingerMs;
+        lastChangeNanos = System.nanoTime();
+    }
+
+    /**
+     * Choisit la nouvelle configuration, ou null si la configuration courante convient.
+     *
+     * @param recordRate       enregistrements envoyés par seconde (tous shards)
+     * @param fillRatio        taille moyenne des batchs / batch.size, NaN si inconnue
+     * @param requestLatencyMs latence moyenne des requêtes produce, NaN si inconnue
+     */
+    Adjustment decide(double recordRate, double fillRatio, double requestLatencyMs) {
+        if (Double.isNaN(recordRate)) {
+            return null;
+        }
+
+        if (!Double.isNaN(requestLatencyMs) && requestLatencyMs + lingerMs > latencySloMs && lingerMs > minLingerMs) {
+            return new Adjustment(batchSize, Math.max(minLingerMs, lingerMs / 2), REASON_LATENCY_SLO);
+        }
+
+        if (recordRate < lowRecordRate) {
+            if (lingerMs > minLingerMs || batchSize > minBatchSize) {
+                return new Adjustment(minBatchSize, minLingerMs, REASON_LOW_TRAFFIC);
+            }
+            return null;
+        }
+
+        if (Double.isNaN(fillRatio)) {
+            return null;
+        }
+
+        if (fillRatio >= fillHigh && batchSize < maxBatchSize) {
+            return new Adjustment(Math.min(maxBatchSize, batchSize * 2), lingerMs, REASON_BATCHES_FULL);
+        }
+
+        if (fillRatio < fillLow && lingerMs < maxLingerMs) {
+            int linger = Math.min(maxLingerMs, Math.max(1, lingerMs * 2));
+            double latency = Double.isNaN(requestLatencyMs) ? 0 : requestLatencyMs;
+            if (latency + linger <= latencySloMs) {
+                return new Adjustment(batchSize, linger, REASON_SMALL_BATCHES);
+            }
+        }
+
+        return null;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getLingerMs() {
+        return lingerMs;
+    }
+
+    private Counter adjustmentCounter(String parameter, String reason) {
+        return Counter.builder("mantis.kafka.tuner.adjustments")
+                .description("Producer configuration changes made by the auto-tuner")
+                .tags("parameter", parameter, "reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static int intConfig(Map<String, Object> configs, String name) {
+        Object value = configs.get(name);
+        if (value == null) {
+            throw new IllegalStateException("Kafka producer pool does not expose " + name);
+        }
+        return value instanceof Number number ? number.intValue() : Integer.parseInt(value.toString().trim());
+    }
+
+    /**
+     * Jauges d'une métrique native pour les producers des shards.
+     */
+    private List<Gauge> gauges(String meterName) {
+        return meterRegistry.find(meterName).gauges().stream()
+                .filter(gauge -> clientIds.contains(gauge.getId().getTag(CLIENT_ID_TAG)))
+                .toList();
+    }
+
+    private double sum(String meterName) {
+        double sum = Double.NaN;
+        for (Gauge gauge : gauges(meterName)) {
+            double value = gauge.value();
+            if (Double.isFinite(value)) {
+                sum = Double.isNaN(sum) ? value : sum + value;
+            }
+        }
+        return sum;
+    }
+
+    private double mean(String meterName) {
+        double sum = 0;
+        int count = 0;
+        for (Gauge gauge : gauges(meterName)) {
+            double value = gauge.value();
+            if (Double.isFinite(value) && value > 0) {
+                sum += value;
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    private double max(String meterName) {
+        double max = Double.NaN;
+        for (Gauge gauge : gauges(meterName)) {
+            double value = gauge.value();
+            if (Double.isFinite(value)) {
+                max = Double.isNaN(max) ? value : Math.max(max, value);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Nouvelle configuration proposée et règle qui l'a choisie.
+     */
+    @lombok.Value
+    static class Adjustment {
+        int batchSize;
+        int lingerMs;
+        String reason;
+    }
+}
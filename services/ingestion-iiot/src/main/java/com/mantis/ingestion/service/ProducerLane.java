@@ -0,0 +1,30 @@
+package com.mantis.ingestion.service;
+
+import java.util.Locale;
+
+/**
+ * Voie de publication d'une mesure vers Kafka.
+ *
+ * Les mesures critiques (sécurité : surchauffe, surintensité...) ont leur
+ * propre producer et leur propre topic, réglés pour la latence ; elles ne
+ * passent pas derrière la télémétrie de masse dans le buffer du producer.
+ */
+public enum ProducerLane {
+
+    /**
+     * Producer dédié, linger court, petits batches, pas de micro-batch.
+     */
+    CRITICAL,
+
+    /**
+     * Pool de producers partagé (shards, micro-batch, auto-tuning).
+     */
+    BULK;
+
+    /**
+     * Valeur du tag {@code lane} des métriques.
+     */
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
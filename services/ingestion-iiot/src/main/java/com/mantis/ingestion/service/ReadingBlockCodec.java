@@ -0,0 +1,469 @@
+package com.mantis.ingestion.service;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mantis.ingestion.model.SensorAggregate;
+import com.mantis.ingestion.model.SensorData;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodage en colonnes d'un bloc de mesures, compressé en LZ4.
+ *
+ * Les champs qui identifient un capteur (asset, capteur, code, type, unité,
+ * source) forment une série, écrite une fois dans un dictionnaire : chaque
+ * mesure ne porte que l'indice de sa série. Les métadonnées ont leur propre
+ * dictionnaire (JSON). Les colonnes suivent, une à une :
+ * <ul>
+ *   <li>drapeaux de présence des champs optionnels ;</li>
+ *   <li>indice de série, indice de métadonnées ;</li>
+ *   <li>horodatage, en écart à la mesure précédente du bloc (nanosecondes,
+ *       varint zigzag) ;</li>
+ *   <li>{@code createdAt}, en écart à l'horodatage de la mesure ;</li>
+ *   <li>valeur, en XOR avec la valeur précédente de la même série (variante
+ *       octet par octet de Gorilla : seuls les octets significatifs du XOR
+ *       sont écrits, aucun pour une valeur inchangée) ;</li>
+ *   <li>qualité (varint zigzag) ;</li>
+ *   <li>agrégat des mesures sous-échantillonnées.</li>
+ * </ul>
+ * Le tout est compressé en LZ4, précédé de sa taille décompressée.
+ * L'encodage est sans perte : {@link #decode(byte[])} rend des mesures égales
+ * à celles encodées.
+ */
+public final class ReadingBlockCodec {
+
+    private static final int TIMESTAMP = 1;
+    private static final int TIMESTAMP_FAR = 1 << 1;
+    private static final int CREATED_AT = 1 << 2;
+    private static final int CREATED_AT_FAR = 1 << 3;
+    private static final int VALUE = 1 << 4;
+    private static final int QUALITY = 1 << 5;
+    private static final int METADATA = 1 << 6;
+    private static final int AGGREGATE = 1 << 7;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private static final ObjectWriter METADATA_WRITER = JacksonUtils.enhancedObjectMapper().writer();
+    private static final ObjectReader METADATA_READER = JacksonUtils.enhancedObjectMapper().readerFor(Map.class);
+
+    private ReadingBlockCodec() {
+    }
+
+    /**
+     * Encode et compresse un bloc de mesures.
+     */
+    public static byte[] encode(List<SensorData> readings) {
+        int count = readings.size();
+        Map<Series, Integer> seriesIndex = new HashMap<>();
+        List<Series> series = new ArrayList<>();
+        Map<Map<String, Object>, Integer> metadataIndex = new HashMap<>();
+        List<Map<String, Object>> metadata = new ArrayList<>();
+
+        Output flags = new Output(count);
+        Output seriesColumn = new Output(count);
+        Output metadataColumn = new Output(16);
+        Output timestamps = new Output(count * 4);
+        Output createdAts = new Output(count * 2);
+        Output values = new Output(count * 4);
+        Output qualities = new Output(count);
+        Output aggregates = new Output(16);
+
+        long[] previousBits = new long[16];
+        Instant previousTimestamp = Instant.EPOCH;
+        for (SensorData sensorData : readings) {
+            Series key = Series.of(sensorData);
+            Integer index = seriesIndex.get(key);
+            if (index == null) {
+                index = series.size();
+                seriesIndex.put(key, index);
+                series.add(key);
+            }
+            seriesColumn.writeVarLong(index);
+
+            int flag = 0;
+            Instant timestamp = sensorData.getTimestamp();
+            if (timestamp != null) {
+                flag |= TIMESTAMP;
+                if (!writeInstant(timestamps, previousTimestamp, timestamp)) {
+                    flag |= TIMESTAMP_FAR;
+                }
+                previousTimestamp = timestamp;
+            }
+            Instant createdAt = sensorData.getCreatedAt();
+            if (createdAt != null) {
+                flag |= CREATED_AT;
+                if (!writeInstant(createdAts, timestamp != null ? timestamp : Instant.EPOCH, createdAt)) {
+                    flag |= CREATED_AT_FAR;
+                }
+            }
+            if (sensorData.getValue() != null) {
+                flag |= VALUE;
+                if (index >= previousBits.length) {
+                    previousBits = Arrays.copyOf(previousBits, Math.max(index + 1, previousBits.length * 2));
+                }
+                long bits = Double.doubleToRawLongBits(sensorData.getValue());
+                writeXor(values, bits ^ previousBits[index]);
+                previousBits[index] = bits;
+            }
+            if (sensorData.getQuality() != null) {
+                flag |= QUALITY;
+                qualities.writeZigZag(sensorData.getQuality());
+            }
+            if (sensorData.getMetadata() != null) {
+                flag |= METADATA;
+                Integer metadataId = metadataIndex.get(sensorData.getMetadata());
+                if (metadataId == null) {
+                    metadataId = metadata.size();
+                    metadataIndex.put(sensorData.getMetadata(), metadataId);
+                    metadata.add(sensorData.getMetadata());
+                }
+                metadataColumn.writeVarLong(metadataId);
+            }
+            SensorAggregate aggregate = sensorData.getAggregate();
+            if (aggregate != null) {
+                flag |= AGGREGATE;
+                aggregates.writeVarLong(aggregate.getCount());
+                aggregates.writeLong(Double.doubleToRawLongBits(aggregate.getMin()));
+                aggregates.writeLong(Double.doubleToRawLongBits(aggregate.getMax()));
+                aggregates.writeVarLong(aggregate.getBucketMs());
+            }
+            flags.writeByte(flag);
+        }
+
+        Output raw = new Output(64 + series.size() * 64 + flags.length() + seriesColumn.length()
+                + timestamps.length() + createdAts.length() + values.length() + qualities.length()
+                + aggregates.length());
+        raw.writeVarLong(count);
+        raw.writeVarLong(series.size());
+        for (Series s : series) {
+            raw.writeUuid(s.assetId());
+            raw.writeUuid(s.sensorId());
+            raw.writeString(s.sensorCode());
+            raw.writeString(s.sensorType());
+            raw.writeString(s.unit());
+            raw.writeString(s.source());
+        }
+        raw.writeVarLong(metadata.size());
+        for (Map<String, Object> m : metadata) {
+            try {
+                byte[] json = METADATA_WRITER.writeValueAsBytes(m);
+                raw.writeVarLong(json.length);
+                raw.writeBytes(json, json.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot encode reading metadata", e);
+            }
+        }
+        for (Output column : List.of(flags, seriesColumn, metadataColumn, timestamps, createdAts, values, qualities,
+                aggregates)) {
+            raw.writeBytes(column.bytes, column.length());
+        }
+
+        int maxLength = COMPRESSOR.maxCompressedLength(raw.length());
+        byte[] compressed = new byte[4 + maxLength];
+        compressed[0] = (byte) (raw.length() >>> 24);
+        compressed[1] = (byte) (raw.length() >>> 16);
+        compressed[2] = (byte) (raw.length() >>> 8);
+        compressed[3] = (byte) raw.length();
+        int length = COMPRESSOR.compress(raw.bytes, 0, raw.length(), compressed, 4, maxLength);
+        return Arrays.copyOf(compressed, 4 + length);
+    }
+
+    /**
+     * Décompresse et décode un bloc, dans l'ordre d'encodage.
+     */
+    public static List<SensorData> decode(byte[] block) {
+        int rawLength = ((block[0] & 0xFF) << 24) | ((block[1] & 0xFF) << 16)
+                | ((block[2] & 0xFF) << 8) | (block[3] & 0xFF);
+        byte[] raw = new byte[rawLength];
+        DECOMPRESSOR.decompress(block, 4, raw, 0, rawLength);
+        Input in = new Input(raw);
+
+        int count = (int) in.readVarLong();
+        Series[] series = new Series[(int) in.readVarLong()];
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new Series(in.readUuid(), in.readUuid(), in.readString(), in.readString(),
+                    in.readString(), in.readString());
+        }
+        List<Map<String, Object>> metadata = new ArrayList<>();
+        int metadataCount = (int) in.readVarLong();
+        for (int i = 0; i < metadataCount; i++) {
+            int length = (int) in.readVarLong();
+            try {
+                metadata.add(METADATA_READER.readValue(raw, in.position, length));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot decode reading metadata", e);
+            }
+            in.position += length;
+        }
+
+        int[] flags = new int[count];
+        for (int i = 0; i < count; i++) {
+            flags[i] = in.readByte();
+        }
+        int[] seriesIds = new int[count];
+        SensorData[] readings = new SensorData[count];
+        for (int i = 0; i < count; i++) {
+            seriesIds[i] = (int) in.readVarLong();
+            Series s = series[seriesIds[i]];
+            readings[i] = SensorData.builder()
+                    .assetId(s.assetId())
+                    .sensorId(s.sensorId())
+                    .sensorCode(s.sensorCode())
+                    .sensorType(s.sensorType())
+                    .unit(s.unit())
+                    .source(s.source())
+                    .quality(null)
+                    .createdAt(null)
+                    .build();
+        }
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & METADATA) != 0) {
+                readings[i].setMetadata(metadata.get((int) in.readVarLong()));
+            }
+        }
+        Instant previousTimestamp = Instant.EPOCH;
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & TIMESTAMP) != 0) {
+                previousTimestamp = readInstant(in, previousTimestamp, (flags[i] & TIMESTAMP_FAR) != 0);
+                readings[i].setTimestamp(previousTimestamp);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & CREATED_AT) != 0) {
+                Instant reference = readings[i].getTimestamp() != null ? readings[i].getTimestamp() : Instant.EPOCH;
+                readings[i].setCreatedAt(readInstant(in, reference, (flags[i] & CREATED_AT_FAR) != 0));
+            }
+        }
+        long[] previousBits = new long[series.length];
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & VALUE) != 0) {
+                previousBits[seriesIds[i]] ^= readXor(in);
+                readings[i].setValue(Double.longBitsToDouble(previousBits[seriesIds[i]]));
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & QUALITY) != 0) {
+                readings[i].setQuality((int) in.readZigZag());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & AGGREGATE) != 0) {
+                readings[i].setAggregate(new SensorAggregate(in.readVarLong(), Double.longBitsToDouble(in.readLong()),
+                        Double.longBitsToDouble(in.readLong()), in.readVarLong()));
+            }
+        }
+        return Arrays.asList(readings);
+    }
+
+    /**
+     * Écrit l'écart en nanosecondes, ou l'instant complet si l'écart ne
+     * tient pas sur un long (plus de 292 ans).
+     *
+     * @return false si l'instant complet a été écrit
+     */
+    private static boolean writeInstant(Output out, Instant reference, Instant instant) {
+        try {
+            long delta = Math.addExact(
+                    Math.multiplyExact(instant.getEpochSecond() - reference.getEpochSecond(), NANOS_PER_SECOND),
+                    instant.getNano() - reference.getNano());
+            out.writeZigZag(delta);
+            return true;
+        } catch (ArithmeticException e) {
+            out.writeZigZag(instant.getEpochSecond());
+            out.writeVarLong(instant.getNano());
+            return false;
+        }
+    }
+
+    private static Instant readInstant(Input in, Instant reference, boolean far) {
+        if (far) {
+            return Instant.ofEpochSecond(in.readZigZag(), in.readVarLong());
+        }
+        return reference.plusNanos(in.readZigZag());
+    }
+
+    /**
+     * Un octet d'en-tête (octets significatifs, octets nuls de poids faible),
+     * puis les octets significatifs. Zéro pour une valeur inchangée.
+     */
+    private static void writeXor(Output out, long xor) {
+        if (xor == 0) {
+            out.writeByte(0);
+            return;
+        }
+        int trailing = Long.numberOfTrailingZeros(xor) >>> 3;
+        int significant = 8 - (Long.numberOfLeadingZeros(xor) >>> 3) - trailing;
+        out.writeByte((significant << 4) | trailing);
+        long bits = xor >>> (trailing << 3);
+        for (int i = significant - 1; i >= 0; i--) {
+            out.writeByte((int) (bits >>> (i << 3)));
+        }
+    }
+
+    private static long readXor(Input in) {
+        int header = in.readByte();
+        if (header == 0) {
+            return 0;
+        }
+        int significant = header >>> 4;
+        long bits = 0;
+        for (int i = 0; i < significant; i++) {
+            bits = (bits << 8) | in.readByte();
+        }
+        return bits << ((header & 0x0F) << 3);
+    }
+
+    /**
+     * Champs qui identifient un capteur, communs à toutes ses mesures.
+     */
+    private record Series(UUID assetId, UUID sensorId, String sensorCode, String sensorType,
+                          String unit, String source) {
+
+        static Series of(SensorData sensorData) {
+            return new Series(sensorData.getAssetId(), sensorData.getSensorId(), sensorData.getSensorCode(),
+                    sensorData.getSensorType(), sensorData.getUnit(), sensorData.getSource());
+        }
+    }
+
+    private static final class Output {
+
+        private byte[] bytes;
+        private int length;
+
+        Output(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        int length() {
+            return length;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[length++] = (byte) value;
+        }
+
+        void writeBytes(byte[] source, int count) {
+            ensure(count);
+            System.arraycopy(source, 0, bytes, length, count);
+            length += count;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeUuid(UUID uuid) {
+            if (uuid == null) {
+                writeByte(0);
+                return;
+            }
+            writeByte(1);
+            writeLong(uuid.getMostSignificantBits());
+            writeLong(uuid.getLeastSignificantBits());
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            writeBytes(utf8, utf8.length);
+        }
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                writeByte((int) (value >>> shift));
+            }
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() {
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        UUID readUuid() {
+            if (readByte() == 0) {
+                return null;
+            }
+            return new UUID(readLong(), readLong());
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(bytes, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+    }
+}
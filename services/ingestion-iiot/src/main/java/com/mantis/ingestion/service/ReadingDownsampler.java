@@ -0,0 +1,138 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.model.SensorAggregate;
+import com.mantis.ingestion.model.SensorData;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sous-échantillonnage de mesures en agrégats par capteur et par intervalle.
+ *
+ * Les mesures d'un même capteur (asset, capteur, code) dont l'horodatage tombe
+ * dans le même intervalle de {@code bucketMs} sont remplacées par une mesure
+ * agrégée ({@link SensorData#getAggregate()}) : horodatage au début de
+ * l'intervalle, valeur moyenne, min, max et nombre de mesures, qualité la plus
+ * basse, {@code createdAt} le plus récent, métadonnées de la première mesure.
+ * Un agrégat déjà présent en entrée compte pour toutes les mesures qu'il
+ * résume.
+ *
+ * Une mesure seule dans son intervalle, ou sans horodatage ni valeur finie,
+ * est gardée telle quelle. Les résultats suivent l'ordre de la première
+ * mesure de chaque intervalle.
+ */
+public final class ReadingDownsampler {
+
+    private ReadingDownsampler() {
+    }
+
+    /**
+     * Regroupe les mesures par capteur et par intervalle de {@code bucketMs}.
+     *
+     * @return mesures brutes gardées et agrégats, dans l'ordre d'entrée
+     */
+    public static List<SensorData> merge(List<SensorData> readings, long bucketMs) {
+        Map<Object, Bucket> buckets = new LinkedHashMap<>();
+        for (SensorData sensorData : readings) {
+            if (sensorData.getTimestamp() == null || sensorData.getValue() == null
+                    || !Double.isFinite(sensorData.getValue())) {
+                // Clé d'identité : la mesure reste seule, à sa place
+                buckets.put(new Object(), new Bucket(sensorData, 0));
+                continue;
+            }
+            long bucketStart = Math.floorDiv(sensorData.getTimestamp().toEpochMilli(), bucketMs) * bucketMs;
+            BucketKey key = new BucketKey(sensorData.getAssetId(), sensorData.getSensorId(),
+                    sensorData.getSensorCode(), bucketStart);
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                buckets.put(key, new Bucket(sensorData, bucketStart));
+            } else {
+                bucket.add(sensorData);
+            }
+        }
+
+        List<SensorData> merged = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets.values()) {
+            merged.add(bucket.toSensorData(bucketMs));
+        }
+        return merged;
+    }
+
+    private record BucketKey(UUID assetId, UUID sensorId, String sensorCode, long bucketStart) {
+    }
+
+    private static final class Bucket {
+
+        private final SensorData first;
+        private final long bucketStart;
+        private int readings = 1;
+        private long count;
+        private double sum;
+        private double min;
+        private double max;
+        private Integer quality;
+        private Instant createdAt;
+
+        Bucket(SensorData first, long bucketStart) {
+            this.first = first;
+            this.bucketStart = bucketStart;
+            this.quality = first.getQuality();
+            this.createdAt = first.getCreatedAt();
+            if (first.getValue() != null) {
+                accumulate(first);
+            }
+        }
+
+        void add(SensorData sensorData) {
+            readings++;
+            accumulate(sensorData);
+            if (sensorData.getQuality() != null && (quality == null || sensorData.getQuality() < quality)) {
+                quality = sensorData.getQuality();
+            }
+            Instant created = sensorData.getCreatedAt();
+            if (created != null && (createdAt == null || created.isAfter(createdAt))) {
+                createdAt = created;
+            }
+        }
+
+        private void accumulate(SensorData sensorData) {
+            SensorAggregate aggregate = sensorData.getAggregate();
+            long n = aggregate != null ? aggregate.getCount() : 1;
+            double low = aggregate != null ? aggregate.getMin() : sensorData.getValue();
+            double high = aggregate != null ? aggregate.getMax() : sensorData.getValue();
+            min = count == 0 ? low : Math.min(min, low);
+            max = count == 0 ? high : Math.max(max, high);
+            sum += sensorData.getValue() * n;
+            count += n;
+        }
+
+        SensorData toSensorData(long bucketMs) {
+            if (readings == 1) {
+                return first;
+            }
+            return SensorData.builder()
+                    .timestamp(Instant.ofEpochMilli(bucketStart))
+                    .assetId(first.getAssetId())
+                    .sensorId(first.getSensorId())
+                    .sensorCode(first.getSensorCode())
+                    .sensorType(first.getSensorType())
+                    .value(sum / count)
+                    .unit(first.getUnit())
+                    .quality(quality)
+                    .source(first.getSource())
+                    .metadata(first.getMetadata())
+                    .createdAt(createdAt)
+                    .aggregate(SensorAggregate.builder()
+                            .count(count)
+                            .min(min)
+                            .max(max)
+                            .bucketMs(bucketMs)
+                            .build())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,592 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.model.SensorData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Compression des mesures des connecteurs (Modbus, OPC UA, MQTT), à la
+ * manière d'un historian : une mesure n'est publiée que si elle apporte de
+ * l'information.
+ *
+ * Algorithmes, choisis par {@code sensorCode} puis par {@code sensorType} :
+ * <ul>
+ *   <li>{@code deadband} : publiée si l'écart à la dernière valeur publiée
+ *       dépasse la déviation (unité du capteur) ;</li>
+ *   <li>{@code deadband-percent} : idem, déviation en % de la dernière valeur publiée ;</li>
+ *   <li>{@code swinging-door} : swinging door trending ; la mesure retenue
+ *       est publiée quand la porte se ferme, l'interpolation linéaire entre
+ *       deux mesures publiées reste à moins de la déviation des mesures écartées ;</li>
+ *   <li>{@code none} : tout est publié.</li>
+ * </ul>
+ * Une mesure est toujours publiée si sa qualité change ou si rien n'a été
+ * publié pour le capteur depuis {@code max-silence-ms} (heartbeat).
+ *
+ * Un capteur qui se tait laisserait sa mesure retenue par swinging door sans
+ * porte pour la fermer : toutes les {@code max-silence-ms}, les mesures
+ * retenues reçues depuis plus de {@code max-silence-ms} sont publiées, et
+ * toutes le sont à l'arrêt. Le filtre est arrêté avant
+ * {@link KafkaProducerService}.
+ *
+ * Les compteurs {@code mantis.ingestion.compression.readings} et le ratio
+ * sont étiquetés par algorithme, pas par type de capteur : le type vient des
+ * passerelles et n'est pas borné.
+ *
+ * Les règles sont une liste {@code code:<sensorCode>=<algo>:<déviation>} ou
+ * {@code type:<sensorType>=<algo>:<déviation>} séparée par des virgules.
+ *
+ * L'état par capteur est tenu dans des tableaux primitifs indexés par
+ * sensorId (adressage ouvert), répartis en segments verrouillés séparément.
+ * Les envois HTTP ne passent pas par ce filtre : leurs appelants attendent
+ * un acquittement Kafka par mesure.
+ */
+@Slf4j
+@Service
+@DependsOn("kafkaProducerService")
+public class SensorCompressionFilter {
+
+    static final byte NONE = 0;
+    static final byte DEADBAND = 1;
+    static final byte DEADBAND_PERCENT = 2;
+    static final byte SWINGING_DOOR = 3;
+
+    // Étiquette algorithm des métriques, indexée par algorithme
+    private static final String[] ALGORITHM_NAMES = {"none", "deadband", "deadband-percent", "swinging-door"};
+
+    private static final int SEGMENTS = 16;
+
+    @Value("${mantis.ingestion.compression.enabled}")
+    private boolean enabled;
+
+    @Value("${mantis.ingestion.compression.max-silence-ms}")
+    private long maxSilenceMs;
+
+    @Value("${mantis.ingestion.compression.max-sensors}")
+    private int maxSensors;
+
+    @Value("${mantis.ingestion.compression.rules}")
+    private String rules;
+
+    private final Map<String, Rule> codeRules = new HashMap<>();
+    private final Map<String, Rule> typeRules = new HashMap<>();
+    private final AlgorithmCounters[] algorithmCounters = new AlgorithmCounters[ALGORITHM_NAMES.length];
+    private final Counter untrackedCounter;
+
+    private Segment[] segments;
+
+    public SensorCompressionFilter(MeterRegistry meterRegistry) {
+        for (byte algorithm = NONE; algorithm <= SWINGING_DOOR; algorithm++) {
+            algorithmCounters[algorithm] = registerCounters(meterRegistry, ALGORITHM_NAMES[algorithm]);
+        }
+
+        this.untrackedCounter = Counter.builder("mantis.ingestion.compression.untracked")
+                .description("Readings published unfiltered because max-sensors was reached")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Sensor compression disabled");
+            return;
+        }
+        parseRules(rules);
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(Math.max(1, maxSensors / SEGMENTS));
+        }
+        log.info("Sensor compression enabled: maxSilence={}ms, codeRules={}, typeRules={}",
+                maxSilenceMs, codeRules.keySet(), typeRules.keySet());
+    }
+
+    /**
+     * Passe une mesure au filtre.
+     *
+     * @param sensorData mesure reçue
+     * @param publisher  appelé pour chaque mesure à publier (0, 1 ou 2 fois,
+     *                   dans l'ordre de réception)
+     */
+    public void offer(SensorData sensorData, Consumer<SensorData> publisher) {
+        if (!enabled || sensorData.getSensorId() == null || sensorData.getTimestamp() == null
+                || sensorData.getValue() == null) {
+            publisher.accept(sensorData);
+            return;
+        }
+
+        UUID sensorId = sensorData.getSensorId();
+        int hash = mix(sensorId);
+        Segment segment = segments[(hash >>> 16) & (SEGMENTS - 1)];
+
+        SensorData held;
+        boolean publishCurrent;
+        byte algorithm;
+        synchronized (segment) {
+            int slot = segment.find(sensorId, hash);
+            if (slot < 0) {
+                Rule rule = resolve(sensorData);
+                slot = segment.insert(sensorId, hash, rule);
+                if (slot < 0) {
+                    untrackedCounter.increment();
+                    algorithm = NONE;
+                } else {
+                    segment.archive(slot, sensorData);
+                    segment.lastArchived = null;
+                    algorithm = rule.algorithm;
+                }
+                held = null;
+                publishCurrent = true;
+            } else {
+                held = segment.process(slot, sensorData, maxSilenceMs);
+                publishCurrent = segment.lastArchived == sensorData;
+                segment.lastArchived = null;
+                if (segment.heldReading[slot] != null) {
+                    segment.heldPublisher[slot] = publisher;
+                }
+                algorithm = segment.algorithm[slot];
+            }
+        }
+
+        // Publication hors verrou : le producer Kafka peut bloquer
+        AlgorithmCounters counters = algorithmCounters[algorithm];
+        counters.received.increment();
+        if (held != null) {
+            counters.published.increment();
+            publisher.accept(held);
+        }
+        if (publishCurrent) {
+            counters.published.increment();
+            publisher.accept(sensorData);
+        }
+    }
+
+    /**
+     * Publie les mesures retenues des capteurs muets depuis
+     * {@code max-silence-ms}.
+     */
+    @Scheduled(fixedDelayString = "${mantis.ingestion.compression.max-silence-ms}")
+    public void flushSilentSensors() {
+        int flushed = flush(System.currentTimeMillis() - maxSilenceMs);
+        if (flushed > 0) {
+            log.debug("Flushed {} held readings of silent sensors", flushed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int flushed = flush(Long.MAX_VALUE);
+        if (flushed > 0) {
+            log.info("Flushed {} held readings before shutdown", flushed);
+        }
+    }
+
+    /**
+     * Publie les mesures retenues reçues au plus tard à {@code receivedBefore}
+     * (epoch millis), chacune avec le publisher de son dernier appel à
+     * {@link #offer}. Elles deviennent le point d'archive de leur capteur.
+     *
+     * @return nombre de mesures publiées
+     */
+    int flush(long receivedBefore) {
+        if (segments == null) {
+            return 0;
+        }
+        List<HeldReading> released = new ArrayList<>();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.release(receivedBefore, released);
+            }
+        }
+        AlgorithmCounters counters = algorithmCounters[SWINGING_DOOR];
+        for (HeldReading held : released) {
+            counters.published.increment();
+            held.publisher().accept(held.reading());
+        }
+        return released.size();
+    }
+
+    /**
+     * Nombre de capteurs suivis.
+     */
+    public int getTrackedSensors() {
+        if (segments == null) {
+            return 0;
+        }
+        int total = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                total += segment.size;
+            }
+        }
+        return total;
+    }
+
+    private Rule resolve(SensorData sensorData) {
+        Rule rule = sensorData.getSensorCode() != null ? codeRules.get(sensorData.getSensorCode()) : null;
+        if (rule == null && sensorData.getSensorType() != null) {
+            rule = typeRules.get(sensorData.getSensorType());
+        }
+        return rule != null ? rule : Rule.PASS_THROUGH;
+    }
+
+    private static AlgorithmCounters registerCounters(MeterRegistry meterRegistry, String algorithm) {
+        AlgorithmCounters counters = new AlgorithmCounters(
+                Counter.builder("mantis.ingestion.compression.readings")
+                        .description("Readings seen by the compression filter")
+                        .tags("algorithm", algorithm, "outcome", "received")
+                        .register(meterRegistry),
+                Counter.builder("mantis.ingestion.compression.readings")
+                        .description("Readings seen by the compression filter")
+                        .tags("algorithm", algorithm, "outcome", "published")
+                        .register(meterRegistry));
+        Gauge.builder("mantis.ingestion.compression.ratio", counters, AlgorithmCounters::ratio)
+                .description("Readings received per reading published")
+                .tag("algorithm", algorithm)
+                .register(meterRegistry);
+        return counters;
+    }
+
+    void parseRules(String spec) {
+        codeRules.clear();
+        typeRules.clear();
+        if (spec == null || spec.isBlank()) {
+            return;
+        }
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            int colon = entry.indexOf(':');
+            if (eq < 0 || colon < 0 || colon > eq) {
+                throw new IllegalArgumentException("Invalid compression rule: " + entry);
+            }
+            String scope = entry.substring(0, colon);
+            String key = entry.substring(colon + 1, eq);
+            Rule rule = Rule.parse(entry.substring(eq + 1), entry);
+            switch (scope) {
+                case "code" -> codeRules.put(key, rule);
+                case "type" -> typeRules.put(key, rule);
+                default -> throw new IllegalArgumentException("Invalid compression rule scope: " + entry);
+            }
+        }
+    }
+
+    private static int mix(UUID uuid) {
+        long bits = uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        int hash = (int) (bits ^ (bits >>> 32)) * 0x9E3779B9;
+        return hash ^ (hash >>> 15);
+    }
+
+    /**
+     * Algorithme et déviation d'un capteur.
+     */
+    static final class Rule {
+        static final Rule PASS_THROUGH = new Rule(NONE, 0);
+
+        final byte algorithm;
+        final double deviation;
+
+        Rule(byte algorithm, double deviation) {
+            this.algorithm = algorithm;
+            this.deviation = deviation;
+        }
+
+        static Rule parse(String spec, String entry) {
+            int colon = spec.indexOf(':');
+            String name = (colon < 0 ? spec : spec.substring(0, colon)).toLowerCase(Locale.ROOT);
+            double deviation = colon < 0 ? 0 : Double.parseDouble(spec.substring(colon + 1));
+            if (deviation < 0 || Double.isNaN(deviation)) {
+                throw new IllegalArgumentException("Invalid compression deviation: " + entry);
+            }
+            return switch (name) {
+                case "none" -> PASS_THROUGH;
+                case "deadband" -> new Rule(DEADBAND, deviation);
+                case "deadband-percent" -> new Rule(DEADBAND_PERCENT, deviation);
+                case "swinging-door" -> new Rule(SWINGING_DOOR, deviation);
+                default -> throw new IllegalArgumentException("Unknown compression algorithm: " + entry);
+            };
+        }
+    }
+
+    private record HeldReading(SensorData reading, Consumer<SensorData> publisher) {
+    }
+
+    private static final class AlgorithmCounters {
+        final Counter received;
+        final Counter published;
+
+        AlgorithmCounters(Counter received, Counter published) {
+            this.received = received;
+            this.published = published;
+        }
+
+        double ratio() {
+            double out = published.count();
+            return out > 0 ? received.count() / out : 1.0;
+        }
+    }
+
+    /**
+     * Table d'état d'un segment : adressage ouvert (sondage linéaire), une
+     * entrée par capteur dans des tableaux parallèles. Les capteurs ne sont
+     * jamais retirés ; au-delà de la capacité, les mesures passent sans filtre.
+     */
+    static final class Segment {
+        final int capacity;
+        int size;
+
+        long[] msb;
+        long[] lsb;
+        boolean[] used;
+
+        byte[] algorithm;
+        double[] deviation;
+
+        // Dernière mesure publiée (point d'archive)
+        double[] archivedValue;
+        long[] archivedTime;
+        int[] archivedQuality;
+
+        // Swinging door : pentes de la porte depuis l'archive, mesure retenue
+        double[] slopeMax;
+        double[] slopeMin;
+        SensorData[] heldReading;
+        // Publisher du dernier appel à offer(), pour publier la mesure retenue hors de offer()
+        Consumer<SensorData>[] heldPublisher;
+
+        // Dernière mesure passée à archive(), lue puis effacée par offer()
+        SensorData lastArchived;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            allocate(16);
+        }
+
+        private void allocate(int length) {
+            msb = new long[length];
+            lsb = new long[length];
+            used = new boolean[length];
+            algorithm = new byte[length];
+            deviation = new double[length];
+            archivedValue = new double[length];
+            archivedTime = new long[length];
+            archivedQuality = new int[length];
+            slopeMax = new double[length];
+            slopeMin = new double[length];
+            heldReading = new SensorData[length];
+            @SuppressWarnings("unchecked")
+            Consumer<SensorData>[] publishers = new Consumer[length];
+            heldPublisher = publishers;
+        }
+
+        int find(UUID id, int hash) {
+            long hi = id.getMostSignificantBits();
+            long lo = id.getLeastSignificantBits();
+            int mask = used.length - 1;
+            for (int i = hash & mask; used[i]; i = (i + 1) & mask) {
+                if (msb[i] == hi && lsb[i] == lo) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int insert(UUID id, int hash, Rule rule) {
+            if (size >= capacity) {
+                return -1;
+            }
+            // Facteur de charge maximal 0,5
+            if ((size + 1) * 2 > used.length) {
+                grow();
+            }
+            int mask = used.length - 1;
+            int i = hash & mask;
+            while (used[i]) {
+                i = (i + 1) & mask;
+            }
+            used[i] = true;
+            msb[i] = id.getMostSignificantBits();
+            lsb[i] = id.getLeastSignificantBits();
+            algorithm[i] = rule.algorithm;
+            deviation[i] = rule.deviation;
+            size++;
+            return i;
+        }
+
+        private void grow() {
+            long[] oldMsb = msb;
+            long[] oldLsb = lsb;
+            boolean[] oldUsed = used;
+            byte[] oldAlgorithm = algorithm;
+            double[] oldDeviation = deviation;
+            double[] oldArchivedValue = archivedValue;
+            long[] oldArchivedTime = archivedTime;
+            int[] oldArchivedQuality = archivedQuality;
+            double[] oldSlopeMax = slopeMax;
+            double[] oldSlopeMin = slopeMin;
+            SensorData[] oldHeldReading = heldReading;
+            Consumer<SensorData>[] oldHeldPublisher = heldPublisher;
+
+            allocate(oldUsed.length * 2);
+            int mask = used.length - 1;
+            for (int j = 0; j < oldUsed.length; j++) {
+                if (!oldUsed[j]) {
+                    continue;
+                }
+                int i = mix(new UUID(oldMsb[j], oldLsb[j])) & mask;
+                while (used[i]) {
+                    i = (i + 1) & mask;
+                }
+                used[i] = true;
+                msb[i] = oldMsb[j];
+                lsb[i] = oldLsb[j];
+                algorithm[i] = oldAlgorithm[j];
+                deviation[i] = oldDeviation[j];
+                archivedValue[i] = oldArchivedValue[j];
+                archivedTime[i] = oldArchivedTime[j];
+                archivedQuality[i] = oldArchivedQuality[j];
+                slopeMax[i] = oldSlopeMax[j];
+                slopeMin[i] = oldSlopeMin[j];
+                heldReading[i] = oldHeldReading[j];
+                heldPublisher[i] = oldHeldPublisher[j];
+            }
+        }
+
+        /**
+         * Fait de la mesure le nouveau point d'archive (elle est publiée).
+         */
+        void archive(int slot, SensorData reading) {
+            archivedValue[slot] = reading.getValue();
+            archivedTime[slot] = reading.getTimestamp().toEpochMilli();
+            archivedQuality[slot] = reading.getQuality() != null ? reading.getQuality() : -1;
+            lastArchived = reading;
+            slopeMax[slot] = Double.POSITIVE_INFINITY;
+            slopeMin[slot] = Double.NEGATIVE_INFINITY;
+            heldReading[slot] = null;
+            heldPublisher[slot] = null;
+        }
+
+        /**
+         * Fait des mesures retenues reçues au plus tard à
+         * {@code receivedBefore} les points d'archive de leurs capteurs.
+         *
+         * @param released reçoit les mesures à publier et leur publisher
+         */
+        void release(long receivedBefore, List<HeldReading> released) {
+            for (int i = 0; i < used.length; i++) {
+                SensorData held = heldReading[i];
+                if (held == null || receivedAt(held) > receivedBefore) {
+                    continue;
+                }
+                Consumer<SensorData> publisher = heldPublisher[i];
+                archive(i, held);
+                lastArchived = null;
+                released.add(new HeldReading(held, publisher));
+            }
+        }
+
+        // Réception par le connecteur, à défaut l'horodatage de la mesure
+        private static long receivedAt(SensorData reading) {
+            return reading.getCreatedAt() != null
+                    ? reading.getCreatedAt().toEpochMilli()
+                    : reading.getTimestamp().toEpochMilli();
+        }
+
+        /**
+         * Applique l'algorithme du capteur à une mesure.
+         *
+         * @return mesure retenue (swinging door) à publier avant la mesure
+         *         courante, ou null ; la mesure courante est à publier si elle
+         *         devient le point d'archive
+         */
+        SensorData process(int slot, SensorData reading, long maxSilenceMs) {
+            double value = reading.getValue();
+            long time = reading.getTimestamp().toEpochMilli();
+            int quality = reading.getQuality() != null ? reading.getQuality() : -1;
+
+            boolean forced = algorithm[slot] == NONE
+                    || quality != archivedQuality[slot]
+                    || time <= archivedTime[slot]
+                    || time - archivedTime[slot] >= maxSilenceMs;
+
+            switch (algorithm[slot]) {
+                case DEADBAND, DEADBAND_PERCENT -> {
+                    double band = algorithm[slot] == DEADBAND
+                            ? deviation[slot]
+                            : deviation[slot] / 100.0 * Math.abs(archivedValue[slot]);
+                    if (forced || Math.abs(value - archivedValue[slot]) > band) {
+                        archive(slot, reading);
+                    }
+                    return null;
+                }
+                case SWINGING_DOOR -> {
+                    return swingingDoor(slot, reading, value, time, forced);
+                }
+                default -> {
+                    archive(slot, reading);
+                    return null;
+                }
+            }
+        }
+
+        private SensorData swingingDoor(int slot, SensorData reading, double value, long time, boolean forced) {
+            SensorData held = heldReading[slot];
+            if (time <= archivedTime[slot]) {
+                // Horodatage non croissant : on repart de cette mesure
+                archive(slot, reading);
+                return held;
+            }
+
+            double e = deviation[slot];
+            double dt = time - archivedTime[slot];
+            double upper = Math.min(slopeMax[slot], (value + e - archivedValue[slot]) / dt);
+            double lower = Math.max(slopeMin[slot], (value - e - archivedValue[slot]) / dt);
+
+            if (lower <= upper) {
+                // Porte ouverte : la mesure reste dans le couloir
+                if (forced) {
+                    archive(slot, reading);
+                    return null;
+                }
+                slopeMax[slot] = upper;
+                slopeMin[slot] = lower;
+                heldReading[slot] = reading;
+                return null;
+            }
+
+            if (held == null) {
+                archive(slot, reading);
+                return null;
+            }
+
+            // Porte fermée : la mesure retenue devient le point d'archive
+            archive(slot, held);
+            if (forced || time <= archivedTime[slot]) {
+                archive(slot, reading);
+                return held;
+            }
+            double heldDt = time - archivedTime[slot];
+            slopeMax[slot] = (value + e - archivedValue[slot]) / heldDt;
+            slopeMin[slot] = (value - e - archivedValue[slot]) / heldDt;
+            heldReading[slot] = reading;
+            return held;
+        }
+    }
+}
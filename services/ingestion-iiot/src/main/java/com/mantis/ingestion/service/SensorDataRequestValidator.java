@@ -0,0 +1,144 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.dto.SensorDataRequest;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validateur rapide des requêtes d'ingestion pour les chemins batch et flux.
+ *
+ * Applique les mêmes règles que les annotations Bean Validation de
+ * {@link SensorDataRequest}, avec les mêmes messages, plus les contrôles de
+ * {@code SensorData.isValid()} : un enregistrement accepté ici peut être
+ * envoyé via {@link KafkaProducerService#sendValidatedSensorData} sans être
+ * revalidé. Les contrôles sont écrits à la main (parcours de caractères au
+ * lieu de l'expression régulière) et n'allouent rien pour une requête valide.
+ */
+@Component
+public class SensorDataRequestValidator {
+
+    static final double MIN_VALUE = -999999.99;
+    static final double MAX_VALUE = 999999.99;
+
+    static final String ASSET_ID_REQUIRED = "Asset ID is required";
+    static final String SENSOR_ID_REQUIRED = "Sensor ID is required";
+    static final String SENSOR_CODE_REQUIRED = "Sensor code is required";
+    static final String SENSOR_CODE_PATTERN =
+            "Sensor code must contain only uppercase letters, numbers, hyphens and underscores";
+    static final String SENSOR_TYPE_REQUIRED = "Sensor type is required";
+    static final String VALUE_REQUIRED = "Value is required";
+    static final String VALUE_TOO_SMALL = "Value too small";
+    static final String VALUE_TOO_LARGE = "Value too large";
+    static final String UNIT_REQUIRED = "Unit is required";
+    static final String QUALITY_REQUIRED = "Quality is required";
+    static final String QUALITY_RANGE = "Quality must be between 0 and 100";
+
+    /**
+     * Valide une requête.
+     *
+     * @param request requête à valider
+     * @return violations, liste vide (non allouée) si la requête est valide
+     */
+    public List<Violation> validate(SensorDataRequest request) {
+        List<Violation> violations = null;
+
+        if (request.getAssetId() == null) {
+            violations = add(violations, "assetId", ASSET_ID_REQUIRED);
+        }
+        if (request.getSensorId() == null) {
+            violations = add(violations, "sensorId", SENSOR_ID_REQUIRED);
+        }
+
+        String sensorCode = request.getSensorCode();
+        if (isBlank(sensorCode)) {
+            violations = add(violations, "sensorCode", SENSOR_CODE_REQUIRED);
+        }
+        if (sensorCode != null && !isSensorCode(sensorCode)) {
+            violations = add(violations, "sensorCode", SENSOR_CODE_PATTERN);
+        }
+
+        if (isBlank(request.getSensorType())) {
+            violations = add(violations, "sensorType", SENSOR_TYPE_REQUIRED);
+        }
+
+        Double value = request.getValue();
+        if (value == null) {
+            violations = add(violations, "value", VALUE_REQUIRED);
+        } else {
+            double v = value;
+            // NaN échoue aux deux bornes, comme avec @DecimalMin/@DecimalMax
+            if (!(v >= MIN_VALUE)) {
+                violations = add(violations, "value", VALUE_TOO_SMALL);
+            }
+            if (!(v <= MAX_VALUE)) {
+                violations = add(violations, "value", VALUE_TOO_LARGE);
+            }
+        }
+
+        if (isBlank(request.getUnit())) {
+            violations = add(violations, "unit", UNIT_REQUIRED);
+        }
+
+        Integer quality = request.getQuality();
+        if (quality == null) {
+            violations = add(violations, "quality", QUALITY_REQUIRED);
+        } else if (quality < 0 || quality > 100) {
+            violations = add(violations, "quality", QUALITY_RANGE);
+        }
+
+        return violations != null ? violations : List.of();
+    }
+
+    /**
+     * Équivalent de {@code ^[A-Z0-9_-]+$} par classe de caractères.
+     */
+    static boolean isSensorCode(String code) {
+        int length = code.length();
+        if (length == 0) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = code.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vide au sens de {@code @NotBlank} (trim) ou de {@code String.isBlank()}.
+     */
+    static boolean isBlank(String s) {
+        if (s == null) {
+            return true;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c > ' ' && !Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Violation> add(List<Violation> violations, String field, String message) {
+        List<Violation> list = violations != null ? violations : new ArrayList<>(2);
+        list.add(new Violation(field, message));
+        return list;
+    }
+
+    /**
+     * Violation d'une règle sur un champ.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Violation {
+        private String field;
+        private String message;
+    }
+}
@@ -0,0 +1,276 @@
+package com.mantis.ingestion.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mantis.ingestion.dto.SensorDataRequest;
+import com.mantis.ingestion.dto.StreamIngestionSummary;
+import com.mantis.ingestion.exception.PayloadTooLargeException;
+import com.mantis.ingestion.model.SensorData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Service d'ingestion en flux de données NDJSON.
+ *
+ * Lit les enregistrements un par un avec le parser streaming de Jackson et
+ * les transmet directement à {@link KafkaProducerService}. Le nombre d'envois
+ * en vol est borné par un sémaphore : la lecture du flux se met en pause tant
+ * que Kafka n'a pas acquitté, ce qui garde une empreinte mémoire constante
+ * quelle que soit la taille de l'upload.
+ */
+@Slf4j
+@Service
+public class StreamIngestionService {
+
+    @Value("${mantis.ingestion.http.stream.max-in-flight}")
+    private int maxInFlight;
+
+    @Value("${mantis.ingestion.http.stream.drain-timeout-ms}")
+    private long drainTimeoutMs;
+
+    @Value("${mantis.ingestion.http.stream.max-reported-errors}")
+    private int maxReportedErrors;
+
+    private final KafkaProducerService kafkaProducerService;
+    private final ObjectMapper objectMapper;
+    private final SensorDataRequestValidator validator;
+    private final AdmissionControlService admissionControlService;
+
+    // Métriques
+    private final Counter recordsReceivedCounter;
+    private final Counter recordsRejectedCounter;
+
+    public StreamIngestionService(
+            KafkaProducerService kafkaProducerService,
+            ObjectMapper objectMapper,
+            SensorDataRequestValidator validator,
+            AdmissionControlService admissionControlService,
+            MeterRegistry meterRegistry
+    ) {
+        this.kafkaProducerService = kafkaProducerService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.admissionControlService = admissionControlService;
+
+        this.recordsReceivedCounter = Counter.builder("mantis.ingestion.stream.records.received")
+                .description("Total records read from NDJSON streams")
+                .register(meterRegistry);
+
+        this.recordsRejectedCounter = Counter.builder("mantis.ingestion.stream.records.rejected")
+                .description("Total NDJSON records rejected (parse or validation error)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consomme un flux NDJSON et publie chaque enregistrement vers Kafka.
+     *
+     * @param inputStream corps de la requête (un objet JSON par ligne)
+     * @return bilan de l'ingestion, disponible une fois le flux terminé
+     */
+    public StreamIngestionSummary ingest(InputStream inputStream) {
+        long startTime = System.currentTimeMillis();
+        StreamContext context = new StreamContext(maxInFlight, maxReportedErrors);
+        ObjectReader reader = objectMapper.readerFor(SensorDataRequest.class);
+
+        boolean completed = true;
+        boolean payloadTooLarge = false;
+        String message = "Stream ingested";
+
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            long index = 0;
+            while (parser.nextToken() != null) {
+                long recordIndex = index++;
+                context.received.incrementAndGet();
+                recordsReceivedCounter.increment();
+
+                SensorDataRequest request;
+                try {
+                    request = reader.readValue(parser);
+                } catch (DatabindException e) {
+                    // Erreur de mapping : l'enregistrement est ignoré, le flux reste lisible
+                    context.reject(recordIndex, "Invalid record: " + e.getOriginalMessage());
+                    recordsRejectedCounter.increment();
+                    skipToRoot(parser);
+                    continue;
+                }
+
+                String violations = validate(request);
+                if (violations != null) {
+                    context.reject(recordIndex, violations);
+                    recordsRejectedCounter.increment();
+                    continue;
+                }
+
+                if (!admissionControlService.tryAcquire(request.getAssetId(), "http", 1)) {
+                    context.reject(recordIndex, "Rate limited");
+                    recordsRejectedCounter.increment();
+                    continue;
+                }
+
+                send(context, recordIndex, request.toSensorData("http"));
+            }
+        } catch (JsonProcessingException e) {
+            // Erreur de syntaxe : impossible de se resynchroniser sur le flux
+            completed = false;
+            message = "Malformed NDJSON stream: " + e.getOriginalMessage();
+            log.warn("Aborting NDJSON stream after {} records: {}", context.received.get(), e.getOriginalMessage());
+        } catch (PayloadTooLargeException e) {
+            // Corps décompressé au-delà du plafond : les enregistrements déjà lus restent publiés
+            completed = false;
+            payloadTooLarge = true;
+            message = "Payload too large: " + e.getMessage();
+            log.warn("Aborting NDJSON stream after {} records: {}", context.received.get(), e.getMessage());
+        } catch (IOException e) {
+            // Erreur de lecture (connexion coupée, corps compressé corrompu)
+            completed = false;
+            message = "Failed to read NDJSON stream: " + e.getMessage();
+            log.warn("Aborting NDJSON stream after {} records: {}", context.received.get(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed = false;
+            message = "Stream ingestion interrupted";
+        }
+
+        if (!context.awaitDrain(drainTimeoutMs)) {
+            completed = false;
+            message = "Timed out waiting for Kafka acknowledgements";
+        }
+
+        StreamIngestionSummary summary = StreamIngestionSummary.builder()
+                .completed(completed)
+                .payloadTooLarge(payloadTooLarge)
+                .message(message)
+                .received(context.received.get())
+                .ingested(context.ingested.get())
+                .rejected(context.rejected.get())
+                .failed(context.failed.get())
+                .durationMs(System.currentTimeMillis() - startTime)
+                .errors(context.errors())
+                .build();
+
+        log.info("NDJSON stream ingestion completed: received={}, ingested={}, rejected={}, failed={}, duration={}ms",
+                summary.getReceived(), summary.getIngested(), summary.getRejected(),
+                summary.getFailed(), summary.getDurationMs());
+
+        return summary;
+    }
+
+    /**
+     * Envoie un enregistrement vers Kafka en respectant la limite d'envois en vol.
+     */
+    private void send(StreamContext context, long recordIndex, SensorData sensorData) throws InterruptedException {
+        context.inFlight.acquire();
+        try {
+            kafkaProducerService.sendValidatedSensorData(sensorData).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    context.ingested.incrementAndGet();
+                } else {
+                    context.fail(recordIndex, "Failed: " + ex.getMessage());
+                }
+                context.inFlight.release();
+            });
+        } catch (RuntimeException e) {
+            context.inFlight.release();
+            context.fail(recordIndex, "Failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applique les règles de validation du DTO.
+     *
+     * @return message d'erreur, ou null si la requête est valide
+     */
+    private String validate(SensorDataRequest request) {
+        List<SensorDataRequestValidator.Violation> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getField() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Avance le parser jusqu'à la fin de l'objet racine courant.
+     */
+    private void skipToRoot(JsonParser parser) throws IOException {
+        while (!parser.getParsingContext().inRoot()) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * État d'un flux en cours : compteurs et erreurs partagés avec les
+     * callbacks Kafka.
+     */
+    private static class StreamContext {
+        final Semaphore inFlight;
+        final int permits;
+        final int maxErrors;
+        final AtomicLong received = new AtomicLong();
+        final AtomicLong ingested = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        private final List<StreamIngestionSummary.RecordError> errors = new ArrayList<>();
+
+        StreamContext(int permits, int maxErrors) {
+            this.inFlight = new Semaphore(permits);
+            this.permits = permits;
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long index, String message) {
+            rejected.incrementAndGet();
+            addError(index, message);
+        }
+
+        void fail(long index, String message) {
+            failed.incrementAndGet();
+            addError(index, message);
+        }
+
+        synchronized void addError(long index, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(new StreamIngestionSummary.RecordError(index, message));
+            }
+        }
+
+        synchronized List<StreamIngestionSummary.RecordError> errors() {
+            return List.copyOf(errors);
+        }
+
+        /**
+         * Attend que tous les envois en vol soient acquittés.
+         */
+        boolean awaitDrain(long timeoutMs) {
+            try {
+                if (inFlight.tryAcquire(permits, timeoutMs, TimeUnit.MILLISECONDS)) {
+                    inFlight.release(permits);
+                    return true;
+                }
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mantis.ingestion;
 
 import com.mantis.ingestion.dto.SensorDataRequest;
+import com.mantis.ingestion.dto.SensorFrameRequest;
 import com.mantis.ingestion.model.SensorData;
 
 import java.time.Instant;
@@ -79,4 +80,23 @@ public class TestDataFactory {
                 .quality(100)
                 .build();
     }
+
+    public static SensorFrameRequest createValidSensorFrameRequest(int samples) {
+        double[] values = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            values[i] = 0.5 + i * 0.001;
+        }
+
+        return SensorFrameRequest.builder()
+                .assetId(UUID.randomUUID())
+                .sensorId(UUID.randomUUID())
+                .sensorCode("VIB-001")
+                .sensorType("vibration")
+                .unit("mm/s")
+                .quality(100)
+                .startTimestamp(Instant.parse("2024-01-01T00:00:00Z"))
+                .samplePeriodUs(1000L)
+                .values(values)
+                .build();
+    }
 }
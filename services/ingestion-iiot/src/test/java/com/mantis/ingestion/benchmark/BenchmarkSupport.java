@@ -0,0 +1,46 @@
+package com.mantis.ingestion.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Utilitaires communs aux benchmarks JMH.
+ *
+ * Les benchmarks s'exécutent hors contexte Spring : la configuration de logs
+ * de l'application n'est pas chargée et Logback journaliserait chaque
+ * enregistrement en DEBUG.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Limite les logs de l'application aux avertissements.
+     */
+    static void quietLogs() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * MockProducer partagé par tous les envois d'un template.
+     *
+     * Hors transaction, KafkaTemplate ferme le producer après chaque envoi :
+     * sans effet sur celui d'une DefaultKafkaProducerFactory, mais un
+     * MockProducer fermé rejette tous les envois suivants.
+     */
+    static <V> MockProducer<String, V> sharedMockProducer(Serializer<V> valueSerializer) {
+        return new MockProducer<>(true, new StringSerializer(), valueSerializer) {
+            @Override
+            public void close(Duration timeout) {
+                // Fermeture ignorée : le producer sert jusqu'à la fin du benchmark
+            }
+        };
+    }
+}
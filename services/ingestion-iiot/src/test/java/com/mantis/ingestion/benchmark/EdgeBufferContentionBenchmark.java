@@ -0,0 +1,96 @@
+package com.mantis.ingestion.benchmark;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.EdgeBufferService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention sur l'edge buffer mémoire : 8 threads de connecteurs ajoutent
+ * des mesures pendant qu'un thread de reprise les retire par lots.
+ *
+ * {@code linked} reproduit l'ancien buffer ({@link LinkedBlockingQueue},
+ * taille vérifiée avant {@code offer}) ; {@code ring} passe par
+ * {@link EdgeBufferService#buffer(SensorData)} et son ring buffer sans verrou ;
+ * {@code compressed} par le même service en blocs compressés
+ * ({@code compression-enabled}), décompressés à la reprise.
+ * Le débit du groupe {@code buffer} est celui des ajouts.
+ *
+ * Usage: mvn -Pbenchmark test-compile exec:exec -Djmh.args="EdgeBufferContentionBenchmark"
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class EdgeBufferContentionBenchmark {
+
+    private static final int RECORDS = 1024;
+    private static final int MAX_SIZE = 100_000;
+    private static final int DRAIN_BATCH = 512;
+
+    @Param({"linked", "ring", "compressed"})
+    private String impl;
+
+    private BlockingQueue<SensorData> linked;
+    private EdgeBufferService edgeBufferService;
+    private SensorData[] records;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = ThreadLocalRandom.current().nextInt(RECORDS);
+    }
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogs();
+
+        records = new SensorData[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            records[i] = TestDataFactory.createValidSensorData();
+        }
+
+        linked = new LinkedBlockingQueue<>();
+        edgeBufferService = new EdgeBufferService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(edgeBufferService, "enabled", true);
+        ReflectionTestUtils.setField(edgeBufferService, "maxSize", MAX_SIZE);
+        ReflectionTestUtils.setField(edgeBufferService, "dropPolicyName", "drop-newest");
+        ReflectionTestUtils.setField(edgeBufferService, "compressionEnabled", "compressed".equals(impl));
+        ReflectionTestUtils.setField(edgeBufferService, "compressionBlockSize", 1024);
+        edgeBufferService.init();
+    }
+
+    @Benchmark
+    @Group("buffer")
+    @GroupThreads(8)
+    public boolean offer(Cursor cursor) {
+        SensorData sensorData = records[cursor.next];
+        cursor.next = (cursor.next + 1) & (RECORDS - 1);
+        if (!"linked".equals(impl)) {
+            return edgeBufferService.buffer(sensorData);
+        }
+        // Ancien chemin : vérification de taille puis offer, non atomiques
+        return linked.size() < MAX_SIZE && linked.offer(sensorData);
+    }
+
+    @Benchmark
+    @Group("buffer")
+    @GroupThreads(1)
+    public int drain() {
+        if (!"linked".equals(impl)) {
+            return edgeBufferService.drain(DRAIN_BATCH).getReadings().size();
+        }
+        List<SensorData> readings = new ArrayList<>(DRAIN_BATCH);
+        return linked.drainTo(readings, DRAIN_BATCH);
+    }
+}
@@ -0,0 +1,104 @@
+package com.mantis.ingestion.benchmark;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.controller.IngestionController;
+import com.mantis.ingestion.dto.SensorDataRequest;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.AdmissionControlService;
+import com.mantis.ingestion.service.EdgeBufferService;
+import com.mantis.ingestion.service.KafkaProducerPool;
+import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorDataRequestValidator;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit par thread worker de l'ingestion unitaire selon le niveau d'acquittement.
+ *
+ * Le broker est simulé : chaque envoi est acquitté après {@code brokerRttMs}.
+ * {@code legacyBlocking} reproduit l'ancien chemin (attente de l'acquittement
+ * sur le thread de la requête) ; les autres modes mesurent le temps pendant
+ * lequel le thread worker est occupé avant d'être rendu au pool.
+ *
+ * Usage: mvn -Pbenchmark test-compile exec:exec -Djmh.args="IngestionAckLevelBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(8)
+@Fork(1)
+public class IngestionAckLevelBenchmark {
+
+    @Param({"5"})
+    private long brokerRttMs;
+
+    private ScheduledExecutorService broker;
+    private KafkaProducerService kafkaProducerService;
+    private IngestionController controller;
+    private SensorDataRequest request;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogs();
+
+        broker = Executors.newScheduledThreadPool(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("raw-sensor-data", 0), 0L, 0, 0L, 0, 0);
+
+        kafkaProducerService = new KafkaProducerService(
+                new KafkaProducerPool(List.of()), "raw-sensor-data", new EdgeBufferService(meterRegistry),
+                CircuitBreakerRegistry.ofDefaults(), meterRegistry) {
+            @Override
+            public CompletableFuture<SendResult<String, SensorData>> sendSensorData(SensorData sensorData) {
+                CompletableFuture<SendResult<String, SensorData>> future = new CompletableFuture<>();
+                SendResult<String, SensorData> result = new SendResult<>(
+                        new ProducerRecord<>("raw-sensor-data", sensorData.getAssetId().toString(), sensorData),
+                        metadata);
+                broker.schedule(() -> future.complete(result), brokerRttMs, TimeUnit.MILLISECONDS);
+                return future;
+            }
+        };
+
+        controller = new IngestionController(kafkaProducerService, null, new SensorDataRequestValidator(),
+                new AdmissionControlService(kafkaProducerService, meterRegistry));
+        request = TestDataFactory.createValidSensorDataRequest();
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.shutdownNow();
+    }
+
+    @Benchmark
+    public Object legacyBlocking() throws Exception {
+        return kafkaProducerService.sendSensorData(request.toSensorData("http")).get();
+    }
+
+    @Benchmark
+    public Object durable() {
+        return controller.ingestSensorData(request, "durable");
+    }
+
+    @Benchmark
+    public Object buffered() {
+        return controller.ingestSensorData(request, "buffered");
+    }
+
+    @Benchmark
+    public Object none() {
+        return controller.ingestSensorData(request, "none");
+    }
+}
@@ -0,0 +1,150 @@
+package com.mantis.ingestion.benchmark;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.config.AssetKeySerializer;
+import com.mantis.ingestion.config.SensorDataJsonSerializer;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.EdgeBufferService;
+import com.mantis.ingestion.service.KafkaProducerPool;
+import com.mantis.ingestion.service.KafkaProducerService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit d'envoi de {@link KafkaProducerService} selon le nombre de shards du
+ * {@link KafkaProducerPool}, avec 8 threads d'ingestion concurrents.
+ *
+ * Avec {@code producer=kafka}, chaque shard est un vrai KafkaProducer
+ * (réglages de production : acks=all, idempotence, lz4, linger 10 ms) vers un
+ * broker KRaft embarqué dans le processus, topic à 8 partitions : le débit
+ * inclut l'accumulateur, le thread sender et le retour du broker, qui
+ * partage le CPU du benchmark.
+ *
+ * Avec {@code producer=mock}, chaque shard est un {@link MockProducer}, dont
+ * le {@code send} est entièrement {@code synchronized} : le résultat ne
+ * mesure que ce verrou et surestime le gain des shards par rapport à un vrai
+ * producer, dont l'accumulateur ne verrouille que la partition visée.
+ *
+ * Usage: mvn -Pbenchmark test-compile exec:exec -Djmh.args="KafkaProducerPoolBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(8)
+@Fork(1)
+public class KafkaProducerPoolBenchmark {
+
+    private static final String TOPIC = "raw-sensor-data";
+    private static final int RECORDS = 1024;
+    private static final int ASSETS = 64;
+    private static final int PARTITIONS = 8;
+
+    @Param({"1", "2", "4", "8"})
+    private int shards;
+
+    @Param({"kafka", "mock"})
+    private String producer;
+
+    private final List<MockProducer<String, SensorData>> producers = new ArrayList<>();
+    private EmbeddedKafkaBroker broker;
+    private KafkaProducerPool pool;
+    private KafkaProducerService kafkaProducerService;
+    private SensorData[] records;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        // Départ aléatoire : les threads ne visent pas le même shard au même moment
+        private int next = ThreadLocalRandom.current().nextInt(RECORDS);
+    }
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogs();
+
+        if ("kafka".equals(producer)) {
+            broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, TOPIC);
+            broker.afterPropertiesSet();
+        }
+        List<KafkaTemplate<String, SensorData>> templates = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            templates.add(new KafkaTemplate<>(producerFactory(shard)));
+        }
+        pool = new KafkaProducerPool(templates);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        kafkaProducerService = new KafkaProducerService(
+                pool, TOPIC, new EdgeBufferService(meterRegistry), CircuitBreakerRegistry.ofDefaults(), meterRegistry);
+
+        UUID[] assets = new UUID[ASSETS];
+        for (int i = 0; i < ASSETS; i++) {
+            assets[i] = UUID.randomUUID();
+        }
+        records = new SensorData[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            SensorData sensorData = TestDataFactory.createValidSensorData();
+            sensorData.setAssetId(assets[i % ASSETS]);
+            records[i] = sensorData;
+        }
+    }
+
+    /**
+     * MockProducer conserve chaque enregistrement envoyé : vidé entre les itérations.
+     */
+    @TearDown(Level.Iteration)
+    public void clearHistory() {
+        producers.forEach(MockProducer::clear);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        pool.destroy();
+        if (broker != null) {
+            broker.destroy();
+        }
+    }
+
+    @Benchmark
+    public Object send(Cursor cursor) {
+        SensorData sensorData = records[cursor.next];
+        cursor.next = (cursor.next + 1) & (RECORDS - 1);
+        return kafkaProducerService.sendValidatedSensorData(sensorData);
+    }
+
+    private ProducerFactory<String, SensorData> producerFactory(int shard) {
+        if (broker == null) {
+            MockProducer<String, SensorData> mock = BenchmarkSupport.sharedMockProducer(new SensorDataJsonSerializer());
+            producers.add(mock);
+            return new MockProducerFactory<>(() -> mock);
+        }
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        configs.put(ProducerConfig.CLIENT_ID_CONFIG, "benchmark-shard-" + shard);
+        configs.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, AssetKeySerializer.class);
+        configs.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SensorDataJsonSerializer.class);
+        configs.put(ProducerConfig.ACKS_CONFIG, "all");
+        configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        configs.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
+        configs.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        return new DefaultKafkaProducerFactory<>(configs);
+    }
+}
@@ -0,0 +1,161 @@
+package com.mantis.ingestion.benchmark;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.config.SensorDataEnvelopeSerializer;
+import com.mantis.ingestion.config.SensorDataJsonSerializer;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import com.mantis.ingestion.service.EdgeBufferService;
+import com.mantis.ingestion.service.KafkaProducerPool;
+import com.mantis.ingestion.service.KafkaProducerService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enregistrements et octets publiés sur raw-sensor-data, avec et sans le mode
+ * micro-batch de {@link KafkaProducerService}.
+ *
+ * Charge simulée : 10 assets de 20 capteurs, chaque capteur mesurant toutes
+ * les 100 ms ; la fenêtre de micro-batch (100 ms) est fermée après chaque
+ * tour de 200 mesures. Les compteurs auxiliaires {@code kafkaRecords} et
+ * {@code kafkaBytes} donnent les enregistrements et les octets de valeur
+ * sérialisés par seconde, pour le débit de mesures du score principal.
+ *
+ * Usage: mvn -Pbenchmark test-compile exec:exec -Djmh.args="MicroBatchEnvelopeBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(1)
+@Fork(1)
+public class MicroBatchEnvelopeBenchmark {
+
+    private static final String TOPIC = "raw-sensor-data";
+    private static final int ASSETS = 10;
+    private static final int SENSORS_PER_ASSET = 20;
+    private static final int READINGS_PER_WINDOW = ASSETS * SENSORS_PER_ASSET;
+
+    @Param({"false", "true"})
+    private boolean microBatch;
+
+    private final Traffic traffic = new Traffic();
+    private MockProducer<String, SensorData> producer;
+    private MockProducer<String, SensorDataEnvelope> envelopeProducer;
+    private KafkaProducerService kafkaProducerService;
+    private SensorData[] readings;
+    private int next;
+
+    /**
+     * Compteurs mis à jour par les sérialiseurs (un seul thread).
+     */
+    static final class Traffic {
+        long records;
+        long bytes;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class KafkaTraffic {
+        public long kafkaRecords;
+        public long kafkaBytes;
+    }
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogs();
+
+        producer = BenchmarkSupport.sharedMockProducer(new Counting<>(new SensorDataJsonSerializer(), traffic));
+        envelopeProducer = BenchmarkSupport.sharedMockProducer(
+                new Counting<>(new SensorDataEnvelopeSerializer(), traffic));
+        KafkaProducerPool pool = new KafkaProducerPool(
+                List.of(new KafkaTemplate<>(new MockProducerFactory<>(() -> producer))),
+                List.of(new KafkaTemplate<>(new MockProducerFactory<>(() -> envelopeProducer))));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        kafkaProducerService = new KafkaProducerService(
+                pool, TOPIC, new EdgeBufferService(meterRegistry), CircuitBreakerRegistry.ofDefaults(), meterRegistry);
+        ReflectionTestUtils.setField(kafkaProducerService, "microBatchEnabled", microBatch);
+        ReflectionTestUtils.setField(kafkaProducerService, "microBatchMaxReadings", 500);
+        kafkaProducerService.init();
+
+        Instant start = Instant.now();
+        readings = new SensorData[READINGS_PER_WINDOW];
+        for (int asset = 0; asset < ASSETS; asset++) {
+            UUID assetId = UUID.randomUUID();
+            for (int sensor = 0; sensor < SENSORS_PER_ASSET; sensor++) {
+                SensorData sensorData = TestDataFactory.createValidSensorData();
+                sensorData.setAssetId(assetId);
+                sensorData.setSensorCode("A" + asset + "-S" + sensor);
+                sensorData.setTimestamp(start.plusMillis(sensor));
+                readings[asset * SENSORS_PER_ASSET + sensor] = sensorData;
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTraffic() {
+        traffic.records = 0;
+        traffic.bytes = 0;
+    }
+
+    /**
+     * MockProducer conserve chaque enregistrement envoyé : vidé entre les itérations.
+     */
+    @TearDown(Level.Iteration)
+    public void clearHistory() {
+        producer.clear();
+        envelopeProducer.clear();
+    }
+
+    @Benchmark
+    public Object send(KafkaTraffic counters) {
+        Object result = kafkaProducerService.sendValidatedSensorData(readings[next]);
+        if (++next == READINGS_PER_WINDOW) {
+            next = 0;
+            kafkaProducerService.flushMicroBatches();
+        }
+        counters.kafkaRecords = traffic.records;
+        counters.kafkaBytes = traffic.bytes;
+        return result;
+    }
+
+    /**
+     * Sérialiseur comptant les enregistrements et les octets produits.
+     */
+    private static final class Counting<T> implements Serializer<T> {
+        private final Serializer<T> delegate;
+        private final Traffic traffic;
+
+        Counting(Serializer<T> delegate, Traffic traffic) {
+            this.delegate = delegate;
+            this.traffic = traffic;
+        }
+
+        @Override
+        public byte[] serialize(String topic, T data) {
+            byte[] bytes = delegate.serialize(topic, data);
+            traffic.records++;
+            traffic.bytes += bytes.length;
+            return bytes;
+        }
+
+        @Override
+        public byte[] serialize(String topic, Headers headers, T data) {
+            return serialize(topic, data);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.mantis.ingestion.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.config.RequestDecompressionFilter;
+import com.mantis.ingestion.dto.SensorDataRequest;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Coût CPU de la décompression d'un corps de requête, décodé au fil de l'eau
+ * dans le parser JSON comme dans {@link RequestDecompressionFilter}.
+ *
+ * Chaque opération lit un peu plus de 1 Mio de JSON décompressé (taille exacte
+ * affichée au setup) : le score (ms/op) approche donc le temps CPU par Mio ;
+ * {@code identity} donne le coût du seul parsing.
+ *
+ * Usage: mvn -Pbenchmark test-compile exec:exec -Djmh.args="RequestDecompressionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestDecompressionBenchmark {
+
+    private static final int TARGET_BYTES = 1 << 20;
+
+    @Param({"identity", "gzip", "zstd", "lz4"})
+    private String encoding;
+
+    private ObjectMapper objectMapper;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        List<SensorDataRequest> batch = new ArrayList<>();
+        byte[] json;
+        do {
+            for (int i = 0; i < 500; i++) {
+                SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
+                request.setValue(20.0 + batch.size() * 0.01);
+                request.setMetadata(Map.of("line", "L1"));
+                batch.add(request);
+            }
+            json = objectMapper.writeValueAsBytes(batch);
+        } while (json.length < TARGET_BYTES);
+
+        payload = compress(encoding, json);
+        System.out.printf("%n%s: %d records, %d bytes -> %d bytes (ratio %.2f)%n",
+                encoding, batch.size(), json.length, payload.length, (double) json.length / payload.length);
+    }
+
+    private static byte[] compress(String encoding, byte[] data) throws Exception {
+        if (RequestDecompressionFilter.IDENTITY.equals(encoding)) {
+            return data;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encoder = switch (encoding) {
+            case RequestDecompressionFilter.GZIP -> new GZIPOutputStream(out);
+            case RequestDecompressionFilter.ZSTD -> new ZstdOutputStream(out);
+            case RequestDecompressionFilter.LZ4 -> new LZ4FrameOutputStream(out);
+            default -> throw new IllegalArgumentException(encoding);
+        }) {
+            encoder.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public long decodeAndParse() throws Exception {
+        InputStream body = new ByteArrayInputStream(payload);
+        if (!RequestDecompressionFilter.IDENTITY.equals(encoding)) {
+            body = RequestDecompressionFilter.decode(encoding, body);
+        }
+
+        long tokens = 0;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                tokens += token.id();
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,104 @@
+package com.mantis.ingestion.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.dto.SensorDataRequest;
+import com.mantis.ingestion.dto.SensorFrameRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Décodage d'un batch de {@link SensorDataRequest} : JSON texte vs CBOR vs Smile,
+ * et même nombre d'échantillons transmis en une trame {@link SensorFrameRequest}.
+ *
+ * Usage: mvn -Pbenchmark test-compile exec:exec -Djmh.args="SensorDataDecodingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SensorDataDecodingBenchmark {
+
+    private static final TypeReference<List<SensorDataRequest>> BATCH_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private ObjectReader jsonReader;
+    private ObjectReader cborReader;
+    private ObjectReader smileReader;
+    private ObjectReader frameReader;
+
+    private byte[] jsonPayload;
+    private byte[] cborPayload;
+    private byte[] smilePayload;
+    private byte[] framePayload;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper json = mapper(new JsonFactory());
+        ObjectMapper cbor = mapper(new CBORFactory());
+        ObjectMapper smile = mapper(new SmileFactory());
+
+        List<SensorDataRequest> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
+            request.setValue(20.0 + i * 0.01);
+            request.setMetadata(Map.of("line", "L1"));
+            batch.add(request);
+        }
+
+        jsonPayload = json.writeValueAsBytes(batch);
+        cborPayload = cbor.writeValueAsBytes(batch);
+        smilePayload = smile.writeValueAsBytes(batch);
+
+        SensorFrameRequest frame = TestDataFactory.createValidSensorFrameRequest(batchSize);
+        frame.setMetadata(Map.of("line", "L1"));
+        framePayload = json.writeValueAsBytes(frame);
+
+        jsonReader = json.readerFor(BATCH_TYPE);
+        cborReader = cbor.readerFor(BATCH_TYPE);
+        smileReader = smile.readerFor(BATCH_TYPE);
+        frameReader = json.readerFor(SensorFrameRequest.class);
+
+        System.out.printf("%nPayload bytes for %d records: json=%d, cbor=%d, smile=%d, jsonFrame=%d%n",
+                batchSize, jsonPayload.length, cborPayload.length, smilePayload.length, framePayload.length);
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return new ObjectMapper(factory).registerModule(new JavaTimeModule());
+    }
+
+    @Benchmark
+    public List<SensorDataRequest> json() throws Exception {
+        return jsonReader.readValue(jsonPayload);
+    }
+
+    @Benchmark
+    public List<SensorDataRequest> cbor() throws Exception {
+        return cborReader.readValue(cborPayload);
+    }
+
+    @Benchmark
+    public List<SensorDataRequest> smile() throws Exception {
+        return smileReader.readValue(smilePayload);
+    }
+
+    @Benchmark
+    public SensorFrameRequest jsonFrame() throws Exception {
+        return frameReader.readValue(framePayload);
+    }
+}
@@ -0,0 +1,82 @@
+package com.mantis.ingestion.benchmark;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.config.SensorDataJsonSerializer;
+import com.mantis.ingestion.model.SensorData;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation d'un {@link SensorData} sur le chemin Kafka : {@link JsonSerializer}
+ * de Spring (réflexion Jackson) vs {@link SensorDataJsonSerializer}.
+ *
+ * Les octets alloués par enregistrement sont donnés par le profileur GC
+ * ({@code gc.alloc.rate.norm}).
+ *
+ * Usage: mvn -Pbenchmark test-compile exec:exec -Djmh.args="SensorDataSerializationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SensorDataSerializationBenchmark {
+
+    private static final String TOPIC = "sensor.raw";
+    private static final int RECORDS = 1024;
+
+    private JsonSerializer<SensorData> jsonSerializer;
+    private SensorDataJsonSerializer handWrittenSerializer;
+
+    private SensorData[] records;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new JsonSerializer<>();
+        handWrittenSerializer = new SensorDataJsonSerializer();
+
+        Instant start = Instant.now();
+        records = new SensorData[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            SensorData sensorData = TestDataFactory.createValidSensorData();
+            sensorData.setTimestamp(start.plusMillis(i * 10L));
+            sensorData.setCreatedAt(start.plusMillis(i * 10L + 3));
+            sensorData.setValue(20.0 + i * 0.01);
+            sensorData.setMetadata(Map.of("line", "L1"));
+            records[i] = sensorData;
+        }
+
+        byte[] reference = jsonSerializer.serialize(TOPIC, records[0]);
+        byte[] handWritten = handWrittenSerializer.serialize(TOPIC, records[0]);
+        System.out.printf("%nRecord bytes: json=%d, handWritten=%d, identical=%b%n",
+                reference.length, handWritten.length, java.util.Arrays.equals(reference, handWritten));
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        handWrittenSerializer.close();
+    }
+
+    private SensorData nextRecord() {
+        SensorData sensorData = records[next];
+        next = (next + 1) & (RECORDS - 1);
+        return sensorData;
+    }
+
+    @Benchmark
+    public byte[] springJsonSerializer() {
+        return jsonSerializer.serialize(TOPIC, nextRecord());
+    }
+
+    @Benchmark
+    public byte[] handWrittenSerializer() {
+        return handWrittenSerializer.serialize(TOPIC, nextRecord());
+    }
+}
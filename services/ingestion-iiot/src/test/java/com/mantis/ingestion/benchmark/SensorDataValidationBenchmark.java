@@ -0,0 +1,68 @@
+package com.mantis.ingestion.benchmark;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.dto.SensorDataRequest;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.SensorDataRequestValidator;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation d'un batch valide : Bean Validation + {@code SensorData.isValid()}
+ * (chemin historique) vs {@link SensorDataRequestValidator}.
+ *
+ * Usage: mvn -Pbenchmark test-compile exec:exec -Djmh.args="SensorDataValidationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SensorDataValidationBenchmark {
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private Validator beanValidator;
+    private SensorDataRequestValidator fastValidator;
+    private List<SensorDataRequest> batch;
+    private List<SensorData> converted;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogs();
+        beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+        fastValidator = new SensorDataRequestValidator();
+
+        batch = new ArrayList<>(batchSize);
+        converted = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
+            request.setValue(20.0 + i * 0.01);
+            batch.add(request);
+            converted.add(request.toSensorData("http"));
+        }
+    }
+
+    @Benchmark
+    public void beanValidation(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(beanValidator.validate(batch.get(i)));
+            blackhole.consume(converted.get(i).isValid());
+        }
+    }
+
+    @Benchmark
+    public void handWritten(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(fastValidator.validate(batch.get(i)));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.mantis.ingestion.config;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for HotAssetPartitioner and AssetKeySerializer.
+ */
+@DisplayName("HotAssetPartitioner Tests")
+class HotAssetPartitionerTest {
+
+    private static final String TOPIC = "sensor.raw.test";
+    private static final int PARTITIONS = 12;
+
+    private final UUID hotAsset = UUID.randomUUID();
+    private final HotAssetPartitioner partitioner = new HotAssetPartitioner();
+    private final AssetKeySerializer keySerializer = new AssetKeySerializer();
+    private final Cluster cluster = cluster();
+
+    @AfterEach
+    void tearDown() {
+        partitioner.close();
+        keySerializer.close();
+    }
+
+    @Test
+    @DisplayName("Should match the default murmur2 partition for regular assets")
+    void shouldMatchDefaultPartitioning() {
+        // Given
+        partitioner.configure(Map.of(HotAssetPartitioner.HOT_ASSETS_CONFIG, hotAsset.toString(),
+                HotAssetPartitioner.HOT_ASSET_SPREAD_CONFIG, 4));
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        String key = sensorData.getAssetId().toString();
+        byte[] keyBytes = keySerializer.serialize(TOPIC, key);
+
+        // When
+        int partition = partitioner.partition(TOPIC, key, keyBytes, sensorData, null, cluster);
+
+        // Then
+        assertThat(partition).isEqualTo(Utils.toPositive(Utils.murmur2(keyBytes)) % PARTITIONS);
+    }
+
+    @Test
+    @DisplayName("Should spread a hot asset over its partition range while keeping each sensor on one partition")
+    void shouldSpreadHotAssetBySensor() {
+        // Given
+        partitioner.configure(Map.of(HotAssetPartitioner.HOT_ASSETS_CONFIG, " " + hotAsset + " ",
+                HotAssetPartitioner.HOT_ASSET_SPREAD_CONFIG, "4"));
+        String key = hotAsset.toString();
+        byte[] keyBytes = keySerializer.serialize(TOPIC, key);
+        int base = Utils.toPositive(Utils.murmur2(keyBytes)) % PARTITIONS;
+        List<Integer> range = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            range.add((base + i) % PARTITIONS);
+        }
+
+        // When
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            SensorData sensorData = reading(UUID.randomUUID());
+            int partition = partitioner.partition(TOPIC, key, keyBytes, sensorData, null, cluster);
+            assertThat(partitioner.partition(TOPIC, key, keyBytes, reading(sensorData.getSensorId()), null, cluster))
+                    .isEqualTo(partition);
+            used.add(partition);
+        }
+
+        // Then
+        assertThat(used).containsExactlyInAnyOrderElementsOf(range);
+    }
+
+    @Test
+    @DisplayName("Should keep hot asset envelopes on the base partition")
+    void shouldKeepEnvelopesOnBasePartition() {
+        // Given
+        partitioner.configure(Map.of(HotAssetPartitioner.HOT_ASSETS_CONFIG, hotAsset.toString(),
+                HotAssetPartitioner.HOT_ASSET_SPREAD_CONFIG, 4));
+        String key = hotAsset.toString();
+        byte[] keyBytes = keySerializer.serialize(TOPIC, key);
+        SensorDataEnvelope envelope = new SensorDataEnvelope(hotAsset, List.of(reading(UUID.randomUUID())));
+
+        // When
+        int partition = partitioner.partition(TOPIC, key, keyBytes, envelope, null, cluster);
+
+        // Then
+        assertThat(partition).isEqualTo(Utils.toPositive(Utils.murmur2(keyBytes)) % PARTITIONS);
+    }
+
+    @Test
+    @DisplayName("Should reject a spread below one")
+    void shouldRejectInvalidSpread() {
+        assertThatThrownBy(() -> partitioner.configure(Map.of(HotAssetPartitioner.HOT_ASSET_SPREAD_CONFIG, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should reuse the encoded bytes of a key")
+    void shouldCacheEncodedKeys() {
+        // Given
+        String key = hotAsset.toString();
+
+        // When
+        byte[] first = keySerializer.serialize(TOPIC, key);
+        byte[] second = keySerializer.serialize(TOPIC, new String(key));
+
+        // Then
+        assertThat(second).isSameAs(first).isEqualTo(key.getBytes());
+        assertThat(keySerializer.serialize(TOPIC, null)).isNull();
+    }
+
+    private SensorData reading(UUID sensorId) {
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        sensorData.setAssetId(hotAsset);
+        sensorData.setSensorId(sensorId);
+        return sensorData;
+    }
+
+    private static Cluster cluster() {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            partitions.add(new PartitionInfo(TOPIC, i, node, new Node[]{node}, new Node[]{node}));
+        }
+        return new Cluster("test", List.of(node), partitions, Set.of(), Set.of());
+    }
+}
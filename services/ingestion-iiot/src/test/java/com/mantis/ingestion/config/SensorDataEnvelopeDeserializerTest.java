@@ -0,0 +1,134 @@
+package com.mantis.ingestion.config;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the micro-batch envelope codec (SensorDataEnvelopeSerializer
+ * and SensorDataEnvelopeDeserializer).
+ */
+@DisplayName("SensorDataEnvelope codec Tests")
+class SensorDataEnvelopeDeserializerTest {
+
+    private static final String TOPIC = "sensor.raw.test";
+
+    private final SensorDataEnvelopeSerializer envelopeSerializer = new SensorDataEnvelopeSerializer();
+    private final SensorDataJsonSerializer readingSerializer = new SensorDataJsonSerializer();
+    private final SensorDataEnvelopeDeserializer deserializer = new SensorDataEnvelopeDeserializer();
+
+    @AfterEach
+    void tearDown() {
+        envelopeSerializer.close();
+        readingSerializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    @DisplayName("Should embed each reading with the bytes it has when sent alone")
+    void shouldEmbedReadingBytes() {
+        // Given
+        List<SensorData> readings = readings(UUID.randomUUID(), 3);
+        SensorDataEnvelope envelope = new SensorDataEnvelope(readings.get(0).getAssetId(), readings);
+
+        // When
+        String json = new String(envelopeSerializer.serialize(TOPIC, envelope), StandardCharsets.UTF_8);
+
+        // Then
+        StringBuilder expected = new StringBuilder("{\"assetId\":\"").append(envelope.getAssetId()).append("\",\"readings\":[");
+        for (int i = 0; i < readings.size(); i++) {
+            if (i > 0) {
+                expected.append(',');
+            }
+            expected.append(new String(readingSerializer.serialize(TOPIC, readings.get(i)), StandardCharsets.UTF_8));
+        }
+        assertThat(json).isEqualTo(expected.append("]}").toString());
+    }
+
+    @Test
+    @DisplayName("Should decode an envelope back into its readings")
+    void shouldRoundTripEnvelope() {
+        // Given
+        UUID assetId = UUID.randomUUID();
+        List<SensorData> readings = readings(assetId, 20);
+        byte[] data = envelopeSerializer.serialize(TOPIC, new SensorDataEnvelope(assetId, readings));
+
+        // When
+        List<SensorData> decoded = deserializer.deserialize(TOPIC, envelopeHeaders(), data);
+
+        // Then
+        assertThat(decoded).hasSize(20);
+        for (int i = 0; i < readings.size(); i++) {
+            SensorData original = readings.get(i);
+            SensorData copy = decoded.get(i);
+            assertThat(copy.getAssetId()).isEqualTo(assetId);
+            assertThat(copy.getSensorId()).isEqualTo(original.getSensorId());
+            assertThat(copy.getTimestamp()).isEqualTo(original.getTimestamp());
+            assertThat(copy.getValue()).isEqualTo(original.getValue());
+            assertThat(copy.getSensorCode()).isEqualTo(original.getSensorCode());
+            assertThat(copy.getMetadata()).isEqualTo(original.getMetadata());
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode a single-reading record as a one-element list")
+    void shouldDecodeSingleReading() {
+        // Given
+        SensorData sensorData = readings(UUID.randomUUID(), 1).get(0);
+        byte[] data = readingSerializer.serialize(TOPIC, sensorData);
+
+        // When
+        List<SensorData> withHeaders = deserializer.deserialize(TOPIC, new RecordHeaders(), data);
+        List<SensorData> withoutHeaders = deserializer.deserialize(TOPIC, data);
+
+        // Then
+        assertThat(withHeaders).singleElement()
+                .satisfies(decoded -> assertThat(decoded.getSensorId()).isEqualTo(sensorData.getSensorId()));
+        assertThat(withoutHeaders).singleElement()
+                .satisfies(decoded -> assertThat(decoded.getValue()).isEqualTo(sensorData.getValue()));
+    }
+
+    @Test
+    @DisplayName("Should decode an empty envelope and a null value")
+    void shouldDecodeEmptyEnvelope() {
+        // Given
+        byte[] data = envelopeSerializer.serialize(TOPIC, new SensorDataEnvelope(UUID.randomUUID(), List.of()));
+
+        // When / Then
+        assertThat(deserializer.deserialize(TOPIC, envelopeHeaders(), data)).isEmpty();
+        assertThat(deserializer.deserialize(TOPIC, envelopeHeaders(), (byte[]) null)).isNull();
+    }
+
+    private RecordHeaders envelopeHeaders() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(SensorDataEnvelope.FORMAT_HEADER, SensorDataEnvelope.FORMAT_V1.getBytes(StandardCharsets.US_ASCII));
+        return headers;
+    }
+
+    private List<SensorData> readings(UUID assetId, int count) {
+        Instant start = Instant.parse("2026-03-01T08:00:00.000Z");
+        List<SensorData> readings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SensorData sensorData = TestDataFactory.createValidSensorData();
+            sensorData.setAssetId(assetId);
+            sensorData.setTimestamp(start.plusMillis(i * 100L));
+            sensorData.setValue(20.0 + i * 0.25);
+            sensorData.setMetadata(Map.of("line", "L1"));
+            readings.add(sensorData);
+        }
+        return readings;
+    }
+}
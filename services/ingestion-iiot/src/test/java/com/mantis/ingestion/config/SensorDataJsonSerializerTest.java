@@ -0,0 +1,218 @@
+package com.mantis.ingestion.config;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorAggregate;
+import com.mantis.ingestion.model.SensorData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SensorDataJsonSerializer: output must be byte-identical to
+ * Spring's JsonSerializer, which consumers of the raw topic rely on.
+ */
+@DisplayName("SensorDataJsonSerializer Tests")
+class SensorDataJsonSerializerTest {
+
+    private static final String TOPIC = "sensor.raw.test";
+
+    private final SensorDataJsonSerializer serializer = new SensorDataJsonSerializer();
+    private final JsonSerializer<SensorData> reference = new JsonSerializer<>();
+
+    @AfterEach
+    void tearDown() {
+        serializer.close();
+        reference.close();
+    }
+
+    @Test
+    @DisplayName("Should match the reference serializer for a valid reading")
+    void shouldMatchReferenceForValidReading() {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+
+        // When / Then
+        assertSameBytes(sensorData);
+    }
+
+    @Test
+    @DisplayName("Should omit null fields like the reference serializer")
+    void shouldOmitNullFields() {
+        // Given
+        SensorData sensorData = new SensorData();
+        sensorData.setQuality(null);
+        sensorData.setCreatedAt(null);
+
+        SensorData partial = TestDataFactory.createValidSensorData();
+        partial.setUnit(null);
+        partial.setMetadata(null);
+        partial.setValue(null);
+
+        // When / Then
+        assertSameBytes(sensorData);
+        assertSameBytes(partial);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "plain",
+            "quote \" and backslash \\ and slash /",
+            "controls \b\t\n\f\r \u0000 \u001f \u007f",
+            "°C µm/s² Ω",
+            "emoji 🌡 thermometer",
+            "unpaired \uD83C surrogate \uDF21",
+            ""
+    })
+    @DisplayName("Should escape and encode strings like the reference serializer")
+    void shouldEncodeStrings(String text) {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        sensorData.setSensorCode(text);
+        sensorData.setUnit(text);
+        sensorData.setMetadata(Map.of(text, text));
+
+        // When / Then
+        assertSameBytes(sensorData);
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.0, -0.0, 1.0, -273.15, 1e-7, 1.2345678901234567e21, Double.MAX_VALUE,
+            Double.MIN_VALUE, Double.NaN, Double.POSITIVE_INFINITY})
+    @DisplayName("Should write doubles like the reference serializer")
+    void shouldWriteDoubles(double value) {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        sensorData.setValue(value);
+
+        // When / Then
+        assertSameBytes(sensorData);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1970-01-01T00:00:00Z", "1969-12-31T23:59:59.999999999Z",
+            "2024-02-29T12:34:56.007Z", "2024-02-29T12:34:56.123456789Z", "9999-12-31T23:59:59.999Z"})
+    @DisplayName("Should format instants like the reference serializer")
+    void shouldFormatInstants(String instant) {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        sensorData.setTimestamp(Instant.parse(instant));
+        sensorData.setCreatedAt(Instant.parse(instant).plusMillis(1500));
+
+        // When / Then
+        assertSameBytes(sensorData);
+    }
+
+    @Test
+    @DisplayName("Should write metadata values like the reference serializer")
+    void shouldWriteMetadata() {
+        // Given
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("line", "L1");
+        nested.put("missing", null);
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("null", null);
+        metadata.put("flag", true);
+        metadata.put("int", -42);
+        metadata.put("long", Long.MIN_VALUE);
+        metadata.put("short", (short) 7);
+        metadata.put("float", 1.5f);
+        metadata.put("floatNaN", Float.NaN);
+        metadata.put("decimal", new BigDecimal("1E+3"));
+        metadata.put("bigint", new BigInteger("123456789012345678901234567890"));
+        metadata.put("nested", nested);
+        metadata.put("list", List.of(1, "two", 3.0));
+        metadata.put("set", Set.of("only"));
+        metadata.put("instant", Instant.parse("2024-01-01T00:00:00.123456Z"));
+        metadata.put("uuid", UUID.randomUUID());
+        metadata.put("array", new int[]{1, 2});
+        metadata.put("nonStringKeys", Map.of(1, "one"));
+
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        sensorData.setMetadata(metadata);
+
+        // When / Then
+        assertSameBytes(sensorData);
+    }
+
+    @Test
+    @DisplayName("Should write the aggregate of a downsampled reading like the reference serializer")
+    void shouldWriteAggregate() {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        sensorData.setAggregate(SensorAggregate.builder()
+                .count(12)
+                .min(-1.5)
+                .max(Double.POSITIVE_INFINITY)
+                .bucketMs(60_000)
+                .build());
+
+        // When / Then
+        assertSameBytes(sensorData);
+    }
+
+    @Test
+    @DisplayName("Should match the reference serializer for random readings")
+    void shouldMatchReferenceForRandomReadings() {
+        // Given
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            SensorData sensorData = TestDataFactory.createValidSensorData();
+            sensorData.setAssetId(new UUID(random.nextLong(), random.nextLong()));
+            sensorData.setSensorId(new UUID(random.nextLong(), random.nextLong()));
+            sensorData.setValue(random.nextGaussian() * Math.pow(10, random.nextInt(20) - 10));
+            sensorData.setQuality(random.nextInt(101));
+            sensorData.setTimestamp(Instant.ofEpochSecond(random.nextInt(), random.nextInt(1_000_000_000)));
+            sensorData.setMetadata(Map.of("seq", i, "ratio", random.nextDouble()));
+
+            // When / Then
+            assertSameBytes(sensorData);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not leak bytes between calls on the reused buffer")
+    void shouldResetBufferBetweenCalls() {
+        // Given
+        SensorData large = TestDataFactory.createValidSensorData();
+        large.setMetadata(Map.of("blob", "x".repeat(100_000)));
+        SensorData small = TestDataFactory.createValidSensorData();
+
+        // When
+        serializer.serialize(TOPIC, large);
+
+        // Then
+        assertSameBytes(small);
+    }
+
+    @Test
+    @DisplayName("Should return null for null data")
+    void shouldReturnNullForNullData() {
+        assertThat(serializer.serialize(TOPIC, null)).isNull();
+    }
+
+    private void assertSameBytes(SensorData sensorData) {
+        byte[] expected = reference.serialize(TOPIC, sensorData);
+        byte[] actual = serializer.serialize(TOPIC, sensorData);
+
+        assertThat(new String(actual, StandardCharsets.UTF_8)).isEqualTo(new String(expected, StandardCharsets.UTF_8));
+        assertThat(Arrays.equals(actual, expected)).isTrue();
+    }
+}
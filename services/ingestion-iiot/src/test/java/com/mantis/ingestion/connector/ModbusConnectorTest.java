@@ -1,7 +1,9 @@
 package com.mantis.ingestion.connector;
 
 import com.digitalpetri.modbus.master.ModbusTcpMaster;
+import com.mantis.ingestion.service.FlowControlService;
 import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorCompressionFilter;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
@@ -36,7 +38,8 @@ class ModbusConnectorTest {
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        connector = new ModbusConnector(kafkaProducerService, meterRegistry);
+        connector = new ModbusConnector(kafkaProducerService, new SensorCompressionFilter(meterRegistry),
+                new FlowControlService(kafkaProducerService, meterRegistry), meterRegistry);
 
         // Set configuration values via reflection
         ReflectionTestUtils.setField(connector, "host", "localhost");
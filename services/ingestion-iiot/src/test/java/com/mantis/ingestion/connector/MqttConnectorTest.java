@@ -4,7 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.FlowControlService;
 import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorCompressionFilter;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
@@ -48,7 +50,8 @@ class MqttConnectorTest {
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
         meterRegistry = new SimpleMeterRegistry();
-        connector = new MqttConnector(kafkaProducerService, objectMapper, meterRegistry);
+        connector = new MqttConnector(kafkaProducerService, new SensorCompressionFilter(meterRegistry),
+                new FlowControlService(kafkaProducerService, meterRegistry), objectMapper, meterRegistry);
 
         // Set configuration values via reflection
         ReflectionTestUtils.setField(connector, "brokerUrl", "tcp://localhost:1883");
@@ -1,6 +1,8 @@
 package com.mantis.ingestion.connector;
 
+import com.mantis.ingestion.service.FlowControlService;
 import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorCompressionFilter;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
@@ -38,7 +40,8 @@ class OpcUaConnectorTest {
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        connector = new OpcUaConnector(kafkaProducerService, meterRegistry);
+        connector = new OpcUaConnector(kafkaProducerService, new SensorCompressionFilter(meterRegistry),
+                new FlowControlService(kafkaProducerService, meterRegistry), meterRegistry);
 
         // Set configuration values via reflection
         ReflectionTestUtils.setField(connector, "endpoint", "opc.tcp://localhost:4840");
@@ -1,26 +1,59 @@
 package com.mantis.ingestion.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.mantis.ingestion.TestDataFactory;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.mantis.ingestion.config.RequestDecompressionFilter;
+import com.mantis.ingestion.config.WebConfig;
 
 import com.mantis.ingestion.dto.SensorDataRequest;
+import com.mantis.ingestion.dto.SensorFrameRequest;
+import com.mantis.ingestion.dto.StreamIngestionSummary;
 import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.exception.AdmissionRejectedException;
+import com.mantis.ingestion.exception.ReadingDroppedException;
+import com.mantis.ingestion.service.AdmissionControlService;
 import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorDataRequestValidator;
+import com.mantis.ingestion.service.StreamIngestionService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.TopicPartition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,7 +61,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 /**
  * Unit tests for IngestionController.
  */
-@WebMvcTest(IngestionController.class)
+@WebMvcTest(value = IngestionController.class,
+                properties = "mantis.ingestion.http.decompression.max-decompressed-bytes=1048576")
+@Import({SensorDataRequestValidator.class, SimpleMeterRegistry.class})
 @DisplayName("IngestionController Tests")
 class IngestionControllerTest {
 
@@ -41,6 +76,12 @@ class IngestionControllerTest {
         @MockBean
         private KafkaProducerService kafkaProducerService;
 
+        @MockBean
+        private StreamIngestionService streamIngestionService;
+
+        @MockBean
+        private AdmissionControlService admissionControlService;
+
         @Test
         @DisplayName("Should ingest sensor data successfully")
         void shouldIngestSensorDataSuccessfully() throws Exception {
@@ -48,20 +89,150 @@ class IngestionControllerTest {
                 SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
                 SendResult<String, SensorData> sendResult = createMockSendResult();
 
-                when(kafkaProducerService.sendSensorDataSync(any(SensorData.class))).thenReturn(sendResult);
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(sendResult));
 
-                // When & Then
-                mockMvc.perform(post("/api/v1/ingest")
+                // When
+                MvcResult mvcResult = mockMvc.perform(post("/api/v1/ingest")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                // Then
+                mockMvc.perform(asyncDispatch(mvcResult))
                                 .andExpect(status().isCreated())
                                 .andExpect(jsonPath("$.success").value(true))
                                 .andExpect(jsonPath("$.sensorCode").value(request.getSensorCode()))
                                 .andExpect(jsonPath("$.kafkaPartition").exists())
                                 .andExpect(jsonPath("$.kafkaOffset").exists())
-                                .andExpect(jsonPath("$.latencyMs").exists());
+                                .andExpect(jsonPath("$.latencyMs").exists())
+                                .andExpect(jsonPath("$.ackLevel").value("durable"));
+
+                verify(kafkaProducerService).sendSensorData(any(SensorData.class));
+                verify(kafkaProducerService, never()).sendSensorDataSync(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should accept sensor data without waiting for Kafka when ack level is none")
+        void shouldAcceptFireAndForget() throws Exception {
+                // Given: Kafka never acknowledges
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(new CompletableFuture<>());
+
+                // When
+                MvcResult mvcResult = mockMvc.perform(post("/api/v1/ingest")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(IngestionController.ACK_LEVEL_HEADER, "none")
+                                .content(objectMapper.writeValueAsString(
+                                                TestDataFactory.createValidSensorDataRequest())))
+                                .andReturn();
+
+                // Then
+                mockMvc.perform(asyncDispatch(mvcResult))
+                                .andExpect(status().isAccepted())
+                                .andExpect(jsonPath("$.success").value(true))
+                                .andExpect(jsonPath("$.ackLevel").value("none"))
+                                .andExpect(jsonPath("$.kafkaOffset").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should accept sensor data once buffered by the producer")
+        void shouldAcceptBufferedData() throws Exception {
+                // Given
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(new CompletableFuture<>());
+
+                // When
+                MvcResult mvcResult = mockMvc.perform(post("/api/v1/ingest")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(IngestionController.ACK_LEVEL_HEADER, "buffered")
+                                .content(objectMapper.writeValueAsString(
+                                                TestDataFactory.createValidSensorDataRequest())))
+                                .andReturn();
+
+                // Then
+                mockMvc.perform(asyncDispatch(mvcResult))
+                                .andExpect(status().isAccepted())
+                                .andExpect(jsonPath("$.ackLevel").value("buffered"));
+        }
+
+        @Test
+        @DisplayName("Should accept a reading short-circuited to the edge buffer")
+        void shouldAcceptShortCircuitedReading() throws Exception {
+                // Given
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.failedFuture(CallNotPermittedException
+                                                .createCallNotPermittedException(CircuitBreaker.ofDefaults("kafka"))));
+
+                // When
+                MvcResult mvcResult = mockMvc.perform(post("/api/v1/ingest")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(IngestionController.ACK_LEVEL_HEADER, "buffered")
+                                .content(objectMapper.writeValueAsString(
+                                                TestDataFactory.createValidSensorDataRequest())))
+                                .andReturn();
 
-                verify(kafkaProducerService).sendSensorDataSync(any(SensorData.class));
+                // Then
+                mockMvc.perform(asyncDispatch(mvcResult))
+                                .andExpect(status().isAccepted())
+                                .andExpect(jsonPath("$.success").value(true))
+                                .andExpect(jsonPath("$.ackLevel").value("buffered"));
+        }
+
+        @Test
+        @DisplayName("Should answer 503 for a reading dropped with the circuit open")
+        void shouldReportDroppedReading() throws Exception {
+                // Given
+                SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.failedFuture(
+                                                new ReadingDroppedException(request.getAssetId())));
+
+                // When
+                MvcResult mvcResult = mockMvc.perform(post("/api/v1/ingest")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andReturn();
+
+                // Then
+                mockMvc.perform(asyncDispatch(mvcResult))
+                                .andExpect(status().isServiceUnavailable())
+                                .andExpect(jsonPath("$.success").value(false));
+        }
+
+        @Test
+        @DisplayName("Should report buffered send rejected by the producer")
+        void shouldReportBufferedSendFailure() throws Exception {
+                // Given
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Buffer exhausted")));
+
+                // When
+                MvcResult mvcResult = mockMvc.perform(post("/api/v1/ingest")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(IngestionController.ACK_LEVEL_HEADER, "buffered")
+                                .content(objectMapper.writeValueAsString(
+                                                TestDataFactory.createValidSensorDataRequest())))
+                                .andReturn();
+
+                // Then
+                mockMvc.perform(asyncDispatch(mvcResult))
+                                .andExpect(status().isInternalServerError())
+                                .andExpect(jsonPath("$.success").value(false));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown ack level")
+        void shouldRejectUnknownAckLevel() throws Exception {
+                mockMvc.perform(post("/api/v1/ingest")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(IngestionController.ACK_LEVEL_HEADER, "eventually")
+                                .content(objectMapper.writeValueAsString(
+                                                TestDataFactory.createValidSensorDataRequest())))
+                                .andExpect(status().isBadRequest());
+
+                verify(kafkaProducerService, never()).sendSensorData(any(SensorData.class));
         }
 
         @Test
@@ -76,7 +247,7 @@ class IngestionControllerTest {
                                 .content(objectMapper.writeValueAsString(invalidRequest)))
                                 .andExpect(status().isBadRequest());
 
-                verify(kafkaProducerService, never()).sendSensorDataSync(any(SensorData.class));
+                verify(kafkaProducerService, never()).sendSensorData(any(SensorData.class));
         }
 
         @Test
@@ -84,16 +255,20 @@ class IngestionControllerTest {
         void shouldHandleKafkaErrors() throws Exception {
                 // Given
                 SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
-                when(kafkaProducerService.sendSensorDataSync(any(SensorData.class)))
-                                .thenThrow(new RuntimeException("Kafka error"));
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka error")));
 
-                // When & Then
-                mockMvc.perform(post("/api/v1/ingest")
+                // When
+                MvcResult mvcResult = mockMvc.perform(post("/api/v1/ingest")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(request)))
+                                .andReturn();
+
+                // Then
+                mockMvc.perform(asyncDispatch(mvcResult))
                                 .andExpect(status().isInternalServerError())
                                 .andExpect(jsonPath("$.success").value(false))
-                                .andExpect(jsonPath("$.message").exists());
+                                .andExpect(jsonPath("$.message").value("Ingestion failed: Kafka error"));
         }
 
         @Test
@@ -105,8 +280,8 @@ class IngestionControllerTest {
                                 TestDataFactory.createValidSensorDataRequest());
 
                 SendResult<String, SensorData> sendResult = createMockSendResult();
-                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
-                                .thenReturn(java.util.concurrent.CompletableFuture.completedFuture(sendResult));
+                when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(sendResult));
 
                 // When & Then
                 mockMvc.perform(post("/api/v1/ingest/batch")
@@ -116,7 +291,472 @@ class IngestionControllerTest {
                                 .andExpect(jsonPath("$").isArray())
                                 .andExpect(jsonPath("$.length()").value(2));
 
-                verify(kafkaProducerService, times(2)).sendSensorData(any(SensorData.class));
+                verify(kafkaProducerService, times(2)).sendValidatedSensorData(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should report readings short-circuited to the edge buffer as accepted in a full batch")
+        void shouldReportDeferredReadingsInFullBatch() throws Exception {
+                // Given
+                SensorDataRequest sent = TestDataFactory.createValidSensorDataRequest();
+                SensorDataRequest deferred = TestDataFactory.createValidSensorDataRequest();
+                deferred.setSensorCode("DEFERRED-001");
+                when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()))
+                                .thenReturn(CompletableFuture.failedFuture(CallNotPermittedException
+                                                .createCallNotPermittedException(CircuitBreaker.ofDefaults("kafka"))));
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(List.of(sent, deferred))))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$[0].success").value(true))
+                                .andExpect(jsonPath("$[0].kafkaOffset").value(0))
+                                .andExpect(jsonPath("$[1].success").value(true))
+                                .andExpect(jsonPath("$[1].sensorCode").value("DEFERRED-001"))
+                                .andExpect(jsonPath("$[1].ackLevel").value("buffered"))
+                                .andExpect(jsonPath("$[1].kafkaOffset").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should return compact summary for batch")
+        void shouldReturnCompactBatchSummary() throws Exception {
+                // Given
+                List<SensorDataRequest> requests = List.of(
+                                TestDataFactory.createValidSensorDataRequest(),
+                                TestDataFactory.createValidSensorDataRequest(),
+                                TestDataFactory.createValidSensorDataRequest(),
+                                TestDataFactory.createValidSensorDataRequest());
+
+                when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(0, 41L)))
+                                .thenReturn(CompletableFuture.failedFuture(
+                                                new org.apache.kafka.common.errors.TimeoutException("Expired")))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(0, 40L)))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(3, 7L)));
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(IngestionController.RESPONSE_MODE_HEADER, "compact")
+                                .content(objectMapper.writeValueAsString(requests)))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.total").value(4))
+                                .andExpect(jsonPath("$.succeeded").value(3))
+                                .andExpect(jsonPath("$.failed").value(1))
+                                .andExpect(jsonPath("$.failures[0].index").value(1))
+                                .andExpect(jsonPath("$.failures[0].code").value("TIMEOUT"))
+                                .andExpect(jsonPath("$.partitions.length()").value(2))
+                                .andExpect(jsonPath("$.partitions[0].topic").value("sensor.raw"))
+                                .andExpect(jsonPath("$.partitions[0].partition").value(0))
+                                .andExpect(jsonPath("$.partitions[0].minOffset").value(40))
+                                .andExpect(jsonPath("$.partitions[0].maxOffset").value(41))
+                                .andExpect(jsonPath("$.partitions[0].count").value(2))
+                                .andExpect(jsonPath("$.partitions[1].partition").value(3));
+
+                verify(kafkaProducerService, times(4)).sendValidatedSensorData(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should keep offset ranges of each lane apart in compact summary")
+        void shouldSeparateLanesInCompactSummary() throws Exception {
+                // Given
+                List<SensorDataRequest> requests = List.of(
+                                TestDataFactory.createValidSensorDataRequest(),
+                                TestDataFactory.createValidSensorDataRequest(),
+                                TestDataFactory.createValidSensorDataRequest());
+
+                when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(
+                                                createMockSendResult("raw-sensor-data", 0, 120L)))
+                                .thenReturn(CompletableFuture.completedFuture(
+                                                createMockSendResult("raw-sensor-data-critical", 0, 5L)))
+                                .thenReturn(CompletableFuture.completedFuture(
+                                                createMockSendResult("raw-sensor-data", 0, 121L)));
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(IngestionController.RESPONSE_MODE_HEADER, "compact")
+                                .content(objectMapper.writeValueAsString(requests)))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.partitions.length()").value(2))
+                                .andExpect(jsonPath("$.partitions[0].topic").value("raw-sensor-data"))
+                                .andExpect(jsonPath("$.partitions[0].partition").value(0))
+                                .andExpect(jsonPath("$.partitions[0].minOffset").value(120))
+                                .andExpect(jsonPath("$.partitions[0].maxOffset").value(121))
+                                .andExpect(jsonPath("$.partitions[0].count").value(2))
+                                .andExpect(jsonPath("$.partitions[1].topic").value("raw-sensor-data-critical"))
+                                .andExpect(jsonPath("$.partitions[1].partition").value(0))
+                                .andExpect(jsonPath("$.partitions[1].minOffset").value(5))
+                                .andExpect(jsonPath("$.partitions[1].count").value(1));
+        }
+
+        @Test
+        @DisplayName("Should answer 429 with Retry-After when admission is refused")
+        void shouldRejectWhenAdmissionRefused() throws Exception {
+                // Given
+                SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
+                doThrow(new AdmissionRejectedException("asset", 3, "Rate limit exceeded"))
+                                .when(admissionControlService).acquire(request.getAssetId(), "http", 1);
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isTooManyRequests())
+                                .andExpect(header().string("Retry-After", "3"))
+                                .andExpect(jsonPath("$.success").value(false));
+
+                verify(kafkaProducerService, never()).sendSensorData(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should admit batch per asset before sending")
+        void shouldAdmitBatchPerAsset() throws Exception {
+                // Given
+                SensorDataRequest first = TestDataFactory.createValidSensorDataRequest();
+                SensorDataRequest second = TestDataFactory.createValidSensorDataRequest();
+                second.setAssetId(first.getAssetId());
+                SensorDataRequest other = TestDataFactory.createValidSensorDataRequest();
+
+                doThrow(new AdmissionRejectedException("global", 1, "Producer buffer 90% full"))
+                                .when(admissionControlService).acquireAll(any(), eq("http"));
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(List.of(first, second, other))))
+                                .andExpect(status().isTooManyRequests())
+                                .andExpect(header().string("Retry-After", "1"));
+
+                verify(admissionControlService).acquireAll(
+                                Map.of(first.getAssetId(), 2, other.getAssetId(), 1), "http");
+                verify(kafkaProducerService, never()).sendValidatedSensorData(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should reject batch with indexed validation errors")
+        void shouldRejectBatchWithIndexedErrors() throws Exception {
+                // Given
+                SensorDataRequest invalid = TestDataFactory.createValidSensorDataRequest();
+                invalid.setSensorCode("bad code");
+                invalid.setValue(2_000_000.0);
+                List<SensorDataRequest> requests = List.of(
+                                TestDataFactory.createValidSensorDataRequest(),
+                                invalid);
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(requests)))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$['[1].sensorCode']").value("Sensor code must contain only uppercase letters, numbers, hyphens and underscores"))
+                                .andExpect(jsonPath("$['[1].value']").value("Value too large"));
+
+                verify(kafkaProducerService, never()).sendValidatedSensorData(any(SensorData.class));
+                verify(kafkaProducerService, never()).sendSensorData(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown batch response mode")
+        void shouldRejectUnknownResponseMode() throws Exception {
+                mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(IngestionController.RESPONSE_MODE_HEADER, "verbose")
+                                .content(objectMapper.writeValueAsString(
+                                                List.of(TestDataFactory.createValidSensorDataRequest()))))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Should expand a fixed-period frame into sensor data")
+        void shouldIngestFixedPeriodFrame() throws Exception {
+                // Given
+                SensorFrameRequest frame = TestDataFactory.createValidSensorFrameRequest(3);
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+                // When
+                mockMvc.perform(post("/api/v1/ingest/frame")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(frame)))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.total").value(3))
+                                .andExpect(jsonPath("$.succeeded").value(3));
+
+                // Then
+                ArgumentCaptor<SensorData> captor = ArgumentCaptor.forClass(SensorData.class);
+                verify(kafkaProducerService, times(3)).sendSensorData(captor.capture());
+
+                List<SensorData> sent = captor.getAllValues();
+                assertThat(sent).extracting(SensorData::getTimestamp).containsExactly(
+                                Instant.parse("2024-01-01T00:00:00.000Z"),
+                                Instant.parse("2024-01-01T00:00:00.001Z"),
+                                Instant.parse("2024-01-01T00:00:00.002Z"));
+                assertThat(sent).extracting(SensorData::getSensorCode).containsOnly("VIB-001");
+                assertThat(sent).extracting(SensorData::getValue).containsExactly(0.5, 0.501, 0.502);
+        }
+
+        @Test
+        @DisplayName("Should use explicit offsets and report out-of-range samples")
+        void shouldIngestFrameWithOffsets() throws Exception {
+                // Given
+                SensorFrameRequest frame = TestDataFactory.createValidSensorFrameRequest(3);
+                frame.setSamplePeriodUs(null);
+                frame.setOffsetsUs(new long[]{0L, 250L, 4000L});
+                frame.setValues(new double[]{1.0, 2_000_000.0, 3.0});
+
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+                // When
+                mockMvc.perform(post("/api/v1/ingest/frame")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(frame)))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.succeeded").value(2))
+                                .andExpect(jsonPath("$.failures[0].index").value(1))
+                                .andExpect(jsonPath("$.failures[0].code").value("INVALID_DATA"));
+
+                // Then
+                ArgumentCaptor<SensorData> captor = ArgumentCaptor.forClass(SensorData.class);
+                verify(kafkaProducerService, times(2)).sendSensorData(captor.capture());
+                assertThat(captor.getAllValues().get(1).getTimestamp())
+                                .isEqualTo(Instant.parse("2024-01-01T00:00:00.004Z"));
+        }
+
+        @Test
+        @DisplayName("Should reject frame with mismatched arrays")
+        void shouldRejectFrameWithMismatchedArrays() throws Exception {
+                // Given
+                SensorFrameRequest frame = TestDataFactory.createValidSensorFrameRequest(3);
+                frame.setSamplePeriodUs(null);
+                frame.setOffsetsUs(new long[]{0L, 1000L});
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/frame")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(frame)))
+                                .andExpect(status().isBadRequest());
+
+                verify(kafkaProducerService, never()).sendSensorData(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should ingest NDJSON stream")
+        void shouldIngestNdjsonStream() throws Exception {
+                // Given
+                StreamIngestionSummary summary = StreamIngestionSummary.builder()
+                                .completed(true)
+                                .received(2)
+                                .ingested(2)
+                                .errors(List.of())
+                                .build();
+                when(streamIngestionService.ingest(any())).thenReturn(summary);
+
+                String ndjson = objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest()) + "\n"
+                                + objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest()) + "\n";
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/stream")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content(ndjson))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.completed").value(true))
+                                .andExpect(jsonPath("$.received").value(2))
+                                .andExpect(jsonPath("$.ingested").value(2));
+
+                verify(streamIngestionService).ingest(any());
+        }
+
+        @Test
+        @DisplayName("Should ingest gzip, zstd and lz4 compressed batches")
+        void shouldIngestCompressedBatches() throws Exception {
+                // Given
+                List<SensorDataRequest> requests = List.of(
+                                TestDataFactory.createValidSensorDataRequest(),
+                                TestDataFactory.createValidSensorDataRequest());
+                byte[] json = objectMapper.writeValueAsBytes(requests);
+
+                when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+                // When & Then
+                for (String encoding : RequestDecompressionFilter.SUPPORTED_ENCODINGS) {
+                        mockMvc.perform(post("/api/v1/ingest/batch")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .header(HttpHeaders.CONTENT_ENCODING, encoding)
+                                        .content(compress(encoding, json)))
+                                        .andExpect(status().isCreated())
+                                        .andExpect(jsonPath("$.length()").value(2));
+                }
+
+                verify(kafkaProducerService, times(6)).sendValidatedSensorData(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should decompress NDJSON stream before it reaches the service")
+        void shouldDecompressNdjsonStream() throws Exception {
+                // Given
+                String ndjson = objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest()) + "\n";
+                when(streamIngestionService.ingest(any())).thenAnswer(invocation -> {
+                        InputStream body = invocation.getArgument(0);
+                        String decoded = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                        return StreamIngestionSummary.builder()
+                                        .completed(decoded.equals(ndjson))
+                                        .received(1)
+                                        .errors(List.of())
+                                        .build();
+                });
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/stream")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .header(HttpHeaders.CONTENT_ENCODING, "zstd")
+                                .content(compress("zstd", ndjson.getBytes(StandardCharsets.UTF_8))))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.completed").value(true));
+        }
+
+        @Test
+        @DisplayName("Should reject unsupported Content-Encoding")
+        void shouldRejectUnsupportedContentEncoding() throws Exception {
+                mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(HttpHeaders.CONTENT_ENCODING, "br")
+                                .content(new byte[]{1, 2, 3}))
+                                .andExpect(status().isUnsupportedMediaType())
+                                .andExpect(header().string(HttpHeaders.ACCEPT_ENCODING, "gzip, zstd, lz4"));
+        }
+
+        @Test
+        @DisplayName("Should answer 400 for a corrupted compressed body")
+        void shouldRejectCorruptedCompressedBody() throws Exception {
+                mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                                .content("[{\"not\": \"gzip\"}]"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.success").value(false));
+
+                verify(kafkaProducerService, never()).sendValidatedSensorData(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should answer 413 when a compressed body inflates past the limit")
+        void shouldRejectDecompressionBomb() throws Exception {
+                // Given: 2 MiB of JSON whitespace, a few KB once compressed
+                byte[] json = new byte[2 * 1024 * 1024 + 2];
+                Arrays.fill(json, (byte) ' ');
+                json[0] = '[';
+                json[json.length - 1] = ']';
+
+                // When & Then
+                for (String encoding : RequestDecompressionFilter.SUPPORTED_ENCODINGS) {
+                        byte[] body = compress(encoding, json);
+                        assertThat(body.length).isLessThan(16 * 1024);
+                        mockMvc.perform(post("/api/v1/ingest/batch")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .header(HttpHeaders.CONTENT_ENCODING, encoding)
+                                        .content(body))
+                                        .andExpect(status().isPayloadTooLarge())
+                                        .andExpect(jsonPath("$.success").value(false));
+                }
+
+                verify(kafkaProducerService, never()).sendValidatedSensorData(any(SensorData.class));
+        }
+
+        @Test
+        @DisplayName("Should answer 413 for a stream cut by the decompressed size limit")
+        void shouldRejectOversizedStream() throws Exception {
+                // Given
+                when(streamIngestionService.ingest(any())).thenReturn(StreamIngestionSummary.builder()
+                                .completed(false)
+                                .payloadTooLarge(true)
+                                .received(1)
+                                .errors(List.of())
+                                .build());
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/stream")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{}\n"))
+                                .andExpect(status().isPayloadTooLarge())
+                                .andExpect(jsonPath("$.payloadTooLarge").value(true));
+        }
+
+        @Test
+        @DisplayName("Should ingest CBOR batch and answer in CBOR")
+        void shouldIngestCborBatch() throws Exception {
+                // Given
+                ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).registerModule(new JavaTimeModule());
+                List<SensorDataRequest> requests = List.of(
+                                TestDataFactory.createValidSensorDataRequest(),
+                                TestDataFactory.createValidSensorDataRequest());
+
+                when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+                // When
+                MvcResult mvcResult = mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_CBOR)
+                                .content(cborMapper.writeValueAsBytes(requests)))
+                                .andExpect(status().isCreated())
+                                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                                .andReturn();
+
+                // Then
+                JsonNode body = cborMapper.readTree(mvcResult.getResponse().getContentAsByteArray());
+                assertThat(body.isArray()).isTrue();
+                assertThat(body.size()).isEqualTo(2);
+                assertThat(body.get(0).get("success").asBoolean()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should ingest Smile record and answer in Smile")
+        void shouldIngestSmileRecord() throws Exception {
+                // Given
+                ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).registerModule(new JavaTimeModule());
+                SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
+
+                when(kafkaProducerService.sendSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+                // When
+                MvcResult mvcResult = mockMvc.perform(post("/api/v1/ingest")
+                                .contentType(WebConfig.APPLICATION_SMILE)
+                                .content(smileMapper.writeValueAsBytes(request)))
+                                .andReturn();
+
+                // Then
+                MvcResult dispatched = mockMvc.perform(asyncDispatch(mvcResult))
+                                .andExpect(status().isCreated())
+                                .andExpect(content().contentType(WebConfig.APPLICATION_SMILE))
+                                .andReturn();
+
+                JsonNode body = smileMapper.readTree(dispatched.getResponse().getContentAsByteArray());
+                assertThat(body.get("sensorCode").asText()).isEqualTo(request.getSensorCode());
+        }
+
+        @Test
+        @DisplayName("Should honour explicit Accept header for binary requests")
+        void shouldHonourAcceptHeaderForBinaryRequests() throws Exception {
+                // Given
+                ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).registerModule(new JavaTimeModule());
+                when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/ingest/batch")
+                                .contentType(MediaType.APPLICATION_CBOR)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(cborMapper.writeValueAsBytes(
+                                                List.of(TestDataFactory.createValidSensorDataRequest()))))
+                                .andExpect(status().isCreated())
+                                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                                .andExpect(jsonPath("$[0].success").value(true));
         }
 
         @Test
@@ -149,13 +789,34 @@ class IngestionControllerTest {
                                 .andExpect(content().string("Ingestion service is running"));
         }
 
+        private byte[] compress(String encoding, byte[] data) throws Exception {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (OutputStream encoder = switch (encoding) {
+                        case "gzip" -> new GZIPOutputStream(out);
+                        case "zstd" -> new ZstdOutputStream(out);
+                        case "lz4" -> new LZ4FrameOutputStream(out);
+                        default -> throw new IllegalArgumentException(encoding);
+                }) {
+                        encoder.write(data);
+                }
+                return out.toByteArray();
+        }
+
         private SendResult<String, SensorData> createMockSendResult() {
+                return createMockSendResult(0, 0L);
+        }
+
+        private SendResult<String, SensorData> createMockSendResult(int partition, long offset) {
+                return createMockSendResult("sensor.raw", partition, offset);
+        }
+
+        private SendResult<String, SensorData> createMockSendResult(String topic, int partition, long offset) {
                 ProducerRecord<String, SensorData> producerRecord = new ProducerRecord<>(
-                                "sensor.raw", 0, "test-key", TestDataFactory.createValidSensorData());
+                                topic, partition, "test-key", TestDataFactory.createValidSensorData());
 
                 RecordMetadata metadata = new RecordMetadata(
-                                new TopicPartition("sensor.raw", 0),
-                                0L, 0, 0L, 0, 0);
+                                new TopicPartition(topic, partition),
+                                offset, 0, 0L, 0, 0);
                 return new SendResult<>(producerRecord, metadata);
         }
 }
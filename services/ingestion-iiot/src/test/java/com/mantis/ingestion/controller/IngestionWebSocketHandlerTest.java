@@ -0,0 +1,288 @@
+package com.mantis.ingestion.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.dto.SensorDataRequest;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.service.AdmissionControlService;
+import com.mantis.ingestion.service.KafkaProducerService;
+import com.mantis.ingestion.service.SensorDataRequestValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IngestionWebSocketHandler.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IngestionWebSocketHandler Tests")
+class IngestionWebSocketHandlerTest {
+
+    @Mock
+    private KafkaProducerService kafkaProducerService;
+
+    @Mock
+    private AdmissionControlService admissionControlService;
+
+    @Mock
+    private WebSocketSession session;
+
+    private ObjectMapper objectMapper;
+    private IngestionWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        handler = new IngestionWebSocketHandler(
+                kafkaProducerService,
+                new SensorDataRequestValidator(),
+                admissionControlService,
+                objectMapper,
+                new SimpleMeterRegistry());
+
+        ReflectionTestUtils.setField(handler, "sessionWindow", 3);
+        ReflectionTestUtils.setField(handler, "maxInFlight", 100L);
+
+        lenient().when(session.getId()).thenReturn("session-1");
+        lenient().when(session.isOpen()).thenReturn(true);
+        lenient().when(admissionControlService.tryAcquire(any(), anyString(), anyInt())).thenReturn(true);
+
+        handler.afterConnectionEstablished(session);
+    }
+
+    @Test
+    @DisplayName("Should grant the session window on connection")
+    void shouldGrantInitialCredits() throws Exception {
+        // When
+        List<JsonNode> messages = sentMessages();
+
+        // Then
+        assertThat(messages).hasSize(1);
+        assertThat(messages.get(0).get("type").asText()).isEqualTo("credit");
+        assertThat(messages.get(0).get("credits").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should acknowledge durable offsets and return credits")
+    void shouldAcknowledgeDurableOffsets() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(0, 41L)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(2, 7L)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(0, 40L)));
+
+        // When
+        handler.handleMessage(session, new TextMessage(objectMapper.writeValueAsString(List.of(
+                TestDataFactory.createValidSensorDataRequest(),
+                TestDataFactory.createValidSensorDataRequest(),
+                TestDataFactory.createValidSensorDataRequest()))));
+        handler.flushAcks();
+
+        // Then
+        JsonNode ack = lastMessage();
+        assertThat(ack.get("type").asText()).isEqualTo("ack");
+        assertThat(ack.get("seq").asLong()).isEqualTo(2);
+        assertThat(ack.get("credits").asInt()).isEqualTo(3);
+        assertThat(ack.get("partitions")).hasSize(2);
+        assertThat(ack.get("partitions").get(0).get("topic").asText()).isEqualTo("sensor.raw.test");
+        assertThat(ack.get("partitions").get(0).get("partition").asInt()).isZero();
+        assertThat(ack.get("partitions").get(0).get("offset").asLong()).isEqualTo(41);
+        assertThat(ack.get("partitions").get(1).get("offset").asLong()).isEqualTo(7);
+        assertThat(ack.has("failures")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should acknowledge the same partition of each lane separately")
+    void shouldAcknowledgeLanesSeparately() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult("raw-sensor-data", 0, 41L)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult("raw-sensor-data-critical", 0, 3L)));
+
+        // When
+        handler.handleMessage(session, new TextMessage(objectMapper.writeValueAsString(List.of(
+                TestDataFactory.createValidSensorDataRequest(),
+                TestDataFactory.createValidSensorDataRequest()))));
+        handler.flushAcks();
+
+        // Then
+        JsonNode partitions = lastMessage().get("partitions");
+        assertThat(partitions).hasSize(2);
+        assertThat(partitions.get(0).get("topic").asText()).isEqualTo("raw-sensor-data");
+        assertThat(partitions.get(0).get("partition").asInt()).isZero();
+        assertThat(partitions.get(0).get("offset").asLong()).isEqualTo(41);
+        assertThat(partitions.get(1).get("topic").asText()).isEqualTo("raw-sensor-data-critical");
+        assertThat(partitions.get(1).get("partition").asInt()).isZero();
+        assertThat(partitions.get(1).get("offset").asLong()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should only acknowledge contiguous sequences")
+    void shouldAcknowledgeContiguousSequencesOnly() throws Exception {
+        // Given: the first record is still in flight
+        CompletableFuture<SendResult<String, SensorData>> pending = new CompletableFuture<>();
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(pending)
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(0, 1L)));
+
+        // When
+        sendReading(TestDataFactory.createValidSensorDataRequest());
+        sendReading(TestDataFactory.createValidSensorDataRequest());
+        handler.flushAcks();
+
+        // Then
+        JsonNode ack = lastMessage();
+        assertThat(ack.get("seq").asLong()).isEqualTo(-1);
+        assertThat(ack.get("credits").asInt()).isEqualTo(1);
+
+        // When: the first record is acknowledged
+        pending.complete(createMockSendResult(0, 0L));
+        handler.flushAcks();
+
+        // Then
+        assertThat(lastMessage().get("seq").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should report invalid and uncredited readings as failures")
+    void shouldReportRejectedReadings() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(new CompletableFuture<>());
+        SensorDataRequest invalid = TestDataFactory.createValidSensorDataRequest();
+        invalid.setSensorCode("bad code");
+
+        // When: 3 credits, the invalid reading consumes one until the next ack
+        sendReading(TestDataFactory.createValidSensorDataRequest());
+        sendReading(invalid);
+        sendReading(TestDataFactory.createValidSensorDataRequest());
+        sendReading(TestDataFactory.createValidSensorDataRequest());
+        handler.flushAcks();
+
+        // Then
+        JsonNode ack = lastMessage();
+        assertThat(ack.get("seq").asLong()).isEqualTo(-1);
+        assertThat(ack.get("credits").asInt()).isEqualTo(1);
+        assertThat(ack.get("failures")).hasSize(2);
+        assertThat(ack.get("failures").get(0).get("seq").asLong()).isEqualTo(1);
+        assertThat(ack.get("failures").get(0).get("code").asText()).isEqualTo("INVALID_DATA");
+        assertThat(ack.get("failures").get(1).get("seq").asLong()).isEqualTo(3);
+        assertThat(ack.get("failures").get(1).get("code").asText()).isEqualTo("NO_CREDIT");
+        verify(kafkaProducerService, times(2)).sendValidatedSensorData(any(SensorData.class));
+    }
+
+    @Test
+    @DisplayName("Should withhold credits while the producer is at capacity")
+    void shouldWithholdCreditsAtProducerCapacity() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(0, 0L)));
+        when(kafkaProducerService.getInFlightCount()).thenReturn(100L).thenReturn(0L);
+        sendReading(TestDataFactory.createValidSensorDataRequest());
+
+        // When
+        handler.flushAcks();
+
+        // Then
+        assertThat(lastMessage().get("credits").asInt()).isZero();
+
+        // When: capacity is available again
+        handler.flushAcks();
+
+        // Then
+        assertThat(lastMessage().get("credits").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should report malformed messages and keep the session open")
+    void shouldReportMalformedMessage() throws Exception {
+        // When
+        handler.handleMessage(session, new TextMessage("{\"assetId\": "));
+
+        // Then
+        JsonNode error = lastMessage();
+        assertThat(error.get("type").asText()).isEqualTo("error");
+        assertThat(error.get("message").asText()).startsWith("Malformed message");
+        verify(session, never()).close(any(CloseStatus.class));
+    }
+
+    @Test
+    @DisplayName("Should stop acknowledging closed sessions")
+    void shouldForgetClosedSessions() throws Exception {
+        // Given
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        // When
+        handler.flushAcks();
+
+        // Then
+        assertThat(sentMessages()).hasSize(1);
+    }
+
+    private void sendReading(SensorDataRequest request) throws Exception {
+        handler.handleMessage(session, new TextMessage(objectMapper.writeValueAsString(request)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JsonNode> sentMessages() throws Exception {
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(captor.capture());
+        return captor.getAllValues().stream()
+                .map(m -> {
+                    try {
+                        return objectMapper.readTree((String) m.getPayload());
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+
+    private JsonNode lastMessage() throws Exception {
+        List<JsonNode> messages = sentMessages();
+        return messages.get(messages.size() - 1);
+    }
+
+    private SendResult<String, SensorData> createMockSendResult(int partition, long offset) {
+        return createMockSendResult("sensor.raw.test", partition, offset);
+    }
+
+    private SendResult<String, SensorData> createMockSendResult(String topic, int partition, long offset) {
+        ProducerRecord<String, SensorData> producerRecord = new ProducerRecord<>(
+                topic, partition, "test-key", TestDataFactory.createValidSensorData());
+
+        RecordMetadata metadata = new RecordMetadata(
+                new TopicPartition(topic, partition),
+                offset, 0, 0L, 0, 0);
+        return new SendResult<>(producerRecord, metadata);
+    }
+}
@@ -191,5 +191,20 @@ class SensorDataTest {
         // Then
         assertThat(sensorData.getQuality()).isEqualTo(100);  // Default quality
         assertThat(sensorData.getCreatedAt()).isNotNull();   // Auto-generated
+        assertThat(sensorData.isAggregated()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should flag a reading that carries an aggregate")
+    void shouldFlagAggregatedReading() {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+
+        // When
+        sensorData.setAggregate(SensorAggregate.builder().count(5).min(1.0).max(3.0).bucketMs(60_000).build());
+
+        // Then
+        assertThat(sensorData.isAggregated()).isTrue();
+        assertThat(sensorData.isValid()).isTrue();
     }
 }
@@ -0,0 +1,185 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for AdmissionControlService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AdmissionControlService Tests")
+class AdmissionControlServiceTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Mock
+    private KafkaProducerService kafkaProducerService;
+
+    private MeterRegistry meterRegistry;
+    private AdmissionControlService admissionControlService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admissionControlService = new AdmissionControlService(kafkaProducerService, meterRegistry);
+
+        ReflectionTestUtils.setField(admissionControlService, "enabled", true);
+        ReflectionTestUtils.setField(admissionControlService, "perKeyRate", 10.0);
+        ReflectionTestUtils.setField(admissionControlService, "perKeyBurst", 20.0);
+        ReflectionTestUtils.setField(admissionControlService, "bufferHighWatermark", 0.8);
+        ReflectionTestUtils.setField(admissionControlService, "bufferCheckIntervalMs", 0L);
+        ReflectionTestUtils.setField(admissionControlService, "maxTrackedKeys", 100L);
+        ReflectionTestUtils.setField(admissionControlService, "idleKeyExpirySeconds", 60L);
+
+        admissionControlService.init();
+        lenient().when(kafkaProducerService.getBufferUtilization()).thenReturn(0.1);
+    }
+
+    @Test
+    @DisplayName("Should admit up to the burst then reject with Retry-After")
+    void shouldRejectOnceBurstIsSpent() {
+        // Given
+        UUID assetId = UUID.randomUUID();
+        admissionControlService.acquire(assetId, "http", 20);
+
+        // When & Then
+        assertThatThrownBy(() -> admissionControlService.acquire(assetId, "http", 5))
+                .isInstanceOf(AdmissionRejectedException.class)
+                .hasFieldOrPropertyWithValue("reason", "asset")
+                .hasFieldOrPropertyWithValue("retryAfterSeconds", 1L);
+
+        assertThat(meterRegistry.get("mantis.ingestion.admission.admitted").counter().count()).isEqualTo(20);
+        assertThat(meterRegistry.get("mantis.ingestion.admission.rejected").tag("reason", "asset")
+                .counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per asset and source")
+    void shouldKeepSeparateBuckets() {
+        // Given
+        UUID assetId = UUID.randomUUID();
+        admissionControlService.acquire(assetId, "http", 20);
+
+        // When & Then
+        assertThat(admissionControlService.tryAcquire(assetId, "http", 1)).isFalse();
+        assertThat(admissionControlService.tryAcquire(assetId, "mqtt", 1)).isTrue();
+        assertThat(admissionControlService.tryAcquire(UUID.randomUUID(), "http", 1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject everything above the producer buffer watermark")
+    void shouldRejectAboveBufferWatermark() {
+        // Given
+        when(kafkaProducerService.getBufferUtilization()).thenReturn(0.95);
+
+        // When & Then
+        assertThatThrownBy(() -> admissionControlService.acquire(UUID.randomUUID(), "http", 1))
+                .isInstanceOf(AdmissionRejectedException.class)
+                .hasFieldOrPropertyWithValue("reason", "global")
+                .hasMessageContaining("95%");
+        assertThatThrownBy(() -> admissionControlService.checkGlobalBudget())
+                .isInstanceOf(AdmissionRejectedException.class);
+    }
+
+    @Test
+    @DisplayName("Should refund tokens when a batch is rejected")
+    void shouldRefundRejectedBatch() {
+        // Given
+        UUID fresh = UUID.randomUUID();
+        UUID exhausted = UUID.randomUUID();
+        admissionControlService.acquire(exhausted, "http", 20);
+
+        Map<UUID, Integer> batch = new LinkedHashMap<>();
+        batch.put(fresh, 15);
+        batch.put(exhausted, 1);
+
+        // When
+        assertThatThrownBy(() -> admissionControlService.acquireAll(batch, "http"))
+                .isInstanceOf(AdmissionRejectedException.class);
+
+        // Then: the fresh asset still has its full burst
+        admissionControlService.acquire(fresh, "http", 20);
+    }
+
+    @Test
+    @DisplayName("Should admit everything when disabled")
+    void shouldAdmitWhenDisabled() {
+        // Given
+        ReflectionTestUtils.setField(admissionControlService, "enabled", false);
+        UUID assetId = UUID.randomUUID();
+
+        // When & Then
+        for (int i = 0; i < 10; i++) {
+            admissionControlService.acquire(assetId, "http", 20);
+        }
+        admissionControlService.checkGlobalBudget();
+    }
+
+    @Test
+    @DisplayName("Should expose per-key state in stats")
+    void shouldExposeStats() {
+        // Given
+        UUID busy = UUID.randomUUID();
+        UUID quiet = UUID.randomUUID();
+        admissionControlService.acquire(busy, "http", 12);
+        admissionControlService.acquire(quiet, "mqtt", 2);
+        admissionControlService.tryAcquire(busy, "http", 10);
+
+        // When
+        AdmissionControlService.AdmissionStats stats = admissionControlService.getStats();
+
+        // Then
+        assertThat(stats.isEnabled()).isTrue();
+        assertThat(stats.getTrackedKeys()).isEqualTo(2);
+        assertThat(stats.getAdmitted()).isEqualTo(14);
+        assertThat(stats.getRejectedByAsset()).isEqualTo(10);
+        assertThat(stats.getBufferUtilization()).isEqualTo(0.1);
+        assertThat(stats.getTopKeys().get(0).getKey()).isEqualTo("http:" + busy);
+        assertThat(stats.getTopKeys().get(0).getRejected()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Token bucket should refill at the configured rate")
+    void tokenBucketShouldRefill() {
+        // Given
+        AdmissionControlService.TokenBucket bucket = new AdmissionControlService.TokenBucket(20, 10, 0L);
+        assertThat(bucket.tryAcquire(20, 0L)).isZero();
+
+        // When & Then: 10 tokens/s, 5 tokens needed
+        assertThat(bucket.tryAcquire(5, 0L)).isEqualTo(SECOND / 2);
+        assertThat(bucket.tryAcquire(5, SECOND / 2)).isZero();
+    }
+
+    @Test
+    @DisplayName("Token bucket should admit an oversized lot only when full")
+    void tokenBucketShouldAdmitOversizedLotWhenFull() {
+        // Given
+        AdmissionControlService.TokenBucket bucket = new AdmissionControlService.TokenBucket(20, 10, 0L);
+
+        // When
+        long firstWait = bucket.tryAcquire(50, 0L);
+        long secondWait = bucket.tryAcquire(1, 0L);
+
+        // Then: 30 tokens of debt + 1 token needed at 10 tokens/s
+        assertThat(firstWait).isZero();
+        assertThat(secondWait).isEqualTo(31 * SECOND / 10);
+    }
+}
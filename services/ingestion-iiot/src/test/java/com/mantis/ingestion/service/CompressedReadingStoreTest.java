@@ -0,0 +1,112 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for CompressedReadingStore.
+ */
+@DisplayName("CompressedReadingStore Tests")
+class CompressedReadingStoreTest {
+
+    @Test
+    @DisplayName("Should keep arrival order across sealed blocks, the open block and partial drains")
+    void shouldKeepOrderAcrossBlocks() {
+        // Given
+        CompressedReadingStore store = new CompressedReadingStore(100, 4);
+        List<SensorData> readings = readings(10);
+        readings.forEach(sensorData -> assertThat(store.offer(sensorData, 100)).isTrue());
+
+        // When
+        List<SensorData> drained = new ArrayList<>();
+        assertThat(store.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(store.size()).isEqualTo(7);
+        assertThat(store.peek()).isEqualTo(readings.get(3));
+        assertThat(store.snapshot()).containsExactlyElementsOf(readings.subList(3, 10));
+        assertThat(store.drainTo(drained, 20)).isEqualTo(7);
+
+        // Then
+        assertThat(drained).containsExactlyElementsOf(readings);
+        assertThat(store.size()).isZero();
+        assertThat(store.poll()).isNull();
+        assertThat(store.compressedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hold sealed blocks compressed and refuse readings beyond the limit")
+    void shouldCompressSealedBlocks() {
+        // Given
+        CompressedReadingStore store = new CompressedReadingStore(8, 4);
+        List<SensorData> readings = readings(8);
+
+        // When
+        readings.forEach(sensorData -> store.offer(sensorData, 8));
+
+        // Then
+        assertThat(store.compressedBytes()).isPositive();
+        assertThat(store.offer(TestDataFactory.createValidSensorData(), 8)).isFalse();
+        assertThat(store.poll()).isEqualTo(readings.get(0));
+        assertThat(store.offer(TestDataFactory.createValidSensorData(), 7)).isFalse();
+        assertThat(store.clear()).isEqualTo(7);
+        assertThat(store.compressedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should neither lose nor duplicate readings under concurrent producers")
+    void shouldHandleConcurrentProducers() throws Exception {
+        // Given
+        int producers = 4;
+        int perProducer = 2_000;
+        CompressedReadingStore store = new CompressedReadingStore(producers * perProducer, 64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        for (int p = 0; p < producers; p++) {
+            String prefix = "P" + p + "-";
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    store.offer(TestDataFactory.createSensorData(prefix + i, (double) i), Integer.MAX_VALUE);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        List<SensorData> drained = new ArrayList<>();
+        store.drainTo(drained, Integer.MAX_VALUE);
+        assertThat(drained).hasSize(producers * perProducer);
+        assertThat(drained).extracting(SensorData::getSensorCode).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid capacity or block size")
+    void shouldRejectInvalidConfiguration() {
+        assertThatThrownBy(() -> new CompressedReadingStore(0, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CompressedReadingStore(10, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<SensorData> readings(int count) {
+        List<SensorData> readings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            readings.add(TestDataFactory.createSensorData("SENSOR-" + (i % 3), 20.0 + i));
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,221 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for EdgeBufferLog.
+ */
+@DisplayName("EdgeBufferLog Tests")
+class EdgeBufferLogTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    private EdgeBufferLog bufferLog;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (bufferLog != null) {
+            bufferLog.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should read back appended readings in order")
+    void shouldReadBackInOrder() throws IOException {
+        // Given
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.ALWAYS);
+        List<SensorData> readings = readings(5);
+
+        // When
+        for (SensorData sensorData : readings) {
+            assertThat(bufferLog.append(sensorData)).isTrue();
+        }
+        List<EdgeBufferLog.Entry> entries = bufferLog.read(10);
+
+        // Then
+        assertThat(entries).extracting(EdgeBufferLog.Entry::sequence).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(entries).extracting(e -> e.sensorData().getSensorId())
+                .containsExactlyElementsOf(readings.stream().map(SensorData::getSensorId).toList());
+        // The log stores the Kafka JSON format, which keeps milliseconds only
+        assertThat(entries.get(0).sensorData().getTimestamp())
+                .isEqualTo(readings.get(0).getTimestamp().truncatedTo(ChronoUnit.MILLIS));
+        assertThat(bufferLog.read(10)).isEmpty();
+        assertThat(bufferLog.pending()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should recover only unacknowledged readings after a restart")
+    void shouldRecoverUnacknowledgedReadings() throws IOException {
+        // Given
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.NONE);
+        for (SensorData sensorData : readings(5)) {
+            bufferLog.append(sensorData);
+        }
+        List<EdgeBufferLog.Entry> entries = bufferLog.read(3);
+        bufferLog.acknowledge(entries.get(1).sequence());
+        bufferLog.close();
+
+        // When
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.NONE);
+
+        // Then
+        assertThat(bufferLog.pending()).isEqualTo(3);
+        assertThat(bufferLog.read(10)).extracting(EdgeBufferLog.Entry::sequence).containsExactly(3L, 4L, 5L);
+        bufferLog.append(TestDataFactory.createValidSensorData());
+        assertThat(bufferLog.read(10)).extracting(EdgeBufferLog.Entry::sequence).containsExactly(6L);
+    }
+
+    @Test
+    @DisplayName("Should stop at a torn record and overwrite it")
+    void shouldTruncateTornRecord() throws IOException {
+        // Given
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.ALWAYS);
+        for (SensorData sensorData : readings(3)) {
+            bufferLog.append(sensorData);
+        }
+        bufferLog.close();
+        bufferLog = null;
+        corruptLastRecordPayload();
+
+        // When
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.ALWAYS);
+
+        // Then
+        assertThat(bufferLog.pending()).isEqualTo(2);
+        bufferLog.append(TestDataFactory.createValidSensorData());
+        bufferLog.close();
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.ALWAYS);
+        assertThat(bufferLog.read(10)).extracting(EdgeBufferLog.Entry::sequence).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should roll segments, refuse readings when full and delete acknowledged segments")
+    void shouldRollAndDeleteSegments() throws IOException {
+        // Given
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.INTERVAL);
+
+        // When
+        int appended = 0;
+        while (bufferLog.append(TestDataFactory.createValidSensorData())) {
+            appended++;
+        }
+
+        // Then
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(bufferLog.pending()).isEqualTo(appended);
+
+        List<EdgeBufferLog.Entry> entries = bufferLog.read(appended);
+        assertThat(entries).hasSize(appended);
+        bufferLog.acknowledge(entries.get(appended - 1).sequence());
+        bufferLog.force();
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(bufferLog.pending()).isZero();
+        assertThat(bufferLog.append(TestDataFactory.createValidSensorData())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should skip everything after acknowledgeAll, including on restart")
+    void shouldAcknowledgeAll() throws IOException {
+        // Given
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.ALWAYS);
+        for (SensorData sensorData : readings(4)) {
+            bufferLog.append(sensorData);
+        }
+
+        // When
+        bufferLog.acknowledgeAll();
+        bufferLog.close();
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.ALWAYS);
+
+        // Then
+        assertThat(bufferLog.pending()).isZero();
+        assertThat(bufferLog.read(10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reread unacknowledged readings after a rewind and count them by asset")
+    void shouldRewindAndCountPendingByAsset() throws IOException {
+        // Given
+        bufferLog = open(EdgeBufferLog.FsyncPolicy.NONE);
+        List<SensorData> readings = readings(4);
+        readings.get(2).setAssetId(readings.get(1).getAssetId());
+        for (SensorData sensorData : readings) {
+            bufferLog.append(sensorData);
+        }
+        bufferLog.acknowledge(bufferLog.read(1).get(0).sequence());
+        bufferLog.read(2);
+
+        // When
+        bufferLog.rewind();
+
+        // Then
+        assertThat(bufferLog.peek().sequence()).isEqualTo(2L);
+        assertThat(bufferLog.read(10)).extracting(EdgeBufferLog.Entry::sequence).containsExactly(2L, 3L, 4L);
+        assertThat(bufferLog.peek()).isNull();
+        assertThat(bufferLog.pendingByAsset()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                readings.get(1).getAssetId(), 2L,
+                readings.get(3).getAssetId(), 1L));
+    }
+
+    private EdgeBufferLog open(EdgeBufferLog.FsyncPolicy policy) throws IOException {
+        return EdgeBufferLog.open(directory, SEGMENT_BYTES, 2L * SEGMENT_BYTES, policy);
+    }
+
+    private List<SensorData> readings(int count) {
+        List<SensorData> readings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            readings.add(TestDataFactory.createValidSensorData());
+        }
+        return readings;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log")).toList();
+        }
+    }
+
+    /**
+     * Flips a payload byte of the last record, as a write cut short by a crash would leave it.
+     */
+    private void corruptLastRecordPayload() throws IOException {
+        Path segment = segmentFiles().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int position = 0;
+            int last = 0;
+            while (true) {
+                file.seek(position);
+                int length = file.readInt();
+                if (length == 0) {
+                    break;
+                }
+                last = position;
+                position += EdgeBufferLog.HEADER_BYTES + length;
+            }
+            file.seek(last + EdgeBufferLog.HEADER_BYTES);
+            int b = file.read();
+            file.seek(last + EdgeBufferLog.HEADER_BYTES);
+            file.write(b ^ 0xFF);
+        }
+    }
+}
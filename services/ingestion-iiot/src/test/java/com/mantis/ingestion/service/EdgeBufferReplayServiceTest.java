@@ -0,0 +1,196 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorData;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for EdgeBufferReplayService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EdgeBufferReplayService Tests")
+class EdgeBufferReplayServiceTest {
+
+    @Mock
+    private KafkaProducerService kafkaProducerService;
+
+    @Mock
+    private FlowControlService flowControlService;
+
+    private EdgeBufferService edgeBufferService;
+    private MeterRegistry meterRegistry;
+    private EdgeBufferReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        edgeBufferService = new EdgeBufferService(meterRegistry);
+        ReflectionTestUtils.setField(edgeBufferService, "enabled", true);
+        ReflectionTestUtils.setField(edgeBufferService, "maxSize", 100);
+        edgeBufferService.init();
+
+        replayService = new EdgeBufferReplayService(edgeBufferService, kafkaProducerService, flowControlService,
+                meterRegistry);
+        ReflectionTestUtils.setField(replayService, "enabled", true);
+        ReflectionTestUtils.setField(replayService, "batchSize", 10);
+        ReflectionTestUtils.setField(replayService, "ratePerSecond", 100.0);
+        ReflectionTestUtils.setField(replayService, "maxPressure", 0.5);
+        replayService.init();
+        ReflectionTestUtils.setField(replayService, "tokens", 10.0);
+
+        lenient().when(kafkaProducerService.getCircuitBreakerState()).thenReturn(CircuitBreaker.State.CLOSED);
+        lenient().when(flowControlService.getPressure()).thenReturn(0.0);
+    }
+
+    @Test
+    @DisplayName("Should replay the backlog in order once Kafka is available")
+    void shouldReplayInOrder() {
+        // Given
+        List<SensorData> readings = buffer(3);
+        when(kafkaProducerService.replaySensorData(any())).thenReturn(succeeded());
+
+        // When
+        replayService.replay();
+
+        // Then
+        InOrder order = inOrder(kafkaProducerService);
+        for (SensorData sensorData : readings) {
+            order.verify(kafkaProducerService).replaySensorData(sensorData);
+        }
+        assertThat(edgeBufferService.size()).isZero();
+        assertThat(edgeBufferService.getStats().getBacklogAssets()).isZero();
+        assertThat(replayService.getStats().getReplayed()).isEqualTo(3);
+        assertThat(replayService.getState()).isEqualTo(EdgeBufferReplayService.ReplayState.REPLAYING);
+        assertThat(meterRegistry.get("mantis.edge.buffer.replayed").counter().count()).isEqualTo(3.0);
+
+        replayService.replay();
+        assertThat(replayService.getState()).isEqualTo(EdgeBufferReplayService.ReplayState.IDLE);
+    }
+
+    @Test
+    @DisplayName("Should wait while the Kafka circuit is not closed")
+    void shouldWaitForKafka() {
+        // Given
+        buffer(3);
+        when(kafkaProducerService.getCircuitBreakerState()).thenReturn(CircuitBreaker.State.OPEN);
+
+        // When
+        replayService.replay();
+
+        // Then
+        verify(kafkaProducerService, never()).replaySensorData(any());
+        assertThat(edgeBufferService.size()).isEqualTo(3);
+        assertThat(replayService.getState()).isEqualTo(EdgeBufferReplayService.ReplayState.WAITING_FOR_KAFKA);
+        assertThat(replayService.getStats().getBacklogAgeSeconds()).isGreaterThanOrEqualTo(0);
+        assertThat(replayService.getStats().getEtaSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should yield to live traffic under producer pressure")
+    void shouldYieldToLiveTraffic() {
+        // Given
+        buffer(3);
+        when(flowControlService.getPressure()).thenReturn(0.6);
+
+        // When
+        replayService.replay();
+
+        // Then
+        verify(kafkaProducerService, never()).replaySensorData(any());
+        assertThat(replayService.getState()).isEqualTo(EdgeBufferReplayService.ReplayState.YIELDING);
+    }
+
+    @Test
+    @DisplayName("Should replay no more readings per tick than the rate allows")
+    void shouldLimitReplayRate() {
+        // Given
+        buffer(8);
+        ReflectionTestUtils.setField(replayService, "ratePerSecond", 1.0);
+        ReflectionTestUtils.setField(replayService, "tokens", 5.0);
+        when(kafkaProducerService.replaySensorData(any())).thenReturn(succeeded());
+
+        // When
+        replayService.replay();
+
+        // Then
+        verify(kafkaProducerService, times(5)).replaySensorData(any());
+        assertThat(edgeBufferService.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should acknowledge readings sent before a failure and replay the rest in order")
+    void shouldRequeueFailedBatch() {
+        // Given
+        List<SensorData> readings = buffer(3);
+        when(kafkaProducerService.replaySensorData(any()))
+                .thenReturn(succeeded())
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")))
+                .thenReturn(succeeded());
+
+        // When
+        replayService.replay();
+
+        // Then
+        assertThat(edgeBufferService.size()).isEqualTo(2);
+        assertThat(edgeBufferService.getStats().getBacklogAssets()).isEqualTo(2);
+        assertThat(replayService.getStats().getFailedBatches()).isEqualTo(1);
+        assertThat(replayService.getStats().getReplayed()).isEqualTo(1);
+        assertThat(edgeBufferService.drain(10).getReadings()).containsExactlyElementsOf(readings.subList(1, 3));
+    }
+
+    @Test
+    @DisplayName("Should not start a batch while the previous one is in flight")
+    void shouldWaitForBatchInFlight() {
+        // Given
+        buffer(12);
+        CompletableFuture<SendResult<String, SensorData>> pending = new CompletableFuture<>();
+        when(kafkaProducerService.replaySensorData(any())).thenReturn(pending);
+
+        // When
+        replayService.replay();
+        ReflectionTestUtils.setField(replayService, "tokens", 10.0);
+        replayService.replay();
+
+        // Then
+        verify(kafkaProducerService, times(10)).replaySensorData(any());
+        assertThat(replayService.getStats().getBacklogAgeSeconds()).isGreaterThanOrEqualTo(0);
+    }
+
+    private List<SensorData> buffer(int count) {
+        List<SensorData> readings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SensorData sensorData = TestDataFactory.createSensorData("SENSOR-" + i, 20.0 + i);
+            edgeBufferService.buffer(sensorData);
+            readings.add(sensorData);
+        }
+        return readings;
+    }
+
+    private static CompletableFuture<SendResult<String, SensorData>> succeeded() {
+        return CompletableFuture.completedFuture(new SendResult<>(null, null));
+    }
+}
@@ -7,8 +7,14 @@ import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -150,6 +156,328 @@ class EdgeBufferServiceTest {
         assertThat(bufferedData.size()).isEqualTo(2);
     }
 
+    @Test
+    @DisplayName("Should drain readings in arrival order")
+    void shouldDrainInOrder() {
+        // Given
+        SensorData data1 = TestDataFactory.createSensorData("SENSOR-1", 25.0);
+        SensorData data2 = TestDataFactory.createSensorData("SENSOR-2", 30.0);
+        edgeBufferService.buffer(data1);
+        edgeBufferService.buffer(data2);
+
+        // When
+        EdgeBufferService.Drained drained = edgeBufferService.drain(1);
+
+        // Then
+        assertThat(drained.getReadings()).containsExactly(data1);
+        assertThat(edgeBufferService.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest reading when full with the drop-oldest policy")
+    void shouldDropOldestWhenFull() {
+        // Given
+        EdgeBufferService service = memoryService("drop-oldest", 0);
+        List<SensorData> readings = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            SensorData sensorData = TestDataFactory.createSensorData("SENSOR-" + i, 20.0 + i);
+            readings.add(sensorData);
+            assertThat(service.buffer(sensorData)).isTrue();
+        }
+
+        // Then
+        assertThat(service.size()).isEqualTo(10);
+        assertThat(service.getStats().getTotalDropped()).isEqualTo(2);
+        assertThat(service.getStats().getDropPolicy()).isEqualTo("DROP_OLDEST");
+        assertThat(service.drain(20).getReadings()).containsExactlyElementsOf(readings.subList(2, 12));
+    }
+
+    @Test
+    @DisplayName("Should keep the reserved capacity for critical sensor types")
+    void shouldReserveCapacityForCriticalSensors() {
+        // Given
+        EdgeBufferService service = memoryService("drop-newest", 2);
+        for (int i = 0; i < 8; i++) {
+            assertThat(service.buffer(TestDataFactory.createSensorData("SENSOR-" + i, 20.0))).isTrue();
+        }
+        SensorData critical = TestDataFactory.createSensorData("SENSOR-HOT", 95.0);
+        critical.setSensorType("Overtemperature");
+
+        // When / Then
+        assertThat(service.buffer(TestDataFactory.createValidSensorData())).isFalse();
+        assertThat(service.buffer(critical)).isTrue();
+        assertThat(service.size()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should not evict a critical reading for a non-critical one with the drop-oldest policy")
+    void shouldKeepCriticalReadingWhenDroppingOldest() {
+        // Given
+        EdgeBufferService service = memoryService("drop-oldest", 2);
+        SensorData critical = TestDataFactory.createSensorData("SENSOR-HOT", 95.0);
+        critical.setSensorType("Overtemperature");
+        assertThat(service.buffer(critical)).isTrue();
+        for (int i = 0; i < 7; i++) {
+            assertThat(service.buffer(TestDataFactory.createSensorData("SENSOR-" + i, 20.0))).isTrue();
+        }
+        SensorData secondCritical = TestDataFactory.createSensorData("SENSOR-AMPS", 40.0);
+        secondCritical.setSensorType("Overcurrent");
+
+        // When / Then
+        assertThat(service.buffer(TestDataFactory.createSensorData("SENSOR-NEW", 21.0))).isFalse();
+        assertThat(service.buffer(secondCritical)).isTrue();
+        assertThat(service.size()).isEqualTo(9);
+        assertThat(service.getStats().getTotalDropped()).isEqualTo(1);
+        List<SensorData> drained = service.drain(20).getReadings();
+        assertThat(drained.get(0)).isSameAs(critical);
+        assertThat(drained.get(8)).isSameAs(secondCritical);
+    }
+
+    @Test
+    @DisplayName("Should return a failed replay batch to the head of the buffer")
+    void shouldRequeueAtHead() {
+        // Given
+        SensorData data1 = TestDataFactory.createSensorData("SENSOR-1", 25.0);
+        SensorData data2 = TestDataFactory.createSensorData("SENSOR-2", 30.0);
+        SensorData data3 = TestDataFactory.createSensorData("SENSOR-3", 35.0);
+        edgeBufferService.buffer(data1);
+        edgeBufferService.buffer(data2);
+        EdgeBufferService.Drained drained = edgeBufferService.drain(2);
+        edgeBufferService.buffer(data3);
+
+        // When
+        edgeBufferService.requeue(drained);
+
+        // Then
+        assertThat(edgeBufferService.drain(10).getReadings()).containsExactly(data1, data2, data3);
+    }
+
+    @Test
+    @DisplayName("Should track the backlog of each asset until its readings are acknowledged")
+    void shouldTrackAssetBacklog() {
+        // Given
+        SensorData data1 = TestDataFactory.createSensorData("SENSOR-1", 25.0);
+        SensorData data2 = TestDataFactory.createSensorData("SENSOR-2", 30.0);
+        SensorData data3 = TestDataFactory.createSensorData("SENSOR-3", 35.0);
+        data2.setAssetId(data1.getAssetId());
+        edgeBufferService.buffer(data1);
+        edgeBufferService.buffer(data2);
+        edgeBufferService.buffer(data3);
+
+        // When
+        EdgeBufferService.Drained first = edgeBufferService.drain(1);
+        edgeBufferService.acknowledge(first);
+
+        // Then
+        assertThat(edgeBufferService.getStats().getBacklogAssets()).isEqualTo(2);
+        assertThat(edgeBufferService.oldestTimestamp()).isEqualTo(data2.getTimestamp());
+
+        edgeBufferService.acknowledge(edgeBufferService.drain(1));
+        assertThat(edgeBufferService.getStats().getBacklogAssets()).isEqualTo(1);
+
+        edgeBufferService.acknowledge(edgeBufferService.drain(1));
+        assertThat(edgeBufferService.getStats().getBacklogAssets()).isZero();
+        assertThat(edgeBufferService.oldestTimestamp()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should merge the oldest readings into flagged aggregates above the high-water mark")
+    void shouldDownsampleAboveHighWaterMark() {
+        // Given
+        EdgeBufferService service = memoryService("downsample", 0);
+        SensorData sensorA = TestDataFactory.createSensorData("SENSOR-A", 0.0);
+        SensorData sensorB = TestDataFactory.createSensorData("SENSOR-B", 0.0);
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        List<SensorData> readings = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            SensorData sensor = i % 2 == 0 ? sensorA : sensorB;
+            SensorData sensorData = TestDataFactory.createSensorData(sensor.getSensorCode(), (double) i);
+            sensorData.setAssetId(sensor.getAssetId());
+            sensorData.setSensorId(sensor.getSensorId());
+            sensorData.setTimestamp(start.plusSeconds(i));
+            readings.add(sensorData);
+
+            // When
+            assertThat(service.buffer(sensorData)).isTrue();
+        }
+
+        // Then: one pass at the high-water mark, then none until back below the low-water mark
+        assertThat(service.getStats().getTotalDropped()).isZero();
+        assertThat(service.getStats().getTotalDownsampled()).isEqualTo(4);
+        List<SensorData> drained = service.drain(20).getReadings();
+        assertThat(drained).hasSize(10);
+        SensorData aggregate = drained.get(0);
+        assertThat(aggregate.isAggregated()).isTrue();
+        assertThat(aggregate.getSensorCode()).isEqualTo("SENSOR-A");
+        assertThat(aggregate.getTimestamp()).isEqualTo(start);
+        assertThat(aggregate.getValue()).isEqualTo(1.0);
+        assertThat(aggregate.getAggregate().getCount()).isEqualTo(2);
+        assertThat(aggregate.getAggregate().getMin()).isEqualTo(0.0);
+        assertThat(aggregate.getAggregate().getMax()).isEqualTo(2.0);
+        assertThat(aggregate.getAggregate().getBucketMs()).isEqualTo(60_000);
+        assertThat(drained.get(1).getSensorCode()).isEqualTo("SENSOR-B");
+        assertThat(drained.get(1).getValue()).isEqualTo(2.0);
+        assertThat(drained.subList(2, 10)).containsExactlyElementsOf(readings.subList(4, 12));
+    }
+
+    @Test
+    @DisplayName("Should merge earlier aggregates again on the next pass down to the low-water mark")
+    void shouldRemergeAggregates() {
+        // Given
+        EdgeBufferService service = memoryService("downsample", 0);
+        SensorData sensor = TestDataFactory.createSensorData("SENSOR-A", 0.0);
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        List<SensorData> readings = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 12; i++) {
+            SensorData sensorData = TestDataFactory.createSensorData(sensor.getSensorCode(), (double) i);
+            sensorData.setAssetId(sensor.getAssetId());
+            sensorData.setSensorId(sensor.getSensorId());
+            sensorData.setTimestamp(start.plusSeconds(i));
+            readings.add(sensorData);
+            assertThat(service.buffer(sensorData)).isTrue();
+        }
+
+        // Then: passes before readings 8 and 11, each back to 5 records
+        assertThat(service.getStats().getTotalDownsampled()).isEqualTo(7);
+        List<SensorData> drained = service.drain(20).getReadings();
+        assertThat(drained).hasSize(6);
+        SensorData aggregate = drained.get(0);
+        assertThat(aggregate.getAggregate().getCount()).isEqualTo(7);
+        assertThat(aggregate.getAggregate().getMin()).isEqualTo(0.0);
+        assertThat(aggregate.getAggregate().getMax()).isEqualTo(6.0);
+        assertThat(aggregate.getValue()).isEqualTo(3.0);
+        assertThat(drained.subList(1, 6)).containsExactlyElementsOf(readings.subList(7, 12));
+    }
+
+    @Test
+    @DisplayName("Should drop new readings once aggregates fill the buffer")
+    void shouldDropWhenAggregatesFillBuffer() {
+        // Given
+        EdgeBufferService service = memoryService("downsample", 0);
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+
+        // When: one reading per sensor, nothing to merge
+        int accepted = 0;
+        for (int i = 0; i < 30; i++) {
+            SensorData sensorData = TestDataFactory.createSensorData("SENSOR-" + i, 20.0);
+            sensorData.setTimestamp(start);
+            if (service.buffer(sensorData)) {
+                accepted++;
+            }
+        }
+
+        // Then
+        assertThat(service.size()).isEqualTo(10);
+        assertThat(accepted).isEqualTo(10);
+        assertThat(service.getStats().getTotalDropped()).isEqualTo(20);
+        assertThat(service.getStats().getTotalDownsampled()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should store readings in compressed blocks and expand them in order on drain")
+    void shouldStoreReadingsInCompressedBlocks() {
+        // Given
+        EdgeBufferService service = memoryService("drop-newest", 0);
+        ReflectionTestUtils.setField(service, "compressionEnabled", true);
+        ReflectionTestUtils.setField(service, "compressionBlockSize", 4);
+        service.init();
+        List<SensorData> readings = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SensorData sensorData = TestDataFactory.createSensorData("SENSOR-" + (i % 3), 20.0 + i);
+            readings.add(sensorData);
+            assertThat(service.buffer(sensorData)).isTrue();
+        }
+
+        // When / Then
+        assertThat(service.buffer(TestDataFactory.createValidSensorData())).isFalse();
+        assertThat(service.getStats().isCompressed()).isTrue();
+        assertThat(service.compressedBytes()).isPositive();
+        assertThat(service.oldestTimestamp()).isEqualTo(readings.get(0).getTimestamp());
+        EdgeBufferService.Drained drained = service.drain(6);
+        assertThat(drained.getReadings()).containsExactlyElementsOf(readings.subList(0, 6));
+        service.requeue(drained);
+        assertThat(service.getBufferedData()).containsExactlyElementsOf(readings);
+        assertThat(service.drain(20).getReadings()).containsExactlyElementsOf(readings);
+        assertThat(service.size()).isZero();
+        assertThat(service.compressedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep unacknowledged readings on disk across a restart")
+    void shouldKeepReadingsOnDiskAcrossRestart(@TempDir Path directory) {
+        // Given
+        EdgeBufferService persistent = persistentService(directory);
+        for (int i = 0; i < 3; i++) {
+            persistent.buffer(TestDataFactory.createSensorData("SENSOR-" + i, 20.0 + i));
+        }
+        persistent.acknowledge(persistent.drain(1));
+        persistent.drain(1);
+        persistent.shutdown();
+
+        // When
+        EdgeBufferService restarted = persistentService(directory);
+
+        // Then
+        assertThat(restarted.size()).isEqualTo(2);
+        assertThat(restarted.getStats().isPersistent()).isTrue();
+        assertThat(restarted.getStats().getBacklogAssets()).isEqualTo(2);
+        assertThat(restarted.drain(10).getReadings()).extracting(SensorData::getSensorCode)
+                .containsExactly("SENSOR-1", "SENSOR-2");
+        restarted.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should checkpoint the acknowledged prefix and replay the rest from disk")
+    void shouldAcknowledgePrefixOnDisk(@TempDir Path directory) {
+        // Given
+        EdgeBufferService persistent = persistentService(directory);
+        for (int i = 0; i < 3; i++) {
+            persistent.buffer(TestDataFactory.createSensorData("SENSOR-" + i, 20.0 + i));
+        }
+
+        // When
+        persistent.acknowledge(persistent.drain(3), 1);
+
+        // Then
+        assertThat(persistent.getStats().getBacklogAssets()).isEqualTo(2);
+        assertThat(persistent.drain(10).getReadings()).extracting(SensorData::getSensorCode)
+                .containsExactly("SENSOR-1", "SENSOR-2");
+        persistent.shutdown();
+
+        EdgeBufferService restarted = persistentService(directory);
+        assertThat(restarted.size()).isEqualTo(2);
+        restarted.shutdown();
+    }
+
+    private EdgeBufferService memoryService(String dropPolicy, int criticalReserve) {
+        EdgeBufferService service = new EdgeBufferService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "maxSize", 10);
+        ReflectionTestUtils.setField(service, "dropPolicyName", dropPolicy);
+        ReflectionTestUtils.setField(service, "criticalReserve", criticalReserve);
+        ReflectionTestUtils.setField(service, "criticalSensorTypes", "overtemperature, overcurrent");
+        ReflectionTestUtils.setField(service, "downsampleHighWaterMark", 0.8);
+        ReflectionTestUtils.setField(service, "downsampleLowWaterMark", 0.5);
+        ReflectionTestUtils.setField(service, "downsampleBucketMs", 60_000L);
+        service.init();
+        return service;
+    }
+
+    private EdgeBufferService persistentService(Path directory) {
+        EdgeBufferService service = new EdgeBufferService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "maxSize", 10);
+        ReflectionTestUtils.setField(service, "persistenceEnabled", true);
+        ReflectionTestUtils.setField(service, "persistencePath", directory.toString());
+        ReflectionTestUtils.setField(service, "persistenceSegmentBytes", 64 * 1024);
+        ReflectionTestUtils.setField(service, "persistenceMaxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(service, "persistenceFsync", "interval");
+        service.init();
+        return service;
+    }
+
     @Test
     @DisplayName("Should check if enabled")
     void shouldCheckIfEnabled() {
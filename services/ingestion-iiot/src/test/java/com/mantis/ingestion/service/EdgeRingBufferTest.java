@@ -0,0 +1,135 @@
+package com.mantis.ingestion.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for EdgeRingBuffer.
+ */
+@DisplayName("EdgeRingBuffer Tests")
+class EdgeRingBufferTest {
+
+    @Test
+    @DisplayName("Should keep FIFO order and refuse elements beyond the exact capacity")
+    void shouldRespectExactCapacity() {
+        // Given
+        EdgeRingBuffer<Integer> ring = new EdgeRingBuffer<>(5);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+
+        // Then
+        assertThat(ring.offer(5)).isFalse();
+        assertThat(ring.size()).isEqualTo(5);
+        assertThat(ring.peek()).isZero();
+        assertThat(ring.snapshot()).containsExactly(0, 1, 2, 3, 4);
+        assertThat(ring.poll()).isZero();
+        assertThat(ring.offer(5)).isTrue();
+        List<Integer> drained = new ArrayList<>();
+        assertThat(ring.drainTo(drained, 10)).isEqualTo(5);
+        assertThat(drained).containsExactly(1, 2, 3, 4, 5);
+        assertThat(ring.poll()).isNull();
+        assertThat(ring.peek()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should stop below a lower limit while the full capacity stays available")
+    void shouldApplyLimit() {
+        // Given
+        EdgeRingBuffer<Integer> ring = new EdgeRingBuffer<>(4);
+        ring.offer(1, 3);
+        ring.offer(2, 3);
+        ring.offer(3, 3);
+
+        // When / Then
+        assertThat(ring.offer(4, 3)).isFalse();
+        assertThat(ring.offer(4)).isTrue();
+        assertThat(ring.offer(5)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should wrap around the array many times")
+    void shouldWrapAround() {
+        // Given
+        EdgeRingBuffer<Integer> ring = new EdgeRingBuffer<>(3);
+
+        // When / Then
+        for (int i = 0; i < 100; i++) {
+            assertThat(ring.offer(i)).isTrue();
+            assertThat(ring.offer(i + 1000)).isTrue();
+            assertThat(ring.poll()).isEqualTo(i);
+            assertThat(ring.poll()).isEqualTo(i + 1000);
+        }
+        assertThat(ring.size()).isZero();
+        assertThat(ring.clear()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should neither lose nor duplicate elements under concurrent producers and a consumer")
+    void shouldHandleConcurrentProducers() throws Exception {
+        // Given
+        int producers = 8;
+        int perProducer = 20_000;
+        EdgeRingBuffer<Integer> ring = new EdgeRingBuffer<>(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        Set<Integer> received = new HashSet<>();
+        int[] lastByProducer = new int[producers];
+        Arrays.fill(lastByProducer, -1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+            Integer element = ring.poll();
+            if (element == null) {
+                continue;
+            }
+            assertThat(received.add(element)).isTrue();
+            assertThat(ring.size()).isLessThanOrEqualTo(1000);
+            // Each producer stays in order
+            int producer = element / perProducer;
+            assertThat(element).isGreaterThan(lastByProducer[producer]);
+            lastByProducer[producer] = element;
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).hasSize(producers * perProducer);
+        assertThat(ring.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid capacity")
+    void shouldRejectInvalidCapacity() {
+        assertThatThrownBy(() -> new EdgeRingBuffer<>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
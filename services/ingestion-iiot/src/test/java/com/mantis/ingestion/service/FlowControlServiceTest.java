@@ -0,0 +1,136 @@
+package com.mantis.ingestion.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for FlowControlService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FlowControlService Tests")
+class FlowControlServiceTest {
+
+    @Mock
+    private KafkaProducerService kafkaProducerService;
+
+    private MeterRegistry meterRegistry;
+    private FlowControlService flowControl;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        flowControl = new FlowControlService(kafkaProducerService, meterRegistry);
+
+        ReflectionTestUtils.setField(flowControl, "enabled", true);
+        ReflectionTestUtils.setField(flowControl, "lowWatermark", 0.5);
+        ReflectionTestUtils.setField(flowControl, "highWatermark", 0.9);
+        ReflectionTestUtils.setField(flowControl, "maxInFlight", 1000L);
+        ReflectionTestUtils.setField(flowControl, "maxSlowdown", 5);
+        flowControl.init();
+
+        lenient().when(kafkaProducerService.getInFlightCount()).thenReturn(0L);
+    }
+
+    @Test
+    @DisplayName("Should run at nominal rate below the low watermark")
+    void shouldStayNominalBelowLowWatermark() {
+        // Given
+        when(kafkaProducerService.getBufferUtilization()).thenReturn(0.4);
+
+        // When
+        flowControl.sample();
+
+        // Then
+        assertThat(flowControl.getPressure()).isZero();
+        assertThat(flowControl.getSlowdown()).isEqualTo(1);
+        assertThat(flowControl.isPaused()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should scale the slowdown between the watermarks")
+    void shouldScaleSlowdown() {
+        // Given
+        when(kafkaProducerService.getBufferUtilization()).thenReturn(0.7);
+
+        // When
+        flowControl.sample();
+
+        // Then
+        assertThat(flowControl.getPressure()).isCloseTo(0.5, within(1e-9));
+        assertThat(flowControl.getSlowdown()).isEqualTo(3);
+        assertThat(flowControl.isPaused()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should pause on in-flight sends and notify listeners")
+    void shouldPauseOnInFlight() {
+        // Given
+        AtomicInteger notifications = new AtomicInteger();
+        flowControl.addListener(notifications::incrementAndGet);
+        when(kafkaProducerService.getBufferUtilization()).thenReturn(0.0);
+        when(kafkaProducerService.getInFlightCount()).thenReturn(950L);
+
+        // When
+        flowControl.sample();
+        flowControl.sample();
+
+        // Then
+        assertThat(flowControl.isPaused()).isTrue();
+        assertThat(flowControl.getSlowdown()).isEqualTo(5);
+        assertThat(notifications).hasValue(1);
+        assertThat(meterRegistry.get("mantis.ingestion.flow-control.pauses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should release waiting connectors when the pause ends")
+    void shouldReleaseWaitersOnResume() throws Exception {
+        // Given
+        when(kafkaProducerService.getBufferUtilization()).thenReturn(1.0, 0.0);
+        flowControl.sample();
+        assertThat(flowControl.awaitResume(10)).isFalse();
+
+        // When
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return flowControl.awaitResume(5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        flowControl.sample();
+
+        // Then
+        assertThat(waiter.get(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(flowControl.isPaused()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should never throttle when disabled")
+    void shouldIgnoreProducerWhenDisabled() {
+        // Given
+        ReflectionTestUtils.setField(flowControl, "enabled", false);
+
+        // When
+        flowControl.sample();
+
+        // Then
+        assertThat(flowControl.getSlowdown()).isEqualTo(1);
+        assertThat(flowControl.isPaused()).isFalse();
+    }
+}
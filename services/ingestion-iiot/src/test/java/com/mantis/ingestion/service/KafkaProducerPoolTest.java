@@ -0,0 +1,272 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for KafkaProducerPool.
+ */
+@DisplayName("KafkaProducerPool Tests")
+class KafkaProducerPoolTest {
+
+    @Test
+    @DisplayName("Should always route an asset to the same shard")
+    void shouldRouteAssetToSameShard() {
+        // Given
+        KafkaProducerPool pool = new KafkaProducerPool(templates(4));
+        UUID assetId = UUID.randomUUID();
+
+        // When
+        int shard = pool.shardFor(assetId);
+
+        // Then
+        assertThat(shard).isBetween(0, 3);
+        assertThat(pool.shardFor(UUID.fromString(assetId.toString()))).isEqualTo(shard);
+    }
+
+    @Test
+    @DisplayName("Should spread assets evenly across shards")
+    void shouldSpreadAssetsAcrossShards() {
+        // Given
+        KafkaProducerPool pool = new KafkaProducerPool(templates(4));
+        int[] counts = new int[4];
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            counts[pool.shardFor(UUID.randomUUID())]++;
+        }
+
+        // Then: 2500 per shard, ±10%
+        for (int count : counts) {
+            assertThat(count).isBetween(2250, 2750);
+        }
+    }
+
+    @Test
+    @DisplayName("Should use shard 0 for a single producer")
+    void shouldUseShardZeroForSingleProducer() {
+        // Given
+        KafkaProducerPool pool = new KafkaProducerPool(templates(1));
+
+        // When / Then
+        assertThat(pool.size()).isEqualTo(1);
+        assertThat(pool.shardFor(UUID.randomUUID())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should close every shard's producer factory")
+    void shouldDestroyProducerFactories() throws Exception {
+        // Given
+        List<KafkaTemplate<String, SensorData>> templates = templates(2);
+        List<DefaultKafkaProducerFactory<String, SensorData>> factories = new ArrayList<>();
+        for (KafkaTemplate<String, SensorData> template : templates) {
+            @SuppressWarnings("unchecked")
+            DefaultKafkaProducerFactory<String, SensorData> factory = mock(DefaultKafkaProducerFactory.class);
+            when(template.getProducerFactory()).thenReturn(factory);
+            factories.add(factory);
+        }
+        KafkaProducerPool pool = new KafkaProducerPool(templates);
+
+        // When
+        pool.destroy();
+
+        // Then
+        for (DefaultKafkaProducerFactory<String, SensorData> factory : factories) {
+            verify(factory).destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should swap in reconfigured producers and close the old ones later")
+    void shouldReconfigureEveryShard() throws Exception {
+        // Given
+        MockProducerFactory factory0 = new MockProducerFactory(Map.of(ProducerConfig.LINGER_MS_CONFIG, 5));
+        MockProducerFactory factory1 = new MockProducerFactory(Map.of(ProducerConfig.LINGER_MS_CONFIG, 5));
+        List<Runnable> retired = new ArrayList<>();
+        KafkaProducerPool pool = new KafkaProducerPool(
+                List.of(new KafkaTemplate<>(factory0), new KafkaTemplate<>(factory1)), List.of(), null, retired::add);
+        pool.template(0).send("sensor-data", TestDataFactory.createValidSensorData());
+        pool.template(1).send("sensor-data", TestDataFactory.createValidSensorData());
+
+        // When
+        pool.reconfigure(Map.of(ProducerConfig.LINGER_MS_CONFIG, 20));
+
+        // Then
+        assertThat(pool.template(0).getProducerFactory()).isNotSameAs(factory0);
+        assertThat(pool.shardConfigs()).containsEntry(ProducerConfig.LINGER_MS_CONFIG, 20);
+        assertThat(factory0.producers.get(0).closed()).isFalse();
+        assertThat(retired).hasSize(2);
+
+        retired.forEach(Runnable::run);
+        assertThat(factory0.producers.get(0).closed()).isTrue();
+        assertThat(factory1.producers.get(0).closed()).isTrue();
+        pool.destroy();
+    }
+
+    @Test
+    @DisplayName("Should keep sending without errors while the pool is reconfigured")
+    void shouldSendDuringReconfigure() throws Exception {
+        // Given
+        List<KafkaTemplate<String, SensorData>> templates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            templates.add(new KafkaTemplate<>(new MockProducerFactory(Map.of(ProducerConfig.LINGER_MS_CONFIG, 5))));
+        }
+        KafkaProducerPool pool = new KafkaProducerPool(templates, List.of(), null,
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        ExecutorService senders = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<List<CompletableFuture<?>>>> results = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < 4; t++) {
+            results.add(senders.submit(() -> {
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                while (running.get()) {
+                    SensorData sensorData = TestDataFactory.createValidSensorData();
+                    sends.add(pool.template(pool.shardFor(sensorData.getAssetId())).send("sensor-data", sensorData));
+                }
+                return sends;
+            }));
+        }
+        for (int i = 0; i < 20; i++) {
+            pool.reconfigure(Map.of(ProducerConfig.LINGER_MS_CONFIG, i));
+            Thread.sleep(5);
+        }
+        running.set(false);
+
+        // Then
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (Future<List<CompletableFuture<?>>> result : results) {
+            sends.addAll(result.get(10, TimeUnit.SECONDS));
+        }
+        senders.shutdown();
+        assertThat(sends).isNotEmpty().allSatisfy(send -> assertThat(send).succeedsWithin(Duration.ofSeconds(5)));
+        pool.destroy();
+    }
+
+    @Test
+    @DisplayName("Should keep the critical lane producer out of reconfiguration but close it")
+    void shouldKeepCriticalLaneConfiguration() throws Exception {
+        // Given
+        List<KafkaTemplate<String, SensorData>> templates = templates(2);
+        KafkaTemplate<String, SensorData> critical = templates.remove(1);
+        @SuppressWarnings("unchecked")
+        DefaultKafkaProducerFactory<String, SensorData> criticalFactory = mock(DefaultKafkaProducerFactory.class);
+        when(critical.getProducerFactory()).thenReturn(criticalFactory);
+        KafkaProducerPool pool = new KafkaProducerPool(templates, List.of(), critical);
+
+        // When
+        pool.reconfigure(Map.of(ProducerConfig.LINGER_MS_CONFIG, 20));
+        pool.destroy();
+
+        // Then
+        assertThat(pool.size()).isEqualTo(1);
+        assertThat(pool.criticalTemplate()).isSameAs(critical);
+        verify(criticalFactory, never()).updateConfigs(any());
+        verify(criticalFactory).destroy();
+        assertThatThrownBy(() -> new KafkaProducerPool(templates(1)).criticalTemplate())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should expose the shard config and the client ids of reconfigured producers only")
+    void shouldExposeShardConfigAndClientIds() {
+        // Given
+        KafkaProducerPool pool = new KafkaProducerPool(
+                List.of(new KafkaTemplate<>(factory("ingestion-shard-0")), new KafkaTemplate<>(factory("ingestion-shard-1"))),
+                List.of(new KafkaTemplate<>(factory("ingestion-envelope-shard-0")),
+                        new KafkaTemplate<>(factory("ingestion-envelope-shard-1"))),
+                new KafkaTemplate<>(factory("ingestion-critical")));
+
+        // When / Then
+        assertThat(pool.shardConfigs()).containsEntry(ProducerConfig.BATCH_SIZE_CONFIG, 262144);
+        assertThat(pool.clientIds()).containsExactly(
+                "ingestion-shard-0", "ingestion-shard-1", "ingestion-envelope-shard-0", "ingestion-envelope-shard-1");
+    }
+
+    @Test
+    @DisplayName("Should require one envelope template per shard")
+    void shouldRejectMismatchedEnvelopeTemplates() {
+        // Given
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, SensorDataEnvelope> envelopeTemplate = mock(KafkaTemplate.class);
+
+        // When / Then
+        assertThatThrownBy(() -> new KafkaProducerPool(templates(2), List.of(envelopeTemplate)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new KafkaProducerPool(templates(1)).envelopeTemplate(0))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(new KafkaProducerPool(templates(1), List.of(envelopeTemplate)).envelopeTemplate(0))
+                .isSameAs(envelopeTemplate);
+    }
+
+    /**
+     * Producer factory handing out auto-completing MockProducers, kept through reconfiguration.
+     */
+    private static class MockProducerFactory extends DefaultKafkaProducerFactory<String, SensorData> {
+
+        private final List<MockProducer<String, SensorData>> producers = new CopyOnWriteArrayList<>();
+
+        MockProducerFactory(Map<String, Object> configs) {
+            super(configs);
+        }
+
+        @Override
+        protected Producer<String, SensorData> createKafkaProducer() {
+            MockProducer<String, SensorData> producer =
+                    new MockProducer<>(true, new StringSerializer(), (topic, data) -> new byte[0]);
+            producers.add(producer);
+            return producer;
+        }
+
+        @Override
+        public ProducerFactory<String, SensorData> copyWithConfigurationOverride(Map<String, Object> overrides) {
+            Map<String, Object> configs = new HashMap<>(getConfigurationProperties());
+            configs.putAll(overrides);
+            return new MockProducerFactory(configs);
+        }
+    }
+
+    private static <V> DefaultKafkaProducerFactory<String, V> factory(String clientId) {
+        return new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.CLIENT_ID_CONFIG, clientId,
+                ProducerConfig.BATCH_SIZE_CONFIG, 262144));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<KafkaTemplate<String, SensorData>> templates(int count) {
+        List<KafkaTemplate<String, SensorData>> templates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            templates.add(mock(KafkaTemplate.class));
+        }
+        return templates;
+    }
+}
@@ -1,12 +1,22 @@
 package com.mantis.ingestion.service;
 
 import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.exception.ReadingDroppedException;
 import com.mantis.ingestion.model.SensorData;
+import com.mantis.ingestion.model.SensorDataEnvelope;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,10 +26,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
-
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -40,15 +64,23 @@ class KafkaProducerServiceTest {
 
     private KafkaProducerService kafkaProducerService;
     private MeterRegistry meterRegistry;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
     private final String testTopic = "sensor.raw.test";
 
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .build());
         kafkaProducerService = new KafkaProducerService(
-                kafkaTemplate,
+                new KafkaProducerPool(List.of(kafkaTemplate)),
                 testTopic,
                 edgeBufferService,
+                circuitBreakerRegistry,
                 meterRegistry);
     }
 
@@ -60,7 +92,7 @@ class KafkaProducerServiceTest {
         SendResult<String, SensorData> sendResult = createMockSendResult();
 
         CompletableFuture<SendResult<String, SensorData>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(anyString(), anyString(), any(SensorData.class))).thenReturn(future);
+        when(kafkaTemplate.send(anySensorRecord())).thenReturn(future);
 
         // When
         CompletableFuture<SendResult<String, SensorData>> result = kafkaProducerService.sendSensorData(sensorData);
@@ -68,15 +100,43 @@ class KafkaProducerServiceTest {
         // Then
         assertThat(result).isCompletedWithValue(sendResult);
 
-        ArgumentCaptor<String> topicCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<SensorData> dataCaptor = ArgumentCaptor.forClass(SensorData.class);
+        ArgumentCaptor<ProducerRecord<String, SensorData>> recordCaptor = sensorRecordCaptor();
+        verify(kafkaTemplate).send(recordCaptor.capture());
+
+        ProducerRecord<String, SensorData> record = recordCaptor.getValue();
+        assertThat(record.topic()).isEqualTo(testTopic);
+        assertThat(record.key()).isEqualTo(sensorData.getAssetId().toString());
+        assertThat(record.value()).isEqualTo(sensorData);
+    }
+
+    @Test
+    @DisplayName("Should stamp pipeline latency headers and record the ingestion stages")
+    void shouldStampPipelineLatencyHeaders() {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        sensorData.setTimestamp(Instant.now().minusMillis(500));
+        sensorData.setCreatedAt(sensorData.getTimestamp().plusMillis(200));
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
 
-        verify(kafkaTemplate).send(topicCaptor.capture(), keyCaptor.capture(), dataCaptor.capture());
+        // When
+        kafkaProducerService.sendSensorData(sensorData);
 
-        assertThat(topicCaptor.getValue()).isEqualTo(testTopic);
-        assertThat(keyCaptor.getValue()).isEqualTo(sensorData.getAssetId().toString());
-        assertThat(dataCaptor.getValue()).isEqualTo(sensorData);
+        // Then
+        ArgumentCaptor<ProducerRecord<String, SensorData>> recordCaptor = sensorRecordCaptor();
+        verify(kafkaTemplate).send(recordCaptor.capture());
+        Headers headers = recordCaptor.getValue().headers();
+        assertThat(PipelineLatency.read(headers, PipelineLatency.SOURCE))
+                .isEqualTo(sensorData.getTimestamp().toEpochMilli());
+        assertThat(PipelineLatency.read(headers, PipelineLatency.CONNECTOR_RECEIVE))
+                .isEqualTo(sensorData.getCreatedAt().toEpochMilli());
+        assertThat(PipelineLatency.read(headers, PipelineLatency.INGESTION_PUBLISH))
+                .isGreaterThanOrEqualTo(sensorData.getCreatedAt().toEpochMilli());
+
+        Timer receive = meterRegistry.get("mantis.pipeline.latency").tag("stage", "connector-receive").timer();
+        Timer publish = meterRegistry.get("mantis.pipeline.latency").tag("stage", "ingestion-publish").timer();
+        assertThat(receive.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(200.0);
+        assertThat(publish.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(500.0);
     }
 
     @Test
@@ -90,7 +150,7 @@ class KafkaProducerServiceTest {
 
         // Then
         assertThat(result).isCompletedExceptionally();
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(SensorData.class));
+        verify(kafkaTemplate, never()).send(anySensorRecord());
     }
 
     @Test
@@ -102,7 +162,7 @@ class KafkaProducerServiceTest {
 
         CompletableFuture<SendResult<String, SensorData>> failedFuture = new CompletableFuture<>();
         failedFuture.completeExceptionally(new RuntimeException("Kafka unavailable"));
-        when(kafkaTemplate.send(anyString(), anyString(), any(SensorData.class))).thenReturn(failedFuture);
+        when(kafkaTemplate.send(anySensorRecord())).thenReturn(failedFuture);
 
         // When
         CompletableFuture<SendResult<String, SensorData>> result = kafkaProducerService.sendSensorData(sensorData);
@@ -129,7 +189,7 @@ class KafkaProducerServiceTest {
 
         CompletableFuture<SendResult<String, SensorData>> failedFuture = new CompletableFuture<>();
         failedFuture.completeExceptionally(new RuntimeException("Kafka unavailable"));
-        when(kafkaTemplate.send(anyString(), anyString(), any(SensorData.class))).thenReturn(failedFuture);
+        when(kafkaTemplate.send(anySensorRecord())).thenReturn(failedFuture);
 
         // When
         kafkaProducerService.sendSensorData(sensorData);
@@ -145,6 +205,196 @@ class KafkaProducerServiceTest {
         verify(edgeBufferService, never()).buffer(any());
     }
 
+    @Test
+    @DisplayName("Should reuse one key per asset and report partition skew")
+    void shouldReportPartitionSkew() {
+        // Given
+        SensorData first = TestDataFactory.createValidSensorData();
+        SensorData second = TestDataFactory.createValidSensorData();
+        second.setAssetId(first.getAssetId());
+        SensorData other = TestDataFactory.createValidSensorData();
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(0)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(0)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult(1)));
+
+        // When
+        kafkaProducerService.sendSensorData(first);
+        kafkaProducerService.sendSensorData(second);
+        kafkaProducerService.sendSensorData(other);
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, SensorData>> recordCaptor = sensorRecordCaptor();
+        verify(kafkaTemplate, times(3)).send(recordCaptor.capture());
+        assertThat(recordCaptor.getAllValues().get(1).key()).isSameAs(recordCaptor.getAllValues().get(0).key());
+        assertThat(kafkaProducerService.getPartitionSkew()).isCloseTo(4.0 / 3, within(1e-9));
+        assertThat(meterRegistry.get("mantis.kafka.partition.skew").gauge().value()).isCloseTo(4.0 / 3, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Should send readings straight to the edge buffer while the circuit is open")
+    void shouldShortCircuitWhenCircuitOpen() {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        when(edgeBufferService.isEnabled()).thenReturn(true);
+        when(edgeBufferService.buffer(sensorData)).thenReturn(true);
+        circuitBreakerRegistry.circuitBreaker("kafka").transitionToOpenState();
+
+        // When
+        CompletableFuture<SendResult<String, SensorData>> result = kafkaProducerService.sendSensorData(sensorData);
+
+        // Then
+        assertThatThrownBy(result::get).hasCauseInstanceOf(CallNotPermittedException.class);
+        verify(kafkaTemplate, never()).send(anySensorRecord());
+        verify(edgeBufferService).buffer(sensorData);
+        assertThat(kafkaProducerService.getInFlightCount()).isZero();
+        assertThat(kafkaProducerService.getStats().getShortCircuited()).isEqualTo(1L);
+        assertThat(kafkaProducerService.getStats().getCircuitBreakerState()).isEqualTo("OPEN");
+    }
+
+    @Test
+    @DisplayName("Should report a short-circuited reading refused by the edge buffer as dropped")
+    void shouldReportDroppedReadingWhenBufferFull() {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        when(edgeBufferService.isEnabled()).thenReturn(true);
+        when(edgeBufferService.buffer(sensorData)).thenReturn(false);
+        circuitBreakerRegistry.circuitBreaker("kafka").transitionToOpenState();
+
+        // When
+        CompletableFuture<SendResult<String, SensorData>> result = kafkaProducerService.sendSensorData(sensorData);
+
+        // Then
+        assertThatThrownBy(result::get).hasCauseInstanceOf(ReadingDroppedException.class);
+        assertThat(KafkaProducerService.isBufferedAtEdge(result.handle((r, ex) -> ex).join())).isFalse();
+        verify(kafkaTemplate, never()).send(anySensorRecord());
+    }
+
+    @Test
+    @DisplayName("Should not buffer the retransmission of a short-circuited reading again")
+    void shouldKeepDedupEntryOfShortCircuitedReading() {
+        // Given
+        enableDedup();
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        when(edgeBufferService.isEnabled()).thenReturn(true);
+        when(edgeBufferService.buffer(sensorData)).thenReturn(true);
+        circuitBreakerRegistry.circuitBreaker("kafka").transitionToOpenState();
+
+        // When
+        CompletableFuture<SendResult<String, SensorData>> first = kafkaProducerService.sendSensorData(sensorData);
+        CompletableFuture<SendResult<String, SensorData>> retry = kafkaProducerService.sendSensorData(copyOf(sensorData));
+
+        // Then
+        assertThat(retry).isSameAs(first);
+        verify(edgeBufferService, times(1)).buffer(any());
+    }
+
+    @Test
+    @DisplayName("Should open the circuit on sends acknowledged slower than the threshold")
+    void shouldOpenCircuitOnSlowSends() throws Exception {
+        // Given
+        CircuitBreakerRegistry slowRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .slowCallDurationThreshold(Duration.ofMillis(50))
+                .slowCallRateThreshold(50)
+                .build());
+        KafkaProducerService slowService = new KafkaProducerService(
+                new KafkaProducerPool(List.of(kafkaTemplate)),
+                testTopic,
+                edgeBufferService,
+                slowRegistry,
+                new SimpleMeterRegistry());
+        List<CompletableFuture<SendResult<String, SensorData>>> acks = new ArrayList<>();
+        when(kafkaTemplate.send(anySensorRecord())).thenAnswer(invocation -> {
+            CompletableFuture<SendResult<String, SensorData>> ack = new CompletableFuture<>();
+            acks.add(ack);
+            return ack;
+        });
+        for (int i = 0; i < 4; i++) {
+            slowService.sendSensorData(TestDataFactory.createValidSensorData());
+        }
+
+        // When: the broker acknowledges every send, but late
+        Thread.sleep(100);
+        acks.forEach(ack -> ack.complete(createMockSendResult()));
+
+        // Then
+        assertThat(slowService.getCircuitBreakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(slowRegistry.circuitBreaker("kafka").getMetrics().getNumberOfSlowSuccessfulCalls()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should open the circuit on failures and close it after a successful probe")
+    void shouldOpenCircuitAndRecoverThroughHalfOpenProbe() {
+        // Given
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            kafkaProducerService.sendSensorData(TestDataFactory.createValidSensorData());
+        }
+
+        // Then
+        assertThat(kafkaProducerService.getCircuitBreakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // Once the open wait is over, a single probe decides
+        circuitBreakerRegistry.circuitBreaker("kafka").transitionToHalfOpenState();
+        CompletableFuture<SendResult<String, SensorData>> probe =
+                kafkaProducerService.sendSensorData(TestDataFactory.createValidSensorData());
+        assertThat(probe).isCompleted();
+        assertThat(kafkaProducerService.getCircuitBreakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        verify(kafkaTemplate, times(5)).send(anySensorRecord());
+    }
+
+    @Test
+    @DisplayName("Should tag replayed readings and send live readings directly")
+    void shouldTagReplayedReadings() {
+        // Given
+        SensorData live = TestDataFactory.createValidSensorData();
+        SensorData replayed = TestDataFactory.createValidSensorData();
+        replayed.setAssetId(live.getAssetId());
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        // When
+        kafkaProducerService.replaySensorData(replayed);
+        kafkaProducerService.sendSensorData(live);
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, SensorData>> recordCaptor = sensorRecordCaptor();
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        assertThat(recordCaptor.getAllValues().get(0).headers().lastHeader(KafkaProducerService.REPLAYED_HEADER))
+                .isNotNull();
+        assertThat(recordCaptor.getAllValues().get(1).value()).isSameAs(live);
+        assertThat(recordCaptor.getAllValues().get(1).headers().lastHeader(KafkaProducerService.REPLAYED_HEADER))
+                .isNull();
+        verify(edgeBufferService, never()).buffer(any());
+    }
+
+    @Test
+    @DisplayName("Should replay backlog readings without buffering them again on failure")
+    void shouldNotBufferFailedReplay() {
+        // Given
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")));
+
+        // When
+        CompletableFuture<SendResult<String, SensorData>> result = kafkaProducerService.replaySensorData(sensorData);
+
+        // Then
+        assertThat(result).isCompletedExceptionally();
+        verify(edgeBufferService, never()).buffer(any());
+        assertThat(kafkaProducerService.getInFlightCount()).isZero();
+    }
+
     @Test
     @DisplayName("Should send data synchronously")
     void shouldSendDataSynchronously() throws Exception {
@@ -171,7 +421,7 @@ class KafkaProducerServiceTest {
         SendResult<String, SensorData> sendResult = createMockSendResult();
 
         CompletableFuture<SendResult<String, SensorData>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(anyString(), anyString(), any(SensorData.class))).thenReturn(future);
+        when(kafkaTemplate.send(anySensorRecord())).thenReturn(future);
 
         // Send some data to generate stats
         kafkaProducerService.sendSensorData(sensorData);
@@ -194,12 +444,454 @@ class KafkaProducerServiceTest {
         assertThat(stats.getMaxSendLatencyMs()).isNotNull();
     }
 
+    @Test
+    @DisplayName("Should compute producer buffer utilization from metrics")
+    void shouldComputeBufferUtilization() {
+        // Given
+        Map<MetricName, Metric> metrics = Map.of(
+                metricName("buffer-total-bytes"), metric(1000.0),
+                metricName("buffer-available-bytes"), metric(250.0));
+        doReturn(metrics).when(kafkaTemplate).metrics();
+
+        // When
+        double utilization = kafkaProducerService.getBufferUtilization();
+
+        // Then
+        assertThat(utilization).isEqualTo(0.75);
+    }
+
+    @Test
+    @DisplayName("Should drop duplicate readings before Kafka")
+    void shouldDropDuplicateReadings() {
+        // Given
+        enableDedup();
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        SensorData retransmitted = copyOf(sensorData);
+        retransmitted.setSource("mqtt");
+        SendResult<String, SensorData> sendResult = createMockSendResult();
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        // When
+        kafkaProducerService.sendSensorData(sensorData);
+        CompletableFuture<SendResult<String, SensorData>> duplicate =
+                kafkaProducerService.sendValidatedSensorData(retransmitted);
+
+        // Then
+        assertThat(duplicate).isCompletedWithValue(sendResult);
+        verify(kafkaTemplate, times(1)).send(anySensorRecord());
+        assertThat(kafkaProducerService.getStats().getDuplicatesDropped()).isEqualTo(1);
+        assertThat(kafkaProducerService.getDedupHitRatio()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("mantis.kafka.dedup.hits").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should send readings differing by value or timestamp")
+    void shouldSendDistinctReadings() {
+        // Given
+        enableDedup();
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+        SensorData otherValue = copyOf(sensorData);
+        otherValue.setValue(sensorData.getValue() + 0.1);
+        SensorData otherTimestamp = copyOf(sensorData);
+        otherTimestamp.setTimestamp(sensorData.getTimestamp().plusMillis(1));
+
+        // When
+        kafkaProducerService.sendSensorData(sensorData);
+        kafkaProducerService.sendSensorData(otherValue);
+        kafkaProducerService.sendSensorData(otherTimestamp);
+
+        // Then
+        verify(kafkaTemplate, times(3)).send(anySensorRecord());
+        assertThat(kafkaProducerService.getDedupHitRatio()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should let a retransmission through after a failed send")
+    void shouldResendAfterFailure() {
+        // Given
+        enableDedup();
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        when(edgeBufferService.isEnabled()).thenReturn(false);
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka error")))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        // When
+        CompletableFuture<SendResult<String, SensorData>> first = kafkaProducerService.sendSensorData(sensorData);
+        CompletableFuture<SendResult<String, SensorData>> retry = kafkaProducerService.sendSensorData(sensorData);
+
+        // Then
+        assertThat(first).isCompletedExceptionally();
+        assertThat(retry).isCompletedWithValueMatching(r -> r.getRecordMetadata() != null);
+        verify(kafkaTemplate, times(2)).send(anySensorRecord());
+    }
+
+    @Test
+    @DisplayName("Should send every reading when dedup is disabled")
+    void shouldNotDedupWhenDisabled() {
+        // Given
+        ReflectionTestUtils.setField(kafkaProducerService, "dedupEnabled", false);
+        kafkaProducerService.init();
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        // When
+        kafkaProducerService.sendSensorData(sensorData);
+        kafkaProducerService.sendSensorData(sensorData);
+
+        // Then
+        verify(kafkaTemplate, times(2)).send(anySensorRecord());
+    }
+
+    @Test
+    @DisplayName("Should route every reading of an asset to the same producer shard")
+    void shouldRouteAssetsToStableShards() {
+        // Given
+        KafkaTemplate<String, SensorData> otherShard = mockTemplate();
+        KafkaProducerService sharded = new KafkaProducerService(
+                new KafkaProducerPool(List.of(kafkaTemplate, otherShard)), testTopic, edgeBufferService,
+                circuitBreakerRegistry, meterRegistry);
+        when(kafkaTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+        when(otherShard.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        // When: 3 readings for each of 50 assets
+        for (int asset = 0; asset < 50; asset++) {
+            SensorData sensorData = TestDataFactory.createValidSensorData();
+            for (int reading = 0; reading < 3; reading++) {
+                sharded.sendSensorData(sensorData);
+            }
+        }
+
+        // Then
+        Set<String> shard0Keys = sentKeys(kafkaTemplate);
+        Set<String> shard1Keys = sentKeys(otherShard);
+        assertThat(shard0Keys).isNotEmpty().doesNotContainAnyElementsOf(shard1Keys);
+        assertThat(shard1Keys).isNotEmpty();
+        assertThat(shard0Keys.size() + shard1Keys.size()).isEqualTo(50);
+
+        KafkaProducerService.ProducerStats stats = sharded.getStats();
+        assertThat(stats.getShards()).hasSize(2);
+        assertThat(stats.getShards().get(0).getMessagesProduced()).isEqualTo(shard0Keys.size() * 3L);
+        assertThat(stats.getShards().get(1).getMessagesProduced()).isEqualTo(shard1Keys.size() * 3L);
+        assertThat(meterRegistry.get("mantis.kafka.shard.messages.produced").tag("shard", "1").counter().count())
+                .isEqualTo(shard1Keys.size() * 3.0);
+    }
+
+    @Test
+    @DisplayName("Should report the buffer utilization of the fullest shard")
+    void shouldReportFullestShardBufferUtilization() {
+        // Given
+        KafkaTemplate<String, SensorData> otherShard = mockTemplate();
+        KafkaProducerService sharded = new KafkaProducerService(
+                new KafkaProducerPool(List.of(kafkaTemplate, otherShard)), testTopic, edgeBufferService,
+                circuitBreakerRegistry, meterRegistry);
+        doReturn(Map.of(metricName("buffer-total-bytes"), metric(1000.0),
+                metricName("buffer-available-bytes"), metric(750.0))).when(kafkaTemplate).metrics();
+        doReturn(Map.of(metricName("buffer-total-bytes"), metric(1000.0),
+                metricName("buffer-available-bytes"), metric(100.0))).when(otherShard).metrics();
+
+        // When
+        double utilization = sharded.getBufferUtilization();
+
+        // Then
+        assertThat(utilization).isEqualTo(0.9);
+    }
+
+    @Test
+    @DisplayName("Should publish the readings of an asset as one envelope in micro-batch mode")
+    void shouldPublishOneEnvelopePerAsset() throws Exception {
+        // Given
+        KafkaTemplate<String, SensorDataEnvelope> envelopeTemplate = mockEnvelopeTemplate();
+        KafkaProducerService batching = microBatchingService(envelopeTemplate, 100);
+        ArgumentCaptor<ProducerRecord<String, SensorDataEnvelope>> recordCaptor = envelopeRecordCaptor();
+        when(envelopeTemplate.send(recordCaptor.capture()))
+                .thenReturn(CompletableFuture.completedFuture(createMockEnvelopeSendResult()));
+        UUID assetId = UUID.randomUUID();
+
+        // When: 3 readings of one asset, then the window closes
+        List<CompletableFuture<SendResult<String, SensorData>>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SensorData sensorData = TestDataFactory.createValidSensorData();
+            sensorData.setAssetId(assetId);
+            futures.add(batching.sendSensorData(sensorData));
+        }
+        assertThat(futures).noneMatch(CompletableFuture::isDone);
+        batching.flushMicroBatches();
+
+        // Then
+        verify(kafkaTemplate, never()).send(anySensorRecord());
+        ProducerRecord<String, SensorDataEnvelope> record = recordCaptor.getValue();
+        assertThat(record.key()).isEqualTo(assetId.toString());
+        assertThat(record.value().getAssetId()).isEqualTo(assetId);
+        assertThat(record.value().getReadings()).hasSize(3);
+        assertThat(new String(record.headers().lastHeader(SensorDataEnvelope.FORMAT_HEADER).value(),
+                StandardCharsets.US_ASCII)).isEqualTo(SensorDataEnvelope.FORMAT_V1);
+
+        for (int i = 0; i < 3; i++) {
+            SendResult<String, SensorData> result = futures.get(i).get();
+            assertThat(result.getProducerRecord().value()).isSameAs(record.value().getReadings().get(i));
+            assertThat(result.getRecordMetadata().offset()).isEqualTo(42L);
+        }
+        assertThat(batching.getStats().getMessagesProduced()).isEqualTo(3L);
+        assertThat(batching.getStats().getEnvelopesProduced()).isEqualTo(1L);
+        assertThat(batching.getInFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should publish an envelope as soon as it reaches max-readings")
+    void shouldPublishFullEnvelopeImmediately() {
+        // Given
+        KafkaTemplate<String, SensorDataEnvelope> envelopeTemplate = mockEnvelopeTemplate();
+        KafkaProducerService batching = microBatchingService(envelopeTemplate, 2);
+        when(envelopeTemplate.send(envelopeRecordCaptor().capture()))
+                .thenReturn(CompletableFuture.completedFuture(createMockEnvelopeSendResult()));
+        SensorData first = TestDataFactory.createValidSensorData();
+        SensorData second = TestDataFactory.createValidSensorData();
+        second.setAssetId(first.getAssetId());
+
+        // When
+        CompletableFuture<SendResult<String, SensorData>> firstFuture = batching.sendSensorData(first);
+        CompletableFuture<SendResult<String, SensorData>> secondFuture = batching.sendSensorData(second);
+
+        // Then
+        assertThat(firstFuture).isCompleted();
+        assertThat(secondFuture).isCompleted();
+        verify(envelopeTemplate, times(1)).send(anyEnvelopeRecord());
+    }
+
+    @Test
+    @DisplayName("Should buffer every reading of a failed envelope")
+    void shouldBufferReadingsOfFailedEnvelope() {
+        // Given
+        KafkaTemplate<String, SensorDataEnvelope> envelopeTemplate = mockEnvelopeTemplate();
+        KafkaProducerService batching = microBatchingService(envelopeTemplate, 100);
+        when(envelopeTemplate.send(envelopeRecordCaptor().capture()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka error")));
+        when(edgeBufferService.isEnabled()).thenReturn(true);
+        SensorData first = TestDataFactory.createValidSensorData();
+        SensorData second = TestDataFactory.createValidSensorData();
+        second.setAssetId(first.getAssetId());
+
+        // When
+        CompletableFuture<SendResult<String, SensorData>> future = batching.sendSensorData(first);
+        batching.sendSensorData(second);
+        batching.flushMicroBatches();
+
+        // Then
+        assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class);
+        verify(edgeBufferService).buffer(first);
+        verify(edgeBufferService).buffer(second);
+        assertThat(batching.getStats().getMessagesFailed()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should buffer a whole micro-batch without sending it while the circuit is open")
+    void shouldShortCircuitEnvelopeWhenCircuitOpen() {
+        // Given
+        KafkaTemplate<String, SensorDataEnvelope> envelopeTemplate = mockEnvelopeTemplate();
+        KafkaProducerService batching = microBatchingService(envelopeTemplate, 100);
+        when(edgeBufferService.isEnabled()).thenReturn(true);
+        circuitBreakerRegistry.circuitBreaker("kafka").transitionToOpenState();
+        SensorData first = TestDataFactory.createValidSensorData();
+        SensorData second = TestDataFactory.createValidSensorData();
+        second.setAssetId(first.getAssetId());
+        when(edgeBufferService.buffer(any())).thenReturn(true);
+
+        // When
+        CompletableFuture<SendResult<String, SensorData>> future = batching.sendSensorData(first);
+        batching.sendSensorData(second);
+        batching.flushMicroBatches();
+
+        // Then
+        assertThatThrownBy(future::get).hasCauseInstanceOf(CallNotPermittedException.class);
+        verify(envelopeTemplate, never()).send(anyEnvelopeRecord());
+        verify(edgeBufferService).buffer(first);
+        verify(edgeBufferService).buffer(second);
+        assertThat(batching.getInFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should retire the batch of an asset idle for a whole window")
+    void shouldRetireIdleAssetBatch() {
+        // Given
+        KafkaTemplate<String, SensorDataEnvelope> envelopeTemplate = mockEnvelopeTemplate();
+        KafkaProducerService batching = microBatchingService(envelopeTemplate, 100);
+        when(envelopeTemplate.send(envelopeRecordCaptor().capture()))
+                .thenReturn(CompletableFuture.completedFuture(createMockEnvelopeSendResult()));
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+
+        // When
+        batching.sendSensorData(sensorData);
+        batching.flushMicroBatches();
+        batching.flushMicroBatches();
+
+        // Then
+        assertThat(meterRegistry.get("mantis.kafka.microbatch.assets").gauge().value()).isZero();
+
+        // A later reading opens a new batch
+        batching.sendSensorData(copyOf(sensorData));
+        batching.flushMicroBatches();
+        verify(envelopeTemplate, times(2)).send(anyEnvelopeRecord());
+    }
+
+    @Test
+    @DisplayName("Should send critical readings on their own producer and topic, outside micro-batches")
+    void shouldRouteCriticalReadingsToCriticalLane() {
+        // Given
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, SensorData> criticalTemplate = mock(KafkaTemplate.class);
+        KafkaTemplate<String, SensorDataEnvelope> envelopeTemplate = mockEnvelopeTemplate();
+        meterRegistry = new SimpleMeterRegistry();
+        KafkaProducerService service = new KafkaProducerService(
+                new KafkaProducerPool(List.of(kafkaTemplate), List.of(envelopeTemplate), criticalTemplate),
+                testTopic, edgeBufferService, circuitBreakerRegistry, meterRegistry);
+        ReflectionTestUtils.setField(service, "microBatchEnabled", true);
+        ReflectionTestUtils.setField(service, "microBatchMaxReadings", 100);
+        ReflectionTestUtils.setField(service, "criticalLaneEnabled", true);
+        ReflectionTestUtils.setField(service, "criticalTopic", "sensor.raw.critical.test");
+        ReflectionTestUtils.setField(service, "criticalSensorTypes", "OverTemperature");
+        ReflectionTestUtils.setField(service, "criticalSensorCodes", "CUR-07");
+        service.init();
+        when(criticalTemplate.send(anySensorRecord()))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        SensorData overTemperature = TestDataFactory.createValidSensorData();
+        overTemperature.setSensorType("overtemperature");
+        SensorData current = TestDataFactory.createValidSensorData();
+        current.setSensorCode("CUR-07");
+        SensorData vibration = TestDataFactory.createValidSensorData();
+        vibration.setSensorType("vibration");
+
+        // When
+        service.sendSensorData(overTemperature);
+        service.sendSensorData(current);
+        CompletableFuture<SendResult<String, SensorData>> bulk = service.sendSensorData(vibration);
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, SensorData>> recordCaptor = sensorRecordCaptor();
+        verify(criticalTemplate, times(2)).send(recordCaptor.capture());
+        assertThat(recordCaptor.getAllValues()).extracting(ProducerRecord::topic)
+                .containsOnly("sensor.raw.critical.test");
+        assertThat(bulk).isNotDone();
+        verify(kafkaTemplate, never()).send(anySensorRecord());
+        verifyNoInteractions(envelopeTemplate);
+        assertThat(service.getStats().getLanes().get(ProducerLane.CRITICAL).getMessagesProduced()).isEqualTo(2L);
+        assertThat(service.getStats().getLanes().get(ProducerLane.BULK).getMessagesProduced()).isZero();
+        assertThat(service.getStats().getShards().get(0).getMessagesProduced()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should require a critical producer when the critical lane is enabled")
+    void shouldRequireCriticalTemplate() {
+        // Given
+        ReflectionTestUtils.setField(kafkaProducerService, "criticalLaneEnabled", true);
+
+        // When / Then
+        assertThatThrownBy(() -> kafkaProducerService.init()).isInstanceOf(IllegalStateException.class);
+    }
+
+    private KafkaProducerService microBatchingService(KafkaTemplate<String, SensorDataEnvelope> envelopeTemplate,
+                                                      int maxReadings) {
+        meterRegistry = new SimpleMeterRegistry();
+        KafkaProducerService service = new KafkaProducerService(
+                new KafkaProducerPool(List.of(kafkaTemplate), List.of(envelopeTemplate)),
+                testTopic, edgeBufferService, circuitBreakerRegistry, meterRegistry);
+        ReflectionTestUtils.setField(service, "microBatchEnabled", true);
+        ReflectionTestUtils.setField(service, "microBatchMaxReadings", maxReadings);
+        service.init();
+        return service;
+    }
+
+    @SuppressWarnings("unchecked")
+    private KafkaTemplate<String, SensorDataEnvelope> mockEnvelopeTemplate() {
+        return mock(KafkaTemplate.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<ProducerRecord<String, SensorDataEnvelope>> envelopeRecordCaptor() {
+        return ArgumentCaptor.forClass(ProducerRecord.class);
+    }
+
+    private SendResult<String, SensorDataEnvelope> createMockEnvelopeSendResult() {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(testTopic, 0), 42L, 0, 0L, 0, 0);
+        return new SendResult<>(new ProducerRecord<>(testTopic, "test-key", new SensorDataEnvelope()), metadata);
+    }
+
+    @SuppressWarnings("unchecked")
+    private KafkaTemplate<String, SensorData> mockTemplate() {
+        return mock(KafkaTemplate.class);
+    }
+
+    private Set<String> sentKeys(KafkaTemplate<String, SensorData> template) {
+        ArgumentCaptor<ProducerRecord<String, SensorData>> recordCaptor = sensorRecordCaptor();
+        verify(template, atLeast(0)).send(recordCaptor.capture());
+        Set<String> keys = new HashSet<>();
+        recordCaptor.getAllValues().forEach(record -> keys.add(record.key()));
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProducerRecord<String, SensorData> anySensorRecord() {
+        return any(ProducerRecord.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProducerRecord<String, SensorDataEnvelope> anyEnvelopeRecord() {
+        return any(ProducerRecord.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<ProducerRecord<String, SensorData>> sensorRecordCaptor() {
+        return ArgumentCaptor.forClass(ProducerRecord.class);
+    }
+
+    private void enableDedup() {
+        ReflectionTestUtils.setField(kafkaProducerService, "dedupEnabled", true);
+        ReflectionTestUtils.setField(kafkaProducerService, "dedupTtlMs", 60_000L);
+        ReflectionTestUtils.setField(kafkaProducerService, "dedupMaxSize", 100L);
+        kafkaProducerService.init();
+    }
+
+    private SensorData copyOf(SensorData sensorData) {
+        return SensorData.builder()
+                .timestamp(sensorData.getTimestamp())
+                .assetId(sensorData.getAssetId())
+                .sensorId(sensorData.getSensorId())
+                .sensorCode(sensorData.getSensorCode())
+                .sensorType(sensorData.getSensorType())
+                .value(sensorData.getValue())
+                .unit(sensorData.getUnit())
+                .quality(sensorData.getQuality())
+                .source(sensorData.getSource())
+                .build();
+    }
+
+    private MetricName metricName(String name) {
+        return new MetricName(name, "producer-metrics", "", Map.of());
+    }
+
+    private Metric metric(double value) {
+        Metric metric = mock(Metric.class);
+        when(metric.metricValue()).thenReturn(value);
+        return metric;
+    }
+
     private SendResult<String, SensorData> createMockSendResult() {
+        return createMockSendResult(0);
+    }
+
+    private SendResult<String, SensorData> createMockSendResult(int partition) {
         ProducerRecord<String, SensorData> producerRecord = new ProducerRecord<>(
-                testTopic, 0, "test-key", TestDataFactory.createValidSensorData());
+                testTopic, partition, "test-key", TestDataFactory.createValidSensorData());
 
         RecordMetadata metadata = new RecordMetadata(
-                new TopicPartition(testTopic, 0),
+                new TopicPartition(testTopic, partition),
                 0L, 0, 0L, 0, 0);
         return new SendResult<>(producerRecord, metadata);
     }
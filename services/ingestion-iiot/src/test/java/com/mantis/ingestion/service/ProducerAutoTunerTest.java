@@ -0,0 +1,252 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.model.SensorData;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ProducerAutoTuner.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProducerAutoTuner Tests")
+class ProducerAutoTunerTest {
+
+    @Mock
+    private KafkaProducerPool producerPool;
+
+    private MeterRegistry meterRegistry;
+    private ProducerAutoTuner tuner;
+
+    private final double[] recordSendRate = {Double.NaN};
+    private final double[] batchSizeAvg = {Double.NaN};
+    private final double[] requestLatencyAvg = {Double.NaN};
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Métriques telles que publiées par MicrometerProducerListener
+        Gauge.builder(ProducerAutoTuner.RECORD_SEND_RATE, recordSendRate, v -> v[0])
+                .tag("client.id", "producer-1").register(meterRegistry);
+        Gauge.builder(ProducerAutoTuner.BATCH_SIZE_AVG, batchSizeAvg, v -> v[0])
+                .tag("client.id", "producer-1").register(meterRegistry);
+        Gauge.builder(ProducerAutoTuner.REQUEST_LATENCY_AVG, requestLatencyAvg, v -> v[0])
+                .tag("client.id", "producer-1").register(meterRegistry);
+
+        when(producerPool.shardConfigs()).thenReturn(Map.of(
+                ProducerConfig.BATCH_SIZE_CONFIG, 16384,
+                ProducerConfig.LINGER_MS_CONFIG, 10));
+        when(producerPool.clientIds()).thenReturn(Set.of("producer-1"));
+        tuner = configure(new ProducerAutoTuner(producerPool, meterRegistry));
+    }
+
+    private static ProducerAutoTuner configure(ProducerAutoTuner tuner) {
+        ReflectionTestUtils.setField(tuner, "enabled", true);
+        ReflectionTestUtils.setField(tuner, "cooldownMs", 0L);
+        ReflectionTestUtils.setField(tuner, "latencySloMs", 100.0);
+        ReflectionTestUtils.setField(tuner, "minLingerMs", 0);
+        ReflectionTestUtils.setField(tuner, "maxLingerMs", 50);
+        ReflectionTestUtils.setField(tuner, "minBatchSize", 16384);
+        ReflectionTestUtils.setField(tuner, "maxBatchSize", 262144);
+        ReflectionTestUtils.setField(tuner, "lowRecordRate", 100.0);
+        ReflectionTestUtils.setField(tuner, "fillHigh", 0.8);
+        ReflectionTestUtils.setField(tuner, "fillLow", 0.3);
+        return tuner;
+    }
+
+    @Test
+    @DisplayName("Should double batch.size when batches fill up")
+    void shouldGrowBatchSizeWhenBatchesAreFull() {
+        // Given: a start-up burst
+        observe(50_000, 15_000, 8);
+
+        // When
+        tuner.tune();
+
+        // Then
+        verify(producerPool).reconfigure(Map.of(
+                ProducerConfig.BATCH_SIZE_CONFIG, 32768,
+                ProducerConfig.LINGER_MS_CONFIG, 10));
+        assertThat(tuner.getBatchSize()).isEqualTo(32768);
+        assertThat(meterRegistry.get("mantis.kafka.tuner.batch.size").gauge().value()).isEqualTo(32768.0);
+        assertThat(adjustments("batch.size", ProducerAutoTuner.REASON_BATCHES_FULL)).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should drop linger to the minimum on low traffic")
+    void shouldDropLingerOnLowTraffic() {
+        // Given: a quiet night shift
+        observe(5, 200, 4);
+
+        // When
+        tuner.tune();
+
+        // Then
+        assertThat(tuner.getLingerMs()).isZero();
+        assertThat(meterRegistry.get("mantis.kafka.tuner.linger.ms").gauge().value()).isZero();
+        assertThat(adjustments("linger.ms", ProducerAutoTuner.REASON_LOW_TRAFFIC)).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should raise linger for small batches while within the latency SLO")
+    void shouldRaiseLingerForSmallBatches() {
+        // Given
+        observe(5_000, 1_000, 20);
+
+        // When: 10 -> 20 -> 40 -> 50 (max-linger-ms)
+        for (int i = 0; i < 5; i++) {
+            tuner.tune();
+        }
+
+        // Then
+        assertThat(tuner.getLingerMs()).isEqualTo(50);
+        assertThat(adjustments("linger.ms", ProducerAutoTuner.REASON_SMALL_BATCHES)).isEqualTo(3.0);
+        verify(producerPool, times(3)).reconfigure(any());
+    }
+
+    @Test
+    @DisplayName("Should not raise linger past the latency SLO")
+    void shouldNotRaiseLingerPastSlo() {
+        // Given: 10 + 70ms fits the SLO, 20 + 70ms still does, 40 + 70ms does not
+        observe(5_000, 1_000, 70);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            tuner.tune();
+        }
+
+        // Then
+        assertThat(tuner.getLingerMs()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should halve linger when the latency SLO is exceeded")
+    void shouldHalveLingerWhenSloIsExceeded() {
+        // Given
+        ReflectionTestUtils.setField(tuner, "lingerMs", 40);
+        observe(5_000, 1_000, 90);
+
+        // When
+        tuner.tune();
+
+        // Then
+        assertThat(tuner.getLingerMs()).isEqualTo(20);
+        assertThat(adjustments("linger.ms", ProducerAutoTuner.REASON_LATENCY_SLO)).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should not change anything before the producer reports metrics")
+    void shouldWaitForMetrics() {
+        // When
+        tuner.tune();
+
+        // Then
+        verify(producerPool, never()).reconfigure(any());
+        assertThat(tuner.getBatchSize()).isEqualTo(16384);
+        assertThat(tuner.getLingerMs()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should not change anything during the cooldown")
+    void shouldRespectCooldown() {
+        // Given
+        ReflectionTestUtils.setField(tuner, "cooldownMs", 60_000L);
+        observe(50_000, 15_000, 8);
+
+        // When
+        tuner.tune();
+        tuner.tune();
+
+        // Then
+        verify(producerPool, times(1)).reconfigure(any());
+        assertThat(tuner.getBatchSize()).isEqualTo(32768);
+    }
+
+    @Test
+    @DisplayName("Should start from the bulk lane config and ignore the critical producer metrics")
+    void shouldTuneBulkShardsOnlyWithLanes() {
+        // Given: shards on lanes.bulk, plus a critical producer with small, fast batches
+        KafkaProducerPool lanesPool = new KafkaProducerPool(
+                List.of(new KafkaTemplate<>(producerFactory("mantis-ingestion-shard-0", 262144, 50))),
+                List.of(),
+                new KafkaTemplate<>(producerFactory("mantis-ingestion-critical", 16384, 0)));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        register(registry, "mantis-ingestion-shard-0", 50_000, 131_072, 8);
+        register(registry, "mantis-ingestion-critical", 2_000, 200, 90);
+        ProducerAutoTuner lanesTuner = configure(new ProducerAutoTuner(lanesPool, registry));
+
+        // When
+        lanesTuner.tune();
+
+        // Then: half-full bulk batches, request latency within the SLO
+        assertThat(lanesTuner.getBatchSize()).isEqualTo(262144);
+        assertThat(lanesTuner.getLingerMs()).isEqualTo(50);
+        assertThat(registry.get("mantis.kafka.tuner.batch.fill.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(registry.find("mantis.kafka.tuner.adjustments").counters()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should do nothing when disabled")
+    void shouldDoNothingWhenDisabled() {
+        // Given
+        ReflectionTestUtils.setField(tuner, "enabled", false);
+        observe(50_000, 15_000, 8);
+
+        // When
+        tuner.tune();
+
+        // Then
+        verify(producerPool, never()).reconfigure(any());
+    }
+
+    private void observe(double recordRate, double batchBytes, double requestLatencyMs) {
+        recordSendRate[0] = recordRate;
+        batchSizeAvg[0] = batchBytes;
+        requestLatencyAvg[0] = requestLatencyMs;
+    }
+
+    private static DefaultKafkaProducerFactory<String, SensorData> producerFactory(
+            String clientId, int batchSize, int lingerMs) {
+        return new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.CLIENT_ID_CONFIG, clientId,
+                ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+                ProducerConfig.LINGER_MS_CONFIG, lingerMs));
+    }
+
+    private static void register(MeterRegistry registry, String clientId,
+                                 double recordRate, double batchBytes, double requestLatencyMs) {
+        Gauge.builder(ProducerAutoTuner.RECORD_SEND_RATE, () -> recordRate)
+                .tag("client.id", clientId).register(registry);
+        Gauge.builder(ProducerAutoTuner.BATCH_SIZE_AVG, () -> batchBytes)
+                .tag("client.id", clientId).register(registry);
+        Gauge.builder(ProducerAutoTuner.REQUEST_LATENCY_AVG, () -> requestLatencyMs)
+                .tag("client.id", clientId).register(registry);
+    }
+
+    private double adjustments(String parameter, String reason) {
+        return meterRegistry.get("mantis.kafka.tuner.adjustments")
+                .tags("parameter", parameter, "reason", reason)
+                .counter().count();
+    }
+}
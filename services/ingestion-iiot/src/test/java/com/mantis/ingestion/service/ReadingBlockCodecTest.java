@@ -0,0 +1,97 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorAggregate;
+import com.mantis.ingestion.model.SensorData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ReadingBlockCodec.
+ */
+@DisplayName("ReadingBlockCodec Tests")
+class ReadingBlockCodecTest {
+
+    @Test
+    @DisplayName("Should decode a block into readings equal to the encoded ones")
+    void shouldRoundTrip() {
+        // Given
+        List<SensorData> readings = new ArrayList<>();
+        readings.add(TestDataFactory.createValidSensorData());
+        readings.add(TestDataFactory.createSensorData("TEST-002", -0.0));
+        readings.add(TestDataFactory.createSensorData("TEST-003", Double.NaN));
+        readings.add(TestDataFactory.createSensorData("TEST-004", Double.MAX_VALUE));
+        readings.add(SensorData.builder()
+                .sensorCode("TEST-005")
+                .quality(null)
+                .createdAt(null)
+                .build());
+        SensorData far = TestDataFactory.createSensorData("TEST-006", 1.5);
+        far.setTimestamp(Instant.MIN);
+        far.setCreatedAt(Instant.MAX);
+        far.setQuality(-3);
+        far.setMetadata(Map.of("line", "A", "shift", 2));
+        readings.add(far);
+        readings.add(TestDataFactory.createSensorData("Température °C", 21.0));
+        SensorData aggregate = TestDataFactory.createSensorData("TEST-007", 22.5);
+        aggregate.setAggregate(new SensorAggregate(12, -0.5, Double.MAX_VALUE, 60_000));
+        readings.add(aggregate);
+
+        // When
+        List<SensorData> decoded = ReadingBlockCodec.decode(ReadingBlockCodec.encode(readings));
+
+        // Then
+        assertThat(decoded).containsExactlyElementsOf(readings);
+    }
+
+    @Test
+    @DisplayName("Should pack regular sensor series into a few bytes per reading")
+    void shouldCompressRegularSeries() {
+        // Given
+        UUID assetId = UUID.randomUUID();
+        List<SensorData> sensors = new ArrayList<>();
+        for (int s = 0; s < 8; s++) {
+            SensorData sensor = TestDataFactory.createSensorData("MOTOR-001_S" + s, 0.0);
+            sensor.setAssetId(assetId);
+            sensors.add(sensor);
+        }
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        List<SensorData> readings = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            SensorData sensor = sensors.get(i % 8);
+            Instant timestamp = start.plusMillis(i * 125L);
+            readings.add(SensorData.builder()
+                    .timestamp(timestamp)
+                    .assetId(sensor.getAssetId())
+                    .sensorId(sensor.getSensorId())
+                    .sensorCode(sensor.getSensorCode())
+                    .sensorType(sensor.getSensorType())
+                    .value(20.0 + (i / 8) % 16 * 0.25)
+                    .unit(sensor.getUnit())
+                    .source(sensor.getSource())
+                    .createdAt(timestamp.plusMillis(3))
+                    .build());
+        }
+
+        // When
+        byte[] block = ReadingBlockCodec.encode(readings);
+
+        // Then
+        assertThat(block.length).isLessThan(readings.size() * 8);
+        assertThat(ReadingBlockCodec.decode(block)).containsExactlyElementsOf(readings);
+    }
+
+    @Test
+    @DisplayName("Should encode an empty block")
+    void shouldEncodeEmptyBlock() {
+        assertThat(ReadingBlockCodec.decode(ReadingBlockCodec.encode(List.of()))).isEmpty();
+    }
+}
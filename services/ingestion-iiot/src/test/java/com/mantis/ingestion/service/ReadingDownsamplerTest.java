@@ -0,0 +1,100 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorAggregate;
+import com.mantis.ingestion.model.SensorData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ReadingDownsampler.
+ */
+@DisplayName("ReadingDownsampler Tests")
+class ReadingDownsamplerTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    @DisplayName("Should merge readings of the same sensor and bucket into one aggregate")
+    void shouldMergeSensorBucket() {
+        // Given
+        SensorData sensor = TestDataFactory.createSensorData("MOTOR-001_TEMP", 0.0);
+        SensorData first = reading(sensor, 10, 20.0, 100);
+        SensorData second = reading(sensor, 20, 26.0, 80);
+        SensorData third = reading(sensor, 50, 23.0, 90);
+        SensorData nextBucket = reading(sensor, 70, 30.0, 100);
+
+        // When
+        List<SensorData> merged = ReadingDownsampler.merge(List.of(first, second, third, nextBucket), 60_000);
+
+        // Then
+        assertThat(merged).hasSize(2);
+        SensorData aggregate = merged.get(0);
+        assertThat(aggregate.isAggregated()).isTrue();
+        assertThat(aggregate.getTimestamp()).isEqualTo(START);
+        assertThat(aggregate.getValue()).isEqualTo(23.0);
+        assertThat(aggregate.getQuality()).isEqualTo(80);
+        assertThat(aggregate.getCreatedAt()).isEqualTo(third.getCreatedAt());
+        assertThat(aggregate.getAssetId()).isEqualTo(sensor.getAssetId());
+        assertThat(aggregate.getSensorId()).isEqualTo(sensor.getSensorId());
+        assertThat(aggregate.getAggregate()).isEqualTo(new SensorAggregate(3, 20.0, 26.0, 60_000));
+        assertThat(merged.get(1)).isSameAs(nextBucket);
+    }
+
+    @Test
+    @DisplayName("Should keep different sensors apart and leave lone or incomplete readings untouched")
+    void shouldKeepSensorsApart() {
+        // Given
+        SensorData sensorA = TestDataFactory.createSensorData("SENSOR-A", 0.0);
+        SensorData sensorB = TestDataFactory.createSensorData("SENSOR-B", 0.0);
+        SensorData a1 = reading(sensorA, 1, 1.0, 100);
+        SensorData b1 = reading(sensorB, 2, 5.0, 100);
+        SensorData noTimestamp = reading(sensorA, 3, 7.0, 100);
+        noTimestamp.setTimestamp(null);
+        SensorData a2 = reading(sensorA, 4, 3.0, 100);
+
+        // When
+        List<SensorData> merged = ReadingDownsampler.merge(List.of(a1, b1, noTimestamp, a2), 60_000);
+
+        // Then
+        assertThat(merged).hasSize(3);
+        assertThat(merged.get(0).getSensorCode()).isEqualTo("SENSOR-A");
+        assertThat(merged.get(0).getAggregate().getCount()).isEqualTo(2);
+        assertThat(merged.get(0).getValue()).isEqualTo(2.0);
+        assertThat(merged.get(1)).isSameAs(b1);
+        assertThat(merged.get(2)).isSameAs(noTimestamp);
+    }
+
+    @Test
+    @DisplayName("Should weight an existing aggregate by the readings it summarizes")
+    void shouldMergeExistingAggregate() {
+        // Given
+        SensorData sensor = TestDataFactory.createSensorData("SENSOR-A", 0.0);
+        SensorData aggregate = reading(sensor, 0, 10.0, 100);
+        aggregate.setAggregate(new SensorAggregate(3, 5.0, 15.0, 60_000));
+        SensorData raw = reading(sensor, 30, 30.0, 100);
+
+        // When
+        List<SensorData> merged = ReadingDownsampler.merge(List.of(aggregate, raw), 60_000);
+
+        // Then
+        assertThat(merged).hasSize(1);
+        assertThat(merged.get(0).getValue()).isEqualTo(15.0);
+        assertThat(merged.get(0).getAggregate()).isEqualTo(new SensorAggregate(4, 5.0, 30.0, 60_000));
+    }
+
+    private static SensorData reading(SensorData sensor, int second, double value, int quality) {
+        SensorData sensorData = TestDataFactory.createSensorData(sensor.getSensorCode(), value);
+        sensorData.setAssetId(sensor.getAssetId());
+        sensorData.setSensorId(sensor.getSensorId());
+        sensorData.setTimestamp(START.plusSeconds(second));
+        sensorData.setCreatedAt(START.plusSeconds(second).plusMillis(5));
+        sensorData.setQuality(quality);
+        return sensorData;
+    }
+}
@@ -0,0 +1,254 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.model.SensorData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for SensorCompressionFilter.
+ */
+@DisplayName("SensorCompressionFilter Tests")
+class SensorCompressionFilterTest {
+
+    private static final Instant START = Instant.parse("2026-03-01T08:00:00.000Z");
+
+    private MeterRegistry meterRegistry;
+    private SensorCompressionFilter filter;
+    private final List<SensorData> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SensorCompressionFilter(meterRegistry);
+
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxSilenceMs", 60_000L);
+        ReflectionTestUtils.setField(filter, "maxSensors", 1000);
+        ReflectionTestUtils.setField(filter, "rules",
+                "type:temperature=deadband:0.5,type:pressure=deadband-percent:1,"
+                        + "type:vibration=swinging-door:0.5,code:TEMP-CRIT=none");
+        filter.init();
+    }
+
+    @Test
+    @DisplayName("Should publish only readings leaving the absolute deadband")
+    void shouldApplyDeadband() {
+        // Given
+        UUID sensorId = UUID.randomUUID();
+
+        // When
+        offer(reading(sensorId, "temperature", 0, 20.0));
+        offer(reading(sensorId, "temperature", 1, 20.3));
+        offer(reading(sensorId, "temperature", 2, 20.6));
+        offer(reading(sensorId, "temperature", 3, 21.2));
+
+        // Then
+        assertThat(published).extracting(SensorData::getValue).containsExactly(20.0, 20.6, 21.2);
+    }
+
+    @Test
+    @DisplayName("Should size the percent deadband from the last published value")
+    void shouldApplyPercentDeadband() {
+        // Given
+        UUID sensorId = UUID.randomUUID();
+
+        // When
+        offer(reading(sensorId, "pressure", 0, 200.0));
+        offer(reading(sensorId, "pressure", 1, 201.5));
+        offer(reading(sensorId, "pressure", 2, 202.5));
+
+        // Then
+        assertThat(published).extracting(SensorData::getValue).containsExactly(200.0, 202.5);
+    }
+
+    @Test
+    @DisplayName("Should publish the held reading when the swinging door closes")
+    void shouldPublishHeldReadingWhenDoorCloses() {
+        // Given
+        UUID sensorId = UUID.randomUUID();
+
+        // When
+        offer(reading(sensorId, "vibration", 0, 10.0));
+        offer(reading(sensorId, "vibration", 1, 10.2));
+        offer(reading(sensorId, "vibration", 2, 10.4));
+        assertThat(published).hasSize(1);
+        offer(reading(sensorId, "vibration", 3, 15.0));
+
+        // Then
+        assertThat(published).extracting(SensorData::getValue).containsExactly(10.0, 10.4);
+    }
+
+    @Test
+    @DisplayName("Should flush the held reading of a sensor silent for max-silence-ms")
+    void shouldFlushHeldReadingOfSilentSensor() {
+        // Given
+        UUID silentId = UUID.randomUUID();
+        UUID activeId = UUID.randomUUID();
+        List<SensorData> silentPublished = new ArrayList<>();
+        filter.offer(reading(silentId, "vibration", 0, 10.0), silentPublished::add);
+        SensorData silentHeld = reading(silentId, "vibration", 1, 10.2);
+        silentHeld.setCreatedAt(Instant.now().minusSeconds(120));
+        filter.offer(silentHeld, silentPublished::add);
+        offer(reading(activeId, "vibration", 0, 10.0));
+        offer(reading(activeId, "vibration", 1, 10.2));
+
+        // When
+        filter.flushSilentSensors();
+
+        // Then
+        assertThat(silentPublished).extracting(SensorData::getValue).containsExactly(10.0, 10.2);
+        assertThat(silentPublished.get(1)).isSameAs(silentHeld);
+        assertThat(published).hasSize(1);
+        assertThat(meterRegistry.get("mantis.ingestion.compression.readings")
+                .tags("algorithm", "swinging-door", "outcome", "published").counter().count()).isEqualTo(3.0);
+
+        // The flushed reading is the new archive point: the door restarts from it
+        filter.offer(reading(silentId, "vibration", 2, 10.4), silentPublished::add);
+        filter.flushSilentSensors();
+        assertThat(silentPublished).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should flush every held reading on shutdown")
+    void shouldFlushHeldReadingsOnShutdown() {
+        // Given
+        UUID sensorId = UUID.randomUUID();
+        offer(reading(sensorId, "vibration", 0, 10.0));
+        offer(reading(sensorId, "vibration", 1, 10.2));
+        offer(reading(sensorId, "vibration", 2, 10.4));
+
+        // When
+        filter.shutdown();
+
+        // Then
+        assertThat(published).extracting(SensorData::getValue).containsExactly(10.0, 10.4);
+        filter.shutdown();
+        assertThat(published).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should publish a heartbeat after max-silence-ms")
+    void shouldPublishHeartbeat() {
+        // Given
+        UUID sensorId = UUID.randomUUID();
+        offer(reading(sensorId, "temperature", 0, 20.0));
+        offer(reading(sensorId, "temperature", 30, 20.0));
+
+        // When
+        offer(reading(sensorId, "temperature", 60, 20.0));
+
+        // Then
+        assertThat(published).extracting(SensorData::getTimestamp)
+                .containsExactly(START, START.plusSeconds(60));
+    }
+
+    @Test
+    @DisplayName("Should publish on quality change")
+    void shouldPublishOnQualityChange() {
+        // Given
+        UUID sensorId = UUID.randomUUID();
+        offer(reading(sensorId, "temperature", 0, 20.0));
+        SensorData degraded = reading(sensorId, "temperature", 1, 20.0);
+        degraded.setQuality(40);
+
+        // When
+        offer(degraded);
+
+        // Then
+        assertThat(published).hasSize(2).last().isSameAs(degraded);
+    }
+
+    @Test
+    @DisplayName("Should let a sensorCode rule override the sensorType rule")
+    void shouldPreferCodeRule() {
+        // Given
+        UUID sensorId = UUID.randomUUID();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            SensorData sensorData = reading(sensorId, "temperature", i, 20.0);
+            sensorData.setSensorCode("TEMP-CRIT");
+            offer(sensorData);
+        }
+
+        // Then
+        assertThat(published).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("Should pass everything through when disabled")
+    void shouldPassThroughWhenDisabled() {
+        // Given
+        SensorCompressionFilter disabled = new SensorCompressionFilter(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(disabled, "enabled", false);
+        disabled.init();
+        UUID sensorId = UUID.randomUUID();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            disabled.offer(reading(sensorId, "temperature", i, 20.0), published::add);
+        }
+
+        // Then
+        assertThat(published).hasSize(3);
+        assertThat(disabled.getTrackedSensors()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should expose the compression ratio per algorithm")
+    void shouldExposeRatio() {
+        // Given
+        UUID sensorId = UUID.randomUUID();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            offer(reading(sensorId, "temperature", i, 20.0));
+        }
+
+        // Then
+        assertThat(published).hasSize(1);
+        assertThat(meterRegistry.get("mantis.ingestion.compression.ratio").tag("algorithm", "deadband")
+                .gauge().value()).isEqualTo(10.0);
+        assertThat(meterRegistry.find("mantis.ingestion.compression.readings").tagKeys("sensorType").meters())
+                .isEmpty();
+        assertThat(filter.getTrackedSensors()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed rules")
+    void shouldRejectInvalidRules() {
+        assertThatThrownBy(() -> filter.parseRules("temperature=deadband:0.5"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> filter.parseRules("type:temperature=lowpass:0.5"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> filter.parseRules("type:temperature=deadband:-1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void offer(SensorData sensorData) {
+        filter.offer(sensorData, published::add);
+    }
+
+    private SensorData reading(UUID sensorId, String sensorType, int second, double value) {
+        SensorData sensorData = TestDataFactory.createValidSensorData();
+        sensorData.setSensorId(sensorId);
+        sensorData.setSensorType(sensorType);
+        sensorData.setSensorCode(null);
+        sensorData.setTimestamp(START.plusSeconds(second));
+        sensorData.setValue(value);
+        return sensorData;
+    }
+}
@@ -0,0 +1,121 @@
+package com.mantis.ingestion.service;
+
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.dto.SensorDataRequest;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SensorDataRequestValidator.
+ */
+@DisplayName("SensorDataRequestValidator Tests")
+class SensorDataRequestValidatorTest {
+
+    private static final Validator BEAN_VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private SensorDataRequestValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new SensorDataRequestValidator();
+    }
+
+    @Test
+    @DisplayName("Should accept valid request without allocating violations")
+    void shouldAcceptValidRequest() {
+        // Given
+        SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
+
+        // When
+        List<SensorDataRequestValidator.Violation> violations = validator.validate(request);
+
+        // Then
+        assertThat(violations).isEmpty();
+        assertThat(violations).isSameAs(List.of());
+    }
+
+    @Test
+    @DisplayName("Should require quality, as SensorData.isValid() does")
+    void shouldRequireQuality() {
+        // Given
+        SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
+        request.setQuality(null);
+
+        // When & Then
+        assertThat(messages(request)).containsExactly("quality: Quality is required");
+        assertThat(request.toSensorData("http").isValid()).isFalse();
+    }
+
+    static Stream<Arguments> beanValidationCases() {
+        return Stream.of(
+                Arguments.of("valid", (Consumer<SensorDataRequest>) r -> {
+                }),
+                Arguments.of("null assetId", (Consumer<SensorDataRequest>) r -> r.setAssetId(null)),
+                Arguments.of("null sensorId", (Consumer<SensorDataRequest>) r -> r.setSensorId(null)),
+                Arguments.of("null sensorCode", (Consumer<SensorDataRequest>) r -> r.setSensorCode(null)),
+                Arguments.of("empty sensorCode", (Consumer<SensorDataRequest>) r -> r.setSensorCode("")),
+                Arguments.of("blank sensorCode", (Consumer<SensorDataRequest>) r -> r.setSensorCode("  ")),
+                Arguments.of("lowercase sensorCode", (Consumer<SensorDataRequest>) r -> r.setSensorCode("temp-001")),
+                Arguments.of("sensorCode with space", (Consumer<SensorDataRequest>) r -> r.setSensorCode("TEMP 001")),
+                Arguments.of("sensorCode with underscore", (Consumer<SensorDataRequest>) r -> r.setSensorCode("TEMP_001")),
+                Arguments.of("blank sensorType", (Consumer<SensorDataRequest>) r -> r.setSensorType(" \t")),
+                Arguments.of("null unit", (Consumer<SensorDataRequest>) r -> r.setUnit(null)),
+                Arguments.of("null value", (Consumer<SensorDataRequest>) r -> r.setValue(null)),
+                Arguments.of("max value", (Consumer<SensorDataRequest>) r -> r.setValue(999999.99)),
+                Arguments.of("min value", (Consumer<SensorDataRequest>) r -> r.setValue(-999999.99)),
+                Arguments.of("value too large", (Consumer<SensorDataRequest>) r -> r.setValue(1_000_000.0)),
+                Arguments.of("value too small", (Consumer<SensorDataRequest>) r -> r.setValue(-1_000_000.0)),
+                Arguments.of("NaN value", (Consumer<SensorDataRequest>) r -> r.setValue(Double.NaN)),
+                Arguments.of("positive infinity", (Consumer<SensorDataRequest>) r -> r.setValue(Double.POSITIVE_INFINITY)),
+                Arguments.of("negative infinity", (Consumer<SensorDataRequest>) r -> r.setValue(Double.NEGATIVE_INFINITY)),
+                Arguments.of("quality above range", (Consumer<SensorDataRequest>) r -> r.setQuality(101)),
+                Arguments.of("quality below range", (Consumer<SensorDataRequest>) r -> r.setQuality(-1)),
+                Arguments.of("all missing", (Consumer<SensorDataRequest>) r -> {
+                    r.setAssetId(null);
+                    r.setSensorId(null);
+                    r.setSensorCode(null);
+                    r.setSensorType(null);
+                    r.setValue(null);
+                    r.setUnit(null);
+                })
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("beanValidationCases")
+    @DisplayName("Should report the same violations as Bean Validation")
+    void shouldMatchBeanValidation(String name, Consumer<SensorDataRequest> mutation) {
+        // Given
+        SensorDataRequest request = TestDataFactory.createValidSensorDataRequest();
+        mutation.accept(request);
+
+        // When
+        List<String> expected = BEAN_VALIDATOR.validate(request).stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+
+        // Then
+        assertThat(messages(request)).isEqualTo(expected);
+    }
+
+    private List<String> messages(SensorDataRequest request) {
+        return validator.validate(request).stream()
+                .map(v -> v.getField() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
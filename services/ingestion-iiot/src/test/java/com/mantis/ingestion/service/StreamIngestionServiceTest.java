@@ -0,0 +1,250 @@
+package com.mantis.ingestion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mantis.ingestion.TestDataFactory;
+import com.mantis.ingestion.dto.StreamIngestionSummary;
+import com.mantis.ingestion.exception.PayloadTooLargeException;
+import com.mantis.ingestion.model.SensorData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StreamIngestionService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StreamIngestionService Tests")
+class StreamIngestionServiceTest {
+
+    @Mock
+    private KafkaProducerService kafkaProducerService;
+
+    @Mock
+    private AdmissionControlService admissionControlService;
+
+    private ObjectMapper objectMapper;
+    private StreamIngestionService streamIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        streamIngestionService = new StreamIngestionService(
+                kafkaProducerService,
+                objectMapper,
+                new SensorDataRequestValidator(),
+                admissionControlService,
+                new SimpleMeterRegistry());
+
+        lenient().when(admissionControlService.tryAcquire(any(), anyString(), anyInt())).thenReturn(true);
+
+        ReflectionTestUtils.setField(streamIngestionService, "maxInFlight", 2);
+        ReflectionTestUtils.setField(streamIngestionService, "drainTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(streamIngestionService, "maxReportedErrors", 10);
+    }
+
+    @Test
+    @DisplayName("Should ingest every record of an NDJSON stream")
+    void shouldIngestEveryRecord() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            ndjson.append(objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest())).append('\n');
+        }
+
+        // When
+        StreamIngestionSummary summary = streamIngestionService.ingest(stream(ndjson.toString()));
+
+        // Then
+        assertThat(summary.isCompleted()).isTrue();
+        assertThat(summary.getReceived()).isEqualTo(5);
+        assertThat(summary.getIngested()).isEqualTo(5);
+        assertThat(summary.getRejected()).isZero();
+        assertThat(summary.getErrors()).isEmpty();
+        verify(kafkaProducerService, times(5)).sendValidatedSensorData(any(SensorData.class));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid records and keep reading the stream")
+    void shouldRejectInvalidRecords() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        String valid = objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest());
+        String invalid = objectMapper.writeValueAsString(TestDataFactory.createInvalidSensorDataRequest());
+        String badUuid = valid.replaceFirst("\"assetId\":\"[^\"]+\"", "\"assetId\":\"not-a-uuid\"");
+
+        // When
+        StreamIngestionSummary summary = streamIngestionService.ingest(
+                stream(valid + "\n" + invalid + "\n" + badUuid + "\n" + valid + "\n"));
+
+        // Then
+        assertThat(summary.isCompleted()).isTrue();
+        assertThat(summary.getReceived()).isEqualTo(4);
+        assertThat(summary.getIngested()).isEqualTo(2);
+        assertThat(summary.getRejected()).isEqualTo(2);
+        assertThat(summary.getErrors())
+                .extracting(StreamIngestionSummary.RecordError::getIndex)
+                .containsExactly(1L, 2L);
+        assertThat(summary.getErrors().get(0).getMessage()).contains("assetId");
+    }
+
+    @Test
+    @DisplayName("Should reject records refused by admission control")
+    void shouldRejectRateLimitedRecords() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+        when(admissionControlService.tryAcquire(any(), anyString(), anyInt()))
+                .thenReturn(true)
+                .thenReturn(false);
+
+        String valid = objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest());
+
+        // When
+        StreamIngestionSummary summary = streamIngestionService.ingest(stream(valid + "\n" + valid + "\n"));
+
+        // Then
+        assertThat(summary.isCompleted()).isTrue();
+        assertThat(summary.getIngested()).isEqualTo(1);
+        assertThat(summary.getRejected()).isEqualTo(1);
+        assertThat(summary.getErrors().get(0).getMessage()).isEqualTo("Rate limited");
+        verify(kafkaProducerService, times(1)).sendValidatedSensorData(any(SensorData.class));
+    }
+
+    @Test
+    @DisplayName("Should count Kafka failures")
+    void shouldCountKafkaFailures() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")));
+
+        String valid = objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest());
+
+        // When
+        StreamIngestionSummary summary = streamIngestionService.ingest(stream(valid + "\n" + valid + "\n"));
+
+        // Then
+        assertThat(summary.getFailed()).isEqualTo(2);
+        assertThat(summary.getIngested()).isZero();
+        assertThat(summary.getErrors()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should bound in-flight sends")
+    void shouldBoundInFlightSends() throws Exception {
+        // Given: Kafka acknowledges only after the stream has been read
+        CompletableFuture<SendResult<String, SensorData>> pending = new CompletableFuture<>();
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class))).thenReturn(pending);
+
+        String valid = objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest());
+        ReflectionTestUtils.setField(streamIngestionService, "drainTimeoutMs", 100L);
+
+        // When: a third record needs a permit that is never released
+        Thread reader = new Thread(() -> {
+            try {
+                streamIngestionService.ingest(stream(valid + "\n" + valid + "\n" + valid + "\n"));
+            } catch (Exception ignored) {
+                // not expected
+            }
+        });
+        reader.start();
+        reader.join(300);
+
+        // Then
+        verify(kafkaProducerService, times(2)).sendValidatedSensorData(any(SensorData.class));
+        assertThat(reader.isAlive()).isTrue();
+
+        pending.complete(createMockSendResult());
+        reader.join(1000);
+        assertThat(reader.isAlive()).isFalse();
+        verify(kafkaProducerService, times(3)).sendValidatedSensorData(any(SensorData.class));
+    }
+
+    @Test
+    @DisplayName("Should stop on malformed JSON")
+    void shouldStopOnMalformedJson() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        String valid = objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest());
+
+        // When
+        StreamIngestionSummary summary = streamIngestionService.ingest(stream(valid + "\n{\"assetId\": \n"));
+
+        // Then
+        assertThat(summary.isCompleted()).isFalse();
+        assertThat(summary.getIngested()).isEqualTo(1);
+        assertThat(summary.getMessage()).startsWith("Malformed NDJSON stream");
+    }
+
+    @Test
+    @DisplayName("Should report a body that exceeds the decompressed size limit")
+    void shouldReportPayloadTooLarge() throws Exception {
+        // Given
+        when(kafkaProducerService.sendValidatedSensorData(any(SensorData.class)))
+                .thenReturn(CompletableFuture.completedFuture(createMockSendResult()));
+
+        String valid = objectMapper.writeValueAsString(TestDataFactory.createValidSensorDataRequest()) + "\n";
+        InputStream body = new SequenceInputStream(stream(valid), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new PayloadTooLargeException(1024);
+            }
+        });
+
+        // When
+        StreamIngestionSummary summary = streamIngestionService.ingest(body);
+
+        // Then
+        assertThat(summary.isCompleted()).isFalse();
+        assertThat(summary.isPayloadTooLarge()).isTrue();
+        assertThat(summary.getIngested()).isEqualTo(1);
+        assertThat(summary.getMessage()).startsWith("Payload too large");
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private SendResult<String, SensorData> createMockSendResult() {
+        ProducerRecord<String, SensorData> producerRecord = new ProducerRecord<>(
+                "sensor.raw.test", 0, "test-key", TestDataFactory.createValidSensorData());
+
+        RecordMetadata metadata = new RecordMetadata(
+                new TopicPartition("sensor.raw.test", 0),
+                0L, 0, 0L, 0, 0);
+        return new SendResult<>(producerRecord, metadata);
+    }
+}
@@ -5,6 +5,7 @@ import com.mantis.orchestrator.model.AnomalyEvent;
 import com.mantis.orchestrator.model.RULPrediction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
@@ -17,20 +18,22 @@ public class KafkaConsumerService {
     private final ObjectMapper objectMapper;
 
     @KafkaListener(topics = "${app.topic.anomaly-events}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeAnomaly(String message) {
+    public void consumeAnomaly(ConsumerRecord<String, String> record) {
+        String message = record.value();
         try {
             AnomalyEvent event = objectMapper.readValue(message, AnomalyEvent.class);
-            ruleEngineService.processAnomaly(event);
+            ruleEngineService.processAnomaly(event, record.headers());
         } catch (Exception e) {
             log.error("Error processing anomaly event: {}", message, e);
         }
     }
 
     @KafkaListener(topics = "${app.topic.rul-predictions}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeRUL(String message) {
+    public void consumeRUL(ConsumerRecord<String, String> record) {
+        String message = record.value();
         try {
             RULPrediction prediction = objectMapper.readValue(message, RULPrediction.class);
-            ruleEngineService.processRUL(prediction);
+            ruleEngineService.processRUL(prediction, record.headers());
         } catch (Exception e) {
             log.error("Error processing RUL prediction: {}", message, e);
         }
@@ -5,6 +5,8 @@ import com.mantis.orchestrator.model.AnomalyEvent;
 import com.mantis.orchestrator.model.RULPrediction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
@@ -17,11 +19,12 @@ import java.util.UUID;
 public class RuleEngineService {
 
     private final KafkaTemplate<String, Alert> kafkaTemplate;
+    private final PipelineLatency pipelineLatency;
 
     @Value("${app.topic.alerts}")
     private String alertsTopic;
 
-    public void processAnomaly(AnomalyEvent event) {
+    public void processAnomaly(AnomalyEvent event, Headers headers) {
         if (event.is_anomaly()) {
             Alert alert = Alert.builder()
                     .alertId(UUID.randomUUID().toString())
@@ -32,11 +35,11 @@ public class RuleEngineService {
                     .source("ANOMALY_DETECTION")
                     .build();
 
-            sendAlert(alert);
+            sendAlert(alert, headers);
         }
     }
 
-    public void processRUL(RULPrediction prediction) {
+    public void processRUL(RULPrediction prediction, Headers headers) {
         double rul = prediction.getPredicted_rul();
         String severity = null;
         String message = null;
@@ -59,12 +62,15 @@ public class RuleEngineService {
                     .source("RUL_PREDICTION")
                     .build();
 
-            sendAlert(alert);
+            sendAlert(alert, headers);
         }
     }
 
-    private void sendAlert(Alert alert) {
+    private void sendAlert(Alert alert, Headers headers) {
         log.info("Generating Alert: [{}] {} - {}", alert.getSeverity(), alert.getMachineId(), alert.getMessage());
-        kafkaTemplate.send(alertsTopic, alert);
+        ProducerRecord<String, Alert> record = new ProducerRecord<>(alertsTopic, alert);
+        PipelineLatency.copy(headers, record.headers());
+        pipelineLatency.stamp(record.headers(), PipelineLatency.ORCHESTRATOR_ALERT);
+        kafkaTemplate.send(record);
     }
 }
@@ -0,0 +1,99 @@
+package com.mantis.orchestrator.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for PipelineLatency.
+ */
+@DisplayName("PipelineLatency Tests")
+class PipelineLatencyTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PipelineLatency pipelineLatency;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipelineLatency = new PipelineLatency(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should record the latency from the source timestamp to the stage")
+    void shouldRecordLatencyFromSource() {
+        // When
+        pipelineLatency.record(PipelineLatency.ORCHESTRATOR_ALERT, 1_000L, 1_250L);
+        pipelineLatency.record(PipelineLatency.ORCHESTRATOR_ALERT, 2_000L, 1_900L);
+
+        // Then
+        Timer timer = timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(250.0);
+        assertThat(timer.max(TimeUnit.MILLISECONDS)).isEqualTo(250.0);
+    }
+
+    @Test
+    @DisplayName("Should stamp a stage and record its latency from the source header")
+    void shouldStampAndRecord() {
+        // Given
+        Headers headers = new RecordHeaders();
+        long source = System.currentTimeMillis() - 5_000L;
+        PipelineLatency.stamp(headers, PipelineLatency.SOURCE, source);
+
+        // When
+        pipelineLatency.stamp(headers, PipelineLatency.ORCHESTRATOR_ALERT);
+
+        // Then
+        assertThat(PipelineLatency.read(headers, PipelineLatency.ORCHESTRATOR_ALERT)).isGreaterThanOrEqualTo(source + 5_000L);
+        assertThat(timer().count()).isEqualTo(1);
+        assertThat(timer().max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(5_000.0);
+    }
+
+    @Test
+    @DisplayName("Should record nothing without a well-formed source header")
+    void shouldIgnoreMissingSource() {
+        // Given
+        Headers headers = new RecordHeaders();
+        headers.add(PipelineLatency.HEADER_PREFIX + PipelineLatency.SOURCE, new byte[] {1, 2});
+
+        // When
+        pipelineLatency.record(headers, PipelineLatency.ORCHESTRATOR_ALERT);
+
+        // Then
+        assertThat(PipelineLatency.read(headers, PipelineLatency.SOURCE)).isEqualTo(-1);
+        assertThat(PipelineLatency.read(null, PipelineLatency.SOURCE)).isEqualTo(-1);
+        assertThat(meterRegistry.find(PipelineLatency.METRIC).timers()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should copy only pipeline stamps, replacing those already present")
+    void shouldCopyStamps() {
+        // Given
+        Headers from = new RecordHeaders();
+        PipelineLatency.stamp(from, PipelineLatency.SOURCE, 1_000L);
+        from.add("traceparent", new byte[] {7});
+        Headers to = new RecordHeaders();
+        PipelineLatency.stamp(to, PipelineLatency.SOURCE, 42L);
+
+        // When
+        PipelineLatency.copy(from, to);
+
+        // Then
+        assertThat(PipelineLatency.read(to, PipelineLatency.SOURCE)).isEqualTo(1_000L);
+        assertThat(to.headers(PipelineLatency.HEADER_PREFIX + PipelineLatency.SOURCE)).hasSize(1);
+        assertThat(to.lastHeader("traceparent")).isNull();
+    }
+
+    private Timer timer() {
+        return meterRegistry.get(PipelineLatency.METRIC).tag("stage", PipelineLatency.ORCHESTRATOR_ALERT).timer();
+    }
+}
@@ -6,6 +6,8 @@ import com.mantis.preprocessing.model.RULPrediction;
 import com.mantis.preprocessing.model.SensorData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -22,12 +24,15 @@ public class KafkaConsumerService {
     private final KafkaTemplate<String, ProcessedData> kafkaTemplate;
     private final ObjectMapper objectMapper;
     private final InfluxDBService influxDBService;
+    private final PipelineLatency pipelineLatency;
 
     @Value("${app.topic.output}")
     private String outputTopic;
 
     @KafkaListener(topics = "${app.topic.input}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consume(String message) {
+    public void consume(ConsumerRecord<String, String> record) {
+        String message = record.value();
+        pipelineLatency.record(record.headers(), PipelineLatency.PREPROCESSING_CONSUME);
         try {
             SensorData data = objectMapper.readValue(message, SensorData.class);
             log.debug("Received data for machine {}", data.getMachine_id());
@@ -38,7 +43,10 @@ public class KafkaConsumerService {
             Optional<ProcessedData> result = processingService.process(data);
 
             result.ifPresent(processedData -> {
-                kafkaTemplate.send(outputTopic, processedData);
+                ProducerRecord<String, ProcessedData> output = new ProducerRecord<>(outputTopic, processedData);
+                PipelineLatency.copy(record.headers(), output.headers());
+                pipelineLatency.stamp(output.headers(), PipelineLatency.PREPROCESSING_EMIT);
+                kafkaTemplate.send(output);
                 log.info("Processed and sent data for machine {}, cycle {}",
                         processedData.getMachine_id(), processedData.getCycle());
             });
@@ -48,6 +56,12 @@ public class KafkaConsumerService {
         }
     }
 
+    // Separate container so critical readings never queue behind bulk telemetry
+    @KafkaListener(topics = "${app.topic.input-critical}", groupId = "${spring.kafka.consumer.group-id}")
+    public void consumeCritical(ConsumerRecord<String, String> record) {
+        consume(record);
+    }
+
     @KafkaListener(topics = "${app.topic.rul-predictions}", groupId = "${spring.kafka.consumer.group-id}")
     public void consumeRUL(String message) {
         try {
@@ -0,0 +1,120 @@
+package com.mantis.preprocessing.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end pipeline latency carried in Kafka headers: each stage stamps a
+ * {@code mantis-ts-<stage>} header (epoch millis, 8 bytes big-endian), and
+ * {@code mantis-ts-source} holds the reading timestamp set by ingestion.
+ *
+ * Preprocessing records {@code preprocessing-consume} when a raw reading
+ * arrives, then copies the incoming stamps onto the processed record and adds
+ * {@code preprocessing-emit}.
+ * Latencies from the source timestamp go to the
+ * {@code mantis.pipeline.latency} timer, tagged by stage.
+ */
+@Component
+public class PipelineLatency {
+
+    public static final String HEADER_PREFIX = "mantis-ts-";
+
+    public static final String SOURCE = "source";
+    public static final String PREPROCESSING_CONSUME = "preprocessing-consume";
+    public static final String PREPROCESSING_EMIT = "preprocessing-emit";
+
+    static final String METRIC = "mantis.pipeline.latency";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public PipelineLatency(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records the latency from the source timestamp to a stage. A negative
+     * latency (gateway clock ahead) counts as 0.
+     */
+    public void record(String stage, long sourceMillis, long stageMillis) {
+        timer(stage).record(Math.max(0, stageMillis - sourceMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the latency of a stage reached now by a record carrying these
+     * headers. Does nothing without a source stamp.
+     */
+    public void record(Headers headers, String stage) {
+        long source = read(headers, SOURCE);
+        if (source >= 0) {
+            record(stage, source, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Stamps a stage reached now on outgoing headers and records its latency.
+     */
+    public void stamp(Headers headers, String stage) {
+        long now = System.currentTimeMillis();
+        stamp(headers, stage, now);
+        long source = read(headers, SOURCE);
+        if (source >= 0) {
+            record(stage, source, now);
+        }
+    }
+
+    /**
+     * Adds (or replaces) the stamp of a stage.
+     */
+    public static void stamp(Headers headers, String stage, long epochMillis) {
+        String key = HEADER_PREFIX + stage;
+        headers.remove(key);
+        headers.add(new RecordHeader(key, ByteBuffer.allocate(Long.BYTES).putLong(epochMillis).array()));
+    }
+
+    /**
+     * Copies the stamps of an incoming record onto an outgoing one.
+     */
+    public static void copy(Headers from, Headers to) {
+        for (Header header : from) {
+            if (header.key().startsWith(HEADER_PREFIX)) {
+                to.remove(header.key());
+                to.add(header);
+            }
+        }
+    }
+
+    /**
+     * Reads the stamp of a stage.
+     *
+     * @return epoch millis, or -1 if the header is missing or malformed
+     */
+    public static long read(Headers headers, String stage) {
+        if (headers == null) {
+            return -1;
+        }
+        Header header = headers.lastHeader(HEADER_PREFIX + stage);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    private Timer timer(String stage) {
+        Timer timer = timers.get(stage);
+        return timer != null ? timer : timers.computeIfAbsent(stage, s -> Timer.builder(METRIC)
+                .description("Latency from the source timestamp to a pipeline stage")
+                .tag("stage", s)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+    }
+}
@@ -1,7 +1,7 @@
 import logging
 from prometheus_client import start_http_server, Counter, Histogram, Gauge
 from consumer import Consumer
-from producer import Producer
+from producer import Producer, pipeline_headers
 from predictor import Predictor
 
 # Configure logging
@@ -40,7 +40,7 @@ def main():
                 prediction = predictor.predict(data)
 
                 if prediction:
-                    producer.send(prediction)
+                    producer.send(prediction, headers=pipeline_headers(message))
                     PREDICTIONS_MADE.inc()
                     PREDICTED_RUL.labels(machine_id=data.get("machine_id", "unknown")).set(prediction["predicted_rul"])
                     logger.info(